@@ -2926,4 +2926,11 @@ public interface AuditLogger {
    @LogMessage(id = 601806, value = "User {} is stopping a lock coordinator on target resource: {} {}", level = LogMessage.Level.INFO)
    void stopLockCoordinator(String user, Object source, String args);
 
+   static void getDepageLag(Object source) {
+      BASE_LOGGER.getDepageLag(getCaller(), source);
+   }
+
+   @LogMessage(id = 601807, value = "User {} is getting depage lag on target resource: {}", level = LogMessage.Level.INFO)
+   void getDepageLag(String user, Object source);
+
 }
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non negative values, such as sizes or durations, with buckets bounded by powers of two.
+ * <p>
+ * Bucket {@code i} counts the values up to {@code 2^(shift + i)}, the last bucket counting any bigger value.
+ */
+public final class PowerOf2Histogram {
+
+   private final int shift;
+
+   private final AtomicLongArray buckets;
+
+   private final AtomicLong sum = new AtomicLong();
+
+   /**
+    * @param shift   the power of two bounding the first bucket
+    * @param buckets the number of bounded buckets, excluding the one for bigger values
+    */
+   public PowerOf2Histogram(int shift, int buckets) {
+      if (shift < 0 || buckets <= 0 || shift + buckets > 62) {
+         throw new IllegalArgumentException("invalid buckets: shift=" + shift + ", buckets=" + buckets);
+      }
+      this.shift = shift;
+      this.buckets = new AtomicLongArray(buckets + 1);
+   }
+
+   public void record(long value) {
+      final long v = Math.max(value, 0);
+      // the bucket of v is the power of two of its upper bound, rounded up
+      final int bits = v <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(v - 1);
+      final int bucket = Math.min(Math.max(bits - shift, 0), buckets.length() - 1);
+      buckets.incrementAndGet(bucket);
+      sum.addAndGet(v);
+   }
+
+   /**
+    * {@return the number of buckets, including the one for the values bigger than every bound}
+    */
+   public int getBuckets() {
+      return buckets.length();
+   }
+
+   /**
+    * {@return the upper bound of the bucket, {@link Long#MAX_VALUE} for the last one}
+    */
+   public long getUpperBound(int bucket) {
+      return bucket == buckets.length() - 1 ? Long.MAX_VALUE : 1L << (shift + bucket);
+   }
+
+   /**
+    * {@return the number of values up to the upper bound of the bucket}
+    */
+   public long getCumulativeCount(int bucket) {
+      long count = 0;
+      for (int i = 0; i <= bucket; i++) {
+         count += buckets.get(i);
+      }
+      return count;
+   }
+
+   public long getCount() {
+      return getCumulativeCount(buckets.length() - 1);
+   }
+
+   public long getSum() {
+      return sum.get();
+   }
+}
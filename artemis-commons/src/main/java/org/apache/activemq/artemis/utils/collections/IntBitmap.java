@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.utils.collections;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A compact set of {@code int} values, laid out like a <a href="https://roaringbitmap.org/">Roaring Bitmap</a>.
+ * <p>
+ * Values are split into chunks of 65536 sharing their high 16 bits. A chunk holding up to {@link #ARRAY_MAX_SIZE}
+ * values keeps their low 16 bits in a sorted {@code char[]}, and a denser one is turned into a bitmap of 8 KiB. A few
+ * values cost 2 bytes each and a chunk of consecutive values costs 1 bit per value, whatever order they were added
+ * in.
+ * <p>
+ * This class is not thread safe.
+ */
+public final class IntBitmap {
+
+   /**
+    * The number of values a chunk holds as a sorted array before it is turned into a bitmap, when both take the same
+    * memory.
+    */
+   static final int ARRAY_MAX_SIZE = 4096;
+
+   private static final int BITMAP_WORDS = (1 << 16) / Long.SIZE;
+
+   private static final char[] NO_KEYS = new char[0];
+
+   private static final Chunk[] NO_CHUNKS = new Chunk[0];
+
+   // the high 16 bits of the values of each chunk, sorted
+   private char[] keys = NO_KEYS;
+
+   private Chunk[] chunks = NO_CHUNKS;
+
+   private int chunkCount;
+
+   private int size;
+
+   /**
+    * {@return {@code true} if the value was not in the set already}
+    */
+   public boolean add(final int value) {
+      final char key = (char) (value >>> 16);
+      int index = chunkIndex(key);
+      if (index < 0) {
+         index = -index - 1;
+         insertChunk(index, key);
+      }
+      if (chunks[index].add((char) value)) {
+         size++;
+         return true;
+      }
+      return false;
+   }
+
+   public boolean contains(final int value) {
+      final int index = chunkIndex((char) (value >>> 16));
+      return index >= 0 && chunks[index].contains((char) value);
+   }
+
+   public int size() {
+      return size;
+   }
+
+   public boolean isEmpty() {
+      return size == 0;
+   }
+
+   public void clear() {
+      keys = NO_KEYS;
+      chunks = NO_CHUNKS;
+      chunkCount = 0;
+      size = 0;
+   }
+
+   /**
+    * Passes every value of the set to {@code consumer}, in unsigned order.
+    */
+   public void forEach(final IntConsumer consumer) {
+      for (int i = 0; i < chunkCount; i++) {
+         chunks[i].forEach(keys[i] << 16, consumer);
+      }
+   }
+
+   /**
+    * {@return an estimate of the heap used by the set, in bytes}
+    */
+   public long estimateMemory() {
+      long memory = 16 + 4L * Integer.BYTES + 16 + 2L * keys.length + 16 + 4L * chunks.length;
+      for (int i = 0; i < chunkCount; i++) {
+         memory += chunks[i].estimateMemory();
+      }
+      return memory;
+   }
+
+   private int chunkIndex(final char key) {
+      // values are mostly added to the last chunk
+      if (chunkCount > 0 && keys[chunkCount - 1] == key) {
+         return chunkCount - 1;
+      }
+      return Arrays.binarySearch(keys, 0, chunkCount, key);
+   }
+
+   private void insertChunk(final int index, final char key) {
+      if (chunkCount == keys.length) {
+         final int capacity = Math.max(4, chunkCount * 2);
+         keys = Arrays.copyOf(keys, capacity);
+         chunks = Arrays.copyOf(chunks, capacity);
+      }
+      System.arraycopy(keys, index, keys, index + 1, chunkCount - index);
+      System.arraycopy(chunks, index, chunks, index + 1, chunkCount - index);
+      keys[index] = key;
+      chunks[index] = new Chunk();
+      chunkCount++;
+   }
+
+   @Override
+   public String toString() {
+      return "IntBitmap[size=" + size + ", chunks=" + chunkCount + "]";
+   }
+
+   private static final class Chunk {
+
+      // the sorted low bits of the values while the chunk is small, null once it is a bitmap
+      private char[] values = new char[4];
+
+      private long[] bitmap;
+
+      private int count;
+
+      boolean add(final char low) {
+         if (bitmap != null) {
+            final long word = bitmap[low >>> 6];
+            final long bit = 1L << low;
+            if ((word & bit) != 0) {
+               return false;
+            }
+            bitmap[low >>> 6] = word | bit;
+            count++;
+            return true;
+         }
+         int index;
+         // values are mostly added in order
+         if (count == 0 || values[count - 1] < low) {
+            index = count;
+         } else {
+            index = Arrays.binarySearch(values, 0, count, low);
+            if (index >= 0) {
+               return false;
+            }
+            index = -index - 1;
+         }
+         if (count == ARRAY_MAX_SIZE) {
+            toBitmap();
+            return add(low);
+         }
+         if (count == values.length) {
+            values = Arrays.copyOf(values, Math.min(ARRAY_MAX_SIZE, count * 2));
+         }
+         System.arraycopy(values, index, values, index + 1, count - index);
+         values[index] = low;
+         count++;
+         return true;
+      }
+
+      boolean contains(final char low) {
+         if (bitmap != null) {
+            return (bitmap[low >>> 6] & (1L << low)) != 0;
+         }
+         return Arrays.binarySearch(values, 0, count, low) >= 0;
+      }
+
+      void forEach(final int high, final IntConsumer consumer) {
+         if (bitmap != null) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+               long word = bitmap[i];
+               while (word != 0) {
+                  consumer.accept(high | (i << 6) + Long.numberOfTrailingZeros(word));
+                  word &= word - 1;
+               }
+            }
+         } else {
+            for (int i = 0; i < count; i++) {
+               consumer.accept(high | values[i]);
+            }
+         }
+      }
+
+      long estimateMemory() {
+         return 16 + 3L * Integer.BYTES + 16 + (bitmap != null ? 8L * bitmap.length : 2L * values.length);
+      }
+
+      private void toBitmap() {
+         bitmap = new long[BITMAP_WORDS];
+         for (int i = 0; i < count; i++) {
+            final char low = values[i];
+            bitmap[low >>> 6] |= 1L << low;
+         }
+         values = null;
+      }
+   }
+}
@@ -151,6 +151,25 @@ public class LinkedListImpl<E> implements LinkedList<E> {
       return node.val();
    }
 
+   /**
+    * Removes an element that is its own {@link Node} in constant time. The caller must make sure {@code e} was added
+    * to this list and not to a different one.
+    *
+    * @return {@code false} if {@code e} is not an intrusive node currently linked to a list
+    */
+   @SuppressWarnings("unchecked")
+   public synchronized boolean removeNode(E e) {
+      if (!(e instanceof Node)) {
+         return false;
+      }
+      Node<E> node = (Node<E>) e;
+      if (node.prev == null || node.val() != e) {
+         return false;
+      }
+      removeAfter(node.prev);
+      return true;
+   }
+
 
    @Override
    public void forEach(Consumer<E> consumer) {
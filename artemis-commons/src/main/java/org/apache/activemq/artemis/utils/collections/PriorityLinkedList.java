@@ -48,6 +48,14 @@ public interface PriorityLinkedList<E> {
 
    E removeWithID(String listID, long id);
 
+   /**
+    * Removes an element that is its own {@link LinkedListImpl.Node} without iterating the list.
+    *
+    * @param priority the priority {@code e} was added with
+    * @return {@code false} if {@code e} wasn't on the list as an intrusive node
+    */
+   boolean remove(E e, int priority);
+
    /**
     * {@return the size of this list; safe to be called concurrently}
     */
@@ -132,6 +132,23 @@ public class PriorityLinkedListImpl<E> implements PriorityLinkedList<E> {
       return null;
    }
 
+   @Override
+   public boolean remove(E e, int priority) {
+      LinkedListImpl<E> ll = levels[priority];
+
+      if (!ll.removeNode(e)) {
+         return false;
+      }
+
+      removed(priority, e);
+
+      if (ll.size() == 0 && highestPriority == priority) {
+         highestPriority--;
+      }
+
+      return true;
+   }
+
    @Override
    public E peek() {
       for (LinkedListImpl<E> level : levels) {
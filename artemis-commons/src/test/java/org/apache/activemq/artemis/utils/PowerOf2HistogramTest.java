@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class PowerOf2HistogramTest {
+
+   @Test
+   public void testBuckets() {
+      final PowerOf2Histogram histogram = new PowerOf2Histogram(9, 2);
+      assertEquals(3, histogram.getBuckets());
+      assertEquals(512, histogram.getUpperBound(0));
+      assertEquals(1024, histogram.getUpperBound(1));
+      assertEquals(Long.MAX_VALUE, histogram.getUpperBound(2));
+
+      histogram.record(1);
+      histogram.record(512);
+      histogram.record(513);
+      histogram.record(1024);
+      histogram.record(4096);
+
+      assertEquals(2, histogram.getCumulativeCount(0));
+      assertEquals(4, histogram.getCumulativeCount(1));
+      assertEquals(5, histogram.getCumulativeCount(2));
+      assertEquals(5, histogram.getCount());
+      assertEquals(1 + 512 + 513 + 1024 + 4096, histogram.getSum());
+   }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.utils.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+public class IntBitmapTest {
+
+   private final IntBitmap bitmap = new IntBitmap();
+
+   @Test
+   public void testAddAndContains() {
+      assertTrue(bitmap.isEmpty());
+      assertTrue(bitmap.add(5));
+      assertTrue(bitmap.add(70000));
+      assertTrue(bitmap.add(-1));
+      assertFalse(bitmap.add(5));
+
+      assertEquals(3, bitmap.size());
+      assertTrue(bitmap.contains(5));
+      assertTrue(bitmap.contains(70000));
+      assertTrue(bitmap.contains(-1));
+      assertFalse(bitmap.contains(6));
+      assertFalse(bitmap.contains(5 + (1 << 16)));
+   }
+
+   @Test
+   public void testDenseChunkTurnsIntoBitmap() {
+      // added backwards so the values are never appended to the sorted array
+      for (int i = IntBitmap.ARRAY_MAX_SIZE * 2; i > 0; i--) {
+         assertTrue(bitmap.add(i * 3));
+      }
+      final long denseMemory = bitmap.estimateMemory();
+      assertFalse(bitmap.add(3));
+
+      assertEquals(IntBitmap.ARRAY_MAX_SIZE * 2, bitmap.size());
+      for (int i = 0; i <= IntBitmap.ARRAY_MAX_SIZE * 6; i++) {
+         assertEquals(i > 0 && i % 3 == 0, bitmap.contains(i), "value " + i);
+      }
+      // a bitmap of 8 KiB for 65536 values
+      assertTrue(denseMemory < 9 * 1024, "memory " + denseMemory);
+   }
+
+   @Test
+   public void testForEachInUnsignedOrder() {
+      final Random random = new Random(3);
+      final TreeSet<Integer> expected = new TreeSet<>(Integer::compareUnsigned);
+      for (int i = 0; i < 20000; i++) {
+         final int value = i % 2 == 0 ? random.nextInt(100000) : random.nextInt();
+         assertEquals(expected.add(value), bitmap.add(value));
+      }
+      assertEquals(expected.size(), bitmap.size());
+
+      final List<Integer> values = new ArrayList<>();
+      bitmap.forEach(values::add);
+      assertEquals(new ArrayList<>(expected), values);
+   }
+
+   @Test
+   public void testClear() {
+      for (int i = 0; i < 10000; i++) {
+         bitmap.add(i);
+      }
+      bitmap.clear();
+      assertTrue(bitmap.isEmpty());
+      assertFalse(bitmap.contains(1));
+      assertTrue(bitmap.add(1));
+      assertEquals(1, bitmap.size());
+   }
+}
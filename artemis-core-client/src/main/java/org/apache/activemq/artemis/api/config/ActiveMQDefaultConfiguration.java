@@ -244,6 +244,9 @@ public final class ActiveMQDefaultConfiguration {
    // true means that ID's are persisted to the journal
    private static boolean DEFAULT_PERSIST_ID_CACHE = true;
 
+   // true means that the duplicate ID caches are kept off-heap and persisted in segments
+   private static boolean DEFAULT_ID_CACHE_OFF_HEAP = false;
+
    // True means that the delivery count is persisted before delivery. False means that this only happens after a message has been cancelled.
    private static boolean DEFAULT_PERSIST_DELIVERY_COUNT_BEFORE_DELIVERY = false;
 
@@ -265,6 +268,12 @@ public final class ActiveMQDefaultConfiguration {
    // If true the whole page would be read, otherwise just seek and read while getting message
    private static boolean DEFAULT_READ_WHOLE_PAGE = false;
 
+   // If true the page files are memory mapped
+   private static boolean DEFAULT_PAGE_MEMORY_MAPPED = false;
+
+   // The max number of paging stores depaging at the same time, -1 means depages are not scheduled
+   private static int DEFAULT_PAGE_MAX_CONCURRENT_DEPAGE = -1;
+
    // the directory to store the journal files in
    private static String DEFAULT_JOURNAL_DIR = "data/journal";
 
@@ -297,9 +306,24 @@ public final class ActiveMQDefaultConfiguration {
    // The time to wait when opening a new journal file before failing
    private static int DEFAULT_JOURNAL_FILE_OPEN_TIMEOUT = 5;
 
+   // The number of threads loading the message journal on start
+   private static int DEFAULT_JOURNAL_LOAD_THREADS = 1;
+
+   // The size of the journal files read ahead of the records being loaded when loading with several threads
+   private static long DEFAULT_JOURNAL_LOAD_READ_AHEAD_SIZE = 64 * 1024 * 1024;
+
+   // Whether the live records of the message journal are indexed in direct memory
+   private static boolean DEFAULT_JOURNAL_OFF_HEAP_RECORD_INDEX = false;
+
    // The minimal number of data files before we can start compacting
    private static int DEFAULT_JOURNAL_COMPACT_MIN_FILES = 10;
 
+   // The maximal number of data files compacted at once, -1 means all of them
+   private static int DEFAULT_JOURNAL_COMPACT_MAX_FILES = -1;
+
+   // The maximal nanoseconds a journal record should wait for its sync, -1 means the journal buffer flushes on its timeout
+   private static int DEFAULT_JOURNAL_BUFFER_MAX_LATENCY = -1;
+
    // The maximal number of data files before we can start deleting corrupted files instead of moving them to attic.
    private static int DEFAULT_JOURNAL_MAX_ATTIC_FILES = 10;
 
@@ -514,6 +538,8 @@ public final class ActiveMQDefaultConfiguration {
 
    public static final long DEFAULT_GLOBAL_MAX_MESSAGES = -1;
 
+   public static final long DEFAULT_GLOBAL_PAGE_CACHE_MAX_SIZE = -1;
+
    public static final int INITIAL_QUEUE_BUFFER_SIZE = 8192;
 
    public static final int DEFAULT_MAX_DISK_USAGE;
@@ -701,9 +727,15 @@ public final class ActiveMQDefaultConfiguration {
    // Whether or not to report security cache metrics
    private static final boolean DEFAULT_SECURITY_CACHE_METRICS = false;
 
+   // How many bytes (in encoded size) the MQTT retained messages can use in memory, -1 meaning unbounded
+   private static long DEFAULT_MQTT_RETAINED_MESSAGES_MAX_SIZE = -1;
+
    // How often (in ms) to scan for expired MQTT sessions
    private static long DEFAULT_MQTT_SESSION_SCAN_INTERVAL = 5000;
 
+   // How long (in ms) the decoded state of a disconnected MQTT session stays in memory before it is only kept as its message
+   private static long DEFAULT_MQTT_SESSION_STATE_EVICTION_DELAY = 300000;
+
    // How long (in ms) to wait to persist MQTT session state
    private static long DEFAULT_MQTT_SESSION_STATE_PERSISTENCE_TIMEOUT = 5000;
 
@@ -1033,6 +1065,13 @@ public final class ActiveMQDefaultConfiguration {
       return DEFAULT_PERSIST_ID_CACHE;
    }
 
+   /**
+    * {@code true} means that the duplicate ID caches are kept off-heap and persisted in segments
+    */
+   public static boolean isDefaultIdCacheOffHeap() {
+      return DEFAULT_ID_CACHE_OFF_HEAP;
+   }
+
    /**
     * {@code true} means that the delivery count is persisted before delivery. False means that this only happens after
     * a message has been cancelled.
@@ -1074,6 +1113,20 @@ public final class ActiveMQDefaultConfiguration {
       return DEFAULT_READ_WHOLE_PAGE;
    }
 
+   /**
+    * If true the page files are memory mapped
+    */
+   public static boolean isDefaultPageMemoryMapped() {
+      return DEFAULT_PAGE_MEMORY_MAPPED;
+   }
+
+   /**
+    * The max number of paging stores depaging at the same time, -1 means depages are not scheduled
+    */
+   public static int getDefaultPageMaxConcurrentDepage() {
+      return DEFAULT_PAGE_MAX_CONCURRENT_DEPAGE;
+   }
+
    /**
     * the directory to store the journal files in
     */
@@ -1152,6 +1205,27 @@ public final class ActiveMQDefaultConfiguration {
       return DEFAULT_JOURNAL_FILE_OPEN_TIMEOUT;
    }
 
+   /**
+    * The number of threads loading the message journal on start
+    */
+   public static int getDefaultJournalLoadThreads() {
+      return DEFAULT_JOURNAL_LOAD_THREADS;
+   }
+
+   /**
+    * The size of the journal files read ahead of the records being loaded when loading with several threads
+    */
+   public static long getDefaultJournalLoadReadAheadSize() {
+      return DEFAULT_JOURNAL_LOAD_READ_AHEAD_SIZE;
+   }
+
+   /**
+    * Whether the live records of the message journal are indexed in direct memory
+    */
+   public static boolean isDefaultJournalOffHeapRecordIndex() {
+      return DEFAULT_JOURNAL_OFF_HEAP_RECORD_INDEX;
+   }
+
    /**
     * The minimal number of data files before we can start compacting
     */
@@ -1159,6 +1233,21 @@ public final class ActiveMQDefaultConfiguration {
       return DEFAULT_JOURNAL_COMPACT_MIN_FILES;
    }
 
+   /**
+    * The maximal number of data files compacted at once, -1 means all of them
+    */
+   public static int getDefaultJournalCompactMaxFiles() {
+      return DEFAULT_JOURNAL_COMPACT_MAX_FILES;
+   }
+
+   /**
+    * The maximal nanoseconds a journal record should wait for its sync, -1 means the journal buffer flushes on its
+    * timeout
+    */
+   public static int getDefaultJournalBufferMaxLatency() {
+      return DEFAULT_JOURNAL_BUFFER_MAX_LATENCY;
+   }
+
    /**
     * how many journal files to be stored in the attic.
     */
@@ -1646,6 +1735,14 @@ public final class ActiveMQDefaultConfiguration {
       return DEFAULT_GLOBAL_MAX_MESSAGES;
    }
 
+   /**
+    * the number of bytes the pages loaded by every paging store can use before the least recently used are unloaded,
+    * -1 means no limit
+    */
+   public static long getDefaultGlobalPageCacheMaxSize() {
+      return DEFAULT_GLOBAL_PAGE_CACHE_MAX_SIZE;
+   }
+
    public static int getDefaultMaxDiskUsage() {
       return DEFAULT_MAX_DISK_USAGE;
    }
@@ -1997,6 +2094,13 @@ public final class ActiveMQDefaultConfiguration {
       return DEFAULT_SECURITY_CACHE_METRICS;
    }
 
+   /**
+    * How many bytes (in encoded size) the MQTT retained messages can use in memory, -1 meaning unbounded
+    */
+   public static long getMqttRetainedMessagesMaxSize() {
+      return DEFAULT_MQTT_RETAINED_MESSAGES_MAX_SIZE;
+   }
+
    /**
     * How often (in ms) to scan for expired MQTT sessions
     */
@@ -2004,6 +2108,14 @@ public final class ActiveMQDefaultConfiguration {
       return DEFAULT_MQTT_SESSION_SCAN_INTERVAL;
    }
 
+   /**
+    * How long (in ms) the decoded state of a disconnected MQTT session stays in memory before it is only kept as its
+    * message
+    */
+   public static long getMqttSessionStateEvictionDelay() {
+      return DEFAULT_MQTT_SESSION_STATE_EVICTION_DELAY;
+   }
+
    /**
     * How long (in ms) to wait to persist MQTT session state
     */
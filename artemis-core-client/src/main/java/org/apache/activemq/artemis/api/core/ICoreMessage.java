@@ -126,4 +126,41 @@ public interface ICoreMessage extends Message {
    default void setConfirmed(boolean confirmed) {
    }
 
+   /**
+    * {@return the conversion of this message into another protocol kept by {@link #keepProtocolConversion(Message)},
+    * or {@code null} if there is none or the message was changed since}
+    */
+   default Message getProtocolConversion() {
+      return null;
+   }
+
+   /**
+    * Keeps the conversion of this message into another protocol, to be shared by its deliveries. The memory of the
+    * first conversion kept is added to {@link #getMemoryEstimate()}.
+    *
+    * @return the number of bytes added to the memory estimate of this message
+    */
+   default int keepProtocolConversion(Message conversion) {
+      return 0;
+   }
+
+   /**
+    * {@return the encoding of this message for the deliveries of another protocol kept by
+    * {@link #keepProtocolEncoding(Object, int)}, or {@code null} if there is none or the message was changed since}
+    */
+   default Object getProtocolEncoding() {
+      return null;
+   }
+
+   /**
+    * Keeps the encoding of this message for the deliveries of another protocol, to be shared by them. The memory of
+    * the first encoding kept is added to {@link #getMemoryEstimate()}.
+    *
+    * @param memoryEstimate the memory used by {@code encoding}, in bytes
+    * @return the number of bytes added to the memory estimate of this message
+    */
+   default int keepProtocolEncoding(Object encoding, int memoryEstimate) {
+      return 0;
+   }
+
 }
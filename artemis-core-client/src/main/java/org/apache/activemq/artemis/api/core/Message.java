@@ -882,6 +882,21 @@ public interface Message {
     */
    ICoreMessage toCore(CoreMessageObjectPools coreMessageObjectPools);
 
+   /**
+    * Converts the message into Core format to deliver it to a consumer. Unlike {@link #toCore()} the conversion may be
+    * shared by the deliveries of the message from every queue it was routed to, so it must not be changed.
+    */
+   default ICoreMessage toCoreForDelivery() {
+      return toCore();
+   }
+
+   /**
+    * @see #toCoreForDelivery()
+    */
+   default ICoreMessage toCoreForDelivery(CoreMessageObjectPools coreMessageObjectPools) {
+      return toCore(coreMessageObjectPools);
+   }
+
    int getMemoryEstimate();
 
    /**
@@ -28,6 +28,7 @@ public interface AddressControl {
    String ADDRESS_SIZE_DESCRIPTION = "the number of estimated bytes being used by all the queue(s) bound to this address; used to control paging and blocking";
    String NUMBER_OF_PAGES_DESCRIPTION = "number of pages used by this address";
    String LIMIT_PERCENT_DESCRIPTION = "the % of memory limit (global or local) that is in use by this address";
+   String DEPAGE_LAG_DESCRIPTION = "how long, in milliseconds, the oldest depage of this address has been waiting to run";
 
    /**
     * {@return the internal ID of this address}
@@ -144,6 +145,12 @@ public interface AddressControl {
    @Attribute(desc = LIMIT_PERCENT_DESCRIPTION)
    int getAddressLimitPercent();
 
+   /**
+    * {@return how long, in milliseconds, the oldest depage of this address has been waiting to run}
+    */
+   @Attribute(desc = DEPAGE_LAG_DESCRIPTION)
+   long getDepageLag();
+
    /**
     * Blocks message production to this address by limiting credit
     *
@@ -16,6 +16,7 @@
  */
 package org.apache.activemq.artemis.core.message;
 
+import java.io.File;
 import java.nio.ByteBuffer;
 
 import org.apache.activemq.artemis.api.core.ActiveMQException;
@@ -63,4 +64,13 @@ public interface LargeBodyReader extends AutoCloseable {
     * This method must not be called directly by Apache Artemis clients.
     */
    long getSize() throws ActiveMQException;
+
+   /**
+    * This method must not be called directly by Apache Artemis clients.
+    *
+    * @return the file holding the body as it is read, or {@code null} if the body isn't held by a file
+    */
+   default File getFile() {
+      return null;
+   }
 }
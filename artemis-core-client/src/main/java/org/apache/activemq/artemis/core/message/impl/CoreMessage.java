@@ -69,6 +69,16 @@ public class CoreMessage extends RefCountMessage implements ICoreMessage {
 
    protected volatile int memoryEstimate = -1;
 
+   // the conversion into another protocol shared by the deliveries of the message
+   private volatile Message protocolConversion;
+
+   private boolean protocolConversionAccounted;
+
+   // the encoding for another protocol shared by the deliveries of the message
+   private volatile Object protocolEncoding;
+
+   private boolean protocolEncodingAccounted;
+
    private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
    // There's an integer with the number of bytes for the body
@@ -463,6 +473,45 @@ public class CoreMessage extends RefCountMessage implements ICoreMessage {
       if (validBuffer) {
          validBuffer = false;
       }
+      if (protocolConversion != null) {
+         protocolConversion = null;
+      }
+      if (protocolEncoding != null) {
+         protocolEncoding = null;
+      }
+   }
+
+   @Override
+   public Message getProtocolConversion() {
+      return protocolConversion;
+   }
+
+   @Override
+   public synchronized int keepProtocolConversion(Message conversion) {
+      protocolConversion = conversion;
+      if (protocolConversionAccounted) {
+         return 0;
+      }
+      protocolConversionAccounted = true;
+      final int addition = conversion.getMemoryEstimate();
+      memoryEstimate = getMemoryEstimate() + addition;
+      return addition;
+   }
+
+   @Override
+   public Object getProtocolEncoding() {
+      return protocolEncoding;
+   }
+
+   @Override
+   public synchronized int keepProtocolEncoding(Object encoding, int memoryEstimate) {
+      protocolEncoding = encoding;
+      if (protocolEncodingAccounted) {
+         return 0;
+      }
+      protocolEncodingAccounted = true;
+      this.memoryEstimate = getMemoryEstimate() + memoryEstimate;
+      return memoryEstimate;
    }
 
    protected CoreMessage(CoreMessage other) {
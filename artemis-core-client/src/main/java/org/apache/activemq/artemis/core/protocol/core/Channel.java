@@ -16,9 +16,13 @@
  */
 package org.apache.activemq.artemis.core.protocol.core;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.concurrent.locks.Lock;
 
 import org.apache.activemq.artemis.api.core.ActiveMQException;
+import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.SessionReceiveContinuationMessage;
+import org.apache.activemq.artemis.spi.core.remoting.FileRegionWriter;
 
 /**
  * A channel is a way of interleaving data meant for different endpoints over the same
@@ -88,6 +92,32 @@ public interface Channel {
     */
    boolean sendBatched(Packet packet);
 
+   /**
+    * Opens {@code file} to send large message continuations on this channel with bodies read by the transport straight
+    * from it, without copying them through the heap.
+    *
+    * @return {@code null} if the continuations can't be sent this way, e.g. because the transport has to encode the
+    * bytes it writes or the packets have to be seen by interceptors, and must be sent with {@link #send(Packet)}
+    * @throws IOException if {@code file} can't be opened
+    * @see #sendFileRegion(SessionReceiveContinuationMessage, FileRegionWriter, long, int)
+    */
+   default FileRegionWriter openFileRegionWriter(File file) throws IOException {
+      return null;
+   }
+
+   /**
+    * Sends a large message continuation on this channel with a body of {@code length} bytes of the file opened by
+    * {@code writer}, starting at {@code position}.
+    * <p>
+    * The body of {@code packet} is ignored.
+    *
+    * @return {@code false} if the continuation can't be sent this way and must be sent with {@link #send(Packet)}
+    * instead; {@code true} if the send was successful
+    */
+   default boolean sendFileRegion(SessionReceiveContinuationMessage packet, FileRegionWriter writer, long position, int length) {
+      return false;
+   }
+
    /**
     * Similarly to {@code flushConnection} on {@link #send(Packet, boolean)}, it requests any un-flushed previous sent
     * packets to be flushed to the underlying connection.
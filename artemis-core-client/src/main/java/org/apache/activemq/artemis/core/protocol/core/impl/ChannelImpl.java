@@ -16,6 +16,8 @@
  */
 package org.apache.activemq.artemis.core.protocol.core.impl;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
@@ -41,7 +43,9 @@ import org.apache.activemq.artemis.core.protocol.core.Packet;
 import org.apache.activemq.artemis.core.protocol.core.ResponseHandler;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ActiveMQExceptionMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.PacketsConfirmedMessage;
+import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.SessionReceiveContinuationMessage;
 import org.apache.activemq.artemis.spi.core.protocol.RemotingConnection;
+import org.apache.activemq.artemis.spi.core.remoting.FileRegionWriter;
 import org.apache.activemq.artemis.utils.ConcurrentUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -347,6 +351,68 @@ public final class ChannelImpl implements Channel {
       return send(packet, -1, false, true);
    }
 
+   @Override
+   public FileRegionWriter openFileRegionWriter(final File file) throws IOException {
+      if (!isFileRegionAllowed()) {
+         return null;
+      }
+      return connection.getTransportConnection().openFileRegionWriter(file);
+   }
+
+   private boolean isFileRegionAllowed() {
+      // the interceptors and the resend cache need the whole packet
+      return (interceptors == null || interceptors.isEmpty()) && resendCache == null;
+   }
+
+   @Override
+   public boolean sendFileRegion(final SessionReceiveContinuationMessage packet,
+                                 final FileRegionWriter writer,
+                                 final long position,
+                                 final int length) {
+      if (!isFileRegionAllowed()) {
+         return false;
+      }
+
+      synchronized (sendLock) {
+         packet.setChannelID(id);
+
+         if (logger.isTraceEnabled()) {
+            logger.trace("RemotingConnectionID={} Sending file region of {} bytes {} on channelID={}", connection.getID(), length, packet, id);
+         }
+
+         final ActiveMQBuffer header = packet.encodeBeforeBody(connection, length);
+         final ActiveMQBuffer trailer = packet.encodeAfterBody(connection);
+
+         lock.lock();
+
+         try {
+            if (failingOver) {
+               waitForFailOver("RemotingConnectionID=" + connection.getID() + " timed-out waiting for fail-over condition on non-blocking send");
+            }
+
+            // Sanity check
+            if (transferring) {
+               throw ActiveMQClientMessageBundle.BUNDLE.cannotSendPacketDuringFailover();
+            }
+         } catch (Throwable t) {
+            header.release();
+            trailer.release();
+            throw t;
+         } finally {
+            lock.unlock();
+         }
+
+         try {
+            writer.write(header, position, length, trailer);
+         } catch (Throwable t) {
+            header.release();
+            trailer.release();
+            throw t;
+         }
+         return true;
+      }
+   }
+
    @Override
    public void setTransferring(boolean transferring) {
       this.transferring = transferring;
@@ -19,6 +19,7 @@ package org.apache.activemq.artemis.core.protocol.core.impl.wireformat;
 import java.util.Objects;
 
 import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.core.protocol.core.CoreRemotingConnection;
 import org.apache.activemq.artemis.utils.DataConstants;
 
 public class SessionReceiveContinuationMessage extends SessionContinuationMessage {
@@ -66,6 +67,32 @@ public class SessionReceiveContinuationMessage extends SessionContinuationMessag
       buffer.writeLong(consumerID);
    }
 
+   /**
+    * Encodes the part of this packet preceding a body of {@code bodyLength} bytes, for a body that is not held by this
+    * packet but written by the transport right after it, e.g. from a file.
+    *
+    * @see #encodeAfterBody(CoreRemotingConnection)
+    */
+   public ActiveMQBuffer encodeBeforeBody(final CoreRemotingConnection connection, final int bodyLength) {
+      final ActiveMQBuffer buffer = connection.createTransportBuffer(PACKET_HEADERS_SIZE + DataConstants.SIZE_INT);
+      encodeHeader(buffer);
+      buffer.writeInt(bodyLength);
+      size = SESSION_RECEIVE_CONTINUATION_BASE_SIZE + bodyLength;
+      // The length doesn't include the actual length byte
+      buffer.setInt(0, size - DataConstants.SIZE_INT);
+      return buffer;
+   }
+
+   /**
+    * Encodes the part of this packet following the body written after {@link #encodeBeforeBody}.
+    */
+   public ActiveMQBuffer encodeAfterBody(final CoreRemotingConnection connection) {
+      final ActiveMQBuffer buffer = connection.createTransportBuffer(DataConstants.SIZE_BOOLEAN + DataConstants.SIZE_LONG);
+      buffer.writeBoolean(continues);
+      buffer.writeLong(consumerID);
+      return buffer;
+   }
+
    @Override
    public int getPacketSize() {
       if (size == -1) {
@@ -16,7 +16,11 @@
  */
 package org.apache.activemq.artemis.core.remoting.impl.netty;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.invoke.MethodHandles;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -28,9 +32,15 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.ChannelOutboundHandler;
 import io.netty.channel.ChannelPromise;
+import io.netty.channel.DefaultFileRegion;
 import io.netty.channel.EventLoop;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.util.AbstractReferenceCounted;
+import io.netty.util.ReferenceCounted;
 import io.netty.util.concurrent.FastThreadLocal;
 import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
 import org.apache.activemq.artemis.api.core.ActiveMQInterruptedException;
@@ -41,6 +51,7 @@ import org.apache.activemq.artemis.core.security.ActiveMQPrincipal;
 import org.apache.activemq.artemis.spi.core.protocol.RemotingConnection;
 import org.apache.activemq.artemis.spi.core.remoting.BaseConnectionLifeCycleListener;
 import org.apache.activemq.artemis.spi.core.remoting.Connection;
+import org.apache.activemq.artemis.spi.core.remoting.FileRegionWriter;
 import org.apache.activemq.artemis.spi.core.remoting.ReadyListener;
 import org.apache.activemq.artemis.utils.ConfigurationHelper;
 import org.apache.activemq.artemis.utils.Env;
@@ -68,6 +79,8 @@ public class NettyConnection implements Connection {
 
    private final boolean batchingEnabled;
 
+   private final boolean zeroCopyLargeMessages;
+
    private boolean closed;
    private RemotingConnection protocolConnection;
 
@@ -87,6 +100,8 @@ public class NettyConnection implements Connection {
       this.directDeliver = directDeliver;
 
       this.batchingEnabled = batchingEnabled;
+
+      this.zeroCopyLargeMessages = ConfigurationHelper.getBooleanProperty(TransportConstants.ZERO_COPY_LARGE_MESSAGES, TransportConstants.DEFAULT_ZERO_COPY_LARGE_MESSAGES, configuration);
    }
 
    @Override
@@ -378,6 +393,87 @@ public class NettyConnection implements Connection {
       }
    }
 
+   @Override
+   public final FileRegionWriter openFileRegionWriter(final File file) throws IOException {
+      if (!isFileRegionSupported()) {
+         return null;
+      }
+      return new NettyFileRegionWriter(channel, FileChannel.open(file.toPath(), StandardOpenOption.READ));
+   }
+
+   private boolean isFileRegionSupported() {
+      if (!zeroCopyLargeMessages || !(channel instanceof SocketChannel)) {
+         return false;
+      }
+      for (Map.Entry<String, ChannelHandler> entry : channel.pipeline()) {
+         final ChannelHandler handler = entry.getValue();
+         // any other outbound handler, e.g. for TLS, WebSockets or HTTP, has to encode the bytes it writes
+         if (handler instanceof ChannelOutboundHandler && !(handler instanceof ActiveMQChannelHandler)) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * The regions share the file, which is closed once the writer is closed and every region has been written or
+    * discarded by the channel.
+    */
+   private static final class NettyFileRegionWriter extends AbstractReferenceCounted implements FileRegionWriter {
+
+      private final Channel channel;
+
+      private final FileChannel file;
+
+      private NettyFileRegionWriter(final Channel channel, final FileChannel file) {
+         this.channel = channel;
+         this.file = file;
+      }
+
+      @Override
+      public void write(final ActiveMQBuffer header, final long position, final int length, final ActiveMQBuffer trailer) {
+         retain();
+         final DefaultFileRegion region = new DefaultFileRegion(file, position, length) {
+            @Override
+            protected void deallocate() {
+               NettyFileRegionWriter.this.release();
+            }
+         };
+         final EventLoop eventLoop = channel.eventLoop();
+         // the writes of other threads are queued on the event loop too: writing the 3 parts from it keeps them together
+         if (eventLoop.inEventLoop()) {
+            writeRegion(channel, header.byteBuf(), region, trailer.byteBuf());
+         } else {
+            eventLoop.execute(() -> writeRegion(channel, header.byteBuf(), region, trailer.byteBuf()));
+         }
+      }
+
+      @Override
+      public void close() {
+         release();
+      }
+
+      @Override
+      protected void deallocate() {
+         try {
+            file.close();
+         } catch (IOException e) {
+            logger.debug("Error closing the file of the regions written on {}", channel, e);
+         }
+      }
+
+      @Override
+      public ReferenceCounted touch(final Object hint) {
+         return this;
+      }
+   }
+
+   private static void writeRegion(final Channel channel, final ByteBuf header, final DefaultFileRegion region, final ByteBuf trailer) {
+      channel.write(header, channel.voidPromise());
+      channel.write(region, channel.voidPromise());
+      channel.writeAndFlush(trailer, channel.voidPromise());
+   }
+
    private static void flushAndWait(final Channel channel, final ChannelPromise promise) {
       if (!channel.eventLoop().inEventLoop()) {
          waitFor(promise, DEFAULT_WAIT_MILLIS);
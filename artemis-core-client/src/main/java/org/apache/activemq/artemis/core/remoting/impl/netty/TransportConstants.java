@@ -185,6 +185,8 @@ public class TransportConstants {
 
    public static final String DIRECT_DELIVER = "directDeliver";
 
+   public static final String ZERO_COPY_LARGE_MESSAGES = "zeroCopyLargeMessages";
+
    public static final String CLUSTER_CONNECTION = "clusterConnection";
 
    @Deprecated
@@ -320,6 +322,8 @@ public class TransportConstants {
 
    public static final boolean DEFAULT_DIRECT_DELIVER = true;
 
+   public static final boolean DEFAULT_ZERO_COPY_LARGE_MESSAGES = false;
+
    public static final Set<String> ALLOWABLE_CONNECTOR_KEYS;
 
    public static final Set<String> ALLOWABLE_ACCEPTOR_KEYS;
@@ -350,6 +354,34 @@ public class TransportConstants {
 
    public static final long DEFAULT_CONNECTIONS_ALLOWED = -1L;
 
+   public static final String CONNECTION_RATE = "connectionRate";
+
+   public static final int DEFAULT_CONNECTION_RATE = -1;
+
+   public static final String CONNECTION_RATE_PER_SOURCE = "connectionRatePerSource";
+
+   public static final int DEFAULT_CONNECTION_RATE_PER_SOURCE = -1;
+
+   public static final String CONNECTION_RATE_SOURCE_IPV4_PREFIX = "connectionRateSourceIPv4Prefix";
+
+   public static final int DEFAULT_CONNECTION_RATE_SOURCE_IPV4_PREFIX = 32;
+
+   public static final String CONNECTION_RATE_SOURCE_IPV6_PREFIX = "connectionRateSourceIPv6Prefix";
+
+   public static final int DEFAULT_CONNECTION_RATE_SOURCE_IPV6_PREFIX = 128;
+
+   public static final String PENDING_CONNECTIONS_ALLOWED = "pendingConnectionsAllowed";
+
+   public static final int DEFAULT_PENDING_CONNECTIONS_ALLOWED = 1000;
+
+   public static final String PENDING_CONNECTIONS_ALLOWED_PER_SOURCE = "pendingConnectionsAllowedPerSource";
+
+   public static final int DEFAULT_PENDING_CONNECTIONS_ALLOWED_PER_SOURCE = 100;
+
+   public static final String PENDING_CONNECTION_TIMEOUT = "pendingConnectionTimeout";
+
+   public static final long DEFAULT_PENDING_CONNECTION_TIMEOUT = 10000;
+
    /**
     * @deprecated Use {@link TransportConstants#WEB_SOCKET_MAX_FRAME_PAYLOAD_LENGTH instead}.
     */
@@ -475,6 +507,7 @@ public class TransportConstants {
       allowableAcceptorKeys.add(TransportConstants.REMOTING_THREADS_PROPNAME);
       allowableAcceptorKeys.add(TransportConstants.BATCH_DELAY);
       allowableAcceptorKeys.add(TransportConstants.DIRECT_DELIVER);
+      allowableAcceptorKeys.add(TransportConstants.ZERO_COPY_LARGE_MESSAGES);
       allowableAcceptorKeys.add(TransportConstants.CLUSTER_CONNECTION);
       allowableAcceptorKeys.add(TransportConstants.STOMP_CONSUMERS_CREDIT);
       allowableAcceptorKeys.add(TransportConstants.STOMP_CONSUMER_WINDOW_SIZE);
@@ -487,6 +520,13 @@ public class TransportConstants {
       allowableAcceptorKeys.add(TransportConstants.STOMP_ENABLE_MESSAGE_ID_DEPRECATED);
       allowableAcceptorKeys.add(TransportConstants.STOMP_ENABLE_MESSAGE_ID);
       allowableAcceptorKeys.add(TransportConstants.CONNECTIONS_ALLOWED);
+      allowableAcceptorKeys.add(TransportConstants.CONNECTION_RATE);
+      allowableAcceptorKeys.add(TransportConstants.CONNECTION_RATE_PER_SOURCE);
+      allowableAcceptorKeys.add(TransportConstants.CONNECTION_RATE_SOURCE_IPV4_PREFIX);
+      allowableAcceptorKeys.add(TransportConstants.CONNECTION_RATE_SOURCE_IPV6_PREFIX);
+      allowableAcceptorKeys.add(TransportConstants.PENDING_CONNECTIONS_ALLOWED);
+      allowableAcceptorKeys.add(TransportConstants.PENDING_CONNECTIONS_ALLOWED_PER_SOURCE);
+      allowableAcceptorKeys.add(TransportConstants.PENDING_CONNECTION_TIMEOUT);
       allowableAcceptorKeys.add(TransportConstants.STOMP_MAX_FRAME_PAYLOAD_LENGTH);
       allowableAcceptorKeys.add(TransportConstants.WEB_SOCKET_MAX_FRAME_PAYLOAD_LENGTH);
       allowableAcceptorKeys.add(TransportConstants.WEB_SOCKET_COMPRESSION_SUPPORTED);
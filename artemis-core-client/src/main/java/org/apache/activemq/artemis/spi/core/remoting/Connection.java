@@ -16,6 +16,8 @@
  */
 package org.apache.activemq.artemis.spi.core.remoting;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.concurrent.TimeUnit;
 
 import io.netty.channel.ChannelFutureListener;
@@ -119,6 +121,17 @@ public interface Connection {
     */
    void write(ActiveMQBuffer buffer);
 
+   /**
+    * Opens {@code file} to write regions of it to this connection without copying them through the heap.
+    *
+    * @return {@code null} if this connection can't write the bytes of a file as they are, e.g. because it has to encode
+    * the bytes it writes
+    * @throws IOException if the file can't be opened
+    */
+   default FileRegionWriter openFileRegionWriter(File file) throws IOException {
+      return null;
+   }
+
    /**
     * This should close the internal channel without calling any listeners. This is to avoid a situation where the
     * broker is busy writing on an internal thread. This should close the socket releasing any pending threads.
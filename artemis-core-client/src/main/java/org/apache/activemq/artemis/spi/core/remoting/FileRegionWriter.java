@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.spi.core.remoting;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+
+/**
+ * Writes regions of a file to a {@link Connection} without copying them through the heap, the file being opened once
+ * by {@link Connection#openFileRegionWriter(java.io.File)} for all of them.
+ */
+public interface FileRegionWriter extends AutoCloseable {
+
+   /**
+    * Writes {@code header}, {@code length} bytes of the file from {@code position} and {@code trailer} as a single
+    * write, so no other write on the connection can come in between.
+    */
+   void write(ActiveMQBuffer header, long position, int length, ActiveMQBuffer trailer);
+
+   /**
+    * Closes the file once the regions already written have been sent.
+    */
+   @Override
+   void close();
+}
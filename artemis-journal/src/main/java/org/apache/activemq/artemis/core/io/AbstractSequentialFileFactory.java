@@ -129,6 +129,21 @@ public abstract class AbstractSequentialFileFactory implements SequentialFileFac
       return dataSync;
    }
 
+   @Override
+   public SequentialFileFactory setBufferMaxLatency(long maxLatency) {
+      if (timedBuffer != null) {
+         timedBuffer.setMaxLatency(maxLatency);
+      }
+      return this;
+   }
+
+   /**
+    * {@return the buffer the files write to, {@code null} when they write directly}
+    */
+   public TimedBuffer getTimedBuffer() {
+      return timedBuffer;
+   }
+
 
    @Override
    public void stop() {
@@ -148,6 +148,14 @@ public interface SequentialFileFactory {
 
    long getBufferSize();
 
+   /**
+    * Adapts the flushes of the buffer to the latency of the syncs, see
+    * {@link org.apache.activemq.artemis.core.io.buffer.TimedBuffer#setMaxLatency(long)}.
+    */
+   default SequentialFileFactory setBufferMaxLatency(long maxLatency) {
+      return this;
+   }
+
    /**
     * Only JDBC supports individual context. Meaning for Files we need to use the Sync scheduler. for JDBC we need to
     * use a callback from the JDBC completion thread to complete the IOContexts.
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.io.buffer;
+
+/**
+ * Picks how long a {@link TimedBuffer} waits for more records after a flush, from the latency of its syncs and the
+ * rate the records arrive at.
+ * <p>
+ * Waiting only pays off if other records are expected while a sync completes: when they are not, the buffer flushes as
+ * soon as a record is added. When they are, it waits as long as a sync takes, as long as waiting and syncing stay
+ * within the maximum latency.
+ */
+final class AdaptiveFlushWindow {
+
+   // the weight of a new sample on the moving averages
+   private static final double ALPHA = 0.2;
+
+   private final long maxLatency;
+
+   // in nanoseconds
+   private double syncLatency = -1;
+
+   // in records per nanosecond
+   private double arrivalRate = -1;
+
+   private volatile long window;
+
+   AdaptiveFlushWindow(long maxLatency, long initialWindow) {
+      this.maxLatency = maxLatency;
+      this.window = Math.min(initialWindow, maxLatency);
+   }
+
+   synchronized void onSync(long latency) {
+      syncLatency = average(syncLatency, latency);
+      update();
+   }
+
+   synchronized void onFlush(int records, long sinceLastFlush) {
+      if (sinceLastFlush > 0) {
+         arrivalRate = average(arrivalRate, (double) records / sinceLastFlush);
+         update();
+      }
+   }
+
+   private static double average(double average, double sample) {
+      return average < 0 ? sample : average + ALPHA * (sample - average);
+   }
+
+   private void update() {
+      if (syncLatency < 0 || arrivalRate < 0) {
+         return;
+      }
+      final double budget = maxLatency - syncLatency;
+      if (budget <= 0 || arrivalRate * syncLatency < 1) {
+         window = 0;
+      } else {
+         window = (long) Math.min(syncLatency, budget);
+      }
+   }
+
+   long getWindow() {
+      return window;
+   }
+
+   long getMaxLatency() {
+      return maxLatency;
+   }
+}
@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.LockSupport;
 
@@ -33,6 +34,7 @@ import org.apache.activemq.artemis.core.io.IOCallback;
 import org.apache.activemq.artemis.core.journal.EncodingSupport;
 import org.apache.activemq.artemis.journal.ActiveMQJournalLogger;
 import org.apache.activemq.artemis.utils.ArtemisCloseable;
+import org.apache.activemq.artemis.utils.PowerOf2Histogram;
 import org.apache.activemq.artemis.utils.critical.CriticalAnalyzer;
 import org.apache.activemq.artemis.utils.critical.CriticalComponentImpl;
 import org.slf4j.LoggerFactory;
@@ -69,6 +71,15 @@ public final class TimedBuffer extends CriticalComponentImpl {
    private final boolean logRates;
    private final AtomicLong bytesFlushed = new AtomicLong(0);
    private final AtomicLong flushesDone = new AtomicLong(0);
+   // the bytes of each flush, from 512 bytes to 1 MiB
+   private final PowerOf2Histogram flushSizes = new PowerOf2Histogram(9, 12);
+   // the microseconds from adding the first record of a flush to its completion, from 16 us to 128 ms
+   private final PowerOf2Histogram flushWaitTimes = new PowerOf2Histogram(4, 14);
+   // null when flushing on the timeout
+   private volatile AdaptiveFlushWindow adaptiveWindow;
+   // when the first record on the buffer was added
+   private long firstAddTime;
+   private long lastFlushStartTime = System.nanoTime();
    private TimedBufferObserver bufferObserver;
    private CheckTimer timerRunnable;
    private int bufferLimit = 0;
@@ -117,6 +128,47 @@ public final class TimedBuffer extends CriticalComponentImpl {
       this.timeout = timeout;
    }
 
+   /**
+    * Adapts the time the buffer waits for more records to the latency of the syncs and the rate the records arrive at,
+    * instead of always waiting for the timeout.
+    *
+    * @param maxLatency the maximal nanoseconds a record should wait for its sync to complete, {@code -1} to flush on
+    *                   the timeout
+    */
+   public synchronized void setMaxLatency(final long maxLatency) {
+      adaptiveWindow = maxLatency > 0 ? new AdaptiveFlushWindow(maxLatency, timeout) : null;
+   }
+
+   /**
+    * {@return the nanoseconds the buffer currently waits for more records after a flush}
+    */
+   public long getFlushWindow() {
+      final AdaptiveFlushWindow adaptiveWindow = this.adaptiveWindow;
+      return adaptiveWindow != null ? adaptiveWindow.getWindow() : timeout;
+   }
+
+   public long getFlushes() {
+      return flushesDone.get();
+   }
+
+   public long getBytesFlushed() {
+      return bytesFlushed.get();
+   }
+
+   /**
+    * {@return the histogram of the bytes of each flush}
+    */
+   public PowerOf2Histogram getFlushSizes() {
+      return flushSizes;
+   }
+
+   /**
+    * {@return the histogram of the microseconds from adding the first record of a flush to its completion}
+    */
+   public PowerOf2Histogram getFlushWaitTimes() {
+      return flushWaitTimes;
+   }
+
    public void start() {
       try (ArtemisCloseable critical = measureCritical(CRITICAL_PATH_START)) {
          synchronized (this) {
@@ -265,6 +317,10 @@ public final class TimedBuffer extends CriticalComponentImpl {
             buffer.setBytes(writerIndex, bytes, bytes.readerIndex(), readableBytes);
             buffer.writerIndex(writerIndex + readableBytes);
 
+            if (callbacks.isEmpty()) {
+               firstAddTime = System.nanoTime();
+            }
+
             callbacks.add(callback);
 
             if (sync) {
@@ -288,6 +344,10 @@ public final class TimedBuffer extends CriticalComponentImpl {
 
             bytes.encode(buffer);
 
+            if (callbacks.isEmpty()) {
+               firstAddTime = System.nanoTime();
+            }
+
             callbacks.add(callback);
 
             if (sync) {
@@ -322,9 +382,16 @@ public final class TimedBuffer extends CriticalComponentImpl {
             if (!delayFlush && buffer.writerIndex() > 0) {
                int pos = buffer.writerIndex();
 
-               if (logRates) {
-                  bytesFlushed.addAndGet(pos);
+               bytesFlushed.addAndGet(pos);
+               flushSizes.record(pos);
+
+               final long now = System.nanoTime();
+               final AdaptiveFlushWindow adaptiveWindow = this.adaptiveWindow;
+               if (adaptiveWindow != null) {
+                  adaptiveWindow.onFlush(callbacks.size(), now - lastFlushStartTime);
                }
+               lastFlushStartTime = now;
+               callbacks.add(new FlushProbe(firstAddTime, now, pendingSync ? adaptiveWindow : null));
 
                if (bufferObserver.supportSync()) {
                   // performing the sync away from the lock
@@ -362,6 +429,37 @@ public final class TimedBuffer extends CriticalComponentImpl {
       }
    }
 
+   /**
+    * Completes after the records of a flush, to measure how long they waited and how long the sync took.
+    */
+   private final class FlushProbe implements IOCallback {
+
+      private final long firstAddTime;
+
+      private final long flushTime;
+
+      private final AdaptiveFlushWindow adaptiveWindow;
+
+      private FlushProbe(long firstAddTime, long flushTime, AdaptiveFlushWindow adaptiveWindow) {
+         this.firstAddTime = firstAddTime;
+         this.flushTime = flushTime;
+         this.adaptiveWindow = adaptiveWindow;
+      }
+
+      @Override
+      public void done() {
+         final long now = System.nanoTime();
+         flushWaitTimes.record(TimeUnit.NANOSECONDS.toMicros(now - firstAddTime));
+         if (adaptiveWindow != null) {
+            adaptiveWindow.onSync(now - flushTime);
+         }
+      }
+
+      @Override
+      public void onError(int errorCode, String errorMessage) {
+      }
+   }
+
    /**
     * Sub classes (tests basically) can use this to override how the sleep is being done
     */
@@ -455,7 +553,9 @@ public final class TimedBuffer extends CriticalComponentImpl {
             // Effectively flushing "resets" the timer
             // On the timeout verification, notice that we ignore the timeout check if we are using sleep
 
-            if (pendingSync || System.nanoTime() - lastFlushTime > timeout) {
+            final long window = getFlushWindow();
+
+            if (pendingSync || System.nanoTime() - lastFlushTime > window) {
                if (useSleep) {
                   // if using sleep, we will always flush
                   lastFlushTime = System.nanoTime();
@@ -467,7 +567,9 @@ public final class TimedBuffer extends CriticalComponentImpl {
                      //          We only need to wait 80% more..
                      //          timeFromTheLastFlush would be the difference
                      //          And if the device took more than that time, there's no need to wait at all.
-                     final long timeToSleep = timeout - timeFromTheLastFlush;
+                     //          With an adaptive window the flush time is the sync latency it is computed from,
+                     //          so the whole window is waited.
+                     final long timeToSleep = adaptiveWindow != null ? window : window - timeFromTheLastFlush;
                      if (timeToSleep > 0) {
                         useSleep = sleepIfPossible(timeToSleep);
                      }
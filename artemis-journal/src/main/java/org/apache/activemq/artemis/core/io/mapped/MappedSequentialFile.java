@@ -19,6 +19,7 @@ package org.apache.activemq.artemis.core.io.mapped;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Objects;
 
 import io.netty.buffer.ByteBuf;
@@ -410,7 +411,9 @@ final class MappedSequentialFile implements SequentialFile {
 
    @Override
    public ByteBuffer map(int position, long size) throws IOException {
-      return null;
+      checkIsOpen();
+      // a mapping of its own, that stays valid once this file is closed and its mapping released
+      return this.mappedFile.channel().map(FileChannel.MapMode.READ_ONLY, position, size);
    }
 
    @Override
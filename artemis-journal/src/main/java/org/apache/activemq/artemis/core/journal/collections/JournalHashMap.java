@@ -226,6 +226,16 @@ public class JournalHashMap<I, K, V, C> implements Map<K, V> {
       }
    }
 
+   // callers must be synchronized
+   private void store(MapRecord<I, K, V> record, long txid) {
+      try {
+         journal.storeMapRecordTx(txid, record.id, recordType, persister, record);
+      } catch (Exception e) {
+         logger.warn(e.getMessage(), e);
+         exceptionListener.onIOException(e, e.getMessage(), null);
+      }
+   }
+
    // callers must be synchronized
    private void removed(MapRecord<I, K, V> record) {
       if (logger.isTraceEnabled()) {
@@ -272,6 +282,54 @@ public class JournalHashMap<I, K, V, C> implements Map<K, V> {
       return record.value;
    }
 
+   /**
+    * Stores the value of the key as part of a transaction. Unlike {@link #remove(Object, long)} the map is left as it
+    * is, the record returned being only put in the map by {@link #commit(Object, MapRecord, MapRecord)} once the
+    * transaction is committed, so there is nothing to undo on a rollback. The current record of the key is not deleted,
+    * see {@link #removeTransactional(Object, long)}.
+    *
+    * @return the record stored
+    */
+   public synchronized MapRecord<I, K, V> putTransactional(K key, V value, long transactionID) {
+      logger.debug("adding {} = {} on transaction {}", key, value, transactionID);
+      MapRecord<I, K, V> record = new MapRecord<>(collectionId, idGenerator.getAsLong(), key, value);
+      store(record, transactionID);
+      return record;
+   }
+
+   /**
+    * Deletes the current record of the key as part of a transaction, leaving the map as it is until
+    * {@link #commit(Object, MapRecord, MapRecord)} is called once the transaction is committed.
+    *
+    * @return the record deleted, or {@code null} if the key has none
+    */
+   public synchronized MapRecord<I, K, V> removeTransactional(Object key, long transactionID) {
+      MapRecord<I, K, V> record = map.get(key);
+      if (record != null) {
+         removed(record, transactionID);
+      }
+      return record;
+   }
+
+   /**
+    * Updates the map once a transaction of {@link #putTransactional(Object, Object, long)} and
+    * {@link #removeTransactional(Object, long)} is committed. The record of the key becomes {@code stored}, or is
+    * removed if {@code null}. A record other than {@code deleted}, committed by another transaction in the meantime, is
+    * deleted as well since the transaction couldn't.
+    *
+    * @return the value of the key before the commit, or {@code null} if there was none
+    */
+   public synchronized V commit(K key, MapRecord<I, K, V> deleted, MapRecord<I, K, V> stored) {
+      MapRecord<I, K, V> oldRecord = stored == null ? map.remove(key) : map.put(key, stored);
+      if (oldRecord == null) {
+         return null;
+      }
+      if (oldRecord != deleted) {
+         removed(oldRecord);
+      }
+      return oldRecord.value;
+   }
+
    @Override
    public synchronized void putAll(Map<? extends K, ? extends V> m) {
       m.forEach(this::put);
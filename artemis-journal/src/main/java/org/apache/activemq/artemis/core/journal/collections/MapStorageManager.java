@@ -29,6 +29,8 @@ public interface MapStorageManager {
 
    void storeMapRecord(long id, byte recordType, Persister persister, Object record, boolean sync) throws Exception;
 
+   void storeMapRecordTx(long txid, long id, byte recordType, Persister persister, Object record) throws Exception;
+
    void deleteMapRecord(long id, boolean sync) throws Exception;
 
    void deleteMapRecordTx(long txid, long id) throws Exception;
@@ -52,6 +52,11 @@ public abstract class AbstractJournalUpdateTask implements JournalReaderCallback
 
    protected long nextOrderingID;
 
+   // the new files must have lower ordering IDs than the data files left as they are
+   private long orderingIDLimit = Long.MAX_VALUE;
+
+   private boolean orderingIDLimitReached;
+
    private ActiveMQBuffer writingChannel;
 
    private ByteBuffer bufferWrite;
@@ -60,6 +65,8 @@ public abstract class AbstractJournalUpdateTask implements JournalReaderCallback
 
    protected final List<JournalFile> newDataFiles = new ArrayList<>();
 
+   private long bytesWritten;
+
 
    protected AbstractJournalUpdateTask(final SequentialFileFactory fileFactory,
                                        final JournalImpl journal,
@@ -247,7 +254,49 @@ public abstract class AbstractJournalUpdateTask implements JournalReaderCallback
       return recordsSnapshot.contains(id);
    }
 
+   /**
+    * Fails the update before a new file would take {@code orderingIDLimit}, the ID of the oldest data file it leaves as
+    * it is.
+    */
+   protected void setOrderingIDLimit(final long orderingIDLimit) {
+      this.orderingIDLimit = orderingIDLimit;
+   }
+
+   /**
+    * {@return whether the update failed as its new files would have taken the ID of a data file left as it is}
+    */
+   public boolean isOrderingIDLimitReached() {
+      return orderingIDLimitReached;
+   }
+
+   /**
+    * Deletes the files written so far, when the update is abandoned before its control file was written.
+    */
+   public void deleteNewFiles() throws Exception {
+      try {
+         if (sequentialFile != null && sequentialFile.isOpen()) {
+            sequentialFile.close(false, false);
+            newDataFiles.add(currentFile);
+         }
+      } finally {
+         if (bufferWrite != null) {
+            fileFactory.releaseDirectBuffer(bufferWrite);
+            writingChannel = null;
+            bufferWrite = null;
+         }
+      }
+      for (JournalFile file : newDataFiles) {
+         file.getFile().delete();
+      }
+      newDataFiles.clear();
+   }
+
    protected void openFile() throws Exception {
+      if (nextOrderingID >= orderingIDLimit) {
+         orderingIDLimitReached = true;
+         throw new IllegalStateException("The files written by " + this + " would take the ID " + nextOrderingID + " of a data file left as it is");
+      }
+
       flush(false);
 
       currentFile = filesRepository.openFileCMP();
@@ -287,6 +336,14 @@ public abstract class AbstractJournalUpdateTask implements JournalReaderCallback
    protected void writeEncoder(final JournalInternalRecord record) throws Exception {
       record.setFileID(currentFile.getRecordID());
       record.encode(getWritingChannel());
+      bytesWritten += record.getEncodeSize();
+   }
+
+   /**
+    * {@return the bytes of the records written to the new files}
+    */
+   public long getBytesWritten() {
+      return bytesWritten;
    }
 
    protected void writeEncoder(final JournalInternalRecord record, final int txcounter) throws Exception {
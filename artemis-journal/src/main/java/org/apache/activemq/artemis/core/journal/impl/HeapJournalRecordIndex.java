@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.journal.impl;
+
+import java.util.Set;
+
+import org.apache.activemq.artemis.utils.collections.ConcurrentLongHashMap;
+import org.apache.activemq.artemis.utils.collections.ConcurrentLongHashSet;
+
+/**
+ * {@link JournalRecordIndex} keeping a {@link JournalRecord} for each record.
+ */
+public final class HeapJournalRecordIndex implements JournalRecordIndex {
+
+   private final ConcurrentLongHashMap<JournalRecord> records = new ConcurrentLongHashMap<>();
+
+   @Override
+   public void add(long id, JournalFile file, int size) {
+      records.put(id, new JournalRecord(file, size));
+   }
+
+   @Override
+   public void put(long id, JournalRecord record) {
+      records.put(id, record);
+   }
+
+   @Override
+   public boolean addUpdate(long id, JournalFile file, int bytes, boolean replaceableUpdate) {
+      final JournalRecord record = records.get(id);
+      if (record == null) {
+         return false;
+      }
+      record.addUpdateFile(file, bytes, replaceableUpdate);
+      return true;
+   }
+
+   @Override
+   public boolean delete(long id, JournalFile file) {
+      final JournalRecord record = records.remove(id);
+      if (record == null) {
+         return false;
+      }
+      record.delete(file);
+      return true;
+   }
+
+   @Override
+   public HeapJournalRecordIndex removeAddedTo(Set<JournalFile> files) {
+      final HeapJournalRecordIndex removed = new HeapJournalRecordIndex();
+      records.forEach((id, record) -> {
+         if (files.contains(record.getAddFile())) {
+            removed.put(id, record);
+         }
+      });
+      removed.forEach((id, record) -> records.remove(id));
+      return removed;
+   }
+
+   @Override
+   public boolean contains(long id) {
+      return records.containsKey(id);
+   }
+
+   public JournalRecord get(long id) {
+      return records.get(id);
+   }
+
+   public void forEach(ConcurrentLongHashMap.EntryProcessor<JournalRecord> processor) {
+      records.forEach(processor);
+   }
+
+   @Override
+   public int size() {
+      return records.size();
+   }
+
+   @Override
+   public ConcurrentLongHashSet keys() {
+      return records.keysLongHashSet();
+   }
+
+   @Override
+   public void clear() {
+      records.clear();
+   }
+}
@@ -16,13 +16,16 @@
  */
 package org.apache.activemq.artemis.core.journal.impl;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import io.netty.util.collection.IntObjectHashMap;
 import io.netty.util.collection.LongObjectHashMap;
+import org.apache.activemq.artemis.api.core.Pair;
 import org.apache.activemq.artemis.core.io.SequentialFileFactory;
 import org.apache.activemq.artemis.core.journal.EncoderPersister;
 import org.apache.activemq.artemis.core.journal.RecordInfo;
@@ -60,10 +63,19 @@ public class JournalCompactor extends AbstractJournalUpdateTask implements Journ
    // Snapshot of transactions that were pending when the compactor started
    private final ConcurrentLongHashMap<PendingTransaction> pendingTransactions = new ConcurrentLongHashMap<>();
 
-   private final ConcurrentLongHashMap<JournalRecord> newRecords = new ConcurrentLongHashMap<>();
+   private final HeapJournalRecordIndex newRecords = new HeapJournalRecordIndex();
 
    private final ConcurrentLongHashMap<JournalTransaction> newTransactions = new ConcurrentLongHashMap<>();
 
+   // When only some of the data files are compacted, the files and the records that were added to them
+   private Set<JournalFile> compactedFiles;
+
+   private HeapJournalRecordIndex compactedRecords;
+
+   // The pending transactions on those files, with a copy of the records they had, to put them back if the pass is
+   // cancelled
+   private final List<Pair<JournalTransaction, JournalTransaction>> compactedTransactions = new ArrayList<>();
+
    /**
     * Commands that happened during compacting. We can't process any counts during compacting, as we won't know in what
     * files the records are taking place, so we cache those updates. As soon as we are done we take the right account.
@@ -74,7 +86,7 @@ public class JournalCompactor extends AbstractJournalUpdateTask implements Journ
       return newDataFiles;
    }
 
-   public ConcurrentLongHashMap<JournalRecord> getNewRecords() {
+   public HeapJournalRecordIndex getNewRecords() {
       return newRecords;
    }
 
@@ -90,6 +102,74 @@ public class JournalCompactor extends AbstractJournalUpdateTask implements Journ
       super(fileFactory, journal, filesRepository, recordsSnapshot, firstFileID);
    }
 
+   /**
+    * Compacts only {@code files}, whose records were removed from the journal as {@code records}, leaving the other
+    * data files as they are. The new files have to fit below {@code firstRetainedFileID}, the ID of the oldest of them.
+    */
+   public void setCompactedFiles(final Set<JournalFile> files, final HeapJournalRecordIndex records, final long firstRetainedFileID) {
+      this.compactedFiles = files;
+      this.compactedRecords = records;
+      setOrderingIDLimit(firstRetainedFileID);
+   }
+
+   /**
+    * {@return the data files compacted when only some of them are, otherwise {@code null}}
+    */
+   public Set<JournalFile> getCompactedFiles() {
+      return compactedFiles;
+   }
+
+   /**
+    * Keeps a copy of the records of {@code liveTransaction}, a pending transaction on the compacted files, before
+    * compacting clears them.
+    */
+   public void addCompactedTransaction(final JournalTransaction liveTransaction) {
+      compactedTransactions.add(new Pair<>(liveTransaction, liveTransaction.copy()));
+   }
+
+   /**
+    * Cancels compacting some of the data files before any file was replaced: the compacted records and the records of
+    * the pending transactions on those files are put back, then the commands that happened during compacting are
+    * replayed on them, and the files written so far are deleted.
+    */
+   public void cancel(final JournalRecordIndex records) throws Exception {
+      compactedRecords.forEach(records::put);
+
+      newTransactions.clear();
+      for (Pair<JournalTransaction, JournalTransaction> transaction : compactedTransactions) {
+         final JournalTransaction liveTransaction = transaction.getA();
+         liveTransaction.restore(transaction.getB());
+         // the commits and rollbacks replayed below have nothing left to merge
+         newTransactions.put(liveTransaction.getId(), new JournalTransaction(liveTransaction.getId(), journal));
+      }
+
+      replayPendingCommands();
+
+      newTransactions.clear();
+
+      deleteNewFiles();
+   }
+
+   /**
+    * Moves the records rewritten by compacting into {@code records}. When only some of the data files were compacted,
+    * the updates the records had on the other files are kept.
+    */
+   public void restoreRecords(final JournalRecordIndex records) {
+      newRecords.forEach((id, newRecord) -> {
+         if (compactedRecords != null) {
+            final JournalRecord compactedRecord = compactedRecords.get(id);
+            if (compactedRecord != null) {
+               compactedRecord.forEachUpdate((file, bytes, count, record) -> {
+                  if (!compactedFiles.contains(file)) {
+                     record.addAccountedUpdate(file, bytes, count);
+                  }
+               }, newRecord);
+            }
+         }
+         records.put(id, newRecord);
+      });
+   }
+
    /**
     * This methods informs the Compactor about the existence of a pending (non committed) transaction
     */
@@ -221,7 +301,7 @@ public class JournalCompactor extends AbstractJournalUpdateTask implements Journ
 
          writeEncoder(addRecord);
 
-         newRecords.put(info.id, new JournalRecord(currentFile, addRecord.getEncodeSize()));
+         newRecords.add(info.id, currentFile, addRecord.getEncodeSize());
       }
    }
 
@@ -282,7 +362,7 @@ public class JournalCompactor extends AbstractJournalUpdateTask implements Journ
          logger.trace("onReadDeleteRecord {}", recordID);
       }
 
-      if (newRecords.get(recordID) != null) {
+      if (newRecords.contains(recordID)) {
          // Sanity check, it should never happen
          ActiveMQJournalLogger.LOGGER.inconsistencyDuringCompactingDelete(recordID);
       }
@@ -432,12 +512,8 @@ public class JournalCompactor extends AbstractJournalUpdateTask implements Journ
 
       checkSizeAndCompactSplit(updateRecord.getEncodeSize(), info.compactCount);
 
-      JournalRecord newRecord = newRecords.get(info.id);
-
-      if (newRecord == null) {
+      if (!newRecords.addUpdate(info.id, currentFile, updateRecord.getEncodeSize(), info.replaceableUpdate)) {
          ActiveMQJournalLogger.LOGGER.compactingWithNoAddRecord(info.id);
-      } else {
-         newRecord.addUpdateFile(currentFile, updateRecord.getEncodeSize(), info.replaceableUpdate);
       }
 
       writeEncoder(updateRecord);
@@ -501,11 +577,8 @@ public class JournalCompactor extends AbstractJournalUpdateTask implements Journ
 
       @Override
       void execute() throws Exception {
-         JournalRecord deleteRecord = journal.getRecords().remove(id);
-         if (deleteRecord == null) {
+         if (!journal.getRecords().delete(id, usedFile)) {
             ActiveMQJournalLogger.LOGGER.noRecordDuringCompactReplay(id);
-         } else {
-            deleteRecord.delete(usedFile);
          }
       }
    }
@@ -539,11 +612,8 @@ public class JournalCompactor extends AbstractJournalUpdateTask implements Journ
 
       @Override
       void execute() throws Exception {
-         JournalRecord updateRecord = journal.getRecords().get(id);
-         if (updateRecord == null) {
+         if (!journal.getRecords().addUpdate(id, usedFile, size, replaceableUpdate)) {
             ActiveMQJournalLogger.LOGGER.noRecordDuringCompactReplay(id);
-         } else {
-            updateRecord.addUpdateFile(usedFile, size, replaceableUpdate);
          }
       }
 
@@ -629,7 +699,7 @@ public class JournalCompactor extends AbstractJournalUpdateTask implements Journ
    }
 
    @Override
-   public ConcurrentLongHashMap<JournalRecord> getRecords() {
+   public JournalRecordIndex getRecords() {
       return newRecords;
    }
 
@@ -53,6 +53,20 @@ public interface JournalFile {
 
    int getLiveSize();
 
+   /**
+    * Records that a transaction with records on this file was committed on {@code file}.
+    */
+   default void transactionCommittedOn(JournalFile file) {
+   }
+
+   /**
+    * {@return the id of the last file a transaction with records on this file was committed on, or {@code -1} if
+    * there is none}
+    */
+   default long getLastTransactionCommitFileID() {
+      return -1;
+   }
+
    /**
     * The total number of deletes this file has
     */
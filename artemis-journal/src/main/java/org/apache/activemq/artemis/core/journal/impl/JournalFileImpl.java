@@ -65,6 +65,8 @@ public class JournalFileImpl implements JournalFile {
 
    private final ConcurrentMap<JournalFile, AtomicInteger> negCounts = new ConcurrentHashMap<>();
 
+   private volatile long lastTransactionCommitFileID = -1;
+
    private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
    public JournalFileImpl(final SequentialFile file, final long fileID, final int version) {
@@ -241,6 +243,18 @@ public class JournalFileImpl implements JournalFile {
       return liveBytesUpdater.get(this);
    }
 
+   @Override
+   public void transactionCommittedOn(final JournalFile file) {
+      if (file.getFileID() > lastTransactionCommitFileID) {
+         lastTransactionCommitFileID = file.getFileID();
+      }
+   }
+
+   @Override
+   public long getLastTransactionCommitFileID() {
+      return lastTransactionCommitFileID;
+   }
+
    @Override
    public int getTotalNegativeToOthers() {
       return totalNegativeToOthers.get();
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.journal.impl;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.netty.util.collection.ByteObjectHashMap;
+import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.journal.RecordInfo;
+import org.apache.activemq.artemis.utils.ExecutorFactory;
+import org.apache.activemq.artemis.utils.actors.ArtemisExecutor;
+
+/**
+ * Reads and parses journal files ahead of the thread loading them.
+ * <p>
+ * Up to {@code threads} files are read and parsed concurrently on executors of the journal's IO executor factory, each
+ * into the list of records it contains. Files are read ahead as long as the size of the files not replayed yet fits
+ * in the read ahead size, as their parsed records are held on the heap until then. The loading thread then
+ * {@link #replay(int, JournalReaderCallback) replays} the files in order, so records are still applied in the order
+ * they were written: transactions, updates and deletes are resolved exactly as if the files had been read
+ * one after the other.
+ */
+final class JournalFilesReader implements AutoCloseable {
+
+   @FunctionalInterface
+   private interface ReadEvent {
+
+      void replay(JournalReaderCallback reader) throws Exception;
+   }
+
+   private static final class ReadFile implements JournalReaderCallback {
+
+      private final List<ReadEvent> events = new ArrayList<>();
+
+      private int lastDataPos;
+
+      @Override
+      public void onReadEventRecord(RecordInfo info) {
+         events.add(reader -> reader.onReadEventRecord(info));
+      }
+
+      @Override
+      public void onReadAddRecord(RecordInfo info) {
+         events.add(reader -> reader.onReadAddRecord(info));
+      }
+
+      @Override
+      public void onReadUpdateRecord(RecordInfo info) {
+         events.add(reader -> reader.onReadUpdateRecord(info));
+      }
+
+      @Override
+      public void onReadDeleteRecord(long recordID) {
+         events.add(reader -> reader.onReadDeleteRecord(recordID));
+      }
+
+      @Override
+      public void onReadAddRecordTX(long transactionID, RecordInfo info) {
+         events.add(reader -> reader.onReadAddRecordTX(transactionID, info));
+      }
+
+      @Override
+      public void onReadUpdateRecordTX(long transactionID, RecordInfo info) {
+         events.add(reader -> reader.onReadUpdateRecordTX(transactionID, info));
+      }
+
+      @Override
+      public void onReadDeleteRecordTX(long transactionID, RecordInfo info) {
+         events.add(reader -> reader.onReadDeleteRecordTX(transactionID, info));
+      }
+
+      @Override
+      public void onReadPrepareRecord(long transactionID, byte[] extraData, int numberOfRecords) {
+         events.add(reader -> reader.onReadPrepareRecord(transactionID, extraData, numberOfRecords));
+      }
+
+      @Override
+      public void onReadCommitRecord(long transactionID, int numberOfRecords) {
+         events.add(reader -> reader.onReadCommitRecord(transactionID, numberOfRecords));
+      }
+
+      @Override
+      public void onReadRollbackRecord(long transactionID) {
+         events.add(reader -> reader.onReadRollbackRecord(transactionID));
+      }
+
+      @Override
+      public void markAsDataFile(JournalFile file) {
+         events.add(reader -> reader.markAsDataFile(file));
+      }
+
+      @Override
+      public void done() {
+         events.add(reader -> reader.done());
+      }
+   }
+
+   private final SequentialFileFactory fileFactory;
+
+   private final List<JournalFile> files;
+
+   private final ByteObjectHashMap<Boolean> replaceableRecords;
+
+   // each file is read on the executor of index % threads, which reuses one whole file buffer from a file to the next
+   private final ArtemisExecutor[] executors;
+
+   private final List<AtomicReference<ByteBuffer>> buffers = new ArrayList<>();
+
+   private final FutureTask<ReadFile>[] reads;
+
+   private final long[] sizes;
+
+   private final long readAheadSize;
+
+   // the size of the files submitted and not replayed yet
+   private long readAheadBytes;
+
+   private int nextSubmit;
+
+   @SuppressWarnings("unchecked")
+   JournalFilesReader(SequentialFileFactory fileFactory,
+                      List<JournalFile> files,
+                      ExecutorFactory executorFactory,
+                      int threads,
+                      long readAheadSize,
+                      ByteObjectHashMap<Boolean> replaceableRecords) throws Exception {
+      this.fileFactory = fileFactory;
+      this.files = files;
+      this.readAheadSize = readAheadSize;
+      this.replaceableRecords = replaceableRecords;
+      this.reads = new FutureTask[files.size()];
+      this.sizes = new long[files.size()];
+      for (int i = 0; i < sizes.length; i++) {
+         sizes[i] = files.get(i).getFile().size();
+      }
+      this.executors = new ArtemisExecutor[threads];
+      for (int i = 0; i < threads; i++) {
+         executors[i] = executorFactory.getExecutor();
+         buffers.add(new AtomicReference<>());
+      }
+      submitReadAhead();
+   }
+
+   /**
+    * Submits the next files as long as their size fits in the read ahead, at least one file being read ahead.
+    */
+   private void submitReadAhead() {
+      while (nextSubmit < files.size() && (readAheadBytes == 0 || readAheadBytes + sizes[nextSubmit] <= readAheadSize)) {
+         submit(nextSubmit++);
+      }
+   }
+
+   private void submit(int index) {
+      final JournalFile file = files.get(index);
+      final AtomicReference<ByteBuffer> buffer = buffers.get(index % executors.length);
+      final FutureTask<ReadFile> read = new FutureTask<>(() -> {
+         final ReadFile readFile = new ReadFile();
+         readFile.lastDataPos = JournalImpl.readJournalFile(fileFactory, file, readFile, buffer, false, replaceableRecords);
+         return readFile;
+      });
+      reads[index] = read;
+      readAheadBytes += sizes[index];
+      executors[index % executors.length].execute(read);
+   }
+
+   /**
+    * Replays the records of the file at {@code index} on {@code reader}, waiting for it to be read if needed.
+    *
+    * @return the position after the last valid record of the file, as returned by
+    * {@link JournalImpl#readJournalFile(SequentialFileFactory, JournalFile, JournalReaderCallback)}
+    */
+   int replay(int index, JournalReaderCallback reader) throws Exception {
+      final ReadFile readFile;
+      try {
+         readFile = reads[index].get();
+      } catch (ExecutionException e) {
+         if (e.getCause() instanceof Exception cause) {
+            throw cause;
+         }
+         throw e;
+      }
+      reads[index] = null;
+      readAheadBytes -= sizes[index];
+      submitReadAhead();
+      for (ReadEvent event : readFile.events) {
+         event.replay(reader);
+      }
+      return readFile.lastDataPos;
+   }
+
+   @Override
+   public void close() throws InterruptedException {
+      // the pending reads are dropped and the ones in progress are waited for, so no buffer is in use after this
+      for (ArtemisExecutor executor : executors) {
+         executor.shutdownNow(pending -> { }, 1, TimeUnit.MINUTES);
+      }
+      for (AtomicReference<ByteBuffer> buffer : buffers) {
+         final ByteBuffer byteBuffer = buffer.getAndSet(null);
+         if (byteBuffer != null) {
+            fileFactory.releaseDirectBuffer(byteBuffer);
+         }
+      }
+   }
+}
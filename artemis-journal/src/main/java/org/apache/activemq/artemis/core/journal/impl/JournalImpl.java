@@ -30,10 +30,12 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
@@ -297,7 +299,7 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
 
    // Compacting may replace this structure
-   private final ConcurrentLongHashMap<JournalRecord> records = new ConcurrentLongHashMap<>();
+   private JournalRecordIndex records = new HeapJournalRecordIndex();
 
    // Compacting may replace this structure
    private final ConcurrentLongHashMap<JournalTransaction> transactions = new ConcurrentLongHashMap<>();
@@ -350,6 +352,105 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
    private volatile int compactCount = 0;
 
+   private int loadThreads = 1;
+
+   private long loadReadAheadSize = 64 * 1024 * 1024;
+
+   /**
+    * Sets the number of threads reading and parsing the journal files while loading, {@code 1} reading them one after
+    * the other on the loading thread.
+    */
+   public void setLoadThreads(int loadThreads) {
+      this.loadThreads = Math.max(1, loadThreads);
+   }
+
+   public int getLoadThreads() {
+      return loadThreads;
+   }
+
+   /**
+    * Sets the size in bytes of the files read and parsed ahead of the records being loaded when there are several
+    * {@link #setLoadThreads(int) load threads}. At least one file is always read ahead.
+    */
+   public void setLoadReadAheadSize(long loadReadAheadSize) {
+      this.loadReadAheadSize = loadReadAheadSize;
+   }
+
+   public long getLoadReadAheadSize() {
+      return loadReadAheadSize;
+   }
+
+   /**
+    * Sets whether the live records are indexed in direct memory instead of the heap. This must be set before the
+    * journal is loaded.
+    */
+   public void setOffHeapRecordIndex(boolean offHeapRecordIndex) {
+      if (state != JournalState.STOPPED) {
+         throw new IllegalStateException("The record index can only be changed while the journal is stopped");
+      }
+      if (offHeapRecordIndex != isOffHeapRecordIndex()) {
+         records = JournalRecordIndex.create(offHeapRecordIndex);
+      }
+   }
+
+   public boolean isOffHeapRecordIndex() {
+      return records instanceof OffHeapJournalRecordIndex;
+   }
+
+   private int compactMaxFiles = -1;
+
+   // compacting statistics, updated by the single thread compacting
+   private final AtomicLong compactions = new AtomicLong();
+
+   private final AtomicLong compactTime = new AtomicLong();
+
+   private final AtomicLong compactBytes = new AtomicLong();
+
+   private final AtomicLong compactStallTime = new AtomicLong();
+
+   /**
+    * Sets the maximum number of data files a compacting pass processes, {@code -1} processing all of them.
+    * <p>
+    * A bounded pass compacts the oldest data files while the others stay as they are, so it takes less time and moves
+    * less data. When the records of those files would not fit in fewer files, or a pending transaction has records on
+    * both those and other files, all the data files are compacted.
+    */
+   public void setCompactMaxFiles(int compactMaxFiles) {
+      this.compactMaxFiles = compactMaxFiles;
+   }
+
+   public int getCompactMaxFiles() {
+      return compactMaxFiles;
+   }
+
+   /**
+    * {@return the number of compacting passes completed}
+    */
+   public long getCompactions() {
+      return compactions.get();
+   }
+
+   /**
+    * {@return the milliseconds spent compacting}
+    */
+   public long getCompactTime() {
+      return compactTime.get();
+   }
+
+   /**
+    * {@return the bytes of the records compacting copied to new files}
+    */
+   public long getCompactBytes() {
+      return compactBytes.get();
+   }
+
+   /**
+    * {@return the milliseconds compacting held the journal lock, blocking the appends}
+    */
+   public long getCompactStallTime() {
+      return compactStallTime.get();
+   }
+
    public float getCompactPercentage() {
       return compactPercentage;
    }
@@ -503,7 +604,7 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
    }
 
    @Override
-   public ConcurrentLongHashMap<JournalRecord> getRecords() {
+   public JournalRecordIndex getRecords() {
       return records;
    }
 
@@ -936,7 +1037,7 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
          journalLock.readLock().lock();
          try {
             JournalFile usedFile = appendRecord(addRecord, false, sync, null, callback);
-            records.put(id, new JournalRecord(usedFile, addRecordEncodeSize));
+            records.add(id, usedFile, addRecordEncodeSize);
 
             if (logger.isTraceEnabled()) {
                logger.trace("appendAddRecord::id={}, userRecordType={}, record = {}, usedFile = {}",
@@ -1085,8 +1186,8 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
             // compactor will never change while readLock is acquired.
             // but we are doing this since compactor is volatile, to avoid some extra work from JIT
             JournalCompactor compactor = JournalImpl.this.compactor;
-            JournalRecord jrnRecord = records.get(id);
-            if (jrnRecord == null) {
+            final boolean knownRecord = records.contains(id);
+            if (!knownRecord) {
                if (compactor == null || (!compactor.containsRecord(id))) {
                   if (updateCallback != null) {
                      updateCallback.onUpdate(id, false);
@@ -1108,14 +1209,14 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
                logger.trace("appendUpdateRecord::id={}, userRecordType={}, usedFile = {}", id, recordType, usedFile);
             }
 
-            // record==null here could only mean there is a compactor
+            // an unknown record here could only mean there is a compactor
             // computing the delete should be done after compacting is done
-            if (jrnRecord == null) {
+            if (!knownRecord) {
                if (compactor != null) {
                   compactor.addCommandUpdate(id, usedFile, updateRecord.getEncodeSize(), replaceableUpdate);
                }
             } else {
-               jrnRecord.addUpdateFile(usedFile, updateRecord.getEncodeSize(), replaceableUpdate);
+               records.addUpdate(id, usedFile, updateRecord.getEncodeSize(), replaceableUpdate);
             }
 
             if (updateCallback != null) {
@@ -1192,10 +1293,9 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
             // compactor will never change while readLock is acquired.
             // but we are doing this since compactor is volatile, to avoid some extra work from JIT
             JournalCompactor compactor = JournalImpl.this.compactor;
-            JournalRecord record = null;
+            final boolean knownRecord = records.contains(id);
             if (compactor == null) {
-               record = records.remove(id);
-               if (record == null) {
+               if (!knownRecord) {
                   if (updateCallback != null) {
                      updateCallback.onUpdate(id, false);
                   }
@@ -1206,7 +1306,7 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
                   return;
                }
             } else {
-               if (!records.containsKey(id) && !compactor.containsRecord(id)) {
+               if (!knownRecord && !compactor.containsRecord(id)) {
                   if (updateCallback != null) {
                      updateCallback.onUpdate(id, false);
                   }
@@ -1224,13 +1324,13 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
                logger.trace("appendDeleteRecord::id={}, usedFile = {}", id, usedFile);
             }
 
-            // record==null here could only mean there is a compactor
+            // an unknown record here could only mean there is a compactor
             // computing the delete should be done after compacting is done
-            if (record == null) {
+            if (!knownRecord) {
                // JournalImplTestUni::testDoubleDelete was written to validate this condition:
                compactor.addCommandDelete(id, usedFile);
             } else {
-               record.delete(usedFile);
+               records.delete(id, usedFile);
             }
             if (updateCallback != null) {
                updateCallback.onUpdate(id, true);
@@ -1748,6 +1848,18 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
     * will still come as this is being executed
     */
    public synchronized void compact() {
+      if (!compact(true)) {
+         compact(false);
+      }
+   }
+
+   /**
+    * @param incremental whether the pass may compact only the oldest data files, as bounded by
+    *                    {@link #setCompactMaxFiles(int)}
+    * @return {@code false} if compacting only the oldest data files was cancelled as their records did not fit in the
+    * files they replace
+    */
+   private boolean compact(final boolean incremental) {
 
       if (compactor != null) {
          throw new IllegalStateException("There is pending compacting operation");
@@ -1758,9 +1870,11 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
          logger.debug("JournalImpl::compact {} for its {} time", JournalImpl.this, compactCount);
       }
 
+      final long compactStart = System.nanoTime();
+
       compactorLock.writeLock().lock();
       try {
-         List<JournalFile> dataFilesToProcess;
+         List<JournalFile> dataFilesToProcess = null;
 
          boolean previousReclaimValue = isAutoReclaim();
 
@@ -1769,10 +1883,10 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
             onCompactStart();
 
-            dataFilesToProcess = getDataListToCompact();
+            dataFilesToProcess = getDataListToCompact(incremental);
 
             if (dataFilesToProcess == null) {
-               return;
+               return true;
             }
 
             Collections.sort(dataFilesToProcess, JOURNAL_FILE_COMPARATOR);
@@ -1789,7 +1903,9 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
                   try {
                      JournalImpl.readJournalFile(fileFactory, file, compactor, wholeFileBufferRef, false, this.replaceableRecords);
                   } catch (Throwable e) {
-                     ActiveMQJournalLogger.LOGGER.compactReadError(file);
+                     if (!compactor.isOrderingIDLimitReached()) {
+                        ActiveMQJournalLogger.LOGGER.compactReadError(file);
+                     }
                      throw new Exception("Error on reading compacting for " + file, e);
                   }
                }
@@ -1814,6 +1930,7 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
             SequentialFile controlFile = createControlFile(dataFilesToProcess, compactor.getNewDataFiles(), null);
 
+            final long lockStart = System.nanoTime();
             journalLock.writeLock().lock();
             try {
                // Need to clear the compactor here, or the replay commands will send commands back (infinite loop)
@@ -1823,10 +1940,13 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
                newDatafiles = localCompactor.getNewDataFiles();
 
+               // The files left as they are no longer count the deletes of the records of the compacted files
+               if (localCompactor.getCompactedFiles() != null) {
+                  localCompactor.getCompactedFiles().forEach(filesRepository::removeNegatives);
+               }
+
                // Restore newRecords created during compacting
-               localCompactor.getNewRecords().forEach((id, newRecord) -> {
-                  records.put(id, newRecord);
-               });
+               localCompactor.restoreRecords(records);
 
                // Restore compacted dataFiles
                for (int i = newDatafiles.size() - 1; i >= 0; i--) {
@@ -1861,9 +1981,10 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
                });
             } catch (Throwable e) {
                fileFactory.onIOError(e, e.getMessage());
-               return;
+               return true;
             } finally {
                journalLock.writeLock().unlock();
+               compactStallTime.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lockStart));
             }
 
             // At this point the journal is unlocked. We keep renaming files while the journal is already operational
@@ -1874,9 +1995,25 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
             setAutoReclaim(previousReclaimValue);
 
+            compactions.incrementAndGet();
+            compactBytes.addAndGet(localCompactor.getBytesWritten());
+            compactTime.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - compactStart));
+
             logger.debug("Finished compacting on journal {}", this);
 
          } catch (Throwable e) {
+            final JournalCompactor localCompactor = compactor;
+            if (localCompactor != null && localCompactor.isOrderingIDLimitReached()) {
+               logger.debug("Cancelling the incremental compacting on journal {}", this, e);
+               try {
+                  cancelCompacting(localCompactor, dataFilesToProcess);
+                  setAutoReclaim(previousReclaimValue);
+                  ActiveMQJournalLogger.LOGGER.incrementalCompactCancelled(dataFilesToProcess.size(), this);
+                  return false;
+               } catch (Throwable cancelError) {
+                  e.addSuppressed(cancelError);
+               }
+            }
             fileFactory.onIOError(e, e.getMessage());
          }
       } finally {
@@ -1885,6 +2022,28 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
       }
 
+      return true;
+   }
+
+   /**
+    * Puts back the oldest data files and their records after their compacting was cancelled, before any file was
+    * replaced.
+    */
+   private void cancelCompacting(final JournalCompactor localCompactor, final List<JournalFile> compactedFiles) throws Exception {
+      final long lockStart = System.nanoTime();
+      journalLock.writeLock().lock();
+      try {
+         compactor = null;
+
+         localCompactor.cancel(records);
+
+         for (int i = compactedFiles.size() - 1; i >= 0; i--) {
+            filesRepository.addDataFileOnTop(compactedFiles.get(i));
+         }
+      } finally {
+         journalLock.writeLock().unlock();
+         compactStallTime.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lockStart));
+      }
    }
 
    /**
@@ -1892,10 +2051,11 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
     * it on the journal structure, while a separate thread would be able to read it, and append to a new list that will
     * be replaced on the journal.
     */
-   private List<JournalFile> getDataListToCompact() throws Exception {
+   private List<JournalFile> getDataListToCompact(final boolean incremental) throws Exception {
       List<JournalFile> dataFilesToProcess = new ArrayList<>(filesRepository.getDataFilesCount());
       // We need to guarantee that the journal is frozen for this short time
       // We don't freeze the journal as we compact, only for the short time where we replace records
+      final long lockStart = System.nanoTime();
       journalLock.writeLock().lock();
       try {
          if (state != JournalState.LOADED) {
@@ -1906,42 +2066,138 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
          setAutoReclaim(false);
 
-         // We need to move to the next file, as we need a clear start for negatives and positives counts
-         moveNextFile(false, true);
+         final List<JournalFile> oldestDataFiles = incremental ? getDataFilesToCompactIncrementally() : null;
 
-         // Take the snapshots and replace the structures
+         if (oldestDataFiles != null) {
+            // Only the oldest files are replaced, the current file and the other data files stay as they are
+            final Set<JournalFile> compactedFiles = new HashSet<>(oldestDataFiles);
 
-         dataFilesToProcess.addAll(filesRepository.getDataFiles());
+            dataFilesToProcess.addAll(oldestDataFiles);
 
-         filesRepository.clearDataFiles();
+            // the other files keep counting the deletes of their records until the compacted files replace them
+            filesRepository.getDataFiles().removeAll(compactedFiles);
 
-         if (dataFilesToProcess.isEmpty()) {
-            logger.trace("Finishing compacting, nothing to process");
-            return null;
-         }
+            long firstRetainedFileID = currentFile.getFileID();
+            for (JournalFile file : filesRepository.getDataFiles()) {
+               firstRetainedFileID = Math.min(firstRetainedFileID, file.getFileID());
+            }
 
-         compactor = new JournalCompactor(fileFactory, this, filesRepository, records.keysLongHashSet(), dataFilesToProcess.get(0).getFileID());
+            final HeapJournalRecordIndex compactedRecords = records.removeAddedTo(compactedFiles);
 
-         if (replaceableRecords != null) {
-            replaceableRecords.forEach((k, v) -> compactor.replaceableRecord(k));
-         }
+            compactor = new JournalCompactor(fileFactory, this, filesRepository, compactedRecords.keys(), dataFilesToProcess.get(0).getFileID());
 
-         transactions.forEach((id, pendingTransaction) -> {
-            compactor.addPendingTransaction(id, pendingTransaction.getPositiveArray());
-            pendingTransaction.setCompacting();
-         });
+            compactor.setCompactedFiles(compactedFiles, compactedRecords, firstRetainedFileID);
+
+            if (replaceableRecords != null) {
+               replaceableRecords.forEach((k, v) -> compactor.replaceableRecord(k));
+            }
+
+            transactions.forEach((id, pendingTransaction) -> {
+               if (pendingTransaction.isOnAnyFile(compactedFiles)) {
+                  compactor.addPendingTransaction(id, pendingTransaction.getPositiveArray());
+                  compactor.addCompactedTransaction(pendingTransaction);
+                  pendingTransaction.setCompacting();
+               }
+            });
+
+            logger.debug("Compacting {} of the data files on journal {}", oldestDataFiles.size(), this);
+         } else {
+            // We need to move to the next file, as we need a clear start for negatives and positives counts
+            moveNextFile(false, true);
+
+            // Take the snapshots and replace the structures
+
+            dataFilesToProcess.addAll(filesRepository.getDataFiles());
+
+            filesRepository.clearDataFiles();
+
+            if (dataFilesToProcess.isEmpty()) {
+               logger.trace("Finishing compacting, nothing to process");
+               return null;
+            }
+
+            compactor = new JournalCompactor(fileFactory, this, filesRepository, records.keys(), dataFilesToProcess.get(0).getFileID());
+
+            if (replaceableRecords != null) {
+               replaceableRecords.forEach((k, v) -> compactor.replaceableRecord(k));
+            }
 
-         // We will calculate the new records during compacting, what will take the position the records will take
-         // after compacting
-         records.clear();
+            transactions.forEach((id, pendingTransaction) -> {
+               compactor.addPendingTransaction(id, pendingTransaction.getPositiveArray());
+               pendingTransaction.setCompacting();
+            });
+
+            // We will calculate the new records during compacting, what will take the position the records will take
+            // after compacting
+            records.clear();
+         }
       } finally {
          journalLock.writeLock().unlock();
+         compactStallTime.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lockStart));
       }
 
       processBackup();
       return dataFilesToProcess;
    }
 
+   /**
+    * {@return the bytes of live records expected to fit in each file replaced by compacting only the oldest data files}
+    */
+   protected long getIncrementalCompactUsableFileSize() {
+      return (fileSize - JournalImpl.SIZE_HEADER) / 2;
+   }
+
+   /**
+    * {@return the oldest data files to compact when the compacting passes are bounded by
+    * {@link #setCompactMaxFiles(int)}, or {@code null} to compact all the data files}
+    */
+   private List<JournalFile> getDataFilesToCompactIncrementally() {
+      if (compactMaxFiles <= 0 || filesRepository.getDataFilesCount() <= compactMaxFiles) {
+         return null;
+      }
+
+      final List<JournalFile> dataFiles = new ArrayList<>(filesRepository.getDataFiles());
+      dataFiles.sort(JOURNAL_FILE_COMPARATOR);
+
+      // The compacted files take the ids of the files they replace, which must stay lower than the ids of the files
+      // left as they are, so the records have to fit in fewer files: one file is kept for the split of old and new
+      // records, another one and half of each file for the space wasted at the end of the files. The records of the
+      // pending transactions are rewritten too, though they are not accounted in the live size of the files yet.
+      // The compactor still fails the pass if the estimate was wrong, before any file is replaced, and the pass is
+      // then cancelled for one compacting all the data files.
+      final long usableFileSize = getIncrementalCompactUsableFileSize();
+      long liveSize = 0;
+      long lastCommitFileID = -1;
+      int files = 0;
+      for (int i = 0; i < compactMaxFiles; i++) {
+         final JournalFile file = dataFiles.get(i);
+         liveSize += file.getLiveSize();
+         for (JournalTransaction transaction : transactions.values()) {
+            liveSize += transaction.getSize(file);
+         }
+         // the records of a transaction committed on a later file can't be rewritten without its commit record
+         lastCommitFileID = Math.max(lastCommitFileID, file.getLastTransactionCommitFileID());
+         if (liveSize <= (i - 1) * usableFileSize && lastCommitFileID <= file.getFileID()) {
+            files = i + 1;
+         }
+      }
+      if (files == 0) {
+         return null;
+      }
+
+      final List<JournalFile> oldestDataFiles = dataFiles.subList(0, files);
+
+      // a pending transaction would be split between the compacted files and the others
+      final Set<JournalFile> compactedFiles = new HashSet<>(oldestDataFiles);
+      for (JournalTransaction transaction : transactions.values()) {
+         if (transaction.isOnAnyFile(compactedFiles) && transaction.isOnOtherFiles(compactedFiles)) {
+            return null;
+         }
+      }
+
+      return oldestDataFiles;
+   }
+
    /**
     * <p>Load data accordingly to the record layouts</p>
     * <p>Basic record layout:</p>
@@ -1987,7 +2243,8 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
    private synchronized JournalLoadInformation load(final LoaderCallback loadManager,
                                                     final boolean changeData,
                                                     final JournalState replicationSync,
-                                                    final AtomicReference<ByteBuffer> wholeFileBufferRef) throws Exception {
+                                                    final AtomicReference<ByteBuffer> wholeFileBufferRef,
+                                                    final AtomicReference<JournalFilesReader> filesReaderRef) throws Exception {
       JournalState state;
       assert (state = this.state) != JournalState.STOPPED &&
          state != JournalState.LOADED &&
@@ -2013,12 +2270,19 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
       // AtomicLong is used only as a reference, not as an Atomic value
       final AtomicLong maxID = new AtomicLong(-1);
 
+      if (loadThreads > 1 && orderedFiles.size() > 1) {
+         // files are read ahead by other threads, their records are still applied here in the order of the files
+         filesReaderRef.set(new JournalFilesReader(fileFactory, orderedFiles, ioExecutorFactory, loadThreads, loadReadAheadSize, this.replaceableRecords));
+      }
+
+      int fileIndex = 0;
+
       for (final JournalFile file : orderedFiles) {
          logger.trace("Loading file {}", file.getFile().getFileName());
 
          final AtomicBoolean hasData = new AtomicBoolean(false);
 
-         int resultLastPost = JournalImpl.readJournalFile(fileFactory, file, new JournalReaderCallback() {
+         int resultLastPost = readJournalFile(filesReaderRef.get(), fileIndex++, file, new JournalReaderCallback() {
 
             private void checkID(final long id) {
                if (id > maxID.longValue()) {
@@ -2034,7 +2298,7 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
                loadManager.addRecord(info);
 
-               records.put(info.id, new JournalRecord(file, info.data.length + JournalImpl.SIZE_ADD_RECORD + 1));
+               records.add(info.id, file, info.data.length + JournalImpl.SIZE_ADD_RECORD + 1);
             }
 
             @Override
@@ -2045,16 +2309,11 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
                loadManager.updateRecord(info);
 
-               JournalRecord posFiles = records.get(info.id);
-
-               if (posFiles != null) {
-                  // It's legal for this to be null. The file(s) with the may
-                  // have been deleted
-                  // just leaving some updates in this file
-
-                  posFiles.addUpdateFile(file, info.data.length + JournalImpl.SIZE_ADD_RECORD + 1, info.replaceableUpdate); // +1 = compact
-                  // count
-               }
+               // It's legal for the record to be unknown. The file(s) with the add
+               // may have been deleted
+               // just leaving some updates in this file
+               records.addUpdate(info.id, file, info.data.length + JournalImpl.SIZE_ADD_RECORD + 1, info.replaceableUpdate); // +1 = compact
+               // count
             }
 
             @Override
@@ -2063,11 +2322,7 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
                loadManager.deleteRecord(recordID);
 
-               JournalRecord posFiles = records.remove(recordID);
-
-               if (posFiles != null) {
-                  posFiles.delete(file);
-               }
+               records.delete(recordID, file);
             }
 
             @Override
@@ -2240,7 +2495,7 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
                hasData.lazySet(true);
             }
 
-         }, wholeFileBufferRef, false, this.replaceableRecords);
+         }, wholeFileBufferRef);
 
          if (hasData.get()) {
             lastDataPos = resultLastPost;
@@ -2297,6 +2552,17 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
       return new JournalLoadInformation(records.size(), maxID.longValue());
    }
 
+   private int readJournalFile(final JournalFilesReader filesReader,
+                               final int fileIndex,
+                               final JournalFile file,
+                               final JournalReaderCallback reader,
+                               final AtomicReference<ByteBuffer> wholeFileBufferRef) throws Exception {
+      if (filesReader != null) {
+         return filesReader.replay(fileIndex, reader);
+      }
+      return JournalImpl.readJournalFile(fileFactory, file, reader, wholeFileBufferRef, false, this.replaceableRecords);
+   }
+
    private synchronized JournalLoadInformation load(final LoaderCallback loadManager,
                                                     final boolean changeData,
                                                     final JournalState replicationSync) throws Exception {
@@ -2310,9 +2576,14 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
       }
       // AtomicReference is used only as a reference, not as an Atomic value
       final AtomicReference<ByteBuffer> wholeFileBufferRef = new AtomicReference<>();
+      final AtomicReference<JournalFilesReader> filesReaderRef = new AtomicReference<>();
       try {
-         return load(loadManager, changeData, replicationSync, wholeFileBufferRef);
+         return load(loadManager, changeData, replicationSync, wholeFileBufferRef, filesReaderRef);
       } finally {
+         final JournalFilesReader filesReader = filesReaderRef.get();
+         if (filesReader != null) {
+            filesReader.close();
+         }
          final ByteBuffer wholeFileBuffer = wholeFileBufferRef.get();
          if (wholeFileBuffer != null) {
             fileFactory.releaseDirectBuffer(wholeFileBuffer);
@@ -37,15 +37,60 @@ public class JournalRecord {
    private ObjIntIntArrayList<JournalFile> fileUpdates;
 
    public JournalRecord(final JournalFile addFile, final int size) {
+      this(addFile, size, true);
+   }
+
+   private JournalRecord(final JournalFile addFile, final int size, final boolean account) {
       this.addFile = Objects.requireNonNull(addFile);
 
       this.size = size;
 
-      addFile.incPosCount();
+      if (account) {
+         addFile.incPosCount();
+
+         addFile.addSize(size);
+
+         addFile.incAddRecord();
+      }
+   }
+
+   /**
+    * {@return a record whose add was already accounted on {@code addFile}}
+    */
+   static JournalRecord accounted(final JournalFile addFile, final int size) {
+      return new JournalRecord(addFile, size, false);
+   }
+
+   JournalFile getAddFile() {
+      return addFile;
+   }
+
+   int getSize() {
+      return size;
+   }
 
-      addFile.addSize(size);
+   /**
+    * Calls {@code onFile} with each file the record was updated on, the bytes and the number of the updates.
+    */
+   <A> void forEachUpdate(ObjIntIntArrayList.ObjIntIntConsumerOneArg<? super JournalFile, ? super A> onFile, A arg) {
+      final ObjIntIntArrayList<JournalFile> fileUpdates = this.fileUpdates;
+      if (fileUpdates != null) {
+         fileUpdates.forEach(onFile, arg);
+      }
+   }
 
-      addFile.incAddRecord();
+   /**
+    * Adds {@code count} updates already accounted on {@code updateFile}.
+    */
+   void addAccountedUpdate(final JournalFile updateFile, final int bytes, final int count) {
+      checkNotDeleted();
+      if (fileUpdates == null) {
+         fileUpdates = new ObjIntIntArrayList<>(INITIAL_FILES_CAPACITY);
+      }
+      final int files = fileUpdates.size();
+      if (files == 0 || !fileUpdates.addToIntsIfMatch(files - 1, updateFile, bytes, count)) {
+         fileUpdates.add(updateFile, bytes, count);
+      }
    }
 
    void addUpdateFile(final JournalFile updateFile, final int bytes, boolean replaceableUpdate) {
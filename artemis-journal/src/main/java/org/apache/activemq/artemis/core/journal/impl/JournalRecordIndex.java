@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.journal.impl;
+
+import java.util.Set;
+
+import org.apache.activemq.artemis.utils.collections.ConcurrentLongHashSet;
+
+/**
+ * The live records of a journal, keeping the reference counts of the files they were appended to in sync.
+ * <p>
+ * Adding a record accounts it on the file it was appended to, updating it on the file of the update, and deleting it
+ * releases the accounts of all of them so the files can be reclaimed.
+ */
+public interface JournalRecordIndex {
+
+   static JournalRecordIndex create(boolean offHeap) {
+      return offHeap ? new OffHeapJournalRecordIndex() : new HeapJournalRecordIndex();
+   }
+
+   /**
+    * Adds a record appended to {@code file}.
+    */
+   void add(long id, JournalFile file, int size);
+
+   /**
+    * Adds a record whose files were already accounted, ie created while compacting.
+    */
+   void put(long id, JournalRecord record);
+
+   /**
+    * Accounts an update of the record appended to {@code file}.
+    *
+    * @return {@code false} if there is no such record
+    */
+   boolean addUpdate(long id, JournalFile file, int bytes, boolean replaceableUpdate);
+
+   /**
+    * Removes the record deleted by a delete record appended to {@code file}.
+    *
+    * @return {@code false} if there is no such record
+    */
+   boolean delete(long id, JournalFile file);
+
+   /**
+    * Removes the records added to any of {@code files} without releasing the accounts of their files, ie to compact
+    * those files.
+    *
+    * @return the removed records
+    */
+   HeapJournalRecordIndex removeAddedTo(Set<JournalFile> files);
+
+   boolean contains(long id);
+
+   int size();
+
+   ConcurrentLongHashSet keys();
+
+   void clear();
+}
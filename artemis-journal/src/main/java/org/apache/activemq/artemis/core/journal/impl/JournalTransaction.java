@@ -147,6 +147,48 @@ public class JournalTransaction implements IOCallback {
       compacting = false;
    }
 
+   /**
+    * {@return a copy of the records of this transaction}
+    */
+   JournalTransaction copy() {
+      final JournalTransaction copy = new JournalTransaction(id, journal);
+      copy.merge(this);
+      return copy;
+   }
+
+   /**
+    * Puts back the records cleared by {@link #setCompacting()}, kept by {@code previous}, in front of the ones appended
+    * since, when compacting is cancelled.
+    */
+   void restore(final JournalTransaction previous) {
+      previous.merge(this);
+      pos = previous.pos;
+      neg = previous.neg;
+      pendingFiles = previous.pendingFiles;
+      compacting = false;
+   }
+
+   /**
+    * {@return whether the transaction has records on any of {@code files}}
+    */
+   boolean isOnAnyFile(final Set<JournalFile> files) {
+      if (pendingFiles != null) {
+         for (JournalFile file : pendingFiles) {
+            if (files.contains(file)) {
+               return true;
+            }
+         }
+      }
+      return false;
+   }
+
+   /**
+    * {@return whether the transaction has records on files other than {@code files}}
+    */
+   boolean isOnOtherFiles(final Set<JournalFile> files) {
+      return pendingFiles != null && !files.containsAll(pendingFiles);
+   }
+
    public void clear() {
       // / Compacting is recreating all the previous files and everything
       // / so we just clear the list of previous files, previous pos and previous adds
@@ -192,6 +234,28 @@ public class JournalTransaction implements IOCallback {
       pos.add(new JournalUpdate(file, id, size, replaceableRecord));
    }
 
+   /**
+    * {@return the number of bytes of the records of this transaction appended to {@code file}}
+    */
+   public long getSize(final JournalFile file) {
+      long size = 0;
+      if (pos != null) {
+         for (JournalUpdate update : pos) {
+            if (update.file == file) {
+               size += update.size;
+            }
+         }
+      }
+      if (neg != null) {
+         for (JournalUpdate update : neg) {
+            if (update.file == file) {
+               size += JournalImpl.SIZE_DELETE_RECORD_TX;
+            }
+         }
+      }
+      return size;
+   }
+
    public void addNegative(final JournalFile file, final long id) {
       incCounter(file);
 
@@ -228,19 +292,13 @@ public class JournalTransaction implements IOCallback {
 
          if (pos != null) {
             for (JournalUpdate trUpdate : pos) {
-               JournalRecord posFiles = journal.getRecords().get(trUpdate.id);
-
                if (compactor != null && compactor.containsRecord(trUpdate.id)) {
                   // This is a case where the transaction was opened after compacting was started,
                   // but the commit arrived while compacting was working
                   // We need to cache the counter update, so compacting will take the correct files when it is done
                   compactor.addCommandUpdate(trUpdate.id, trUpdate.file, trUpdate.size, trUpdate.replaceableUpdate);
-               } else if (posFiles == null) {
-                  posFiles = new JournalRecord(trUpdate.file, trUpdate.size);
-
-                  journal.getRecords().put(trUpdate.id, posFiles);
-               } else {
-                  posFiles.addUpdateFile(trUpdate.file, trUpdate.size, trUpdate.replaceableUpdate);
+               } else if (!journal.getRecords().addUpdate(trUpdate.id, trUpdate.file, trUpdate.size, trUpdate.replaceableUpdate)) {
+                  journal.getRecords().add(trUpdate.id, trUpdate.file, trUpdate.size);
                }
             }
          }
@@ -250,11 +308,7 @@ public class JournalTransaction implements IOCallback {
                if (compactor != null) {
                   compactor.addCommandDelete(trDelete.id, trDelete.file);
                } else {
-                  JournalRecord posFiles = journal.getRecords().remove(trDelete.id);
-
-                  if (posFiles != null) {
-                     posFiles.delete(trDelete.file);
-                  }
+                  journal.getRecords().delete(trDelete.id, trDelete.file);
                }
             }
          }
@@ -264,6 +318,9 @@ public class JournalTransaction implements IOCallback {
 
          for (JournalFile jf : pendingFiles) {
             file.incNegCount(jf);
+            if (jf != file) {
+               jf.transactionCommittedOn(file);
+            }
          }
       }
    }
@@ -0,0 +1,485 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.journal.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Set;
+
+import io.netty.util.internal.PlatformDependent;
+import org.apache.activemq.artemis.utils.collections.ConcurrentLongHashMap;
+import org.apache.activemq.artemis.utils.collections.ConcurrentLongHashSet;
+
+/**
+ * {@link JournalRecordIndex} storing the records in direct memory, so that millions of live records do not take any
+ * object on the heap.
+ * <p>
+ * This is an open addressing hash table with linear probing whose entries pack the id of the record, the id and size
+ * of the file it was added to and the id, bytes and number of updates of the first file it was updated on. The few
+ * records updated on more than one file keep the others in an {@link ObjIntIntArrayList} on the heap, as
+ * {@link JournalRecord} does. The files referenced by the entries are resolved by their id.
+ * <p>
+ * Keys must be positive, as with {@link ConcurrentLongHashMap}.
+ */
+public final class OffHeapJournalRecordIndex implements JournalRecordIndex {
+
+   static final int ENTRY_SIZE = 40;
+
+   private static final int KEY_OFFSET = 0;
+   private static final int ADD_FILE_OFFSET = 8;
+   private static final int ADD_SIZE_OFFSET = 16;
+   private static final int UPDATE_BYTES_OFFSET = 20;
+   private static final int UPDATE_FILE_OFFSET = 24;
+   private static final int UPDATE_COUNT_OFFSET = 32;
+   private static final int FLAGS_OFFSET = 36;
+
+   private static final int HAS_MORE_UPDATES = 1;
+
+   // the memory is filled with -1 bytes, so both keys and file ids of a new table are -1
+   private static final long EMPTY = -1;
+   private static final long NO_FILE = -1;
+
+   private static final int SEGMENT_BITS = 20;
+   private static final int SEGMENT_SLOTS = 1 << SEGMENT_BITS;
+   private static final int MAX_CAPACITY = 1 << 30;
+   private static final int DEFAULT_INITIAL_CAPACITY = 1024;
+   private static final float LOAD_FACTOR = 0.75f;
+
+   private final int initialCapacity;
+
+   private ByteBuffer[] segments;
+
+   private int capacity;
+
+   private int mask;
+
+   private int size;
+
+   private int resizeThreshold;
+
+   private final ConcurrentLongHashMap<FileReferences> files = new ConcurrentLongHashMap<>();
+
+   private final ConcurrentLongHashMap<ObjIntIntArrayList<JournalFile>> moreUpdates = new ConcurrentLongHashMap<>();
+
+   public OffHeapJournalRecordIndex() {
+      this(DEFAULT_INITIAL_CAPACITY);
+   }
+
+   public OffHeapJournalRecordIndex(int initialCapacity) {
+      if (initialCapacity <= 0 || initialCapacity > MAX_CAPACITY) {
+         throw new IllegalArgumentException("initialCapacity must be > 0 and <= " + MAX_CAPACITY);
+      }
+      int capacity = 2;
+      while (capacity < initialCapacity) {
+         capacity <<= 1;
+      }
+      this.initialCapacity = capacity;
+      allocate(capacity);
+   }
+
+   @Override
+   public synchronized void add(long id, JournalFile file, int size) {
+      checkKey(id);
+      file.incPosCount();
+      file.addSize(size);
+      file.incAddRecord();
+      final int slot = insert(id);
+      setAddFile(slot, file, size);
+   }
+
+   @Override
+   public synchronized void put(long id, JournalRecord record) {
+      checkKey(id);
+      final int slot = insert(id);
+      setAddFile(slot, record.getAddFile(), record.getSize());
+      record.forEachUpdate((file, bytes, count, index) -> index.putUpdate(id, file, bytes, count), this);
+   }
+
+   @Override
+   public synchronized boolean addUpdate(long id, JournalFile file, int bytes, boolean replaceableUpdate) {
+      final int slot = find(id);
+      if (slot < 0) {
+         return false;
+      }
+      if (bytes == 0) {
+         return true;
+      }
+      file.incPosCount();
+      file.addSize(bytes);
+      if (!mergeUpdate(id, slot, file, bytes, 1) && replaceableUpdate) {
+         file.incReplaceableCount();
+      }
+      return true;
+   }
+
+   @Override
+   public synchronized boolean delete(long id, JournalFile file) {
+      final int slot = find(id);
+      if (slot < 0) {
+         return false;
+      }
+      final ByteBuffer segment = segment(slot);
+      final int offset = offset(slot);
+      final JournalFile addFile = file(segment.getLong(offset + ADD_FILE_OFFSET));
+      file.incNegCount(addFile);
+      addFile.decSize(segment.getInt(offset + ADD_SIZE_OFFSET));
+      release(addFile);
+      final long updateFileID = segment.getLong(offset + UPDATE_FILE_OFFSET);
+      if (updateFileID != NO_FILE) {
+         final JournalFile updateFile = file(updateFileID);
+         file.incNegCount(updateFile, segment.getInt(offset + UPDATE_COUNT_OFFSET));
+         updateFile.decSize(segment.getInt(offset + UPDATE_BYTES_OFFSET));
+         release(updateFile);
+      }
+      if ((segment.getInt(offset + FLAGS_OFFSET) & HAS_MORE_UPDATES) != 0) {
+         moreUpdates.remove(id).forEach((updateFile, bytes, count, deleteFile) -> {
+            deleteFile.incNegCount(updateFile, count);
+            updateFile.decSize(bytes);
+         }, file);
+      }
+      remove(slot);
+      return true;
+   }
+
+   @Override
+   public synchronized HeapJournalRecordIndex removeAddedTo(Set<JournalFile> files) {
+      final HeapJournalRecordIndex removed = new HeapJournalRecordIndex();
+      for (int slot = 0; slot < capacity; slot++) {
+         final ByteBuffer segment = segment(slot);
+         final int offset = offset(slot);
+         final long key = segment.getLong(offset + KEY_OFFSET);
+         if (key != EMPTY && files.contains(file(segment.getLong(offset + ADD_FILE_OFFSET)))) {
+            removed.put(key, record(key, segment, offset));
+         }
+      }
+      // removing moves entries back, so they are removed once all of them were found
+      removed.forEach((id, record) -> {
+         final int slot = find(id);
+         clearEntry(id, segment(slot), offset(slot));
+         remove(slot);
+      });
+      return removed;
+   }
+
+   @Override
+   public synchronized boolean contains(long id) {
+      return find(id) >= 0;
+   }
+
+   @Override
+   public synchronized int size() {
+      return size;
+   }
+
+   @Override
+   public synchronized ConcurrentLongHashSet keys() {
+      final ConcurrentLongHashSet keys = new ConcurrentLongHashSet(Math.max(size, 1));
+      for (int slot = 0; slot < capacity; slot++) {
+         final long key = segment(slot).getLong(offset(slot) + KEY_OFFSET);
+         if (key != EMPTY) {
+            keys.add(key);
+         }
+      }
+      return keys;
+   }
+
+   @Override
+   public synchronized void clear() {
+      free();
+      allocate(initialCapacity);
+      size = 0;
+      files.clear();
+      moreUpdates.clear();
+   }
+
+   /**
+    * {@return the bytes of direct memory taken by the table}
+    */
+   public synchronized long getMemorySize() {
+      return (long) capacity * ENTRY_SIZE;
+   }
+
+   private void putUpdate(long id, JournalFile file, int bytes, int count) {
+      mergeUpdate(id, find(id), file, bytes, count);
+   }
+
+   /**
+    * Adds the update to the last file the record was updated on if it is {@code file}, as
+    * {@link JournalRecord#addUpdateFile(JournalFile, int, boolean)} does.
+    *
+    * @return {@code true} if the update was added to the last file
+    */
+   private boolean mergeUpdate(long id, int slot, JournalFile file, int bytes, int count) {
+      final ByteBuffer segment = segment(slot);
+      final int offset = offset(slot);
+      if ((segment.getInt(offset + FLAGS_OFFSET) & HAS_MORE_UPDATES) != 0) {
+         final ObjIntIntArrayList<JournalFile> updates = moreUpdates.get(id);
+         if (updates.addToIntsIfMatch(updates.size() - 1, file, bytes, count)) {
+            return true;
+         }
+         updates.add(file, bytes, count);
+         return false;
+      }
+      final long updateFileID = segment.getLong(offset + UPDATE_FILE_OFFSET);
+      if (updateFileID == NO_FILE) {
+         segment.putLong(offset + UPDATE_FILE_OFFSET, reference(file));
+         segment.putInt(offset + UPDATE_BYTES_OFFSET, bytes);
+         segment.putInt(offset + UPDATE_COUNT_OFFSET, count);
+         return false;
+      }
+      if (updateFileID == file.getFileID()) {
+         final long newBytes = (long) segment.getInt(offset + UPDATE_BYTES_OFFSET) + bytes;
+         final long newCount = (long) segment.getInt(offset + UPDATE_COUNT_OFFSET) + count;
+         if (newBytes <= Integer.MAX_VALUE && newCount <= Integer.MAX_VALUE) {
+            segment.putInt(offset + UPDATE_BYTES_OFFSET, (int) newBytes);
+            segment.putInt(offset + UPDATE_COUNT_OFFSET, (int) newCount);
+            return true;
+         }
+      }
+      final ObjIntIntArrayList<JournalFile> updates = new ObjIntIntArrayList<>(2);
+      updates.add(file, bytes, count);
+      moreUpdates.put(id, updates);
+      segment.putInt(offset + FLAGS_OFFSET, HAS_MORE_UPDATES);
+      return false;
+   }
+
+   private JournalRecord record(long id, ByteBuffer segment, int offset) {
+      final JournalRecord record = JournalRecord.accounted(file(segment.getLong(offset + ADD_FILE_OFFSET)), segment.getInt(offset + ADD_SIZE_OFFSET));
+      final long updateFileID = segment.getLong(offset + UPDATE_FILE_OFFSET);
+      if (updateFileID != NO_FILE) {
+         record.addAccountedUpdate(file(updateFileID), segment.getInt(offset + UPDATE_BYTES_OFFSET), segment.getInt(offset + UPDATE_COUNT_OFFSET));
+      }
+      if ((segment.getInt(offset + FLAGS_OFFSET) & HAS_MORE_UPDATES) != 0) {
+         moreUpdates.get(id).forEach((file, bytes, count, journalRecord) -> journalRecord.addAccountedUpdate(file, bytes, count), record);
+      }
+      return record;
+   }
+
+   private void setAddFile(int slot, JournalFile file, int size) {
+      final ByteBuffer segment = segment(slot);
+      final int offset = offset(slot);
+      segment.putLong(offset + ADD_FILE_OFFSET, reference(file));
+      segment.putInt(offset + ADD_SIZE_OFFSET, size);
+   }
+
+   private long reference(JournalFile file) {
+      final long fileID = file.getFileID();
+      FileReferences references = files.get(fileID);
+      if (references == null) {
+         references = new FileReferences(file);
+         files.put(fileID, references);
+      }
+      references.count++;
+      return fileID;
+   }
+
+   private void release(JournalFile file) {
+      final long fileID = file.getFileID();
+      final FileReferences references = files.get(fileID);
+      if (--references.count == 0) {
+         files.remove(fileID);
+      }
+   }
+
+   private JournalFile file(long fileID) {
+      return files.get(fileID).file;
+   }
+
+   private static void checkKey(long id) {
+      if (id < 0) {
+         throw new IllegalArgumentException("Keys can't be negative");
+      }
+   }
+
+   private static int hash(long key) {
+      final long hash = key * 0x9E3779B97F4A7C15L;
+      return (int) (hash ^ (hash >>> 32));
+   }
+
+   private ByteBuffer segment(int slot) {
+      return segments[slot >>> SEGMENT_BITS];
+   }
+
+   private static int offset(int slot) {
+      return (slot & (SEGMENT_SLOTS - 1)) * ENTRY_SIZE;
+   }
+
+   /**
+    * {@return the slot of the key or {@code -1} if it is not in the table}
+    */
+   private int find(long key) {
+      if (key < 0) {
+         return -1;
+      }
+      for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+         final long current = segment(slot).getLong(offset(slot) + KEY_OFFSET);
+         if (current == key) {
+            return slot;
+         }
+         if (current == EMPTY) {
+            return -1;
+         }
+      }
+   }
+
+   /**
+    * {@return the slot of a new entry for the key}, replacing the entry already there as a map would
+    */
+   private int insert(long key) {
+      if (size >= resizeThreshold) {
+         resize(capacity << 1);
+      }
+      for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+         final ByteBuffer segment = segment(slot);
+         final int offset = offset(slot);
+         final long current = segment.getLong(offset + KEY_OFFSET);
+         if (current == EMPTY) {
+            segment.putLong(offset + KEY_OFFSET, key);
+            segment.putInt(offset + FLAGS_OFFSET, 0);
+            size++;
+            return slot;
+         }
+         if (current == key) {
+            clearEntry(key, segment, offset);
+            segment.putLong(offset + KEY_OFFSET, key);
+            segment.putInt(offset + FLAGS_OFFSET, 0);
+            return slot;
+         }
+      }
+   }
+
+   private void clearEntry(long key, ByteBuffer segment, int offset) {
+      final long addFileID = segment.getLong(offset + ADD_FILE_OFFSET);
+      if (addFileID != NO_FILE) {
+         release(file(addFileID));
+      }
+      final long updateFileID = segment.getLong(offset + UPDATE_FILE_OFFSET);
+      if (updateFileID != NO_FILE) {
+         release(file(updateFileID));
+      }
+      if ((segment.getInt(offset + FLAGS_OFFSET) & HAS_MORE_UPDATES) != 0) {
+         moreUpdates.remove(key);
+      }
+      for (int i = 0; i < ENTRY_SIZE; i += Long.BYTES) {
+         segment.putLong(offset + i, -1L);
+      }
+   }
+
+   /**
+    * Removes the entry at {@code slot}, moving back the following entries of the cluster whose probe sequence went
+    * through it, so that lookups need no tombstones.
+    */
+   private void remove(int slot) {
+      int hole = slot;
+      for (int next = (slot + 1) & mask; ; next = (next + 1) & mask) {
+         final ByteBuffer segment = segment(next);
+         final int offset = offset(next);
+         final long key = segment.getLong(offset + KEY_OFFSET);
+         if (key == EMPTY) {
+            break;
+         }
+         final int home = hash(key) & mask;
+         // the entry can't be moved if its home slot is cyclically within (hole, next]
+         final boolean stays = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+         if (!stays) {
+            copy(next, hole);
+            hole = next;
+         }
+      }
+      final ByteBuffer segment = segment(hole);
+      final int offset = offset(hole);
+      for (int i = 0; i < ENTRY_SIZE; i += Long.BYTES) {
+         segment.putLong(offset + i, -1L);
+      }
+      size--;
+   }
+
+   private void copy(int from, int to) {
+      final ByteBuffer source = segment(from);
+      final int sourceOffset = offset(from);
+      final ByteBuffer target = segment(to);
+      final int targetOffset = offset(to);
+      for (int i = 0; i < ENTRY_SIZE; i += Long.BYTES) {
+         target.putLong(targetOffset + i, source.getLong(sourceOffset + i));
+      }
+   }
+
+   private void resize(int newCapacity) {
+      if (newCapacity > MAX_CAPACITY || newCapacity <= 0) {
+         throw new IllegalStateException("The record index can't hold more than " + (int) (MAX_CAPACITY * LOAD_FACTOR) + " records");
+      }
+      final ByteBuffer[] oldSegments = segments;
+      final int oldCapacity = capacity;
+      allocate(newCapacity);
+      for (int slot = 0; slot < oldCapacity; slot++) {
+         final ByteBuffer source = oldSegments[slot >>> SEGMENT_BITS];
+         final int sourceOffset = offset(slot);
+         final long key = source.getLong(sourceOffset + KEY_OFFSET);
+         if (key == EMPTY) {
+            continue;
+         }
+         int target = hash(key) & mask;
+         while (segment(target).getLong(offset(target) + KEY_OFFSET) != EMPTY) {
+            target = (target + 1) & mask;
+         }
+         final ByteBuffer segment = segment(target);
+         final int offset = offset(target);
+         for (int i = 0; i < ENTRY_SIZE; i += Long.BYTES) {
+            segment.putLong(offset + i, source.getLong(sourceOffset + i));
+         }
+      }
+      free(oldSegments);
+   }
+
+   private void allocate(int capacity) {
+      final int segmentSlots = Math.min(capacity, SEGMENT_SLOTS);
+      final ByteBuffer[] segments = new ByteBuffer[capacity / segmentSlots];
+      for (int i = 0; i < segments.length; i++) {
+         final ByteBuffer segment = ByteBuffer.allocateDirect(segmentSlots * ENTRY_SIZE).order(ByteOrder.nativeOrder());
+         for (int offset = 0; offset < segment.capacity(); offset += Long.BYTES) {
+            segment.putLong(offset, -1L);
+         }
+         segments[i] = segment;
+      }
+      this.segments = segments;
+      this.capacity = capacity;
+      this.mask = capacity - 1;
+      this.resizeThreshold = (int) (capacity * LOAD_FACTOR);
+   }
+
+   private void free() {
+      free(segments);
+      segments = null;
+   }
+
+   private static void free(ByteBuffer[] segments) {
+      for (ByteBuffer segment : segments) {
+         PlatformDependent.freeDirectBuffer(segment);
+      }
+   }
+
+   private static final class FileReferences {
+
+      private final JournalFile file;
+
+      private int count;
+
+      private FileReferences(JournalFile file) {
+         this.file = file;
+      }
+   }
+}
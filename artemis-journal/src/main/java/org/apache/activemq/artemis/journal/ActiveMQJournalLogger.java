@@ -131,6 +131,9 @@ public interface ActiveMQJournalLogger {
    @LogMessage(id = 142033, value = "Error reinitializing file {}", level = LogMessage.Level.WARN)
    void errorReinitializingFile(JournalFile file, Throwable e);
 
+   @LogMessage(id = 142034, value = "The records of the {} oldest data files of {} do not fit in the files they replace, compacting all the data files instead", level = LogMessage.Level.WARN)
+   void incrementalCompactCancelled(int files, Object journal);
+
    @LogMessage(id = 144000, value = "Failed to delete file {}", level = LogMessage.Level.ERROR)
    void errorDeletingFile(Object e);
 
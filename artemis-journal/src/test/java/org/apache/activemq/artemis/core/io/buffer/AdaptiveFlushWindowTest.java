@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.io.buffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveFlushWindowTest {
+
+   private static final long MAX_LATENCY = TimeUnit.MILLISECONDS.toNanos(10);
+
+   private static final long SYNC = TimeUnit.MILLISECONDS.toNanos(2);
+
+   @Test
+   public void testInitialWindowIsTheTimeout() {
+      assertEquals(1000, new AdaptiveFlushWindow(MAX_LATENCY, 1000).getWindow());
+      assertEquals(MAX_LATENCY, new AdaptiveFlushWindow(MAX_LATENCY, MAX_LATENCY * 2).getWindow());
+   }
+
+   @Test
+   public void testLowLoadFlushesImmediately() {
+      final AdaptiveFlushWindow window = new AdaptiveFlushWindow(MAX_LATENCY, 1000);
+      // a record every 10 syncs
+      for (int i = 0; i < 10; i++) {
+         window.onFlush(1, SYNC * 10);
+         window.onSync(SYNC);
+      }
+      assertEquals(0, window.getWindow());
+   }
+
+   @Test
+   public void testHighLoadWaitsForASync() {
+      final AdaptiveFlushWindow window = new AdaptiveFlushWindow(MAX_LATENCY, 1000);
+      // 10 records per sync
+      for (int i = 0; i < 10; i++) {
+         window.onFlush(10, SYNC);
+         window.onSync(SYNC);
+      }
+      assertEquals(SYNC, window.getWindow());
+   }
+
+   @Test
+   public void testWindowWithinMaxLatency() {
+      final long sync = TimeUnit.MILLISECONDS.toNanos(8);
+      final AdaptiveFlushWindow window = new AdaptiveFlushWindow(MAX_LATENCY, 1000);
+      for (int i = 0; i < 10; i++) {
+         window.onFlush(10, sync);
+         window.onSync(sync);
+      }
+      assertEquals(MAX_LATENCY - sync, window.getWindow());
+
+      // syncs slower than the max latency can't wait at all
+      for (int i = 0; i < 100; i++) {
+         window.onFlush(10, MAX_LATENCY * 2);
+         window.onSync(MAX_LATENCY * 2);
+      }
+      assertEquals(0, window.getWindow());
+   }
+}
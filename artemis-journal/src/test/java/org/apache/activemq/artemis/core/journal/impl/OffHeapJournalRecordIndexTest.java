@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.journal.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.activemq.artemis.core.io.SequentialFile;
+import org.apache.activemq.artemis.utils.collections.ConcurrentLongHashSet;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class OffHeapJournalRecordIndexTest {
+
+   private static final int FILES = 8;
+
+   @Test
+   public void testSameAccountingAsHeapIndex() {
+      final JournalFile[] heapFiles = files();
+      final JournalFile[] offHeapFiles = files();
+      final HeapJournalRecordIndex heap = new HeapJournalRecordIndex();
+      final OffHeapJournalRecordIndex offHeap = new OffHeapJournalRecordIndex(4);
+
+      final Random random = new Random(1);
+      for (int i = 0; i < 100_000; i++) {
+         final long id = random.nextInt(5_000);
+         final int file = random.nextInt(FILES);
+         final int bytes = random.nextInt(100);
+         switch (random.nextInt(4)) {
+            case 0:
+               if (!heap.contains(id)) {
+                  heap.add(id, heapFiles[file], bytes);
+                  offHeap.add(id, offHeapFiles[file], bytes);
+               }
+               break;
+            case 1:
+            case 2:
+               final boolean replaceable = random.nextBoolean();
+               assertEquals(heap.addUpdate(id, heapFiles[file], bytes, replaceable), offHeap.addUpdate(id, offHeapFiles[file], bytes, replaceable));
+               break;
+            default:
+               assertEquals(heap.delete(id, heapFiles[file]), offHeap.delete(id, offHeapFiles[file]));
+         }
+         assertEquals(heap.size(), offHeap.size());
+      }
+
+      assertKeys(heap.keys(), offHeap.keys());
+      assertFiles(heapFiles, offHeapFiles);
+
+      // delete everything left
+      for (long id : heap.keys().items()) {
+         assertTrue(heap.delete(id, heapFiles[0]));
+         assertTrue(offHeap.delete(id, offHeapFiles[0]));
+      }
+      assertEquals(0, offHeap.size());
+      assertFiles(heapFiles, offHeapFiles);
+      for (JournalFile file : offHeapFiles) {
+         assertEquals(0, file.getLiveSize());
+      }
+   }
+
+   @Test
+   public void testPutRecordFromCompacting() {
+      final JournalFile[] files = files();
+      final JournalRecord record = new JournalRecord(files[0], 10);
+      record.addUpdateFile(files[1], 5, true);
+      record.addUpdateFile(files[1], 5, true);
+      record.addUpdateFile(files[2], 7, false);
+
+      final OffHeapJournalRecordIndex index = new OffHeapJournalRecordIndex();
+      index.put(1, record);
+      // putting it must not account it again
+      assertEquals(1, files[0].getPosCount());
+      assertEquals(2, files[1].getPosCount());
+      assertEquals(1, files[1].getReplaceableCount());
+      assertEquals(1, files[2].getPosCount());
+
+      assertTrue(index.delete(1, files[3]));
+      assertEquals(1, files[3].getNegCount(files[0]));
+      assertEquals(2, files[3].getNegCount(files[1]));
+      assertEquals(1, files[3].getNegCount(files[2]));
+      assertEquals(0, files[0].getLiveSize());
+      assertEquals(0, files[1].getLiveSize());
+      assertEquals(0, files[2].getLiveSize());
+      assertFalse(index.contains(1));
+   }
+
+   @Test
+   public void testRemoveAddedToFiles() {
+      final JournalFile[] files = files();
+      final OffHeapJournalRecordIndex index = new OffHeapJournalRecordIndex(2);
+      for (long id = 0; id < 1_000; id++) {
+         index.add(id, files[(int) (id % 4)], 10);
+         index.addUpdate(id, files[4], 5, false);
+         if (id % 3 == 0) {
+            index.addUpdate(id, files[5], 7, false);
+         }
+      }
+
+      final HeapJournalRecordIndex removed = index.removeAddedTo(Set.of(files[0], files[1]));
+      assertEquals(500, removed.size());
+      assertEquals(500, index.size());
+      for (long id = 0; id < 1_000; id++) {
+         assertEquals(id % 4 < 2, removed.contains(id));
+         assertEquals(id % 4 >= 2, index.contains(id));
+      }
+      // the removed records keep the accounts of their files
+      assertEquals(250, files[0].getPosCount());
+      assertEquals(1_000, files[4].getPosCount());
+
+      removed.forEach((id, record) -> record.delete(files[6]));
+      assertEquals(0, files[0].getLiveSize());
+      assertEquals(250, files[6].getNegCount(files[0]));
+      assertEquals(500, files[6].getNegCount(files[4]));
+      assertEquals(500 * 5, files[4].getLiveSize());
+      assertEquals(167 * 7, files[5].getLiveSize());
+   }
+
+   @Test
+   public void testClear() {
+      final JournalFile[] files = files();
+      final OffHeapJournalRecordIndex index = new OffHeapJournalRecordIndex(2);
+      for (long id = 0; id < 10_000; id++) {
+         index.add(id, files[(int) (id % FILES)], 10);
+      }
+      assertEquals(10_000, index.size());
+      assertTrue(index.getMemorySize() >= 10_000L * OffHeapJournalRecordIndex.ENTRY_SIZE);
+
+      index.clear();
+      assertEquals(0, index.size());
+      assertFalse(index.contains(1));
+      assertEquals(2L * OffHeapJournalRecordIndex.ENTRY_SIZE, index.getMemorySize());
+   }
+
+   private static JournalFile[] files() {
+      final JournalFile[] files = new JournalFile[FILES];
+      for (int i = 0; i < FILES; i++) {
+         files[i] = new JournalFileImpl(Mockito.mock(SequentialFile.class), i, JournalImpl.FORMAT_VERSION);
+      }
+      return files;
+   }
+
+   private static void assertKeys(ConcurrentLongHashSet expected, ConcurrentLongHashSet actual) {
+      assertEquals(expected.size(), actual.size());
+      for (long key : expected.items()) {
+         assertTrue(actual.contains(key), () -> "missing " + key);
+      }
+   }
+
+   private static void assertFiles(JournalFile[] expected, JournalFile[] actual) {
+      for (int i = 0; i < FILES; i++) {
+         assertEquals(expected[i].getPosCount(), actual[i].getPosCount());
+         assertEquals(expected[i].getLiveSize(), actual[i].getLiveSize());
+         assertEquals(expected[i].getAddRecord(), actual[i].getAddRecord());
+         assertEquals(expected[i].getReplaceableCount(), actual[i].getReplaceableCount());
+         for (int j = 0; j < FILES; j++) {
+            assertEquals(expected[i].getNegCount(expected[j]), actual[i].getNegCount(actual[j]));
+         }
+      }
+   }
+}
@@ -73,6 +73,12 @@ public class AMQPLargeMessage extends AMQPMessage implements LargeServerMessage
       }
    }
 
+   @Override
+   public ICoreMessage toCoreForDelivery(CoreMessageObjectPools coreMessageObjectPools) {
+      // the body is read from the file, so the conversion is never kept in memory
+      return toCore(coreMessageObjectPools);
+   }
+
    @Override
    public Message getMessage() {
       return this;
@@ -215,6 +215,11 @@ public abstract class AMQPMessage extends RefCountMessage implements org.apache.
    protected boolean isPaged;
    protected volatile boolean routed = false;
 
+   // The core conversion shared by the deliveries of the message, see toCoreForDelivery
+   protected volatile ICoreMessage coreConversion;
+   // the memory accounted for the core conversion, kept once accounted so the estimate stays stable
+   protected int coreConversionEstimate;
+
    @Override
    public void routed() {
       this.routed = true;
@@ -698,6 +703,7 @@ public abstract class AMQPMessage extends RefCountMessage implements org.apache.
       priority = DEFAULT_MESSAGE_PRIORITY;
       encodedHeaderSize = 0;
       memoryEstimate = -1;
+      coreConversion = null;
       originalEstimate = -1;
       scheduledTime = -1;
       encodedDeliveryAnnotationsSize = 0;
@@ -882,6 +888,14 @@ public abstract class AMQPMessage extends RefCountMessage implements org.apache.
    @Override
    public void messageChanged() {
       modified = true;
+      coreConversion = null;
+   }
+
+   /**
+    * {@return {@code true} if the message was changed since it was last encoded}
+    */
+   public boolean isModified() {
+      return modified;
    }
 
    @Override
@@ -1031,6 +1045,41 @@ public abstract class AMQPMessage extends RefCountMessage implements org.apache.
       return toCore(coreMessageObjectPools);
    }
 
+   @Override
+   public ICoreMessage toCoreForDelivery(CoreMessageObjectPools coreMessageObjectPools) {
+      final ICoreMessage conversion = coreConversion;
+      if (conversion != null && !modified) {
+         return conversion;
+      }
+      final ICoreMessage coreMessage = toCore(coreMessageObjectPools);
+      // only worth keeping when the message is delivered from more than one queue
+      if (getRefCount() > 1) {
+         keepCoreConversion(coreMessage);
+      }
+      return coreMessage;
+   }
+
+   @Override
+   public ICoreMessage toCoreForDelivery() {
+      return toCoreForDelivery(coreMessageObjectPools);
+   }
+
+   private synchronized void keepCoreConversion(ICoreMessage coreMessage) {
+      // the conversion is only kept while its memory can be tracked along with the message, as the application
+      // properties are in lazyDecodeApplicationProperties
+      if (modified || owner == null || isPaged || !routed) {
+         return;
+      }
+      coreConversion = coreMessage;
+      if (coreConversionEstimate == 0) {
+         getMemoryEstimate();
+         final int addition = coreMessage.getMemoryEstimate();
+         ((PagingStore) owner).addSize(addition, false);
+         coreConversionEstimate = addition;
+         memoryEstimate += addition;
+      }
+   }
+
    @Override
    public abstract void persist(ActiveMQBuffer targetRecord);
 
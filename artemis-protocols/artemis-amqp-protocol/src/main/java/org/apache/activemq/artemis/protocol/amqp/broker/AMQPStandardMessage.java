@@ -200,6 +200,8 @@ public class AMQPStandardMessage extends AMQPMessage {
             memoryEstimate = memoryOffset + (data != null ? data.capacity() + unmarshalledApplicationPropertiesMemoryEstimateFromData(data) : 0);
          }
          originalEstimate = memoryEstimate;
+         // a core conversion already accounted stays accounted when the message is scanned again
+         memoryEstimate += coreConversionEstimate;
       }
 
       return memoryEstimate;
@@ -50,6 +50,7 @@ import java.util.Set;
 import org.apache.activemq.artemis.api.core.ICoreMessage;
 import org.apache.activemq.artemis.api.core.Message;
 import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.paging.PagingStore;
 import org.apache.activemq.artemis.core.persistence.StorageManager;
 import org.apache.activemq.artemis.protocol.amqp.broker.AMQPMessage;
 import org.apache.activemq.artemis.protocol.amqp.broker.AMQPStandardMessage;
@@ -74,10 +75,21 @@ public class CoreAmqpConverter {
    public static AMQPMessage checkAMQP(Message message, StorageManager storageManager) throws Exception {
       if (message instanceof AMQPMessage amqpMessage) {
          return amqpMessage;
-      } else {
-         // It will first convert to Core, then to AMQP
-         return fromCore(message.toCore(), storageManager);
       }
+      // It will first convert to Core, then to AMQP
+      final ICoreMessage coreMessage = message.toCore();
+      if (coreMessage.getProtocolConversion() instanceof AMQPMessage conversion && !conversion.isModified()) {
+         return conversion;
+      }
+      final AMQPMessage amqpMessage = fromCore(coreMessage, storageManager);
+      // only worth keeping when the message is delivered from more than one queue
+      if (amqpMessage != null && coreMessage == message && !coreMessage.isLargeMessage() && message.getRefCount() > 1) {
+         final int addition = coreMessage.keepProtocolConversion(amqpMessage);
+         if (addition > 0 && !message.isPaged() && message.getOwner() instanceof PagingStore store) {
+            store.addSize(addition, false);
+         }
+      }
+      return amqpMessage;
    }
 
    public static AMQPMessage fromCore(ICoreMessage coreMessage, StorageManager storageManager) throws ConversionException {
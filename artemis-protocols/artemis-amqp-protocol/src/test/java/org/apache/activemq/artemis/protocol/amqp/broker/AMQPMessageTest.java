@@ -39,6 +39,7 @@ import org.apache.activemq.artemis.api.core.ICoreMessage;
 import org.apache.activemq.artemis.api.core.RoutingType;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.message.openmbean.CompositeDataConstants;
+import org.apache.activemq.artemis.core.paging.PagingStore;
 import org.apache.activemq.artemis.core.server.MessageReference;
 import org.apache.activemq.artemis.protocol.amqp.converter.AMQPMessageIdHelper;
 import org.apache.activemq.artemis.protocol.amqp.converter.AMQPMessageSupport;
@@ -339,6 +340,36 @@ public class AMQPMessageTest {
       }
    }
 
+   @Test
+   public void testCoreConversionSharedByDeliveries() {
+      final PagingStore store = Mockito.mock(PagingStore.class);
+      AMQPStandardMessage decoded = new AMQPStandardMessage(0, encodedProtonMessage, new TypedProperties(), null);
+      decoded.setOwner(store);
+      decoded.routed();
+
+      // delivered from a single queue, the conversion isn't kept
+      decoded.refUp();
+      assertNotSame(decoded.toCoreForDelivery(), decoded.toCoreForDelivery());
+
+      decoded.refUp();
+      final int estimate = decoded.getMemoryEstimate();
+      final ICoreMessage coreMessage = decoded.toCoreForDelivery();
+      assertSame(coreMessage, decoded.toCoreForDelivery());
+      assertEquals(estimate + coreMessage.getMemoryEstimate(), decoded.getMemoryEstimate());
+      Mockito.verify(store).addSize(coreMessage.getMemoryEstimate(), false);
+
+      // the copies given to transformers and management are never shared
+      assertNotSame(coreMessage, decoded.toCore());
+
+      decoded.messageChanged();
+      decoded.reencode();
+      final ICoreMessage changed = decoded.toCoreForDelivery();
+      assertNotSame(coreMessage, changed);
+      assertSame(changed, decoded.toCoreForDelivery());
+      // the conversion is only accounted once
+      Mockito.verify(store, Mockito.times(1)).addSize(Mockito.anyInt(), Mockito.anyBoolean());
+   }
+
    //----- Test Connection ID access -----------------------------------------//
 
 
@@ -85,4 +85,13 @@ public interface MQTTLogger {
 
    @LogMessage(id = 834016, value = "Storage operation failed. Error code: {}; message: {}", level = LogMessage.Level.ERROR)
    void storageOperationError(int errorCode, String errorMessage);
+
+   @LogMessage(id = 834017, value = "Unable to expire MQTT retained messages", level = LogMessage.Level.ERROR)
+   void unableToExpireRetainedMessages(Exception e);
+
+   @LogMessage(id = 834018, value = "Unable to store the state of MQTT session {}", level = LogMessage.Level.ERROR)
+   void unableToStoreSessionState(String clientId, Exception e);
+
+   @LogMessage(id = 834019, value = "Unable to remove the MQTT retained message replaced on {}", level = LogMessage.Level.WARN)
+   void unableToRemoveRetainedMessage(String topic, Exception e);
 }
@@ -18,6 +18,7 @@ package org.apache.activemq.artemis.core.protocol.mqtt;
 
 import java.util.UUID;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.handler.codec.mqtt.MqttConnectMessage;
@@ -445,6 +446,21 @@ public class MQTTProtocolHandler extends ChannelInboundHandlerAdapter {
       runAfterStorageOperations(() -> ctx.writeAndFlush(message, ctx.voidPromise()));
    }
 
+   /**
+    * {@return {@code true} if packets can be sent already encoded, as they aren't given to outgoing interceptors nor
+    * logged}
+    */
+   boolean canSendEncoded() {
+      return !protocolManager.hasOutgoingInterceptors() && !MQTTUtil.isMessageLoggingEnabled();
+   }
+
+   /**
+    * Sends a packet already encoded, see {@link #canSendEncoded()}.
+    */
+   protected void sendToClient(ByteBuf encodedMessage) {
+      runAfterStorageOperations(() -> ctx.writeAndFlush(encodedMessage, ctx.voidPromise()));
+   }
+
    void runAfterStorageOperations(Runnable runnable) {
       StorageManager storageManager = server.getStorageManager();
       if (storageManager == null) {
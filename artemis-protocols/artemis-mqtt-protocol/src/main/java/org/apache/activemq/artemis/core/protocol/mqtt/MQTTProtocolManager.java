@@ -373,6 +373,10 @@ public class MQTTProtocolManager extends AbstractProtocolManager<MqttMessage, MQ
       return super.invokeInterceptors(this.outgoingInterceptors, mqttMessage, connection);
    }
 
+   public boolean hasOutgoingInterceptors() {
+      return !outgoingInterceptors.isEmpty();
+   }
+
    public MQTTStateManager getStateManager() {
       if (sessionStateManager == null) {
          throw new IllegalStateException("Broker has been deactivated");
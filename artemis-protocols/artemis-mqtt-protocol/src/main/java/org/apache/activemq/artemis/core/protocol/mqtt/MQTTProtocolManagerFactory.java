@@ -84,6 +84,11 @@ public class MQTTProtocolManagerFactory extends AbstractProtocolManagerFactory<M
          } catch (Exception e) {
             MQTTLogger.LOGGER.unableToScanSessions(e);
          }
+         try {
+            MQTTStateManager.getInstance(server).getRetainedMessageStore().expire();
+         } catch (Exception e) {
+            MQTTLogger.LOGGER.unableToExpireRetainedMessages(e);
+         }
       }
    }
 }
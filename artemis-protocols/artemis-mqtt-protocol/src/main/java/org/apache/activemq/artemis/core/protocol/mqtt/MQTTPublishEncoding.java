@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.protocol.mqtt;
+
+import java.nio.charset.StandardCharsets;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.EncoderException;
+import io.netty.handler.codec.mqtt.MqttMessageType;
+import io.netty.handler.codec.mqtt.MqttProperties;
+import io.netty.handler.codec.mqtt.MqttProperties.MqttPropertyType;
+import org.apache.activemq.artemis.api.core.ICoreMessage;
+import org.apache.activemq.artemis.core.paging.PagingStore;
+
+/**
+ * The parts of a PUBLISH packet that are the same for every subscriber of a message, encoded once.
+ * <p>
+ * When a message is delivered from more than one queue, e.g. to many clients subscribed with wildcards, the encoding is
+ * kept on the message (see {@link ICoreMessage#keepProtocolEncoding(Object, int)}) and shared by all its deliveries.
+ * Each delivery only encodes its own fixed header, packet identifier and properties, and sends them ahead of a
+ * duplicate of the shared payload. The buffers of the encoding are on heap so they are collected along with the
+ * message.
+ */
+public final class MQTTPublishEncoding {
+
+   // the memory used by an encoding besides its buffers
+   private static final int MEMORY_OFFSET = 96;
+
+   private final String topic;
+
+   // the UTF-8 bytes of the topic
+   private final ByteBuf encodedTopic;
+
+   private final ByteBuf payload;
+
+   public MQTTPublishEncoding(ICoreMessage message, String topic) {
+      this.topic = topic;
+      this.encodedTopic = Unpooled.copiedBuffer(topic, StandardCharsets.UTF_8);
+      this.payload = MQTTPublishManager.createPayload(message, Unpooled::buffer);
+   }
+
+   /**
+    * {@return the encoding shared by the deliveries of {@code message}, or {@code null} if it isn't delivered from more
+    * than one queue}
+    */
+   static MQTTPublishEncoding of(ICoreMessage message, String topic) {
+      if (message.getProtocolEncoding() instanceof MQTTPublishEncoding encoding) {
+         return encoding;
+      }
+      // the memory of the encoding must be tracked by the paging store of the message
+      if (message.getRefCount() <= 1 || message.isLargeMessage() || message.isPaged() || !(message.getOwner() instanceof PagingStore store)) {
+         return null;
+      }
+      final MQTTPublishEncoding encoding = new MQTTPublishEncoding(message, topic);
+      final int addition = message.keepProtocolEncoding(encoding, encoding.getMemoryEstimate());
+      if (addition > 0) {
+         store.addSize(addition, false);
+      }
+      return encoding;
+   }
+
+   public int getMemoryEstimate() {
+      return MEMORY_OFFSET + encodedTopic.capacity() + payload.capacity();
+   }
+
+   /**
+    * Encodes a PUBLISH packet to a subscriber, sharing the payload of the encoding.
+    *
+    * @param topic      the topic name to send, the empty string when a topic alias is used instead
+    * @param properties the properties of the packet for MQTT 5, {@code null} for MQTT 3.1.1
+    * @return the packet, to be written as is
+    */
+   public ByteBuf encode(ByteBufAllocator allocator, String topic, int packetId, boolean dup, int qos, boolean retain, MqttProperties properties) {
+      final ByteBuf encodedTopic = topic.equals(this.topic) ? this.encodedTopic : Unpooled.copiedBuffer(topic, StandardCharsets.UTF_8);
+      ByteBuf encodedProperties = null;
+      try {
+         int variableHeaderSize = 2 + encodedTopic.readableBytes() + (qos > 0 ? 2 : 0);
+         if (properties != null) {
+            encodedProperties = encodeProperties(allocator, properties);
+            variableHeaderSize += MQTTUtil.calculateVariableByteIntegerSize(encodedProperties.readableBytes()) + encodedProperties.readableBytes();
+         }
+         final int remainingLength = variableHeaderSize + payload.readableBytes();
+
+         final ByteBuf header = allocator.buffer(1 + MQTTUtil.calculateVariableByteIntegerSize(remainingLength) + variableHeaderSize);
+         header.writeByte(MqttMessageType.PUBLISH.value() << 4 | (dup ? 0x08 : 0) | qos << 1 | (retain ? 0x01 : 0));
+         writeVariableByteInteger(header, remainingLength);
+         header.writeShort(encodedTopic.readableBytes());
+         header.writeBytes(encodedTopic, encodedTopic.readerIndex(), encodedTopic.readableBytes());
+         if (qos > 0) {
+            header.writeShort(packetId);
+         }
+         if (encodedProperties != null) {
+            writeVariableByteInteger(header, encodedProperties.readableBytes());
+            header.writeBytes(encodedProperties);
+         }
+         return allocator.compositeBuffer(2).addComponents(true, header, payload.retainedDuplicate());
+      } finally {
+         if (encodedProperties != null) {
+            encodedProperties.release();
+         }
+      }
+   }
+
+   /**
+    * https://docs.oasis-open.org/mqtt/mqtt/v5.0/os/mqtt-v5.0-os.html#_Toc3901027
+    */
+   private static ByteBuf encodeProperties(ByteBufAllocator allocator, MqttProperties properties) {
+      final ByteBuf buffer = allocator.buffer();
+      try {
+         for (MqttProperties.MqttProperty property : properties.listAll()) {
+            if (property instanceof MqttProperties.UserProperties userProperties) {
+               for (MqttProperties.StringPair pair : userProperties.value()) {
+                  writeVariableByteInteger(buffer, property.propertyId());
+                  writeString(buffer, pair.key);
+                  writeString(buffer, pair.value);
+               }
+               continue;
+            }
+            final MqttPropertyType propertyType = MqttPropertyType.valueOf(property.propertyId());
+            writeVariableByteInteger(buffer, property.propertyId());
+            switch (propertyType) {
+               case PAYLOAD_FORMAT_INDICATOR -> buffer.writeByte((Integer) property.value());
+               case TOPIC_ALIAS -> buffer.writeShort((Integer) property.value());
+               case PUBLICATION_EXPIRY_INTERVAL -> buffer.writeInt((Integer) property.value());
+               case SUBSCRIPTION_IDENTIFIER -> writeVariableByteInteger(buffer, (Integer) property.value());
+               case CONTENT_TYPE, RESPONSE_TOPIC -> writeString(buffer, (String) property.value());
+               case CORRELATION_DATA -> {
+                  final byte[] data = (byte[]) property.value();
+                  buffer.writeShort(data.length);
+                  buffer.writeBytes(data);
+               }
+               default -> throw new EncoderException("Unknown property type: " + propertyType);
+            }
+         }
+         return buffer;
+      } catch (RuntimeException e) {
+         buffer.release();
+         throw e;
+      }
+   }
+
+   private static void writeString(ByteBuf buffer, String value) {
+      final int lengthIndex = buffer.writerIndex();
+      buffer.writeShort(0);
+      buffer.setShort(lengthIndex, ByteBufUtil.writeUtf8(buffer, value));
+   }
+
+   // https://docs.oasis-open.org/mqtt/mqtt/v5.0/os/mqtt-v5.0-os.html#_Toc3901011
+   private static void writeVariableByteInteger(ByteBuf buffer, int value) {
+      do {
+         int digit = value % 128;
+         value /= 128;
+         if (value > 0) {
+            digit |= 0x80;
+         }
+         buffer.writeByte(digit);
+      }
+      while (value > 0);
+   }
+}
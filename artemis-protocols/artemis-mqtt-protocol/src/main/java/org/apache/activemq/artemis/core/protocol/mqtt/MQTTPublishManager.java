@@ -20,6 +20,7 @@ import java.lang.invoke.MethodHandles;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.IntFunction;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
@@ -374,21 +375,9 @@ public class MQTTPublishManager {
    private boolean publishToClient(int packetId, ICoreMessage coreMessage, boolean redelivery, int qos) throws Exception {
       String topic = MQTTUtil.getMqttTopicFromCoreAddress(Objects.requireNonNullElse(coreMessage.getAddress(), ""), session.getWildcardConfiguration());
 
-      ByteBuf payload;
-      switch (coreMessage.getType()) {
-         case Message.TEXT_TYPE:
-            SimpleString text = coreMessage.getDataBuffer().readNullableSimpleString();
-            final int utf8Bytes = ByteBufUtil.utf8Bytes(text);
-            payload = ByteBufAllocator.DEFAULT.directBuffer(utf8Bytes);
-            // IMPORTANT: this one won't enlarge ByteBuf by ByteBufUtil.maxUtf8Bytes(text), but just utf8Bytes
-            ByteBufUtil.reserveAndWriteUtf8(payload, text, utf8Bytes);
-            break;
-         default:
-            ActiveMQBuffer bodyBuffer = coreMessage.getDataBuffer();
-            payload = ByteBufAllocator.DEFAULT.directBuffer(bodyBuffer.writerIndex());
-            payload.writeBytes(bodyBuffer.byteBuf());
-            break;
-      }
+      // the payload encoded once for every subscriber of the message, unless the packet must be intercepted or logged
+      final MQTTPublishEncoding encoding = session.getProtocolHandler().canSendEncoded() ? MQTTPublishEncoding.of(coreMessage, topic) : null;
+      final ByteBuf payload = encoding == null ? createPayload(coreMessage, ByteBufAllocator.DEFAULT::directBuffer) : null;
 
       boolean isRetain = coreMessage.containsProperty(MQTT_MESSAGE_RETAIN_INITIAL_DISTRIBUTION_KEY);
       MqttProperties mqttProperties = null;
@@ -416,15 +405,26 @@ public class MQTTPublishManager {
          }
       }
 
-      int remainingLength = MQTTUtil.calculateRemainingLength(topic, mqttProperties, payload);
-      MqttFixedHeader header = new MqttFixedHeader(MqttMessageType.PUBLISH, qos == 0 ? false : redelivery, MqttQoS.valueOf(qos), isRetain, remainingLength);
-      MqttPublishVariableHeader varHeader = new MqttPublishVariableHeader(topic, packetId, mqttProperties);
-      MqttPublishMessage publish = new MqttPublishMessage(header, varHeader, payload);
+      final MqttPublishMessage publish;
+      final ByteBuf encodedPublish;
+      if (encoding != null) {
+         publish = null;
+         encodedPublish = encoding.encode(ByteBufAllocator.DEFAULT, topic, packetId, qos == 0 ? false : redelivery, qos, isRetain, mqttProperties);
+      } else {
+         int remainingLength = MQTTUtil.calculateRemainingLength(topic, mqttProperties, payload);
+         MqttFixedHeader header = new MqttFixedHeader(MqttMessageType.PUBLISH, qos == 0 ? false : redelivery, MqttQoS.valueOf(qos), isRetain, remainingLength);
+         MqttPublishVariableHeader varHeader = new MqttPublishVariableHeader(topic, packetId, mqttProperties);
+         publish = new MqttPublishMessage(header, varHeader, payload);
+         encodedPublish = null;
+      }
 
       int maxSize = session.getState().getClientMaxPacketSize();
       if (session.getVersion() == MQTTVersion.MQTT_5 && maxSize != 0) {
-         int size = MQTTUtil.calculateMessageSize(publish);
+         int size = encodedPublish != null ? encodedPublish.readableBytes() : MQTTUtil.calculateMessageSize(publish);
          if (size > maxSize) {
+            if (encodedPublish != null) {
+               encodedPublish.release();
+            }
             /*
              * [MQTT-3.1.2-25] Where a Packet is too large to send, the Server MUST discard it without sending it and then
              * behave as if it had completed sending that Application Message
@@ -439,10 +439,33 @@ public class MQTTPublishManager {
          }
       }
 
-      session.getProtocolHandler().sendToClient(publish);
+      if (encodedPublish != null) {
+         session.getProtocolHandler().sendToClient(encodedPublish);
+      } else {
+         session.getProtocolHandler().sendToClient(publish);
+      }
       return true;
    }
 
+   static ByteBuf createPayload(ICoreMessage coreMessage, IntFunction<ByteBuf> allocator) {
+      ByteBuf payload;
+      switch (coreMessage.getType()) {
+         case Message.TEXT_TYPE:
+            SimpleString text = coreMessage.getDataBuffer().readNullableSimpleString();
+            final int utf8Bytes = ByteBufUtil.utf8Bytes(text);
+            payload = allocator.apply(utf8Bytes);
+            // IMPORTANT: this one won't enlarge ByteBuf by ByteBufUtil.maxUtf8Bytes(text), but just utf8Bytes
+            ByteBufUtil.reserveAndWriteUtf8(payload, text, utf8Bytes);
+            break;
+         default:
+            ActiveMQBuffer bodyBuffer = coreMessage.getDataBuffer();
+            payload = allocator.apply(bodyBuffer.writerIndex());
+            payload.writeBytes(bodyBuffer.byteBuf());
+            break;
+      }
+      return payload;
+   }
+
    private MqttProperties getPublishProperties(ICoreMessage message) {
       MqttProperties props = new MqttProperties();
       if (message.containsProperty(MQTT_PAYLOAD_FORMAT_INDICATOR_KEY)) {
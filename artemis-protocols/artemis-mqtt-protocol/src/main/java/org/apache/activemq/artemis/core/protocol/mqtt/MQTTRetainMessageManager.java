@@ -16,16 +16,15 @@
  */
 package org.apache.activemq.artemis.core.protocol.mqtt;
 
+import java.util.List;
+
 import org.apache.activemq.artemis.api.core.Message;
 import org.apache.activemq.artemis.api.core.QueueConfiguration;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.persistence.StorageManager;
 import org.apache.activemq.artemis.core.persistence.impl.journal.LargeServerMessageImpl;
-import org.apache.activemq.artemis.core.server.BindingQueryResult;
 import org.apache.activemq.artemis.core.server.MessageReference;
 import org.apache.activemq.artemis.core.server.Queue;
-import org.apache.activemq.artemis.core.server.RoutingContext;
-import org.apache.activemq.artemis.core.server.impl.RoutingContextImpl;
 import org.apache.activemq.artemis.core.transaction.Transaction;
 import org.apache.activemq.artemis.utils.collections.LinkedListIterator;
 
@@ -40,54 +39,60 @@ public class MQTTRetainMessageManager {
    }
 
    /**
-    * FIXME
-    * Retained messages should be handled in the core API.  There is currently no support for retained messages
-    * at the time of writing.  Instead we handle retained messages here.  This method will create a new queue for
-    * every address that is used to store retained messages.  THere should only ever be one message in the retained
-    * message queue.  When a new subscription is created the queue should be browsed and the message copied onto
-    * the subscription queue for the consumer.  When a new retained message is received the message will be sent to
-    * the retained queue and the previous retain message consumed to remove it from the queue.
+    * Replaces the retained message of the MQTT topic, or removes it on {@code reset}, once {@code tx} is committed.
+    * <p>
+    * The message is kept by the {@link MQTTRetainedMessageStore} of the broker, unless it is too large for a journal
+    * record or the memory left to retained messages. In that case it is sent to a queue named after the topic, the only
+    * message of that queue, and the store indexes the queue.
     */
-   void handleRetainedMessage(Message messageParameter, String address, boolean reset, Transaction tx) throws Exception {
-      String retainAddress = MQTTUtil.getCoreRetainAddressFromMqttTopic(address, session.getWildcardConfiguration());
+   void handleRetainedMessage(Message messageParameter, String topic, boolean reset, Transaction tx) throws Exception {
+      final MQTTRetainedMessageStore store = session.getStateManager().getRetainedMessageStore();
+      final StorageManager storageManager = session.getServer().getStorageManager();
 
-      Queue queue = session.getServer().locateQueue(retainAddress);
-      if (queue == null) {
-         queue = session.getServer().createQueue(QueueConfiguration.of(retainAddress).setAutoCreated(true));
+      if (reset) {
+         store.remove(topic, tx);
+         return;
       }
 
-      queue.deleteAllReferences();
-
-      if (!reset) {
-         StorageManager storageManager = session.getServer().getStorageManager();
-         Message message = LargeServerMessageImpl.checkLargeMessage(messageParameter, storageManager);
-         MQTTUtil.sendMessageDirectlyToQueue(storageManager, session.getServer().getPostOffice(), message.copy(storageManager.generateID()), queue, tx);
+      final Message message = LargeServerMessageImpl.checkLargeMessage(messageParameter, storageManager);
+      final Message copy = message.copy(storageManager.generateID());
+      copy.putStringProperty(MQTT_MESSAGE_RETAIN_INITIAL_DISTRIBUTION_KEY, (String) null);
+      if (store.canStore(topic, copy)) {
+         store.put(topic, copy, tx);
+      } else {
+         final String retainAddress = MQTTUtil.getCoreRetainAddressFromMqttTopic(topic, session.getWildcardConfiguration());
+         Queue queue = session.getServer().locateQueue(retainAddress);
+         if (queue == null) {
+            queue = session.getServer().createQueue(QueueConfiguration.of(retainAddress).setAutoCreated(true));
+         }
+         queue.deleteAllReferences();
+         MQTTUtil.sendMessageDirectlyToQueue(storageManager, session.getServer().getPostOffice(), copy, queue, tx);
+         store.putQueue(topic, queue.getName(), tx);
       }
    }
 
-   void addRetainedMessagesToQueue(Queue queue, String address) throws Exception {
-      // The address filter that matches all retained message queues.
-      String retainAddress = MQTTUtil.getCoreRetainAddressFromMqttTopic(address, session.getWildcardConfiguration());
-      BindingQueryResult bindingQueryResult = session.getServerSession().executeBindingQuery(SimpleString.of(retainAddress));
+   /**
+    * Sends the retained messages of the topics matching {@code topicFilter} to the queue of a new subscription, in a
+    * single transaction.
+    */
+   void addRetainedMessagesToQueue(Queue queue, String topicFilter) throws Exception {
+      final List<MQTTRetainedMessageStore.RetainedMessage> retainedMessages = session.getStateManager().getRetainedMessageStore().match(topicFilter);
+      if (retainedMessages.isEmpty()) {
+         return;
+      }
+      final StorageManager storageManager = session.getServer().getStorageManager();
 
-      // Iterate over all matching retain queues and add the queue
       Transaction tx = session.getServerSession().newTransaction();
       try {
-         for (SimpleString retainedQueueName : bindingQueryResult.getQueueNames()) {
-            Queue retainedQueue = session.getServer().locateQueue(retainedQueueName);
-            try (LinkedListIterator<MessageReference> i = retainedQueue.iterator()) {
-               if (i.hasNext()) {
-                  MessageReference ref = i.next();
-                  while (i.hasNext()) {
-                     ref = i.next();
-                     if (i.hasNext()) {
-                        i.remove();
-                     }
-                  }
-                  Message message = ref.getMessage().copy(session.getServer().getStorageManager().generateID());
-                  message.putStringProperty(MQTT_MESSAGE_RETAIN_INITIAL_DISTRIBUTION_KEY, (String) null);
-                  MQTTUtil.sendMessageDirectlyToQueue(session.getServer().getStorageManager(), session.getServer().getPostOffice(), message, queue, tx);
-               }
+         for (MQTTRetainedMessageStore.RetainedMessage retainedMessage : retainedMessages) {
+            final Message message;
+            if (retainedMessage.getQueueName() == null) {
+               message = retainedMessage.toMessage(storageManager.generateID(), session.getCoreMessageObjectPools());
+            } else {
+               message = copyLastMessage(retainedMessage.getQueueName());
+            }
+            if (message != null) {
+               MQTTUtil.sendMessageDirectlyToQueue(storageManager, session.getServer().getPostOffice(), message, queue, tx);
             }
          }
       } catch (Exception t) {
@@ -97,9 +102,25 @@ public class MQTTRetainMessageManager {
       tx.commit();
    }
 
-   private void sendToQueue(Message message, Queue queue, Transaction tx) throws Exception {
-      RoutingContext context = new RoutingContextImpl(tx);
-      queue.route(message, context);
-      session.getServer().getPostOffice().processRoute(message, context, false);
+   private Message copyLastMessage(SimpleString retainedQueueName) {
+      final Queue retainedQueue = session.getServer().locateQueue(retainedQueueName);
+      if (retainedQueue == null) {
+         return null;
+      }
+      try (LinkedListIterator<MessageReference> i = retainedQueue.iterator()) {
+         if (!i.hasNext()) {
+            return null;
+         }
+         MessageReference ref = i.next();
+         while (i.hasNext()) {
+            ref = i.next();
+            if (i.hasNext()) {
+               i.remove();
+            }
+         }
+         Message message = ref.getMessage().copy(session.getServer().getStorageManager().generateID());
+         message.putStringProperty(MQTT_MESSAGE_RETAIN_INITIAL_DISTRIBUTION_KEY, (String) null);
+         return message;
+      }
    }
 }
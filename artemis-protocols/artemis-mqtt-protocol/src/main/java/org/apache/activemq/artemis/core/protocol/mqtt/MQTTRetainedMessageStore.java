@@ -0,0 +1,425 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.protocol.mqtt;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.api.core.ActiveMQBuffers;
+import org.apache.activemq.artemis.api.core.Message;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.config.WildcardConfiguration;
+import org.apache.activemq.artemis.core.journal.RecordInfo;
+import org.apache.activemq.artemis.core.journal.collections.AbstractHashMapPersister;
+import org.apache.activemq.artemis.core.journal.collections.JournalHashMap;
+import org.apache.activemq.artemis.core.journal.collections.JournalHashMap.MapRecord;
+import org.apache.activemq.artemis.core.journal.collections.JournalHashMapProvider;
+import org.apache.activemq.artemis.core.message.impl.CoreMessage;
+import org.apache.activemq.artemis.core.persistence.CoreMessageObjectPools;
+import org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds;
+import org.apache.activemq.artemis.core.persistence.impl.journal.OperationContextImpl;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.core.server.Queue;
+import org.apache.activemq.artemis.core.transaction.Transaction;
+import org.apache.activemq.artemis.core.transaction.TransactionOperationAbstract;
+import org.apache.activemq.artemis.utils.BufferHelper;
+import org.apache.activemq.artemis.utils.DataConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The retained messages of the broker, one per MQTT topic.
+ * <p>
+ * The messages are indexed by topic in a {@link MQTTTopicTree} so a subscription only visits the topics matching its
+ * filter. Each message is held in its encoded form, as a single {@code byte[]}, and is decoded into a new message for
+ * each subscription it is delivered to. Durable messages are also stored in the message journal, one
+ * {@link JournalRecordIds#MQTT_RETAINED_MESSAGE} record per topic, and are reloaded from there on restart.
+ * <p>
+ * A retained message is replaced or removed as part of the transaction of the message published: its journal record is
+ * written in that transaction and the index only changes once the transaction is committed.
+ * <p>
+ * The encoded messages held in memory count toward the global size of the broker, and their total can be bounded by
+ * {@link org.apache.activemq.artemis.core.config.Configuration#getMqttRetainedMessagesMaxSize()}. A message too large
+ * for a journal record, or for that bound, is kept in a queue of its own named after the topic (see
+ * {@link MQTTUtil#MQTT_RETAIN_ADDRESS_PREFIX}), as all retained messages used to be, and only that queue is indexed here.
+ * The queues left by older versions are indexed the same way on start.
+ */
+public class MQTTRetainedMessageStore {
+
+   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+   // all the records of the store are in a single map of the journal
+   private static final Integer COLLECTION_ID = 0;
+
+   // the journal header of a record and the encoding of the map record around the message
+   private static final int RECORD_OVERHEAD = 512;
+
+   private static final SimpleString RETAIN_ADDRESS_PREFIX = SimpleString.of(MQTTUtil.MQTT_RETAIN_ADDRESS_PREFIX);
+
+   private static final Persister persister = new Persister();
+
+   private final ActiveMQServer server;
+
+   private final MQTTTopicTree<RetainedMessage> retainedMessages = new MQTTTopicTree<>();
+
+   // the topics of the messages that expire, to expire them without visiting every topic
+   private final Set<String> expiringTopics = new HashSet<>();
+
+   private final JournalHashMapProvider<Integer, String, RetainedMessage, Object> journalHashMapProvider;
+
+   private final long maxSize;
+
+   // the encoded size of the messages held in memory
+   private long size;
+
+   private boolean loaded;
+
+   MQTTRetainedMessageStore(ActiveMQServer server) {
+      this.server = server;
+      this.maxSize = server.getConfiguration().getMqttRetainedMessagesMaxSize();
+      this.journalHashMapProvider = new JournalHashMapProvider<>(server.getStorageManager()::generateID, server.getStorageManager(), persister, JournalRecordIds.MQTT_RETAINED_MESSAGE, OperationContextImpl::getContext, null, server.getIoCriticalErrorListener());
+   }
+
+   void reload(RecordInfo recordInfo) {
+      journalHashMapProvider.reload(recordInfo);
+   }
+
+   /**
+    * Indexes the messages reloaded from the journal and the retain queues found on the broker, once the journal and the
+    * queues are loaded.
+    */
+   synchronized void load(WildcardConfiguration wildcardConfiguration) {
+      if (loaded) {
+         return;
+      }
+      loaded = true;
+      getJournalMap().forEach((topic, retainedMessage) -> index(retainedMessage));
+      for (SimpleString address : server.getPostOffice().getAddresses()) {
+         if (!address.startsWith(RETAIN_ADDRESS_PREFIX)) {
+            continue;
+         }
+         final Queue queue = server.locateQueue(address);
+         final String topic = MQTTUtil.getMqttTopicFromCoreAddress(address.toString(), wildcardConfiguration);
+         if (queue != null && queue.getMessageCount() > 0 && retainedMessages.get(topic) == null) {
+            index(new RetainedMessage(topic, queue.getName()));
+         }
+      }
+      logger.debug("Loaded {} MQTT retained messages", retainedMessages.size());
+   }
+
+   /**
+    * {@return {@code true} if the message can be stored here, {@code false} if it is too large for a journal record or
+    * the memory left to the retained messages}
+    */
+   synchronized boolean canStore(String topic, Message message) {
+      if (message.isLargeMessage() || BufferHelper.sizeOfString(topic) + DataConstants.SIZE_LONG + message.getPersistSize() + RECORD_OVERHEAD > server.getStorageManager().getMaxRecordSize()) {
+         return false;
+      }
+      return maxSize < 0 || size + message.getPersistSize() <= maxSize;
+   }
+
+   /**
+    * Replaces the retained message of the topic once {@code tx} is committed. The message is encoded as it is, any
+    * further change to it is ignored.
+    */
+   synchronized void put(String topic, Message message, Transaction tx) {
+      final byte[] encoding = new byte[message.getPersistSize()];
+      final ActiveMQBuffer buffer = ActiveMQBuffers.wrappedBuffer(encoding);
+      buffer.clear();
+      message.persist(buffer);
+      // a non-durable message doesn't outlive the broker, nor should the one it replaces
+      replace(new RetainedMessage(topic, encoding, message.getExpiration()), message.isDurable(), tx);
+   }
+
+   /**
+    * Replaces the retained message of the topic by a message kept in a queue of its own once {@code tx} is committed.
+    */
+   synchronized void putQueue(String topic, SimpleString queueName, Transaction tx) {
+      replace(new RetainedMessage(topic, queueName), false, tx);
+   }
+
+   /**
+    * Removes the retained message of the topic once {@code tx} is committed.
+    */
+   synchronized void remove(String topic, Transaction tx) {
+      final MapRecord<Integer, String, RetainedMessage> deleted = getJournalMap().removeTransactional(topic, tx.getID());
+      if (deleted != null) {
+         tx.setContainsPersistent();
+      }
+      tx.addOperation(new TransactionOperationAbstract() {
+         @Override
+         public void afterCommit(Transaction tx) {
+            committed(topic, null, deleted, null);
+         }
+      });
+   }
+
+   /**
+    * {@return the retained message of the topic that was removed, or {@code null} if there was none}
+    */
+   synchronized RetainedMessage remove(String topic) {
+      final RetainedMessage previous = unindex(topic);
+      if (previous != null) {
+         getJournalMap().remove(topic);
+      }
+      return previous;
+   }
+
+   // callers must be synchronized
+   private void replace(RetainedMessage retainedMessage, boolean durable, Transaction tx) {
+      final String topic = retainedMessage.getTopic();
+      final JournalHashMap<Integer, String, RetainedMessage, Object> journalMap = getJournalMap();
+      final MapRecord<Integer, String, RetainedMessage> deleted = journalMap.removeTransactional(topic, tx.getID());
+      final MapRecord<Integer, String, RetainedMessage> stored = durable ? journalMap.putTransactional(topic, retainedMessage, tx.getID()) : null;
+      if (deleted != null || stored != null) {
+         tx.setContainsPersistent();
+      }
+      tx.addOperation(new TransactionOperationAbstract() {
+         @Override
+         public void afterCommit(Transaction tx) {
+            committed(topic, retainedMessage, deleted, stored);
+         }
+      });
+   }
+
+   private synchronized void committed(String topic,
+                                       RetainedMessage retainedMessage,
+                                       MapRecord<Integer, String, RetainedMessage> deleted,
+                                       MapRecord<Integer, String, RetainedMessage> stored) {
+      getJournalMap().commit(topic, deleted, stored);
+      final RetainedMessage previous = retainedMessage == null ? unindex(topic) : index(retainedMessage);
+      // the message replaced was kept in a queue
+      if (previous != null && previous.queueName != null && (retainedMessage == null || !previous.queueName.equals(retainedMessage.queueName))) {
+         final Queue queue = server.locateQueue(previous.queueName);
+         if (queue != null) {
+            try {
+               queue.deleteAllReferences();
+            } catch (Exception e) {
+               MQTTLogger.LOGGER.unableToRemoveRetainedMessage(topic, e);
+            }
+         }
+      }
+   }
+
+   /**
+    * {@return the retained messages of the topics matching {@code topicFilter}, skipping the expired ones}
+    */
+   synchronized List<RetainedMessage> match(String topicFilter) {
+      final List<RetainedMessage> matches = new ArrayList<>();
+      final long now = System.currentTimeMillis();
+      retainedMessages.match(topicFilter, retainedMessage -> {
+         if (!retainedMessage.isExpired(now)) {
+            matches.add(retainedMessage);
+         }
+      });
+      return matches;
+   }
+
+   /**
+    * Removes the retained messages that have expired.
+    */
+   public synchronized void expire() {
+      if (expiringTopics.isEmpty()) {
+         return;
+      }
+      final long now = System.currentTimeMillis();
+      final List<String> expired = new ArrayList<>();
+      for (String topic : expiringTopics) {
+         final RetainedMessage retainedMessage = retainedMessages.get(topic);
+         if (retainedMessage == null || retainedMessage.isExpired(now)) {
+            expired.add(topic);
+         }
+      }
+      for (String topic : expired) {
+         logger.debug("Removing expired MQTT retained message of {}", topic);
+         remove(topic);
+      }
+   }
+
+   public synchronized int size() {
+      return retainedMessages.size();
+   }
+
+   /**
+    * {@return the encoded size of the retained messages held in memory}
+    */
+   public synchronized long getMemorySize() {
+      return size;
+   }
+
+   /**
+    * {@return the retained message of the topic, or {@code null} if there is none}
+    */
+   public synchronized RetainedMessage get(String topic) {
+      return retainedMessages.get(topic);
+   }
+
+   // callers must be synchronized
+   private RetainedMessage index(RetainedMessage retainedMessage) {
+      final String topic = retainedMessage.getTopic();
+      if (retainedMessage.expiration != 0) {
+         expiringTopics.add(topic);
+      } else {
+         expiringTopics.remove(topic);
+      }
+      final RetainedMessage previous = retainedMessages.put(topic, retainedMessage);
+      addSize(retainedMessage.getMemorySize() - (previous == null ? 0 : previous.getMemorySize()));
+      return previous;
+   }
+
+   // callers must be synchronized
+   private RetainedMessage unindex(String topic) {
+      final RetainedMessage previous = retainedMessages.remove(topic);
+      if (previous != null) {
+         expiringTopics.remove(topic);
+         addSize(-previous.getMemorySize());
+      }
+      return previous;
+   }
+
+   // callers must be synchronized
+   private void addSize(int delta) {
+      if (delta != 0) {
+         size += delta;
+         server.getPagingManager().addSizeOnly(delta);
+      }
+   }
+
+   private JournalHashMap<Integer, String, RetainedMessage, Object> getJournalMap() {
+      return journalHashMapProvider.getMap(COLLECTION_ID);
+   }
+
+   /**
+    * A retained message, either encoded or kept in a queue.
+    */
+   public static final class RetainedMessage {
+
+      private final String topic;
+
+      private final byte[] encoding;
+
+      private final long expiration;
+
+      private final SimpleString queueName;
+
+      RetainedMessage(String topic, byte[] encoding, long expiration) {
+         this.topic = topic;
+         this.encoding = encoding;
+         this.expiration = expiration;
+         this.queueName = null;
+      }
+
+      RetainedMessage(String topic, SimpleString queueName) {
+         this.topic = topic;
+         this.encoding = null;
+         this.expiration = 0;
+         this.queueName = queueName;
+      }
+
+      public String getTopic() {
+         return topic;
+      }
+
+      /**
+       * {@return the name of the queue holding the message, or {@code null} if it is held by the store}
+       */
+      public SimpleString getQueueName() {
+         return queueName;
+      }
+
+      // the messages kept in a queue are accounted by its paging store
+      int getMemorySize() {
+         return encoding == null ? 0 : encoding.length;
+      }
+
+      boolean isExpired(long now) {
+         return expiration != 0 && expiration <= now;
+      }
+
+      /**
+       * {@return a new message decoded from the retained one}
+       */
+      public CoreMessage toMessage(long messageID, CoreMessageObjectPools pools) {
+         final CoreMessage message = new CoreMessage(pools);
+         message.reloadPersistence(ActiveMQBuffers.wrappedBuffer(encoding), pools);
+         message.setMessageID(messageID);
+         return message;
+      }
+
+      @Override
+      public String toString() {
+         return "RetainedMessage[topic=" + topic + (queueName == null ? ", size=" + encoding.length + ", expiration=" + expiration : ", queue=" + queueName) + "]";
+      }
+   }
+
+   private static class Persister extends AbstractHashMapPersister<Integer, String, RetainedMessage> {
+
+      @Override
+      protected int getCollectionIdSize(Integer collectionID) {
+         return DataConstants.SIZE_INT;
+      }
+
+      @Override
+      protected void encodeCollectionId(ActiveMQBuffer buffer, Integer collectionID) {
+         buffer.writeInt(collectionID);
+      }
+
+      @Override
+      protected Integer decodeCollectionId(ActiveMQBuffer buffer) {
+         return buffer.readInt();
+      }
+
+      @Override
+      protected int getKeySize(String topic) {
+         return BufferHelper.sizeOfString(topic);
+      }
+
+      @Override
+      protected void encodeKey(ActiveMQBuffer buffer, String topic) {
+         buffer.writeString(topic);
+      }
+
+      @Override
+      protected String decodeKey(ActiveMQBuffer buffer) {
+         return buffer.readString();
+      }
+
+      @Override
+      protected int getValueSize(RetainedMessage retainedMessage) {
+         return DataConstants.SIZE_LONG + DataConstants.SIZE_INT + retainedMessage.encoding.length;
+      }
+
+      @Override
+      protected void encodeValue(ActiveMQBuffer buffer, RetainedMessage retainedMessage) {
+         buffer.writeLong(retainedMessage.expiration);
+         buffer.writeInt(retainedMessage.encoding.length);
+         buffer.writeBytes(retainedMessage.encoding);
+      }
+
+      @Override
+      protected RetainedMessage decodeValue(ActiveMQBuffer buffer, String topic) {
+         final long expiration = buffer.readLong();
+         final byte[] encoding = new byte[buffer.readInt()];
+         buffer.readBytes(encoding);
+         return new RetainedMessage(topic, encoding, expiration);
+      }
+   }
+}
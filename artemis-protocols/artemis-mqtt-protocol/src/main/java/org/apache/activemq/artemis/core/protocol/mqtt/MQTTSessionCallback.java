@@ -49,7 +49,7 @@ public class MQTTSessionCallback implements SessionCallback {
                           ServerConsumer consumer,
                           int deliveryCount) {
       try {
-         session.getMqttPublishManager().publishToClient(ref.getMessage().toCore(), consumer);
+         session.getMqttPublishManager().publishToClient(ref.getMessage().toCoreForDelivery(), consumer);
       } catch (Exception e) {
          MQTTLogger.LOGGER.unableToSendMessage(session.getState().getClientId(), ref, e);
       }
@@ -0,0 +1,417 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.protocol.mqtt;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.activemq.artemis.api.core.ActiveMQExceptionType;
+import org.apache.activemq.artemis.api.core.Message;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.filter.impl.FilterImpl;
+import org.apache.activemq.artemis.core.io.IOCallback;
+import org.apache.activemq.artemis.core.message.impl.CoreMessage;
+import org.apache.activemq.artemis.core.persistence.OperationContext;
+import org.apache.activemq.artemis.core.persistence.StorageManager;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.core.server.MessageReference;
+import org.apache.activemq.artemis.core.server.Queue;
+import org.apache.activemq.artemis.core.server.impl.LastValueQueue;
+import org.apache.activemq.artemis.core.transaction.Transaction;
+import org.apache.activemq.artemis.core.transaction.impl.TransactionImpl;
+import org.apache.activemq.artemis.utils.PowerOf2Histogram;
+import org.apache.activemq.artemis.utils.actors.ArtemisExecutor;
+import org.apache.activemq.artemis.utils.collections.LinkedListIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The durable state of the MQTT sessions, i.e. their subscriptions and session expiry interval, kept as a message per
+ * client ID in the last-value queue {@link MQTTUtil#MQTT_SESSION_STORE}.
+ * <p>
+ * The updates of the state are coalesced per client: an update only marks the state of the client as pending and the
+ * pending states are written by a single task of an ordered executor, each as it is when written, in a transaction per
+ * batch. A batch holds the updates that arrived while the previous one was stored, so a burst of updates of a client,
+ * e.g. its {@code CONNECT} followed by its {@code SUBSCRIBE} packets, is usually written once. The operation context
+ * of each update only completes once the batch holding it is stored, so the {@code CONNACK} or {@code SUBACK} still
+ * follows the write of the state.
+ * <p>
+ * The state of a session is only decoded from its message when its client connects again, see {@link #load(String)}.
+ * Until then, only its client ID and session expiry interval are indexed here, from the queue on start or when the
+ * state is evicted from memory by {@link #evict(MQTTSessionState)}. The messages themselves are still loaded into the
+ * queue from the journal on start, like those of any durable queue, so this only saves the decoded states.
+ */
+public class MQTTSessionStateStore {
+
+   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+   private final ActiveMQServer server;
+
+   private final Queue queue;
+
+   private final ArtemisExecutor executor;
+
+   // the last update of each client not written yet
+   private final Map<String, Update> updates = new ConcurrentHashMap<>();
+
+   // the number of updates of each client not stored yet, written or not
+   private final Map<String, Integer> unsettledUpdates = new ConcurrentHashMap<>();
+
+   private final AtomicBoolean scheduled = new AtomicBoolean();
+
+   // the stored sessions whose state isn't in memory
+   private final Map<String, StoredSession> storedSessions = new ConcurrentHashMap<>();
+
+   // in microseconds, from 8us to 8s
+   private final PowerOf2Histogram loadTimes = new PowerOf2Histogram(3, 20);
+
+   MQTTSessionStateStore(ActiveMQServer server, Queue queue) {
+      this(server, queue, server.getExecutorFactory().getExecutor());
+   }
+
+   MQTTSessionStateStore(ActiveMQServer server, Queue queue, ArtemisExecutor executor) {
+      this.server = server;
+      this.queue = queue;
+      this.executor = executor;
+   }
+
+   /**
+    * Indexes the states found in the queue, as it was loaded from the journal, without loading them.
+    */
+   void index() {
+      final long now = System.currentTimeMillis();
+      try (LinkedListIterator<MessageReference> iterator = queue.browserIterator()) {
+         while (iterator.hasNext()) {
+            final Message message = iterator.next().getMessage();
+            final String clientId = getClientId(message);
+            if (clientId == null) {
+               continue;
+            }
+            final Integer sessionExpiryInterval = getSessionExpiryInterval(message);
+            if (sessionExpiryInterval != null) {
+               storedSessions.put(clientId, new StoredSession(sessionExpiryInterval, now));
+            }
+         }
+      } catch (NoSuchElementException ignored) {
+         // this could happen through paging browsing
+      }
+      logger.debug("Indexed {} stored MQTT session states", storedSessions.size());
+   }
+
+   /**
+    * Updates the stored state of the client with its state as it is when written.
+    */
+   void store(MQTTSessionState state) {
+      submit(state.getClientId(), state);
+   }
+
+   /**
+    * Removes the stored state of the client.
+    */
+   void remove(String clientId) {
+      storedSessions.remove(clientId);
+      submit(clientId, null);
+   }
+
+   /**
+    * {@return {@code true} if the state of the client is stored but not in memory}
+    */
+   boolean isStored(String clientId) {
+      return storedSessions.containsKey(clientId);
+   }
+
+   /**
+    * Reads the state of a client that isn't in memory.
+    *
+    * @return the state of the client, or {@code null} if it isn't stored or is stored but in memory
+    */
+   MQTTSessionState load(String clientId) {
+      final StoredSession storedSession = storedSessions.remove(clientId);
+      if (storedSession == null) {
+         return null;
+      }
+      final long start = System.nanoTime();
+      final MQTTSessionState state = read(clientId);
+      loadTimes.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+      if (state != null) {
+         state.setDisconnectedTime(storedSession.disconnectedTime);
+      }
+      logger.debug("Loaded MQTT session state for {}: {}", clientId, state);
+      return state;
+   }
+
+   /**
+    * {@return the stored state of the client, or {@code null} if there is none}
+    */
+   MQTTSessionState read(String clientId) {
+      Message message = null;
+      if (queue instanceof LastValueQueue lastValueQueue) {
+         final MessageReference reference = lastValueQueue.getLastValue(SimpleString.of(clientId));
+         message = reference == null ? null : reference.getMessage();
+      }
+      if (message == null) {
+         // a state not tracked as a last value, e.g. paged
+         message = browse(clientId);
+      }
+      if (message == null || getClientId(message) == null) {
+         return null;
+      }
+      try {
+         return new MQTTSessionState((CoreMessage) message);
+      } catch (Exception e) {
+         MQTTLogger.LOGGER.errorDeserializingStateMessage(e);
+         return null;
+      }
+   }
+
+   /**
+    * Drops the state of a client from memory, to be loaded again by {@link #load(String)}. The state is only evicted
+    * if all its updates are stored.
+    *
+    * @return {@code true} if the state can be dropped from memory
+    */
+   boolean evict(MQTTSessionState state) {
+      final String clientId = state.getClientId();
+      if (unsettledUpdates.containsKey(clientId) || !isInQueue(clientId)) {
+         return false;
+      }
+      storedSessions.put(clientId, new StoredSession(state.getClientSessionExpiryInterval(), state.getDisconnectedTime()));
+      logger.debug("Evicted MQTT session state for {}", clientId);
+      return true;
+   }
+
+   /**
+    * {@return the client IDs of the stored sessions not in memory which expired, no longer indexed}
+    */
+   List<String> expire(long now) {
+      final List<String> expired = new ArrayList<>();
+      storedSessions.forEach((clientId, storedSession) -> {
+         if (storedSession.isExpired(now) && storedSessions.remove(clientId, storedSession)) {
+            expired.add(clientId);
+         }
+      });
+      return expired;
+   }
+
+   /**
+    * {@return the number of stored sessions whose state isn't in memory}
+    */
+   public int getStoredSessionCount() {
+      return storedSessions.size();
+   }
+
+   /**
+    * {@return the histogram of the microseconds taken by {@link #load(String)} to read a state}
+    */
+   public PowerOf2Histogram getLoadTimes() {
+      return loadTimes;
+   }
+
+   private void submit(String clientId, MQTTSessionState state) {
+      final OperationContext context = server.getStorageManager().getContext();
+      context.storeLineUp();
+      unsettledUpdates.merge(clientId, 1, Integer::sum);
+      updates.compute(clientId, (key, update) -> {
+         if (update == null) {
+            update = new Update(key);
+         }
+         update.state = state;
+         update.contexts.add(context);
+         return update;
+      });
+      schedule();
+   }
+
+   private void schedule() {
+      if (scheduled.compareAndSet(false, true)) {
+         executor.execute(this::flush);
+      }
+   }
+
+   private void flush() {
+      final List<Update> batch = new ArrayList<>(updates.size());
+      for (String clientId : updates.keySet()) {
+         final Update update = updates.remove(clientId);
+         if (update != null) {
+            batch.add(update);
+         }
+      }
+      if (batch.isEmpty()) {
+         settle(batch);
+         return;
+      }
+      if (!write(batch)) {
+         settle(batch);
+         return;
+      }
+      // the next batch is written once this one is stored, so a state is never read or removed while being written
+      server.getStorageManager().afterCompleteOperations(new IOCallback() {
+         @Override
+         public void done() {
+            for (Update update : batch) {
+               IOCallback.done(update.contexts);
+            }
+            settle(batch);
+         }
+
+         @Override
+         public void onError(int errorCode, String errorMessage) {
+            for (Update update : batch) {
+               IOCallback.onError(update.contexts, errorCode, errorMessage);
+            }
+            settle(batch);
+         }
+      });
+   }
+
+   private void settle(List<Update> batch) {
+      for (Update update : batch) {
+         final int count = update.contexts.size();
+         unsettledUpdates.computeIfPresent(update.clientId, (clientId, unsettled) -> unsettled == count ? null : unsettled - count);
+      }
+      scheduled.set(false);
+      // updates submitted while the batch was stored
+      if (!updates.isEmpty()) {
+         schedule();
+      }
+   }
+
+   /**
+    * {@return {@code true} if the batch was committed, {@code false} if it failed and its contexts were notified}
+    */
+   private boolean write(List<Update> batch) {
+      final StorageManager storageManager = server.getStorageManager();
+      final Transaction tx = new TransactionImpl(storageManager);
+      tx.setAsync(true);
+      int written = 0;
+      for (Update update : batch) {
+         try {
+            if (update.state == null) {
+               delete(update.clientId);
+            } else {
+               final CoreMessage message;
+               synchronized (update.state) {
+                  message = MQTTStateManager.serializeState(update.state, storageManager.generateID());
+               }
+               MQTTUtil.sendMessageDirectlyToQueue(storageManager, server.getPostOffice(), message, queue, tx);
+               written++;
+            }
+         } catch (Exception e) {
+            MQTTLogger.LOGGER.unableToStoreSessionState(update.clientId, e);
+         }
+      }
+      try {
+         tx.commit();
+      } catch (Exception e) {
+         try {
+            tx.rollback();
+         } catch (Exception rollbackError) {
+            logger.debug("Error rolling back a batch of {} MQTT session states", batch.size(), rollbackError);
+         }
+         // the CONNACK or SUBACK waiting on these states must not be sent as if they were stored
+         for (Update update : batch) {
+            MQTTLogger.LOGGER.unableToStoreSessionState(update.clientId, e);
+            IOCallback.onError(update.contexts, ActiveMQExceptionType.INTERNAL_ERROR.getCode(), "Error storing a batch of " + batch.size() + " MQTT session states: " + e.getMessage());
+         }
+         return false;
+      }
+      logger.trace("Stored {} MQTT session states and removed {}", written, batch.size() - written);
+      return true;
+   }
+
+   private void delete(String clientId) throws Exception {
+      // clean sessions which never stored any state are common, don't scan the queue for them
+      if (queue instanceof LastValueQueue && !isInQueue(clientId)) {
+         return;
+      }
+      final int deletedCount = queue.deleteMatchingReferences(FilterImpl.createFilter(new StringBuilder(Message.HDR_LAST_VALUE_NAME).append(" = '").append(clientId).append("'").toString()));
+      logger.debug("Removed {} durable MQTT subscription record(s) for: {}", deletedCount, clientId);
+   }
+
+   private boolean isInQueue(String clientId) {
+      return queue instanceof LastValueQueue lastValueQueue && lastValueQueue.getLastValue(SimpleString.of(clientId)) != null;
+   }
+
+   private Message browse(String clientId) {
+      Message found = null;
+      try (LinkedListIterator<MessageReference> iterator = queue.browserIterator()) {
+         while (iterator.hasNext()) {
+            final Message message = iterator.next().getMessage();
+            if (clientId.equals(message.getStringProperty(Message.HDR_LAST_VALUE_NAME))) {
+               // the last one is the current value
+               found = message;
+            }
+         }
+      } catch (NoSuchElementException ignored) {
+         // this could happen through paging browsing
+      }
+      return found;
+   }
+
+   private static String getClientId(Message message) {
+      if (!(message instanceof CoreMessage)) {
+         MQTTLogger.LOGGER.sessionStateMessageIncorrectType(message.getClass().getName());
+         return null;
+      }
+      final String clientId = message.getStringProperty(Message.HDR_LAST_VALUE_NAME);
+      if (clientId == null || clientId.isEmpty()) {
+         MQTTLogger.LOGGER.sessionStateMessageBadClientId();
+         return null;
+      }
+      return clientId;
+   }
+
+   private static Integer getSessionExpiryInterval(Message message) {
+      if (message.containsProperty(MQTTUtil.MQTT_SESSION_EXPIRY_INTERVAL_KEY)) {
+         return message.getIntProperty(MQTTUtil.MQTT_SESSION_EXPIRY_INTERVAL_KEY);
+      }
+      // stored by an older version, only in the body
+      try {
+         return new MQTTSessionState((CoreMessage) message).getClientSessionExpiryInterval();
+      } catch (Exception e) {
+         MQTTLogger.LOGGER.errorDeserializingStateMessage(e);
+         return null;
+      }
+   }
+
+   private static final class Update {
+
+      private final String clientId;
+
+      private final List<OperationContext> contexts = new ArrayList<>(1);
+
+      // null to remove the stored state
+      private MQTTSessionState state;
+
+      private Update(String clientId) {
+         this.clientId = clientId;
+      }
+   }
+
+   private record StoredSession(int sessionExpiryInterval, long disconnectedTime) {
+
+      boolean isExpired(long now) {
+         return sessionExpiryInterval > 0 && disconnectedTime + sessionExpiryInterval * 1000L < now;
+      }
+   }
+}
@@ -20,10 +20,10 @@ package org.apache.activemq.artemis.core.protocol.mqtt;
 
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.NoSuchElementException;
 import java.util.concurrent.ConcurrentHashMap;
 
 import io.netty.handler.codec.mqtt.MqttTopicSubscription;
@@ -31,17 +31,16 @@ import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
 import org.apache.activemq.artemis.api.core.Message;
 import org.apache.activemq.artemis.api.core.QueueConfiguration;
 import org.apache.activemq.artemis.api.core.RoutingType;
-import org.apache.activemq.artemis.core.filter.impl.FilterImpl;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.config.WildcardConfiguration;
 import org.apache.activemq.artemis.core.journal.RecordInfo;
 import org.apache.activemq.artemis.core.journal.collections.JournalHashMapProvider;
 import org.apache.activemq.artemis.core.message.impl.CoreMessage;
-import org.apache.activemq.artemis.core.persistence.StorageManager;
 import org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds;
 import org.apache.activemq.artemis.core.persistence.impl.journal.OperationContextImpl;
 import org.apache.activemq.artemis.core.server.ActiveMQServer;
-import org.apache.activemq.artemis.core.server.MessageReference;
 import org.apache.activemq.artemis.core.server.Queue;
-import org.apache.activemq.artemis.utils.collections.LinkedListIterator;
+import org.apache.activemq.artemis.core.server.metrics.MetricsManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,12 +48,17 @@ public class MQTTStateManager {
 
    private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
    private static final Map<Integer, MQTTStateManager> INSTANCES = new HashMap<>();
+   private static final String METRICS_COMPONENT = "mqtt";
    private final ActiveMQServer server;
+   // the states in memory, the others are only in the session state store
    private final Map<String, MQTTSessionState> sessionStates = new ConcurrentHashMap<>();
-   private Queue sessionStore;
+   private volatile MQTTSessionStateStore sessionStateStore;
    private final Map<String, MQTTConnection> connectedClients = new ConcurrentHashMap<>();
    private final boolean subscriptionPersistenceEnabled;
+   private final long sessionStateEvictionDelay;
+   private boolean metersRegistered;
    private final JournalHashMapProvider<String, PacketIdCorrelationKey, Integer, Object> journalHashMapProvider;
+   private final MQTTRetainedMessageStore retainedMessageStore;
 
    /*
     * Even though there may be multiple instances of MQTTProtocolManager (e.g. for MQTT on different ports) we only want
@@ -72,23 +76,31 @@ public class MQTTStateManager {
    }
 
    public static synchronized void removeInstance(ActiveMQServer server) {
-      INSTANCES.remove(System.identityHashCode(server));
+      MQTTStateManager instance = INSTANCES.remove(System.identityHashCode(server));
+      if (instance != null) {
+         instance.unregisterMeters();
+      }
    }
 
    private MQTTStateManager(ActiveMQServer server) throws Exception {
       this.server = server;
       this.subscriptionPersistenceEnabled = server.getConfiguration().isMqttSubscriptionPersistenceEnabled();
+      this.sessionStateEvictionDelay = server.getConfiguration().getMqttSessionStateEvictionDelay();
       this.journalHashMapProvider = new JournalHashMapProvider<>(server.getStorageManager()::generateID, server.getStorageManager(), PacketIdCorrelationKey.getPersister(), JournalRecordIds.MQTT_PACKET_ID_CORRELATION, OperationContextImpl::getContext, null, server.getIoCriticalErrorListener());
+      this.retainedMessageStore = new MQTTRetainedMessageStore(server);
    }
 
    public void scanSessions() {
       List<String> toRemove = new ArrayList<>();
+      List<String> toEvict = new ArrayList<>();
       for (Map.Entry<String, MQTTSessionState> entry : sessionStates.entrySet()) {
          MQTTSessionState state = entry.getValue();
          logger.debug("Inspecting session: {}", state);
          int sessionExpiryInterval = state.getClientSessionExpiryInterval();
          if (!state.isAttached() && sessionExpiryInterval > 0 && state.getDisconnectedTime() + (sessionExpiryInterval * 1000) < System.currentTimeMillis()) {
             toRemove.add(entry.getKey());
+         } else if (isEvictable(state)) {
+            toEvict.add(entry.getKey());
          }
          if (state.isWill() && !state.isAttached() && state.isFailed() && state.getWillDelayInterval() > 0 && state.getDisconnectedTime() + (state.getWillDelayInterval() * 1000) < System.currentTimeMillis()) {
             state.getSession().sendWillMessage();
@@ -99,6 +111,11 @@ public class MQTTStateManager {
          try {
             MQTTSessionState state = removeSessionState(key);
             if (state != null) {
+               if (state.getSession() == null) {
+                  // never attached since it was loaded from storage
+                  removeStoredSession(key, state);
+                  continue;
+               }
                if (state.isWill() && !state.isAttached() && state.isFailed()) {
                   state.getSession().sendWillMessage();
                }
@@ -108,16 +125,83 @@ public class MQTTStateManager {
             MQTTLogger.LOGGER.failedToRemoveSessionState(key, e);
          }
       }
+
+      for (String key : toEvict) {
+         // a client connecting meanwhile is either seen here or waits for the state to be evicted, then loads it
+         sessionStates.computeIfPresent(key, (clientId, state) -> isEvictable(state) && !isClientConnected(clientId) && sessionStateStore.evict(state) ? null : state);
+      }
+
+      MQTTSessionStateStore sessionStateStore = this.sessionStateStore;
+      if (sessionStateStore != null) {
+         for (String key : sessionStateStore.expire(System.currentTimeMillis())) {
+            try {
+               removeStoredSession(key, sessionStateStore.read(key));
+            } catch (Exception e) {
+               MQTTLogger.LOGGER.failedToRemoveSessionState(key, e);
+            }
+         }
+      }
+   }
+
+   /**
+    * {@return {@code true} if the state is only needed again when its client reconnects, so it can be evicted from
+    * memory and kept in storage only}
+    */
+   private boolean isEvictable(MQTTSessionState state) {
+      if (sessionStateStore == null || sessionStateEvictionDelay < 0 || state.isAttached() || state.getDisconnectedTime() + sessionStateEvictionDelay >= System.currentTimeMillis()) {
+         return false;
+      }
+      // a will waiting for its delay is only held in memory
+      return !state.isWill() || !state.isFailed() || state.getWillStatus() == MQTTSessionState.WillStatus.SENT;
+   }
+
+   /**
+    * Removes a session whose state isn't attached to any {@link MQTTSession}, as {@link MQTTSession#clean(boolean)}
+    * would.
+    */
+   private void removeStoredSession(String clientId, MQTTSessionState state) throws Exception {
+      logger.debug("Removing expired stored MQTT session state for: {}", clientId);
+      if (state != null) {
+         WildcardConfiguration wildcardConfiguration = server.getConfiguration().getWildcardConfiguration();
+         for (SubscriptionItem item : state.getSubscriptionItems()) {
+            String topicFilter = item.getSubscription().topicFilter();
+            SimpleString queueName = SimpleString.of(MQTTUtil.getCoreQueueFromMqttTopic(topicFilter, clientId, wildcardConfiguration));
+            Queue queue = server.locateQueue(queueName);
+            if (queue != null) {
+               if (queue.isConfigurationManaged()) {
+                  queue.deleteAllReferences();
+               } else if (!MQTTUtil.isSharedSubscription(topicFilter) || queue.getConsumerCount() == 0) {
+                  server.destroyQueue(queueName);
+               }
+            }
+         }
+      }
+      if (packetIdCorrelationExistsForClient(clientId)) {
+         clearPacketIdCorrelation(clientId);
+      }
+      removeDurableSubscriptionState(clientId);
    }
 
    public MQTTSessionState getSessionState(String clientId) throws Exception {
       // [MQTT-3.1.2-4] Attach an existing session if one exists otherwise create a new one.
       return sessionStates.computeIfAbsent(clientId, key -> {
+         MQTTSessionState stored = sessionStateStore == null ? null : sessionStateStore.load(key);
+         if (stored != null) {
+            return stored;
+         }
          logger.debug("Adding MQTT session state for: {}", key);
          return new MQTTSessionState(key);
       });
    }
 
+   /**
+    * {@return {@code true} if the client has a session, whether its state is in memory or only in storage}
+    */
+   public boolean isSessionPresent(String clientId) {
+      MQTTSessionStateStore sessionStateStore = this.sessionStateStore;
+      return sessionStates.containsKey(clientId) || sessionStateStore != null && sessionStateStore.isStored(clientId);
+   }
+
    public MQTTSessionState removeSessionState(String clientId) throws Exception {
       logger.debug("Removing MQTT session state for: {}", clientId);
       if (clientId == null) {
@@ -129,15 +213,25 @@ public class MQTTStateManager {
 
    public void removeDurableSubscriptionState(String clientId) throws Exception {
       if (subscriptionPersistenceEnabled) {
-         int deletedCount = sessionStore.deleteMatchingReferences(FilterImpl.createFilter(new StringBuilder(Message.HDR_LAST_VALUE_NAME).append(" = '").append(clientId).append("'").toString()));
-         logger.debug("Removed {} durable MQTT subscription record(s) for: {}", deletedCount, clientId);
+         logger.debug("Removing durable MQTT record for: {}", clientId);
+         sessionStateStore.remove(clientId);
       }
    }
 
+   /**
+    * {@return the session states in memory, see {@link #isSessionPresent(String)} for the ones only in storage}
+    */
    public Map<String, MQTTSessionState> getSessionStates() {
       return new HashMap<>(sessionStates);
    }
 
+   /**
+    * {@return the store of the durable session states, or {@code null} if MQTT subscriptions aren't persisted}
+    */
+   public MQTTSessionStateStore getSessionStateStore() {
+      return sessionStateStore;
+   }
+
    @Override
    public String toString() {
       return "MQTTSessionStateManager@" + Integer.toHexString(System.identityHashCode(this));
@@ -146,8 +240,7 @@ public class MQTTStateManager {
    public void storeDurableState(MQTTSessionState state) throws Exception {
       if (subscriptionPersistenceEnabled) {
          logger.debug("Adding durable MQTT record for: {}", state.getClientId());
-         StorageManager storageManager = server.getStorageManager();
-         MQTTUtil.sendMessageDirectlyToQueue(storageManager, server.getPostOffice(), serializeState(state, storageManager.generateID()), sessionStore, null);
+         sessionStateStore.store(state);
       }
    }
 
@@ -156,6 +249,8 @@ public class MQTTStateManager {
       message.setAddress(MQTTUtil.MQTT_SESSION_STORE);
       message.setDurable(true);
       message.putStringProperty(Message.HDR_LAST_VALUE_NAME, state.getClientId());
+      // to expire the session without reading the body
+      message.putIntProperty(MQTTUtil.MQTT_SESSION_EXPIRY_INTERVAL_KEY, state.getClientSessionExpiryInterval());
       Map<String, SubscriptionItem> subscriptions = state.getSubscriptionsPlusID();
       ActiveMQBuffer buf = message.getBodyBuffer();
 
@@ -222,9 +317,15 @@ public class MQTTStateManager {
    public void reload(RecordInfo recordInfo) {
       if (recordInfo.userRecordType == JournalRecordIds.MQTT_PACKET_ID_CORRELATION) {
          journalHashMapProvider.reload(recordInfo);
+      } else if (recordInfo.userRecordType == JournalRecordIds.MQTT_RETAINED_MESSAGE) {
+         retainedMessageStore.reload(recordInfo);
       }
    }
 
+   public MQTTRetainedMessageStore getRetainedMessageStore() {
+      return retainedMessageStore;
+   }
+
    public void putPacketIdCorrelation(String clientId, PacketIdCorrelationKey key, Integer packetId) {
       journalHashMapProvider.getMap(clientId).put(key, packetId);
    }
@@ -253,35 +354,42 @@ public class MQTTStateManager {
       return journalHashMapProvider.getMap(clientId).size();
    }
 
-   public void init() throws Exception {
-      if (subscriptionPersistenceEnabled) {
-         this.sessionStore = server.createQueue(QueueConfiguration.of(MQTTUtil.MQTT_SESSION_STORE).setRoutingType(RoutingType.ANYCAST).setLastValue(true).setDurable(true).setInternal(true).setAutoCreateAddress(true), true);
-
-         // load subscription data from queue
-         try (LinkedListIterator<MessageReference> iterator = sessionStore.browserIterator()) {
-            while (iterator.hasNext()) {
-               Message message = iterator.next().getMessage();
-               if (!(message instanceof CoreMessage)) {
-                  MQTTLogger.LOGGER.sessionStateMessageIncorrectType(message.getClass().getName());
-                  continue;
-               }
-               String clientId = message.getStringProperty(Message.HDR_LAST_VALUE_NAME);
-               if (clientId == null || clientId.isEmpty()) {
-                  MQTTLogger.LOGGER.sessionStateMessageBadClientId();
-                  continue;
-               }
-               MQTTSessionState sessionState;
-               try {
-                  sessionState = new MQTTSessionState((CoreMessage) message);
-               } catch (Exception e) {
-                  MQTTLogger.LOGGER.errorDeserializingStateMessage(e);
-                  continue;
-               }
-               sessionStates.put(clientId, sessionState);
+   public synchronized void init() throws Exception {
+      retainedMessageStore.load(server.getConfiguration().getWildcardConfiguration());
+
+      if (subscriptionPersistenceEnabled && sessionStateStore == null) {
+         Queue sessionStore = server.createQueue(QueueConfiguration.of(MQTTUtil.MQTT_SESSION_STORE).setRoutingType(RoutingType.ANYCAST).setLastValue(true).setDurable(true).setInternal(true).setAutoCreateAddress(true), true);
+
+         // only index the subscription data, each session loads its own when its client connects
+         MQTTSessionStateStore sessionStateStore = new MQTTSessionStateStore(server, sessionStore);
+         sessionStateStore.index();
+         this.sessionStateStore = sessionStateStore;
+      }
+
+      if (!metersRegistered) {
+         registerMeters();
+         metersRegistered = true;
+      }
+   }
+
+   private void registerMeters() {
+      MetricsManager metricsManager = server.getMetricsManager();
+      if (metricsManager != null) {
+         metricsManager.registerBrokerGauge(METRICS_COMPONENT, builder -> {
+            builder.build("mqtt.session.resident.count", sessionStates, metrics -> (double) sessionStates.size(), "number of MQTT sessions whose state is in memory", Collections.emptyList());
+            MQTTSessionStateStore sessionStateStore = this.sessionStateStore;
+            if (sessionStateStore != null) {
+               builder.build("mqtt.session.stored.count", sessionStateStore, metrics -> (double) sessionStateStore.getStoredSessionCount(), "number of MQTT sessions whose state is only stored as a message, not decoded in memory", Collections.emptyList());
+               builder.buildHistogram("mqtt.session.load.time", sessionStateStore.getLoadTimes(), "number of MQTT session states decoded from their message in up to this number of microseconds");
             }
-         } catch (NoSuchElementException ignored) {
-            // this could happen through paging browsing
-         }
+         });
+      }
+   }
+
+   private synchronized void unregisterMeters() {
+      MetricsManager metricsManager = server.getMetricsManager();
+      if (metricsManager != null && metersRegistered) {
+         metricsManager.removeBrokerGauges(METRICS_COMPONENT);
       }
    }
-}
\ No newline at end of file
+}
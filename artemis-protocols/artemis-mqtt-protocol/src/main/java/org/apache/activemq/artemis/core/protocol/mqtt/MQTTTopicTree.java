@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.protocol.mqtt;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Values indexed by MQTT topic name, one level of the topic per node, so the values matching a topic filter are found
+ * by walking the levels of the filter rather than by testing every topic.
+ * <p>
+ * A literal level of a filter follows a single child, {@code +} follows every child and {@code #} takes the whole
+ * subtree. The cost of {@link #match(String, Consumer)} is then proportional to the number of nodes on the way to the
+ * matching topics, whatever the number of topics in the tree.
+ * <p>
+ * This class is not thread safe.
+ */
+public class MQTTTopicTree<V> {
+
+   private static final String LEVEL_SEPARATOR = String.valueOf(MQTTUtil.SLASH);
+
+   private final Node<V> root = new Node<>(null, null);
+
+   private int size;
+
+   public int size() {
+      return size;
+   }
+
+   public boolean isEmpty() {
+      return size == 0;
+   }
+
+   public V get(String topic) {
+      Node<V> node = root;
+      for (String level : levels(topic)) {
+         node = node.child(level);
+         if (node == null) {
+            return null;
+         }
+      }
+      return node.value;
+   }
+
+   /**
+    * {@return the value previously held for the topic, or {@code null} if there was none}
+    */
+   public V put(String topic, V value) {
+      Node<V> node = root;
+      for (String level : levels(topic)) {
+         node = node.getOrAddChild(level);
+      }
+      final V previous = node.value;
+      node.value = value;
+      if (previous == null) {
+         size++;
+      }
+      return previous;
+   }
+
+   /**
+    * {@return the value held for the topic, or {@code null} if there was none}
+    */
+   public V remove(String topic) {
+      Node<V> node = root;
+      for (String level : levels(topic)) {
+         node = node.child(level);
+         if (node == null) {
+            return null;
+         }
+      }
+      final V previous = node.value;
+      if (previous != null) {
+         node.value = null;
+         size--;
+         // drop the nodes that no longer lead to any value
+         while (node != root && node.value == null && node.children == null) {
+            node.parent.removeChild(node.level);
+            node = node.parent;
+         }
+      }
+      return previous;
+   }
+
+   /**
+    * Passes the value of every topic matching {@code topicFilter} to {@code consumer}.
+    * <p>
+    * As required by [MQTT-4.7.2-1] a filter starting with a wildcard doesn't match the topics starting with {@code $}.
+    */
+   public void match(String topicFilter, Consumer<? super V> consumer) {
+      match(root, levels(topicFilter), 0, consumer);
+   }
+
+   /**
+    * Passes every value of the tree to {@code consumer}.
+    */
+   public void forEach(Consumer<? super V> consumer) {
+      forEach(root, consumer, false);
+   }
+
+   public void clear() {
+      root.children = null;
+      size = 0;
+   }
+
+   private static <V> void match(Node<V> node, String[] levels, int index, Consumer<? super V> consumer) {
+      if (index == levels.length) {
+         if (node.value != null) {
+            consumer.accept(node.value);
+         }
+         return;
+      }
+      final String level = levels[index];
+      if (isWildcard(level, MQTTUtil.HASH)) {
+         // "sport/#" also matches "sport"
+         if (node.value != null) {
+            consumer.accept(node.value);
+         }
+         if (node.children != null) {
+            for (Node<V> child : node.children.values()) {
+               if (index > 0 || !isSystemTopic(child.level)) {
+                  forEach(child, consumer, true);
+               }
+            }
+         }
+      } else if (isWildcard(level, MQTTUtil.PLUS)) {
+         if (node.children != null) {
+            for (Node<V> child : node.children.values()) {
+               if (index > 0 || !isSystemTopic(child.level)) {
+                  match(child, levels, index + 1, consumer);
+               }
+            }
+         }
+      } else {
+         final Node<V> child = node.child(level);
+         if (child != null) {
+            match(child, levels, index + 1, consumer);
+         }
+      }
+   }
+
+   private static <V> void forEach(Node<V> node, Consumer<? super V> consumer, boolean includeNode) {
+      if (includeNode && node.value != null) {
+         consumer.accept(node.value);
+      }
+      if (node.children != null) {
+         for (Node<V> child : node.children.values()) {
+            forEach(child, consumer, true);
+         }
+      }
+   }
+
+   private static boolean isWildcard(String level, char wildcard) {
+      return level.length() == 1 && level.charAt(0) == wildcard;
+   }
+
+   private static boolean isSystemTopic(String level) {
+      return !level.isEmpty() && level.charAt(0) == MQTTUtil.DOLLAR;
+   }
+
+   private static String[] levels(String topic) {
+      // keep the empty levels, e.g. of "/a" or "a//b"
+      return topic.split(LEVEL_SEPARATOR, -1);
+   }
+
+   private static final class Node<V> {
+
+      private final Node<V> parent;
+
+      private final String level;
+
+      // null while the node has no children, most nodes are the last level of a topic
+      private Map<String, Node<V>> children;
+
+      private V value;
+
+      private Node(Node<V> parent, String level) {
+         this.parent = parent;
+         this.level = level;
+      }
+
+      Node<V> child(String level) {
+         return children == null ? null : children.get(level);
+      }
+
+      Node<V> getOrAddChild(String level) {
+         if (children == null) {
+            children = new HashMap<>(4);
+         }
+         return children.computeIfAbsent(level, l -> new Node<>(this, l));
+      }
+
+      void removeChild(String level) {
+         children.remove(level);
+         if (children.isEmpty()) {
+            children = null;
+         }
+      }
+   }
+}
@@ -94,6 +94,8 @@ public class MQTTUtil {
 
    public static final String MQTT_SESSION_STORE = DOLLAR + "sys.mqtt.sessions";
 
+   public static final SimpleString MQTT_SESSION_EXPIRY_INTERVAL_KEY = SimpleString.of("mqtt.session.expiry.interval");
+
    public static final String MQTT_RETAIN_ADDRESS_PREFIX = DOLLAR + "sys.mqtt.retain.";
 
    public static final SimpleString MQTT_QOS_LEVEL_KEY = SimpleString.of("mqtt.qos.level");
@@ -283,6 +285,10 @@ public class MQTTUtil {
       return message;
    }
 
+   public static boolean isMessageLoggingEnabled() {
+      return logger.isTraceEnabled();
+   }
+
    public static void logMessage(MQTTSessionState state, MqttMessage message, boolean inbound, MQTTVersion version) {
       if (logger.isTraceEnabled()) {
          StringBuilder log = new StringBuilder("MQTT(");
@@ -529,7 +535,7 @@ public class MQTTUtil {
    }
 
    // https://docs.oasis-open.org/mqtt/mqtt/v5.0/os/mqtt-v5.0-os.html#_Toc3901011
-   private static int calculateVariableByteIntegerSize(int vbi) {
+   static int calculateVariableByteIntegerSize(int vbi) {
       int count = 0;
       do {
          vbi /= 128;
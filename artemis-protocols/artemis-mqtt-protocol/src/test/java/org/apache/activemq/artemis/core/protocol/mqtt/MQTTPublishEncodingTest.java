@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.protocol.mqtt;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.mqtt.MqttEncoder;
+import io.netty.handler.codec.mqtt.MqttFixedHeader;
+import io.netty.handler.codec.mqtt.MqttMessageType;
+import io.netty.handler.codec.mqtt.MqttProperties;
+import io.netty.handler.codec.mqtt.MqttPublishMessage;
+import io.netty.handler.codec.mqtt.MqttPublishVariableHeader;
+import io.netty.handler.codec.mqtt.MqttQoS;
+import io.netty.handler.codec.mqtt.MqttVersion;
+import io.netty.util.AttributeKey;
+import org.apache.activemq.artemis.api.core.ICoreMessage;
+import org.apache.activemq.artemis.api.core.Message;
+import org.apache.activemq.artemis.core.message.impl.CoreMessage;
+import org.apache.activemq.artemis.core.paging.PagingStore;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class MQTTPublishEncodingTest {
+
+   // the attribute MqttEncoder reads the version of the connection from
+   private static final AttributeKey<MqttVersion> MQTT_VERSION_KEY = AttributeKey.valueOf("NETTY_CODEC_MQTT_VERSION");
+
+   private static final String TOPIC = "sensors/temperature";
+
+   private static final byte[] PAYLOAD = "21.5".getBytes(StandardCharsets.UTF_8);
+
+   @Test
+   public void testEncodeLikeMqttEncoder() {
+      final MQTTPublishEncoding encoding = new MQTTPublishEncoding(createMessage(), TOPIC);
+
+      assertEncodedLikeMqttEncoder(encoding, MqttVersion.MQTT_3_1_1, TOPIC, 0, false, 0, false, null);
+      assertEncodedLikeMqttEncoder(encoding, MqttVersion.MQTT_3_1_1, TOPIC, 7, true, 1, true, null);
+      assertEncodedLikeMqttEncoder(encoding, MqttVersion.MQTT_3_1_1, "other/topic", 300, false, 2, false, null);
+
+      final MqttProperties properties = new MqttProperties();
+      properties.add(new MqttProperties.IntegerProperty(MqttProperties.MqttPropertyType.PAYLOAD_FORMAT_INDICATOR.value(), 1));
+      properties.add(new MqttProperties.StringProperty(MqttProperties.MqttPropertyType.RESPONSE_TOPIC.value(), "replies"));
+      properties.add(new MqttProperties.BinaryProperty(MqttProperties.MqttPropertyType.CORRELATION_DATA.value(), new byte[] {1, 2, 3}));
+      properties.add(new MqttProperties.UserProperties(List.of(new MqttProperties.StringPair("unit", "celsius"), new MqttProperties.StringPair("floor", "2"))));
+      properties.add(new MqttProperties.StringProperty(MqttProperties.MqttPropertyType.CONTENT_TYPE.value(), "text/plain"));
+      properties.add(new MqttProperties.IntegerProperty(MqttProperties.MqttPropertyType.SUBSCRIPTION_IDENTIFIER.value(), 200));
+      properties.add(new MqttProperties.IntegerProperty(MqttProperties.MqttPropertyType.PUBLICATION_EXPIRY_INTERVAL.value(), 60));
+      properties.add(new MqttProperties.IntegerProperty(MqttProperties.MqttPropertyType.TOPIC_ALIAS.value(), 3));
+      assertEncodedLikeMqttEncoder(encoding, MqttVersion.MQTT_5, "", 9, false, 1, false, properties);
+      assertEncodedLikeMqttEncoder(encoding, MqttVersion.MQTT_5, TOPIC, 0, false, 0, true, new MqttProperties());
+   }
+
+   @Test
+   public void testSharedByDeliveries() {
+      final PagingStore store = Mockito.mock(PagingStore.class);
+      final ICoreMessage message = createMessage();
+      message.setOwner(store);
+
+      // delivered from a single queue, nothing is kept
+      message.refUp();
+      assertNull(MQTTPublishEncoding.of(message, TOPIC));
+
+      message.refUp();
+      final int estimate = message.getMemoryEstimate();
+      final MQTTPublishEncoding encoding = MQTTPublishEncoding.of(message, TOPIC);
+      assertNotNull(encoding);
+      assertSame(encoding, MQTTPublishEncoding.of(message, TOPIC));
+      assertEquals(estimate + encoding.getMemoryEstimate(), message.getMemoryEstimate());
+      Mockito.verify(store).addSize(encoding.getMemoryEstimate(), false);
+
+      message.putStringProperty("changed", "true");
+      final MQTTPublishEncoding changed = MQTTPublishEncoding.of(message, TOPIC);
+      assertNotNull(changed);
+      assertSame(changed, MQTTPublishEncoding.of(message, TOPIC));
+      // the encoding is only accounted once
+      Mockito.verify(store, Mockito.times(1)).addSize(Mockito.anyInt(), Mockito.anyBoolean());
+   }
+
+   private static ICoreMessage createMessage() {
+      final CoreMessage message = new CoreMessage(1, 50);
+      message.setType(Message.BYTES_TYPE);
+      message.getBodyBuffer().writeBytes(PAYLOAD);
+      return message;
+   }
+
+   private static void assertEncodedLikeMqttEncoder(MQTTPublishEncoding encoding, MqttVersion version, String topic, int packetId, boolean dup, int qos, boolean retain, MqttProperties properties) {
+      final EmbeddedChannel channel = new EmbeddedChannel(MqttEncoder.INSTANCE);
+      channel.attr(MQTT_VERSION_KEY).set(version);
+      final MqttFixedHeader header = new MqttFixedHeader(MqttMessageType.PUBLISH, dup, MqttQoS.valueOf(qos), retain, 0);
+      final MqttPublishVariableHeader variableHeader = new MqttPublishVariableHeader(topic, packetId, properties);
+      channel.writeOutbound(new MqttPublishMessage(header, variableHeader, Unpooled.wrappedBuffer(PAYLOAD)));
+      final ByteBuf expected = channel.readOutbound();
+
+      final ByteBuf encoded = encoding.encode(ByteBufAllocator.DEFAULT, topic, packetId, dup, qos, retain, version == MqttVersion.MQTT_5 ? properties : null);
+      try {
+         assertArrayEquals(ByteBufUtil.getBytes(expected), ByteBufUtil.getBytes(encoded));
+      } finally {
+         expected.release();
+         encoded.release();
+         channel.finishAndReleaseAll();
+      }
+   }
+}
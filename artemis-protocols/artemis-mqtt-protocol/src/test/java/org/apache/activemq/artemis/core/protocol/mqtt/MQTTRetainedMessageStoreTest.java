@@ -0,0 +1,264 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.protocol.mqtt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.api.core.ActiveMQBuffers;
+import org.apache.activemq.artemis.api.core.Message;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.config.WildcardConfiguration;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.journal.RecordInfo;
+import org.apache.activemq.artemis.core.message.impl.CoreMessage;
+import org.apache.activemq.artemis.core.paging.PagingManager;
+import org.apache.activemq.artemis.core.persistence.Persister;
+import org.apache.activemq.artemis.core.persistence.StorageManager;
+import org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds;
+import org.apache.activemq.artemis.core.postoffice.PostOffice;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.core.server.Queue;
+import org.apache.activemq.artemis.core.transaction.Transaction;
+import org.apache.activemq.artemis.core.transaction.TransactionOperation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+public class MQTTRetainedMessageStoreTest {
+
+   private ActiveMQServer server;
+
+   private StorageManager storageManager;
+
+   private PagingManager pagingManager;
+
+   private ConfigurationImpl configuration;
+
+   private MQTTRetainedMessageStore store;
+
+   private long nextTransactionID = 1;
+
+   @BeforeEach
+   public void createStore() {
+      server = Mockito.mock(ActiveMQServer.class);
+      storageManager = Mockito.mock(StorageManager.class);
+      pagingManager = Mockito.mock(PagingManager.class);
+      configuration = new ConfigurationImpl();
+      final PostOffice postOffice = Mockito.mock(PostOffice.class);
+      Mockito.when(server.getStorageManager()).thenReturn(storageManager);
+      Mockito.when(server.getPagingManager()).thenReturn(pagingManager);
+      Mockito.when(server.getConfiguration()).thenReturn(configuration);
+      Mockito.when(server.getPostOffice()).thenReturn(postOffice);
+      Mockito.when(postOffice.getAddresses()).thenReturn(Collections.emptySet());
+      Mockito.when(storageManager.getMaxRecordSize()).thenReturn(100 * 1024L);
+      store = new MQTTRetainedMessageStore(server);
+   }
+
+   @Test
+   public void testPutAndMatch() throws Exception {
+      put("sensors/1/temperature", createMessage(1, "21.5", true, 0));
+      put("sensors/2/temperature", createMessage(2, "19.0", false, 0));
+      put("sensors/2/humidity", createMessage(3, "40", true, 0));
+      put("sensors/1/temperature", createMessage(4, "22.0", true, 0));
+      assertEquals(3, store.size());
+
+      final List<MQTTRetainedMessageStore.RetainedMessage> matches = store.match("sensors/+/temperature");
+      assertEquals(2, matches.size());
+      for (MQTTRetainedMessageStore.RetainedMessage retainedMessage : matches) {
+         final CoreMessage message = retainedMessage.toMessage(100, null);
+         assertEquals(100, message.getMessageID());
+         assertEquals(retainedMessage.getTopic().startsWith("sensors/1") ? "22.0" : "19.0", getPayload(message));
+      }
+
+      commit(tx -> store.remove("sensors/2/humidity", tx));
+      assertNull(store.get("sensors/2/humidity"));
+      assertTrue(store.match("sensors/+/humidity").isEmpty());
+   }
+
+   @Test
+   public void testIndexedOnCommit() throws Exception {
+      put("retained", createMessage(1, "first", true, 0));
+
+      final Transaction tx = createTransaction();
+      final long txID = tx.getID();
+      store.put("retained", createMessage(2, "second", true, 0), tx);
+      // the record replacing the first one is part of the transaction
+      Mockito.verify(storageManager, Mockito.times(2)).storeMapRecordTx(Mockito.anyLong(), Mockito.anyLong(), Mockito.eq(JournalRecordIds.MQTT_RETAINED_MESSAGE), Mockito.any(), Mockito.any());
+      Mockito.verify(storageManager).deleteMapRecordTx(Mockito.eq(txID), Mockito.anyLong());
+      Mockito.verify(tx).setContainsPersistent();
+      assertEquals("first", getPayload(store.get("retained").toMessage(10, null)));
+
+      // a rollback has nothing to undo
+      final Transaction rolledBack = createTransaction();
+      store.remove("retained", rolledBack);
+      assertNotNull(store.get("retained"));
+
+      getOperation(tx).afterCommit(tx);
+      assertEquals("second", getPayload(store.get("retained").toMessage(10, null)));
+      assertEquals(1, store.size());
+   }
+
+   @Test
+   public void testMaxSize() throws Exception {
+      final Message message = createMessage(1, "retained", true, 0);
+      configuration.setMqttRetainedMessagesMaxSize(message.getPersistSize() * 2L);
+      store = new MQTTRetainedMessageStore(server);
+
+      assertTrue(store.canStore("first", message));
+      put("first", message);
+      assertEquals(message.getPersistSize(), store.getMemorySize());
+      Mockito.verify(pagingManager).addSizeOnly(message.getPersistSize());
+
+      final Message second = createMessage(2, "retained", true, 0);
+      put("second", second);
+      assertFalse(store.canStore("third", createMessage(3, "retained", true, 0)));
+
+      // a message replaced in a queue no longer uses memory
+      commit(tx -> store.putQueue("second", SimpleString.of(MQTTUtil.MQTT_RETAIN_ADDRESS_PREFIX + "second"), tx));
+      assertEquals(message.getPersistSize(), store.getMemorySize());
+      assertTrue(store.canStore("third", createMessage(3, "retained", true, 0)));
+
+      commit(tx -> store.remove("first", tx));
+      assertEquals(0, store.getMemorySize());
+      Mockito.verify(pagingManager, Mockito.times(2)).addSizeOnly(-message.getPersistSize());
+   }
+
+   @Test
+   public void testOnlyDurableMessagesStored() throws Exception {
+      put("durable", createMessage(1, "durable", true, 0));
+      put("nonDurable", createMessage(2, "nonDurable", false, 0));
+
+      final List<RecordInfo> records = captureStoredRecords(1);
+      final MQTTRetainedMessageStore reloaded = new MQTTRetainedMessageStore(server);
+      records.forEach(reloaded::reload);
+      reloaded.load(new WildcardConfiguration());
+
+      assertEquals(1, reloaded.size());
+      assertNull(reloaded.get("nonDurable"));
+      assertEquals("durable", getPayload(reloaded.get("durable").toMessage(10, null)));
+
+      // a non-durable message replacing a durable one deletes its record
+      put("durable", createMessage(3, "nonDurable", false, 0));
+      Mockito.verify(storageManager).deleteMapRecordTx(Mockito.anyLong(), Mockito.anyLong());
+   }
+
+   @Test
+   public void testExpire() throws Exception {
+      put("expired", createMessage(1, "expired", true, System.currentTimeMillis() - 1));
+      put("expiring", createMessage(2, "expiring", true, System.currentTimeMillis() + 60_000));
+      put("retained", createMessage(3, "retained", true, 0));
+
+      assertEquals(2, store.match("#").size());
+      assertEquals(3, store.size());
+
+      store.expire();
+      assertEquals(2, store.size());
+      assertNull(store.get("expired"));
+      assertNotNull(store.get("expiring"));
+   }
+
+   @Test
+   public void testQueueReplacedByMessage() throws Exception {
+      final SimpleString queueName = SimpleString.of(MQTTUtil.MQTT_RETAIN_ADDRESS_PREFIX + "large");
+      final Queue queue = Mockito.mock(Queue.class);
+      Mockito.when(server.locateQueue(queueName)).thenReturn(queue);
+      commit(tx -> store.putQueue("large", queueName, tx));
+      assertEquals(queueName, store.match("large").get(0).getQueueName());
+
+      // the queue keeps its new message when indexed again
+      commit(tx -> store.putQueue("large", queueName, tx));
+      Mockito.verify(queue, Mockito.never()).deleteAllReferences();
+
+      put("large", createMessage(1, "small", true, 0));
+      assertNull(store.get("large").getQueueName());
+      Mockito.verify(queue).deleteAllReferences();
+   }
+
+   private void put(String topic, Message message) throws Exception {
+      commit(tx -> store.put(topic, message, tx));
+   }
+
+   private void commit(TransactionalOperation operation) throws Exception {
+      final Transaction tx = createTransaction();
+      operation.run(tx);
+      getOperation(tx).afterCommit(tx);
+   }
+
+   private Transaction createTransaction() {
+      final Transaction tx = Mockito.mock(Transaction.class);
+      Mockito.when(tx.getID()).thenReturn(nextTransactionID++);
+      return tx;
+   }
+
+   private static TransactionOperation getOperation(Transaction tx) {
+      final ArgumentCaptor<TransactionOperation> operation = ArgumentCaptor.forClass(TransactionOperation.class);
+      Mockito.verify(tx).addOperation(operation.capture());
+      return operation.getValue();
+   }
+
+   private interface TransactionalOperation {
+
+      void run(Transaction tx) throws Exception;
+   }
+
+   private List<RecordInfo> captureStoredRecords(int count) throws Exception {
+      final ArgumentCaptor<Long> ids = ArgumentCaptor.forClass(Long.class);
+      final ArgumentCaptor<Persister> persisters = ArgumentCaptor.forClass(Persister.class);
+      final ArgumentCaptor<Object> records = ArgumentCaptor.forClass(Object.class);
+      Mockito.verify(storageManager, Mockito.times(count)).storeMapRecordTx(Mockito.anyLong(), ids.capture(), Mockito.eq(JournalRecordIds.MQTT_RETAINED_MESSAGE), persisters.capture(), records.capture());
+
+      final List<RecordInfo> recordInfos = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+         final Persister persister = persisters.getAllValues().get(i);
+         final Object record = records.getAllValues().get(i);
+         final ActiveMQBuffer buffer = ActiveMQBuffers.fixedBuffer(persister.getEncodeSize(record));
+         persister.encode(buffer, record);
+         final byte[] data = new byte[buffer.readableBytes()];
+         buffer.readBytes(data);
+         recordInfos.add(new RecordInfo(ids.getAllValues().get(i), JournalRecordIds.MQTT_RETAINED_MESSAGE, data, false, false, (short) 0));
+      }
+      return recordInfos;
+   }
+
+   private static Message createMessage(long id, String payload, boolean durable, long expiration) {
+      final CoreMessage message = new CoreMessage(id, 50);
+      message.setAddress("sensors");
+      message.setType(Message.BYTES_TYPE);
+      message.setDurable(durable);
+      message.setExpiration(expiration);
+      message.getBodyBuffer().writeBytes(payload.getBytes(StandardCharsets.UTF_8));
+      return message;
+   }
+
+   private static String getPayload(CoreMessage message) {
+      final ActiveMQBuffer body = message.getReadOnlyBodyBuffer();
+      final byte[] payload = new byte[body.readableBytes()];
+      body.readBytes(payload);
+      return new String(payload, StandardCharsets.UTF_8);
+   }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.protocol.mqtt;
+
+import org.apache.activemq.artemis.api.core.ActiveMQExceptionType;
+import org.apache.activemq.artemis.core.io.IOCallback;
+import org.apache.activemq.artemis.core.persistence.OperationContext;
+import org.apache.activemq.artemis.core.persistence.StorageManager;
+import org.apache.activemq.artemis.core.postoffice.PostOffice;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.core.server.Queue;
+import org.junit.jupiter.api.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MQTTSessionStateStoreTest {
+
+   @Test
+   public void testFailedCommitFailsContexts() throws Exception {
+      final ActiveMQServer server = mock(ActiveMQServer.class);
+      final StorageManager storageManager = mock(StorageManager.class);
+      final OperationContext context = mock(OperationContext.class);
+      when(server.getStorageManager()).thenReturn(storageManager);
+      when(server.getPostOffice()).thenReturn(mock(PostOffice.class));
+      when(storageManager.getContext()).thenReturn(context);
+      // both the commit and the rollback of the batch fail
+      when(storageManager.closeableReadLock()).thenThrow(new IllegalStateException("storage failure"));
+
+      final MQTTSessionStateStore store = new MQTTSessionStateStore(server, mock(Queue.class), Runnable::run);
+      store.store(new MQTTSessionState("client"));
+
+      verify(context).storeLineUp();
+      verify(context).onError(eq(ActiveMQExceptionType.INTERNAL_ERROR.getCode()), anyString());
+      verify(storageManager, never()).afterCompleteOperations(any(IOCallback.class));
+
+      // the failed batch is settled, the next one is written
+      reset(storageManager);
+      when(storageManager.getContext()).thenReturn(context);
+      store.store(new MQTTSessionState("client"));
+      verify(storageManager).afterCompleteOperations(any(IOCallback.class));
+   }
+}
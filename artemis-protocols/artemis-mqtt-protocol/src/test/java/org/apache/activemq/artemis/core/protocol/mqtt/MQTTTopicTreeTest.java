@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.protocol.mqtt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MQTTTopicTreeTest {
+
+   private static final String[] TOPICS = {"sport", "sport/tennis", "sport/tennis/player1", "sport/tennis/player1/ranking", "sport/tennis/player2", "sport/golf", "/finance", "a//b", "$SYS/broker/uptime", "$SYS"};
+
+   private final MQTTTopicTree<String> tree = new MQTTTopicTree<>();
+
+   @BeforeEach
+   public void fill() {
+      for (String topic : TOPICS) {
+         assertNull(tree.put(topic, topic));
+      }
+   }
+
+   @Test
+   public void testPutGetRemove() {
+      assertEquals(TOPICS.length, tree.size());
+      assertEquals("sport/tennis", tree.put("sport/tennis", "sport/tennis"));
+      assertEquals(TOPICS.length, tree.size());
+      assertEquals("a//b", tree.get("a//b"));
+      assertNull(tree.get("a/b"));
+      assertNull(tree.get("sport/tennis/player3"));
+
+      assertEquals("sport/tennis", tree.remove("sport/tennis"));
+      assertNull(tree.remove("sport/tennis"));
+      assertNull(tree.get("sport/tennis"));
+      // the topics below a removed one are kept
+      assertEquals("sport/tennis/player1", tree.get("sport/tennis/player1"));
+      assertEquals(TOPICS.length - 1, tree.size());
+
+      for (String topic : TOPICS) {
+         tree.remove(topic);
+      }
+      assertTrue(tree.isEmpty());
+      assertEquals(Set.of(), match("#"));
+   }
+
+   @Test
+   public void testMatchLiteral() {
+      assertEquals(Set.of("sport/tennis"), match("sport/tennis"));
+      assertEquals(Set.of("/finance"), match("/finance"));
+      assertEquals(Set.of(), match("sport/tennis/player3"));
+   }
+
+   @Test
+   public void testMatchSingleLevelWildcard() {
+      assertEquals(Set.of("sport/tennis", "sport/golf"), match("sport/+"));
+      assertEquals(Set.of("sport/tennis/player1", "sport/tennis/player2"), match("sport/+/+"));
+      assertEquals(Set.of("sport/tennis/player1"), match("+/+/player1"));
+      assertEquals(Set.of("sport"), match("+"));
+      assertEquals(Set.of("sport/tennis", "sport/golf", "/finance"), match("+/+"));
+      assertEquals(Set.of("/finance"), match("/+"));
+      assertEquals(Set.of("a//b"), match("a/+/b"));
+   }
+
+   @Test
+   public void testMatchMultiLevelWildcard() {
+      assertEquals(Set.of("sport", "sport/tennis", "sport/tennis/player1", "sport/tennis/player1/ranking", "sport/tennis/player2", "sport/golf"), match("sport/#"));
+      assertEquals(Set.of("sport/tennis/player1", "sport/tennis/player1/ranking", "sport/tennis/player2"), match("sport/tennis/+/#"));
+      assertEquals(Set.of("sport/tennis/player1", "sport/tennis/player1/ranking"), match("sport/+/player1/#"));
+      assertEquals(Set.of("$SYS", "$SYS/broker/uptime"), match("$SYS/#"));
+   }
+
+   @Test
+   public void testWildcardsDoNotMatchSystemTopics() {
+      final Set<String> all = new TreeSet<>(Set.of(TOPICS));
+      all.remove("$SYS");
+      all.remove("$SYS/broker/uptime");
+      assertEquals(all, match("#"));
+      assertEquals(Set.of(), match("+/broker/uptime"));
+      assertEquals(Set.of("$SYS/broker/uptime"), match("$SYS/+/uptime"));
+   }
+
+   private Set<String> match(String topicFilter) {
+      final Set<String> matches = new TreeSet<>();
+      tree.match(topicFilter, value -> assertTrue(matches.add(value), "matched twice: " + value));
+      return matches;
+   }
+}
@@ -301,7 +301,7 @@ public class AMQSession implements SessionCallback {
       AMQConsumer theConsumer = (AMQConsumer) consumer.getProtocolData();
       //clear up possible rolledback ids.
       theConsumer.removeRolledback(ref);
-      return theConsumer.handleDeliver(ref, ref.getMessage().toCore());
+      return theConsumer.handleDeliver(ref, ref.getMessage().toCoreForDelivery());
    }
 
    @Override
@@ -159,7 +159,7 @@ public class StompSession implements SessionCallback {
 
    @Override
    public int sendMessage(MessageReference ref, final ServerConsumer consumer, int deliveryCount) {
-      ICoreMessage message = ref.getMessage().toCore();
+      ICoreMessage message = ref.getMessage().toCoreForDelivery();
       try {
          StompSubscription subscription = subscriptions.get(consumer.getID());
          // subscription might be null if the consumer was closed
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.selector.filter;
+
+/**
+ * A selector compiled by {@link SelectorCompiler}.
+ */
+public final class CompiledExpression implements BooleanExpression {
+
+   private final BooleanExpression source;
+
+   private final SelectorCompiler.Node root;
+
+   private final boolean threadSafe;
+
+   CompiledExpression(BooleanExpression source, SelectorCompiler.Node root, boolean threadSafe) {
+      this.source = source;
+      this.root = root;
+      this.threadSafe = threadSafe;
+   }
+
+   /**
+    * {@return the parsed expression this was compiled from}
+    */
+   public BooleanExpression getSource() {
+      return source;
+   }
+
+   /**
+    * {@return {@code true} if this can be evaluated by several threads at the same time, {@code false} if it contains
+    * XPath or XQuery expressions}
+    */
+   public boolean isThreadSafe() {
+      return threadSafe;
+   }
+
+   @Override
+   public Object evaluate(Filterable message) throws FilterException {
+      return switch (root.evaluate(message)) {
+         case SelectorCompiler.TRUE -> Boolean.TRUE;
+         case SelectorCompiler.FALSE -> Boolean.FALSE;
+         default -> null;
+      };
+   }
+
+   @Override
+   public boolean matches(Filterable message) throws FilterException {
+      return root.matches(message);
+   }
+
+   @Override
+   public String toString() {
+      return source.toString();
+   }
+
+   @Override
+   public int hashCode() {
+      return source.hashCode();
+   }
+
+   @Override
+   public boolean equals(Object obj) {
+      if (this == obj) {
+         return true;
+      }
+      if (!(obj instanceof CompiledExpression other)) {
+         return false;
+      }
+      return source.equals(other.source);
+   }
+}
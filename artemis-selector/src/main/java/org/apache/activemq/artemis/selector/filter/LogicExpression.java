@@ -17,6 +17,7 @@
 package org.apache.activemq.artemis.selector.filter;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -49,6 +50,13 @@ public abstract class LogicExpression implements BooleanExpression {
       throw new IllegalStateException("This expression is not binary: " + this);
    }
 
+   /**
+    * {@return every expression combined by this one, in order}
+    */
+   public List<BooleanExpression> getExpressions() {
+      return Collections.unmodifiableList(expressions);
+   }
+
    /**
     * {@return the symbol that represents this binary expression.  For example, addition is represented by "+"}
     */
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.selector.filter;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+
+/**
+ * A condition on a single property that a message has to meet for a selector to match it, as found by
+ * {@link SelectorCompiler#condition(BooleanExpression)}: the property holds one of a set of values, or an integral
+ * value within a range.
+ * <p>
+ * Values are looked up by their {@link #key(Object) key}. A message without the property never meets the condition.
+ * A message holding a value of another type than the condition was built for has to be evaluated against the selector,
+ * which may convert the value before comparing it.
+ */
+public final class PropertyCondition {
+
+   private final SimpleString property;
+
+   // null for a range
+   private final Set<Object> values;
+
+   private final boolean integral;
+
+   private final long min;
+
+   private final long max;
+
+   private final boolean exact;
+
+   private final boolean widensShorts;
+
+   private PropertyCondition(SimpleString property, Set<Object> values, boolean integral, long min, long max, boolean exact, boolean widensShorts) {
+      this.property = property;
+      this.values = values;
+      this.integral = integral;
+      this.min = min;
+      this.max = max;
+      this.exact = exact;
+      this.widensShorts = widensShorts;
+   }
+
+   static PropertyCondition values(SimpleString property, Set<Object> values, boolean integral, boolean widensShorts) {
+      return new PropertyCondition(property, values, integral, 0, 0, true, widensShorts);
+   }
+
+   static PropertyCondition range(SimpleString property, long min, long max, boolean widensShorts) {
+      return new PropertyCondition(property, null, true, min, max, true, widensShorts);
+   }
+
+   public SimpleString getProperty() {
+      return property;
+   }
+
+   public boolean isRange() {
+      return values == null;
+   }
+
+   /**
+    * {@return the keys of the values the property may hold, {@code null} for a range}
+    */
+   public Set<Object> getValues() {
+      return values;
+   }
+
+   /**
+    * {@return {@code true} if the condition is on integral values, {@code false} if it is on strings}
+    */
+   public boolean isIntegral() {
+      return integral;
+   }
+
+   /**
+    * {@return the lowest value of a range, which is empty when it is greater than {@link #getMax()}}
+    */
+   public long getMin() {
+      return min;
+   }
+
+   public long getMax() {
+      return max;
+   }
+
+   /**
+    * {@return {@code true} if the selector matches whenever the condition holds, {@code false} if the selector has
+    * other terms to evaluate}
+    */
+   public boolean isExact() {
+      return exact;
+   }
+
+   /**
+    * {@return whether the selector compares {@code Short} and {@code Byte} values by value, which it only does when the
+    * property is the left operand: {@code 5 = p} is false when {@code p} is the {@code Short} 5}
+    */
+   public boolean widensShorts() {
+      return widensShorts;
+   }
+
+   /**
+    * {@return the key {@code value} is looked up with, {@code null} if values of its type aren't comparable by key}
+    * <p>
+    * Integral numbers are compared by value whatever their type, widening them to {@code Long} is exact.
+    */
+   public static Object key(Object value) {
+      if (value instanceof String) {
+         return value;
+      }
+      if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+         return ((Number) value).longValue();
+      }
+      return null;
+   }
+
+   PropertyCondition exact(boolean exact) {
+      return exact == this.exact ? this : new PropertyCondition(property, values, integral, min, max, exact, widensShorts);
+   }
+
+   PropertyCondition intersect(PropertyCondition other) {
+      return new PropertyCondition(property, null, true, Math.max(min, other.min), Math.min(max, other.max), exact && other.exact, widensShorts && other.widensShorts);
+   }
+
+   PropertyCondition union(PropertyCondition other) {
+      final Set<Object> union = new HashSet<>(values);
+      union.addAll(other.values);
+      return new PropertyCondition(property, union, integral, 0, 0, exact && other.exact, widensShorts && other.widensShorts);
+   }
+
+   @Override
+   public String toString() {
+      return "PropertyCondition[property=" + property + (values == null ? ", range=" + min + ".." + max : ", values=" + values) +
+         ", exact=" + exact + ", widensShorts=" + widensShorts + "]";
+   }
+}
@@ -0,0 +1,557 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.selector.filter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+
+/**
+ * Compiles a parsed selector into a tree of closures.
+ * <p>
+ * The compiled tree evaluates to a primitive three-valued result instead of boxed {@code Boolean}s, and comparisons of
+ * a property against a literal read the property with the name resolved at compile time and compare strings, integral
+ * and floating point values directly. Any other expression, or a comparison against a value of another type, is
+ * delegated to the parsed expression, so the result is always the same as evaluating it.
+ * <p>
+ * The same decomposition of comparisons finds the {@link PropertyCondition} a selector imposes on a single property,
+ * which lets many selectors be matched through lookups on the property value, see {@link #condition(BooleanExpression)}.
+ */
+public final class SelectorCompiler {
+
+   static final int FALSE = 0;
+   static final int TRUE = 1;
+   static final int UNKNOWN = 2;
+
+   // the operators of property OP literal comparisons
+   private static final int EQ = 0;
+   private static final int GT = 1;
+   private static final int GE = 2;
+   private static final int LT = 3;
+   private static final int LE = 4;
+
+   private boolean threadSafe = true;
+
+   private SelectorCompiler() {
+   }
+
+   public static CompiledExpression compile(BooleanExpression expression) {
+      if (expression instanceof CompiledExpression compiled) {
+         return compiled;
+      }
+      final SelectorCompiler compiler = new SelectorCompiler();
+      final Node root = compiler.node(expression);
+      return new CompiledExpression(expression, root, compiler.threadSafe);
+   }
+
+   private Node node(BooleanExpression expression) {
+      if (expression instanceof LogicExpression logic) {
+         final List<BooleanExpression> expressions = logic.getExpressions();
+         final Node[] children = new Node[expressions.size()];
+         for (int i = 0; i < children.length; i++) {
+            children[i] = node(expressions.get(i));
+         }
+         return "AND".equals(logic.getExpressionSymbol()) ? new And(children) : new Or(children);
+      }
+      if (expression instanceof UnaryExpression.InExpression in) {
+         return new In(in.getProperty().getSimpleName(), in.getValues(), in.isNot());
+      }
+      if (expression instanceof UnaryExpression unary && "NOT".equals(unary.getExpressionSymbol()) && unary.getRight() instanceof BooleanExpression operand) {
+         return new Not(node(operand));
+      }
+      if (expression instanceof ComparisonExpression comparison) {
+         final Node node = comparison(comparison);
+         if (node != null) {
+            return node;
+         }
+      }
+      if (expression instanceof XPathExpression || expression instanceof XQueryExpression) {
+         threadSafe = false;
+      }
+      return new Interpreted(expression);
+   }
+
+   /**
+    * A comparison of a property with a literal, the operator being turned around when the literal is on the left.
+    */
+   private record Comparison(SimpleString property, Object value, int op, boolean propertyOnLeft) {
+
+      /**
+       * {@return the comparison, or {@code null} if {@code comparison} isn't between a property and a literal with one
+       * of the operators handled here}
+       */
+      static Comparison of(ComparisonExpression comparison) {
+         final PropertyExpression property;
+         final ConstantExpression constant;
+         final boolean propertyOnLeft;
+         if (comparison.getLeft() instanceof PropertyExpression left && comparison.getRight() instanceof ConstantExpression right) {
+            property = left;
+            constant = right;
+            propertyOnLeft = true;
+         } else if (comparison.getRight() instanceof PropertyExpression right && comparison.getLeft() instanceof ConstantExpression left) {
+            property = right;
+            constant = left;
+            propertyOnLeft = false;
+         } else {
+            return null;
+         }
+         final String symbol = comparison.getExpressionSymbol();
+         final int op = "=".equals(symbol) ? EQ : operator(symbol, propertyOnLeft);
+         if (op < 0) {
+            return null;
+         }
+         return new Comparison(property.getSimpleName(), constant.getValue(), op, propertyOnLeft);
+      }
+
+      boolean isIntegral() {
+         return value instanceof Integer || value instanceof Long;
+      }
+   }
+
+   private static Node comparison(ComparisonExpression expression) {
+      final Comparison comparison = Comparison.of(expression);
+      if (comparison == null) {
+         return null;
+      }
+      final SimpleString name = comparison.property();
+      final Object value = comparison.value();
+      final boolean propertyOnLeft = comparison.propertyOnLeft();
+      final int op = comparison.op();
+      final int nullResult;
+      if (op == EQ) {
+         if (value == null) {
+            return propertyOnLeft ? new IsNull(name) : null;
+         }
+         // when only one side is null equality is unknown if it is the left one and false otherwise
+         nullResult = propertyOnLeft ? UNKNOWN : FALSE;
+         if (value.getClass() == String.class) {
+            return new StringEquals(name, (String) value, nullResult, expression);
+         }
+      } else {
+         nullResult = UNKNOWN;
+      }
+      if (comparison.isIntegral()) {
+         return new LongComparison(name, ((Number) value).longValue(), op, nullResult, propertyOnLeft, expression);
+      }
+      if (value instanceof Double doubleValue) {
+         return new DoubleComparison(name, doubleValue, op, nullResult, expression);
+      }
+      return null;
+   }
+
+   /**
+    * {@return the condition on a single property a message must meet to match {@code expression}, or {@code null} if
+    * there is none}
+    * <p>
+    * Equalities and {@code IN} lists of literals give sets of values and comparisons with integral literals give
+    * ranges, also when they are terms of a conjunction, in which case the most selective one is picked and the
+    * condition is not {@link PropertyCondition#isExact() exact}. A disjunction gives a condition when all its terms are
+    * on the values of the same property.
+    */
+   public static PropertyCondition condition(BooleanExpression selector) {
+      final BooleanExpression expression = selector instanceof CompiledExpression compiled ? compiled.getSource() : selector;
+      if (expression instanceof ComparisonExpression comparisonExpression) {
+         final Comparison comparison = Comparison.of(comparisonExpression);
+         return comparison == null ? null : condition(comparison);
+      }
+      if (expression instanceof UnaryExpression.InExpression in) {
+         if (in.isNot()) {
+            return null;
+         }
+         final Set<Object> values = new HashSet<>();
+         for (Object value : in.getValues()) {
+            // only strings can be in the list of values
+            if (value instanceof String) {
+               values.add(value);
+            }
+         }
+         return PropertyCondition.values(in.getProperty().getSimpleName(), values, false, true);
+      }
+      if (expression instanceof LogicExpression logic) {
+         return "AND".equals(logic.getExpressionSymbol()) ? conjunction(logic.getExpressions()) : disjunction(logic.getExpressions());
+      }
+      return null;
+   }
+
+   private static PropertyCondition condition(Comparison comparison) {
+      final Object key = PropertyCondition.key(comparison.value());
+      if (key == null) {
+         return null;
+      }
+      final SimpleString name = comparison.property();
+      final boolean propertyOnLeft = comparison.propertyOnLeft();
+      if (comparison.op() == EQ) {
+         return PropertyCondition.values(name, Set.of(key), key instanceof Long, propertyOnLeft);
+      }
+      if (!(key instanceof Long)) {
+         return null;
+      }
+      final long value = (Long) key;
+      return switch (comparison.op()) {
+         case GT -> value == Long.MAX_VALUE ? PropertyCondition.range(name, 0, -1, propertyOnLeft) : PropertyCondition.range(name, value + 1, Long.MAX_VALUE, propertyOnLeft);
+         case GE -> PropertyCondition.range(name, value, Long.MAX_VALUE, propertyOnLeft);
+         case LT -> value == Long.MIN_VALUE ? PropertyCondition.range(name, 0, -1, propertyOnLeft) : PropertyCondition.range(name, Long.MIN_VALUE, value - 1, propertyOnLeft);
+         default -> PropertyCondition.range(name, Long.MIN_VALUE, value, propertyOnLeft);
+      };
+   }
+
+   private static PropertyCondition conjunction(List<BooleanExpression> expressions) {
+      boolean decomposed = true;
+      int valuesConditions = 0;
+      PropertyCondition values = null;
+      final List<PropertyCondition> ranges = new ArrayList<>();
+      for (BooleanExpression expression : expressions) {
+         final PropertyCondition condition = condition(expression);
+         if (condition == null) {
+            decomposed = false;
+         } else if (condition.isRange()) {
+            // ranges on the same property are merged
+            boolean merged = false;
+            for (int i = 0; i < ranges.size() && !merged; i++) {
+               if (ranges.get(i).getProperty().equals(condition.getProperty())) {
+                  ranges.set(i, ranges.get(i).intersect(condition));
+                  merged = true;
+               }
+            }
+            if (!merged) {
+               ranges.add(condition);
+            }
+         } else {
+            if (values == null || condition.getValues().size() < values.getValues().size()) {
+               values = condition;
+            }
+            valuesConditions++;
+         }
+      }
+      if (values == null && ranges.isEmpty()) {
+         return null;
+      }
+      final PropertyCondition chosen = values != null ? values : ranges.get(0);
+      // any other term is left to the selector
+      return chosen.exact(decomposed && valuesConditions + ranges.size() == 1 && chosen.isExact());
+   }
+
+   private static PropertyCondition disjunction(List<BooleanExpression> expressions) {
+      PropertyCondition union = null;
+      for (BooleanExpression expression : expressions) {
+         final PropertyCondition condition = condition(expression);
+         if (condition == null || condition.isRange()) {
+            return null;
+         }
+         if (union == null) {
+            union = condition;
+         } else if (union.getProperty().equals(condition.getProperty()) && union.isIntegral() == condition.isIntegral()) {
+            union = union.union(condition);
+         } else {
+            return null;
+         }
+      }
+      return union;
+   }
+
+   private static int operator(String symbol, boolean propertyOnLeft) {
+      return switch (symbol) {
+         case ">" -> propertyOnLeft ? GT : LT;
+         case ">=" -> propertyOnLeft ? GE : LE;
+         case "<" -> propertyOnLeft ? LT : GT;
+         case "<=" -> propertyOnLeft ? LE : GE;
+         default -> -1;
+      };
+   }
+
+   private static int result(int op, int compare) {
+      final boolean result = switch (op) {
+         case EQ -> compare == 0;
+         case GT -> compare > 0;
+         case GE -> compare >= 0;
+         case LT -> compare < 0;
+         default -> compare <= 0;
+      };
+      return result ? TRUE : FALSE;
+   }
+
+   /**
+    * The parsed expression only widens the left operand to the type of the right one, so a {@code Short} or
+    * {@code Byte} property is compared by value with an integral literal only when the property is on the left.
+    */
+   private static boolean isIntegral(Class<?> type, boolean propertyOnLeft) {
+      return type == Integer.class || type == Long.class || propertyOnLeft && (type == Short.class || type == Byte.class);
+   }
+
+   static int evaluate(BooleanExpression expression, Filterable message) throws FilterException {
+      final Boolean result = (Boolean) expression.evaluate(message);
+      if (result == null) {
+         return UNKNOWN;
+      }
+      return result ? TRUE : FALSE;
+   }
+
+   abstract static class Node {
+
+      /**
+       * {@return {@link #TRUE}, {@link #FALSE} or {@link #UNKNOWN}}
+       */
+      abstract int evaluate(Filterable message) throws FilterException;
+
+      boolean matches(Filterable message) throws FilterException {
+         return evaluate(message) == TRUE;
+      }
+   }
+
+   private static final class And extends Node {
+
+      private final Node[] children;
+
+      private And(Node[] children) {
+         this.children = children;
+      }
+
+      @Override
+      int evaluate(Filterable message) throws FilterException {
+         int result = TRUE;
+         for (Node child : children) {
+            final int value = child.evaluate(message);
+            if (value == FALSE) {
+               return FALSE;
+            }
+            if (value == UNKNOWN) {
+               result = UNKNOWN;
+            }
+         }
+         return result;
+      }
+
+      @Override
+      boolean matches(Filterable message) throws FilterException {
+         for (Node child : children) {
+            if (!child.matches(message)) {
+               return false;
+            }
+         }
+         return true;
+      }
+   }
+
+   private static final class Or extends Node {
+
+      private final Node[] children;
+
+      private Or(Node[] children) {
+         this.children = children;
+      }
+
+      @Override
+      int evaluate(Filterable message) throws FilterException {
+         int result = FALSE;
+         for (Node child : children) {
+            final int value = child.evaluate(message);
+            if (value == TRUE) {
+               return TRUE;
+            }
+            if (value == UNKNOWN) {
+               result = UNKNOWN;
+            }
+         }
+         return result;
+      }
+
+      @Override
+      boolean matches(Filterable message) throws FilterException {
+         for (Node child : children) {
+            if (child.matches(message)) {
+               return true;
+            }
+         }
+         return false;
+      }
+   }
+
+   private static final class Not extends Node {
+
+      private final Node operand;
+
+      private Not(Node operand) {
+         this.operand = operand;
+      }
+
+      @Override
+      int evaluate(Filterable message) throws FilterException {
+         final int value = operand.evaluate(message);
+         return value == UNKNOWN ? UNKNOWN : TRUE - value;
+      }
+   }
+
+   private static final class In extends Node {
+
+      private final SimpleString property;
+
+      private final Collection<Object> values;
+
+      private final boolean not;
+
+      private In(SimpleString property, Collection<Object> values, boolean not) {
+         this.property = property;
+         this.values = values;
+         this.not = not;
+      }
+
+      @Override
+      int evaluate(Filterable message) throws FilterException {
+         final Object value = message.getProperty(property);
+         if (value == null || value.getClass() != String.class) {
+            return UNKNOWN;
+         }
+         return values.contains(value) ^ not ? TRUE : FALSE;
+      }
+   }
+
+   private static final class IsNull extends Node {
+
+      private final SimpleString property;
+
+      private IsNull(SimpleString property) {
+         this.property = property;
+      }
+
+      @Override
+      int evaluate(Filterable message) throws FilterException {
+         return message.getProperty(property) == null ? TRUE : FALSE;
+      }
+   }
+
+   private static final class StringEquals extends Node {
+
+      private final SimpleString property;
+
+      private final String value;
+
+      private final int nullResult;
+
+      private final BooleanExpression source;
+
+      private StringEquals(SimpleString property, String value, int nullResult, BooleanExpression source) {
+         this.property = property;
+         this.value = value;
+         this.nullResult = nullResult;
+         this.source = source;
+      }
+
+      @Override
+      int evaluate(Filterable message) throws FilterException {
+         final Object value = message.getProperty(property);
+         if (value == null) {
+            return nullResult;
+         }
+         if (value.getClass() == String.class) {
+            return this.value.equals(value) ? TRUE : FALSE;
+         }
+         return SelectorCompiler.evaluate(source, message);
+      }
+   }
+
+   private static final class LongComparison extends Node {
+
+      private final SimpleString property;
+
+      private final long value;
+
+      private final int op;
+
+      private final int nullResult;
+
+      private final boolean propertyOnLeft;
+
+      private final BooleanExpression source;
+
+      private LongComparison(SimpleString property, long value, int op, int nullResult, boolean propertyOnLeft, BooleanExpression source) {
+         this.property = property;
+         this.value = value;
+         this.op = op;
+         this.nullResult = nullResult;
+         this.propertyOnLeft = propertyOnLeft;
+         this.source = source;
+      }
+
+      @Override
+      int evaluate(Filterable message) throws FilterException {
+         final Object value = message.getProperty(property);
+         if (value == null) {
+            return nullResult;
+         }
+         if (isIntegral(value.getClass(), propertyOnLeft)) {
+            return result(op, Long.compare(((Number) value).longValue(), this.value));
+         }
+         return SelectorCompiler.evaluate(source, message);
+      }
+   }
+
+   private static final class DoubleComparison extends Node {
+
+      private final SimpleString property;
+
+      private final double value;
+
+      private final int op;
+
+      private final int nullResult;
+
+      private final BooleanExpression source;
+
+      private DoubleComparison(SimpleString property, double value, int op, int nullResult, BooleanExpression source) {
+         this.property = property;
+         this.value = value;
+         this.op = op;
+         this.nullResult = nullResult;
+         this.source = source;
+      }
+
+      @Override
+      int evaluate(Filterable message) throws FilterException {
+         final Object value = message.getProperty(property);
+         if (value == null) {
+            return nullResult;
+         }
+         if (value.getClass() == Double.class) {
+            return result(op, Double.compare((Double) value, this.value));
+         }
+         return SelectorCompiler.evaluate(source, message);
+      }
+   }
+
+   private static final class Interpreted extends Node {
+
+      private final BooleanExpression expression;
+
+      private Interpreted(BooleanExpression expression) {
+         this.expression = expression;
+      }
+
+      @Override
+      int evaluate(Filterable message) throws FilterException {
+         return SelectorCompiler.evaluate(expression, message);
+      }
+
+      @Override
+      boolean matches(Filterable message) throws FilterException {
+         return expression.matches(message);
+      }
+   }
+}
@@ -18,6 +18,7 @@ package org.apache.activemq.artemis.selector.filter;
 
 import java.math.BigDecimal;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
@@ -67,51 +68,79 @@ public abstract class UnaryExpression implements Expression {
          inList = new HashSet<>(elements);
       }
 
-      return new BooleanUnaryExpression(right) {
-         @Override
-         public Object evaluate(Filterable message) throws FilterException {
+      return new InExpression(right, inList, not);
+   }
 
-            Object rvalue = right.evaluate(message);
-            if (rvalue == null) {
-               return null;
-            }
-            if (rvalue.getClass() != String.class) {
-               return null;
-            }
+   /**
+    * A {@code property [NOT] IN (...)} expression.
+    */
+   public static final class InExpression extends BooleanUnaryExpression {
 
-            return inList.contains(rvalue) ^ not;
-         }
+      private final Collection<Object> inList;
 
-         @Override
-         public String toString() {
-            StringBuilder answer = new StringBuilder();
-            answer.append(right);
-            answer.append(" ");
-            answer.append(getExpressionSymbol());
-            answer.append(" ( ");
-
-            int count = 0;
-            for (Object o : inList) {
-               if (count != 0) {
-                  answer.append(", ");
-               }
-               answer.append(o);
-               count++;
-            }
+      private final boolean not;
 
-            answer.append(" )");
-            return answer.toString();
+      InExpression(PropertyExpression right, Collection<Object> inList, boolean not) {
+         super(right);
+         this.inList = inList;
+         this.not = not;
+      }
+
+      @Override
+      public Object evaluate(Filterable message) throws FilterException {
+
+         Object rvalue = right.evaluate(message);
+         if (rvalue == null) {
+            return null;
+         }
+         if (rvalue.getClass() != String.class) {
+            return null;
          }
 
-         @Override
-         public String getExpressionSymbol() {
-            if (not) {
-               return "NOT IN";
-            } else {
-               return "IN";
+         return inList.contains(rvalue) ^ not;
+      }
+
+      public PropertyExpression getProperty() {
+         return (PropertyExpression) right;
+      }
+
+      public Collection<Object> getValues() {
+         return Collections.unmodifiableCollection(inList);
+      }
+
+      public boolean isNot() {
+         return not;
+      }
+
+      @Override
+      public String toString() {
+         StringBuilder answer = new StringBuilder();
+         answer.append(right);
+         answer.append(" ");
+         answer.append(getExpressionSymbol());
+         answer.append(" ( ");
+
+         int count = 0;
+         for (Object o : inList) {
+            if (count != 0) {
+               answer.append(", ");
             }
+            answer.append(o);
+            count++;
          }
-      };
+
+         answer.append(" )");
+         return answer.toString();
+      }
+
+      @Override
+      public String getExpressionSymbol() {
+         if (not) {
+            return "NOT IN";
+         } else {
+            return "IN";
+         }
+      }
    }
 
    abstract static class BooleanUnaryExpression extends UnaryExpression implements BooleanExpression {
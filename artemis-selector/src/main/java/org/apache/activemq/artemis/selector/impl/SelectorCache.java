@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.selector.impl;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.activemq.artemis.selector.filter.CompiledExpression;
+import org.apache.activemq.artemis.selector.filter.FilterException;
+import org.apache.activemq.artemis.selector.filter.SelectorCompiler;
+
+/**
+ * A bounded cache of compiled selectors, safe to share between threads.
+ * <p>
+ * Selectors that can't be evaluated concurrently (XPath and XQuery) are compiled again on each lookup. Once full,
+ * an arbitrary entry is dropped for each new selector.
+ */
+public final class SelectorCache {
+
+   public static final int DEFAULT_MAX_SIZE = 10000;
+
+   private final ConcurrentHashMap<String, CompiledExpression> cache = new ConcurrentHashMap<>();
+
+   private final int maxSize;
+
+   public SelectorCache() {
+      this(DEFAULT_MAX_SIZE);
+   }
+
+   public SelectorCache(int maxSize) {
+      this.maxSize = maxSize;
+   }
+
+   /**
+    * {@return the compiled {@code selector}, with the same prefixes accepted by {@link SelectorParser#parse(String)}}
+    */
+   public CompiledExpression get(String selector) throws FilterException {
+      CompiledExpression compiled = cache.get(selector);
+      if (compiled != null) {
+         return compiled;
+      }
+      compiled = SelectorCompiler.compile(SelectorParser.parse(selector));
+      if (!compiled.isThreadSafe()) {
+         return compiled;
+      }
+      if (cache.size() >= maxSize) {
+         final Iterator<String> keys = cache.keySet().iterator();
+         if (keys.hasNext()) {
+            keys.next();
+            keys.remove();
+         }
+      }
+      final CompiledExpression previous = cache.putIfAbsent(selector, compiled);
+      return previous != null ? previous : compiled;
+   }
+
+   public int size() {
+      return cache.size();
+   }
+
+   public void clear() {
+      cache.clear();
+   }
+}
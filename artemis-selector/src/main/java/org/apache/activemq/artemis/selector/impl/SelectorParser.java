@@ -20,6 +20,7 @@ import java.io.StringReader;
 
 import org.apache.activemq.artemis.selector.filter.BooleanExpression;
 import org.apache.activemq.artemis.selector.filter.ComparisonExpression;
+import org.apache.activemq.artemis.selector.filter.CompiledExpression;
 import org.apache.activemq.artemis.selector.filter.FilterException;
 import org.apache.activemq.artemis.selector.hyphenated.HyphenatedParser;
 import org.apache.activemq.artemis.selector.strict.StrictParser;
@@ -31,6 +32,15 @@ public class SelectorParser {
    private static final String NO_CONVERT_STRING_EXPRESSIONS_PREFIX = "no_convert_string_expressions:";
    private static final String NO_HYPHENATED_PROPS_PREFIX = "no_hyphenated_props:";
 
+   private static final SelectorCache CACHE = new SelectorCache();
+
+   /**
+    * {@return {@code sql} parsed and compiled, shared with the other callers compiling the same selector}
+    */
+   public static CompiledExpression compile(String sql) throws FilterException {
+      return CACHE.get(sql);
+   }
+
    public static BooleanExpression parse(String sql) throws FilterException {
       String actual = sql;
       boolean convertStringExpressions = false;
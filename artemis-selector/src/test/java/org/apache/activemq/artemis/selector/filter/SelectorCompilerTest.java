@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.selector.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.selector.MockMessage;
+import org.apache.activemq.artemis.selector.impl.SelectorCache;
+import org.apache.activemq.artemis.selector.impl.SelectorParser;
+import org.junit.jupiter.api.Test;
+
+public class SelectorCompilerTest {
+
+   private static final String[] SELECTORS = {
+      "region = 'EU'",
+      "'EU' = region",
+      "region <> 'EU'",
+      "region IN ('EU', 'APAC')",
+      "region NOT IN ('EU', 'APAC')",
+      "region IS NULL",
+      "region IS NOT NULL",
+      "level = 2",
+      "2 = level",
+      "level <> 2",
+      "level > 2",
+      "level >= 2",
+      "level < 2",
+      "level <= 2",
+      "2 > level",
+      "2 <= level",
+      "level BETWEEN 1 AND 3",
+      "level NOT BETWEEN 1 AND 3",
+      "level = 2.0",
+      "level > 1.5",
+      "1.5 < level",
+      "level > 9223372036854775807",
+      "level > 92233720368547758070",
+      "level = TRUE",
+      "level + 1 = 3",
+      "region LIKE 'E%'",
+      "region = 'EU' AND level > 2",
+      "region = 'EU' OR level > 2",
+      "NOT (region = 'EU' OR level > 2)",
+      "NOT (region = 'EU' AND level > 2)",
+      "region = 'EU' AND (level < 2 OR level IS NULL)",
+      "flag",
+      "NOT flag",
+      "flag AND region = 'EU'",
+      "flag OR region = 'EU'",
+      "convert_string_expressions:level = 2",
+      "convert_string_expressions:level > 1",
+   };
+
+   private static List<MockMessage> messages() {
+      final List<MockMessage> messages = new ArrayList<>();
+      messages.add(new MockMessage());
+      for (Object region : new Object[] {null, "EU", "US", 1}) {
+         for (Object level : new Object[] {null, 1, 2, 3L, (short) 2, (byte) 3, 2.0d, 2.5d, 2.0f, "2", "x", Long.MAX_VALUE, true}) {
+            for (Object flag : new Object[] {null, true, false, "true"}) {
+               final MockMessage message = new MockMessage();
+               if (region != null) {
+                  message.setObjectProperty("region", region);
+               }
+               if (level != null) {
+                  message.setObjectProperty("level", level);
+               }
+               if (flag != null) {
+                  message.setObjectProperty("flag", flag);
+               }
+               messages.add(message);
+            }
+         }
+      }
+      return messages;
+   }
+
+   @Test
+   public void testSameResultAsInterpreted() throws Exception {
+      final List<MockMessage> messages = messages();
+      for (String selector : SELECTORS) {
+         final BooleanExpression interpreted = SelectorParser.parse(selector);
+         final CompiledExpression compiled = SelectorCompiler.compile(SelectorParser.parse(selector));
+         assertTrue(compiled.isThreadSafe(), selector);
+         for (MockMessage message : messages) {
+            assertEquals(interpreted.evaluate(message), compiled.evaluate(message), () -> selector + " on " + message);
+            assertEquals(interpreted.matches(message), compiled.matches(message), () -> selector + " on " + message);
+         }
+      }
+   }
+
+   @Test
+   public void testNumericTypesOnBothSides() throws Exception {
+      final List<Object> levels = new ArrayList<>();
+      for (long value : new long[] {1, 2, 3}) {
+         levels.addAll(List.of((byte) value, (short) value, (int) value, value, (float) value, (double) value));
+      }
+      for (String literal : new String[] {"2", "2.0", "3000000000"}) {
+         for (String op : new String[] {"=", "<>", ">", ">=", "<", "<="}) {
+            for (String selector : new String[] {"level " + op + " " + literal, literal + " " + op + " level"}) {
+               final BooleanExpression interpreted = SelectorParser.parse(selector);
+               final CompiledExpression compiled = SelectorCompiler.compile(SelectorParser.parse(selector));
+               for (Object level : levels) {
+                  final MockMessage message = new MockMessage();
+                  message.setObjectProperty("level", level);
+                  final String description = selector + " on " + level.getClass().getSimpleName() + " " + level;
+                  assertEquals(interpreted.evaluate(message), compiled.evaluate(message), description);
+                  assertEquals(interpreted.matches(message), compiled.matches(message), description);
+               }
+            }
+         }
+      }
+   }
+
+   @Test
+   public void testPropertyConditions() throws Exception {
+      final PropertyCondition equality = SelectorCompiler.condition(SelectorParser.compile("'EU' = region"));
+      assertEquals(SimpleString.of("region"), equality.getProperty());
+      assertEquals(Set.of("EU"), equality.getValues());
+      assertFalse(equality.isIntegral());
+      assertTrue(equality.isExact());
+      assertFalse(equality.widensShorts());
+
+      final PropertyCondition union = SelectorCompiler.condition(SelectorParser.parse("level = 2 OR 5 = level"));
+      assertEquals(Set.of(2L, 5L), union.getValues());
+      assertTrue(union.isIntegral());
+      assertFalse(union.widensShorts());
+
+      final PropertyCondition range = SelectorCompiler.condition(SelectorParser.parse("2 < level AND level <= 7"));
+      assertTrue(range.isRange());
+      assertEquals(3, range.getMin());
+      assertEquals(7, range.getMax());
+      assertTrue(range.isExact());
+
+      final PropertyCondition conjunction = SelectorCompiler.condition(SelectorParser.parse("level > 2 AND region IN ('EU', 'US')"));
+      assertEquals(SimpleString.of("region"), conjunction.getProperty());
+      assertFalse(conjunction.isExact());
+
+      for (String selector : new String[] {"region <> 'EU'", "region NOT IN ('EU')", "level = 2.0", "region = 'EU' OR level = 2", "NOT (region = 'EU')", "region IS NULL"}) {
+         assertNull(SelectorCompiler.condition(SelectorParser.parse(selector)), selector);
+      }
+   }
+
+   @Test
+   public void testXPathIsNotThreadSafe() throws Exception {
+      assertFalse(SelectorParser.compile("XPATH 'root/a' AND region = 'EU'").isThreadSafe());
+      assertFalse(SelectorParser.compile("XQUERY 'root/a'").isThreadSafe());
+   }
+
+   @Test
+   public void testSharedCache() throws Exception {
+      final SelectorCache cache = new SelectorCache(2);
+      final CompiledExpression eu = cache.get("region = 'EU'");
+      assertSame(eu, cache.get("region = 'EU'"));
+      assertNotSame(cache.get("XPATH 'root/a'"), cache.get("XPATH 'root/a'"));
+      assertEquals(1, cache.size());
+
+      cache.get("region = 'US'");
+      cache.get("region = 'APAC'");
+      assertEquals(2, cache.size());
+   }
+}
@@ -642,6 +642,17 @@ public interface Configuration {
     */
    Configuration setPersistIDCache(boolean persist);
 
+   /**
+    * {@return whether the duplicate ID caches are kept off-heap and persisted in segments; default is {@link
+    * ActiveMQDefaultConfiguration#DEFAULT_ID_CACHE_OFF_HEAP}}
+    */
+   boolean isIDCacheOffHeap();
+
+   /**
+    * Sets whether the duplicate ID caches are kept off-heap and persisted in segments.
+    */
+   Configuration setIDCacheOffHeap(boolean offHeap);
+
    // Journal related attributes ------------------------------------------------------------
 
    /**
@@ -684,6 +695,31 @@ public interface Configuration {
     */
    Configuration setReadWholePage(boolean read);
 
+   /**
+    * {@return whether the page files are memory mapped; default is {@link
+    * ActiveMQDefaultConfiguration#DEFAULT_PAGE_MEMORY_MAPPED}}
+    */
+   boolean isPageMemoryMapped();
+
+   /**
+    * Sets whether the page files are memory mapped, it is ignored when paging to a database.
+    */
+   Configuration setPageMemoryMapped(boolean pageMemoryMapped);
+
+   /**
+    * {@return the max number of paging stores depaging at the same time; default is {@link
+    * ActiveMQDefaultConfiguration#DEFAULT_PAGE_MAX_CONCURRENT_DEPAGE}}
+    */
+   int getPageMaxConcurrentDepage();
+
+   /**
+    * The max number of paging stores depaging at the same time, the stores waiting to depage being picked according to
+    * their {@code page-priority}. {@code -1} means each store depages as soon as it needs to.
+    * <p>
+    * Default = -1
+    */
+   Configuration setPageMaxConcurrentDepage(int maxConcurrentDepage);
+
    /**
     * {@return the file system directory used to store journal log; default is {@link
     * ActiveMQDefaultConfiguration#DEFAULT_JOURNAL_DIR}}
@@ -791,6 +827,30 @@ public interface Configuration {
     */
    Configuration setJournalCompactMinFiles(int minFiles);
 
+   /**
+    * {@return the maximal number of the oldest journal files compacted at once, {@code -1} compacting all of them;
+    * default is {@link ActiveMQDefaultConfiguration#DEFAULT_JOURNAL_COMPACT_MAX_FILES}}
+    */
+   int getJournalCompactMaxFiles();
+
+   /**
+    * Sets the maximal number of the oldest journal files compacted at once, {@code -1} compacting all of them.
+    */
+   Configuration setJournalCompactMaxFiles(int maxFiles);
+
+   /**
+    * {@return the maximal nanoseconds a journal record should wait for its sync, the journal buffer adapting its flushes
+    * to the latency of the syncs, or {@code -1} to flush on the journal buffer timeout; default is
+    * {@link ActiveMQDefaultConfiguration#DEFAULT_JOURNAL_BUFFER_MAX_LATENCY}}
+    */
+   int getJournalBufferMaxLatency();
+
+   /**
+    * Sets the maximal nanoseconds a journal record should wait for its sync, {@code -1} to flush on the journal buffer
+    * timeout.
+    */
+   Configuration setJournalBufferMaxLatency(int maxLatency);
+
    /**
     * Number of files that would be acceptable to keep on a pool; default is
     * {@link ActiveMQDefaultConfiguration#DEFAULT_JOURNAL_POOL_FILES}}
@@ -819,6 +879,39 @@ public interface Configuration {
     */
    Configuration setJournalFileOpenTimeout(int journalFileOpenTimeout);
 
+   /**
+    * {@return the number of threads reading the message journal files and reloading queues on start; default value is
+    * {@link ActiveMQDefaultConfiguration#DEFAULT_JOURNAL_LOAD_THREADS}}
+    */
+   int getJournalLoadThreads();
+
+   /**
+    * Sets the number of threads reading the message journal files and reloading queues on start.
+    */
+   Configuration setJournalLoadThreads(int journalLoadThreads);
+
+   /**
+    * {@return the size in bytes of the journal files read and parsed ahead of the records being loaded, when loading
+    * with several threads; default value is {@link ActiveMQDefaultConfiguration#DEFAULT_JOURNAL_LOAD_READ_AHEAD_SIZE}}
+    */
+   long getJournalLoadReadAheadSize();
+
+   /**
+    * Sets the size in bytes of the journal files read and parsed ahead of the records being loaded.
+    */
+   Configuration setJournalLoadReadAheadSize(long journalLoadReadAheadSize);
+
+   /**
+    * {@return whether the live records of the message journal are indexed in direct memory instead of the heap;
+    * default value is {@link ActiveMQDefaultConfiguration#DEFAULT_JOURNAL_OFF_HEAP_RECORD_INDEX}}
+    */
+   boolean isJournalOffHeapRecordIndex();
+
+   /**
+    * Sets whether the live records of the message journal are indexed in direct memory instead of the heap.
+    */
+   Configuration setJournalOffHeapRecordIndex(boolean journalOffHeapRecordIndex);
+
    /**
     * Sets the percentage of live data before compacting the journal.
     */
@@ -1305,6 +1398,14 @@ public interface Configuration {
 
    long getGlobalMaxMessages();
 
+   /**
+    * {@return the number of bytes the pages read by every paging store can use before the least recently used ones are
+    * unloaded, {@code -1} meaning no limit}
+    */
+   long getGlobalPageCacheMaxSize();
+
+   Configuration setGlobalPageCacheMaxSize(long globalPageCacheMaxSize);
+
    int getMaxDiskUsage();
 
    Configuration setMaxDiskUsage(int maxDiskUsage);
@@ -1431,6 +1532,19 @@ public interface Configuration {
 
    Configuration setUuidNamespace(String uuidNamespace);
 
+   /**
+    * How many bytes the MQTT retained messages held in memory can use, measured by their encoded size, {@code -1}
+    * meaning unbounded. A retained message that would exceed it is kept in a queue of its own, as a retained message too
+    * large for a journal record is, so it can be paged like any other message. The bytes held in memory also count
+    * toward the global-max-size of the broker.
+    */
+   Configuration setMqttRetainedMessagesMaxSize(long mqttRetainedMessagesMaxSize);
+
+   /**
+    * @see Configuration#setMqttRetainedMessagesMaxSize
+    */
+   long getMqttRetainedMessagesMaxSize();
+
    /**
     * This is necessary because the MQTT session scan interval is a broker-wide setting and can't be set on a
     * per-connector basis like most of the other MQTT-specific settings.
@@ -1444,6 +1558,18 @@ public interface Configuration {
     */
    long getMqttSessionScanInterval();
 
+   /**
+    * How long (in ms) the state of a disconnected MQTT session stays in memory before it is evicted and only kept in
+    * storage, {@code -1} to keep it in memory until the session expires. The state is evicted by the session scan, so
+    * not before the next scan after the delay. This only applies when MQTT subscriptions are persisted.
+    */
+   Configuration setMqttSessionStateEvictionDelay(long mqttSessionStateEvictionDelay);
+
+   /**
+    * @see Configuration#setMqttSessionStateEvictionDelay
+    */
+   long getMqttSessionStateEvictionDelay();
+
    /**
     * @deprecated This is no longer used by the broker. See
     * {@link Configuration#setMqttSubscriptionPersistenceEnabled(boolean)}.
@@ -233,6 +233,8 @@ public class ConfigurationImpl extends javax.security.auth.login.Configuration i
 
    private boolean persistIDCache = ActiveMQDefaultConfiguration.isDefaultPersistIdCache();
 
+   private boolean idCacheOffHeap = ActiveMQDefaultConfiguration.isDefaultIdCacheOffHeap();
+
    private Set<LockCoordinatorConfiguration> lockCoordinatorConfigurations = new HashSet<>();
 
    private List<String> incomingInterceptorClassNames = new ArrayList<>();
@@ -277,6 +279,10 @@ public class ConfigurationImpl extends javax.security.auth.login.Configuration i
 
    private boolean readWholePage = ActiveMQDefaultConfiguration.isDefaultReadWholePage();
 
+   private boolean pageMemoryMapped = ActiveMQDefaultConfiguration.isDefaultPageMemoryMapped();
+
+   private int pageMaxConcurrentDepage = ActiveMQDefaultConfiguration.getDefaultPageMaxConcurrentDepage();
+
    protected String largeMessagesDirectory = ActiveMQDefaultConfiguration.getDefaultLargeMessagesDir();
 
    protected String bindingsDirectory = ActiveMQDefaultConfiguration.getDefaultBindingsDirectory();
@@ -305,10 +311,20 @@ public class ConfigurationImpl extends javax.security.auth.login.Configuration i
 
    protected int journalCompactMinFiles = ActiveMQDefaultConfiguration.getDefaultJournalCompactMinFiles();
 
+   protected int journalCompactMaxFiles = ActiveMQDefaultConfiguration.getDefaultJournalCompactMaxFiles();
+
+   protected int journalBufferMaxLatency = ActiveMQDefaultConfiguration.getDefaultJournalBufferMaxLatency();
+
    protected int journalCompactPercentage = ActiveMQDefaultConfiguration.getDefaultJournalCompactPercentage();
 
    protected int journalFileOpenTimeout = ActiveMQDefaultConfiguration.getDefaultJournalFileOpenTimeout();
 
+   protected int journalLoadThreads = ActiveMQDefaultConfiguration.getDefaultJournalLoadThreads();
+
+   protected long journalLoadReadAheadSize = ActiveMQDefaultConfiguration.getDefaultJournalLoadReadAheadSize();
+
+   protected boolean journalOffHeapRecordIndex = ActiveMQDefaultConfiguration.isDefaultJournalOffHeapRecordIndex();
+
    protected int journalFileSize = ActiveMQDefaultConfiguration.getDefaultJournalFileSize();
 
    protected int journalPoolFiles = ActiveMQDefaultConfiguration.getDefaultJournalPoolFiles();
@@ -424,6 +440,8 @@ public class ConfigurationImpl extends javax.security.auth.login.Configuration i
 
    private Long globalMaxMessages;
 
+   private long globalPageCacheMaxSize = ActiveMQDefaultConfiguration.getDefaultGlobalPageCacheMaxSize();
+
    private boolean amqpUseCoreSubscriptionNaming = ActiveMQDefaultConfiguration.getDefaultAmqpUseCoreSubscriptionNaming();
 
    private int maxDiskUsage = ActiveMQDefaultConfiguration.getDefaultMaxDiskUsage();
@@ -466,8 +484,12 @@ public class ConfigurationImpl extends javax.security.auth.login.Configuration i
 
    private String uuidNamespace = ActiveMQDefaultConfiguration.getDefaultUuidNamespace();
 
+   private long mqttRetainedMessagesMaxSize = ActiveMQDefaultConfiguration.getMqttRetainedMessagesMaxSize();
+
    private long mqttSessionScanInterval = ActiveMQDefaultConfiguration.getMqttSessionScanInterval();
 
+   private long mqttSessionStateEvictionDelay = ActiveMQDefaultConfiguration.getMqttSessionStateEvictionDelay();
+
    private long mqttSessionStatePersistenceTimeout = ActiveMQDefaultConfiguration.getMqttSessionStatePersistenceTimeout();
 
    private boolean mqttSessionStatePersistenceEnabled = ActiveMQDefaultConfiguration.getMqttSubscriptionPersistenceEnabled();
@@ -1405,6 +1427,17 @@ public class ConfigurationImpl extends javax.security.auth.login.Configuration i
       return globalMaxMessages;
    }
 
+   @Override
+   public long getGlobalPageCacheMaxSize() {
+      return globalPageCacheMaxSize;
+   }
+
+   @Override
+   public ConfigurationImpl setGlobalPageCacheMaxSize(long globalPageCacheMaxSize) {
+      this.globalPageCacheMaxSize = globalPageCacheMaxSize;
+      return this;
+   }
+
    @Override
    public ConfigurationImpl setPersistenceEnabled(final boolean enable) {
       persistenceEnabled = enable;
@@ -1876,6 +1909,17 @@ public class ConfigurationImpl extends javax.security.auth.login.Configuration i
       return this;
    }
 
+   @Override
+   public boolean isIDCacheOffHeap() {
+      return idCacheOffHeap;
+   }
+
+   @Override
+   public ConfigurationImpl setIDCacheOffHeap(final boolean offHeap) {
+      idCacheOffHeap = offHeap;
+      return this;
+   }
+
    @Override
    public File getBindingsLocation() {
       return subFolder(getBindingsDirectory());
@@ -1914,6 +1958,28 @@ public class ConfigurationImpl extends javax.security.auth.login.Configuration i
       return this;
    }
 
+   @Override
+   public boolean isPageMemoryMapped() {
+      return pageMemoryMapped;
+   }
+
+   @Override
+   public ConfigurationImpl setPageMemoryMapped(boolean pageMemoryMapped) {
+      this.pageMemoryMapped = pageMemoryMapped;
+      return this;
+   }
+
+   @Override
+   public int getPageMaxConcurrentDepage() {
+      return pageMaxConcurrentDepage;
+   }
+
+   @Override
+   public ConfigurationImpl setPageMaxConcurrentDepage(int maxConcurrentDepage) {
+      this.pageMaxConcurrentDepage = maxConcurrentDepage;
+      return this;
+   }
+
    @Override
    public File getJournalLocation() {
       return subFolder(getJournalDirectory());
@@ -2342,6 +2408,28 @@ public class ConfigurationImpl extends javax.security.auth.login.Configuration i
       return this;
    }
 
+   @Override
+   public int getJournalCompactMaxFiles() {
+      return journalCompactMaxFiles;
+   }
+
+   @Override
+   public ConfigurationImpl setJournalCompactMaxFiles(final int maxFiles) {
+      journalCompactMaxFiles = maxFiles;
+      return this;
+   }
+
+   @Override
+   public int getJournalBufferMaxLatency() {
+      return journalBufferMaxLatency;
+   }
+
+   @Override
+   public ConfigurationImpl setJournalBufferMaxLatency(final int maxLatency) {
+      journalBufferMaxLatency = maxLatency;
+      return this;
+   }
+
    @Override
    public int getJournalFileOpenTimeout() {
       return journalFileOpenTimeout;
@@ -2353,6 +2441,39 @@ public class ConfigurationImpl extends javax.security.auth.login.Configuration i
       return this;
    }
 
+   @Override
+   public int getJournalLoadThreads() {
+      return journalLoadThreads;
+   }
+
+   @Override
+   public Configuration setJournalLoadThreads(int journalLoadThreads) {
+      this.journalLoadThreads = journalLoadThreads;
+      return this;
+   }
+
+   @Override
+   public long getJournalLoadReadAheadSize() {
+      return journalLoadReadAheadSize;
+   }
+
+   @Override
+   public Configuration setJournalLoadReadAheadSize(long journalLoadReadAheadSize) {
+      this.journalLoadReadAheadSize = journalLoadReadAheadSize;
+      return this;
+   }
+
+   @Override
+   public boolean isJournalOffHeapRecordIndex() {
+      return journalOffHeapRecordIndex;
+   }
+
+   @Override
+   public Configuration setJournalOffHeapRecordIndex(boolean journalOffHeapRecordIndex) {
+      this.journalOffHeapRecordIndex = journalOffHeapRecordIndex;
+      return this;
+   }
+
    @Override
    public ConfigurationImpl setJournalCompactPercentage(final int percentage) {
       journalCompactPercentage = percentage;
@@ -3411,6 +3532,17 @@ public class ConfigurationImpl extends javax.security.auth.login.Configuration i
       return this;
    }
 
+   @Override
+   public long getMqttRetainedMessagesMaxSize() {
+      return mqttRetainedMessagesMaxSize;
+   }
+
+   @Override
+   public Configuration setMqttRetainedMessagesMaxSize(long mqttRetainedMessagesMaxSize) {
+      this.mqttRetainedMessagesMaxSize = mqttRetainedMessagesMaxSize;
+      return this;
+   }
+
    @Override
    public long getMqttSessionScanInterval() {
       return mqttSessionScanInterval;
@@ -3422,6 +3554,17 @@ public class ConfigurationImpl extends javax.security.auth.login.Configuration i
       return this;
    }
 
+   @Override
+   public long getMqttSessionStateEvictionDelay() {
+      return mqttSessionStateEvictionDelay;
+   }
+
+   @Override
+   public Configuration setMqttSessionStateEvictionDelay(long mqttSessionStateEvictionDelay) {
+      this.mqttSessionStateEvictionDelay = mqttSessionStateEvictionDelay;
+      return this;
+   }
+
    @Override
    public long getMqttSessionStatePersistenceTimeout() {
       return mqttSessionStatePersistenceTimeout;
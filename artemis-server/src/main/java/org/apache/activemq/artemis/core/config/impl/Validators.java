@@ -28,6 +28,7 @@ import org.apache.activemq.artemis.core.settings.impl.AddressFullMessagePolicy;
 import org.apache.activemq.artemis.core.settings.impl.DeletionPolicy;
 import org.apache.activemq.artemis.core.settings.impl.DiskFullMessagePolicy;
 import org.apache.activemq.artemis.core.settings.impl.PageFullMessagePolicy;
+import org.apache.activemq.artemis.core.settings.impl.ScheduledDeliveryHandlerType;
 import org.apache.activemq.artemis.core.settings.impl.SlowConsumerPolicy;
 import org.apache.activemq.artemis.core.settings.impl.SlowConsumerThresholdMeasurementUnit;
 
@@ -167,6 +168,15 @@ public final class Validators {
       return value;
    };
 
+   public static final Validator<String> SCHEDULED_DELIVERY_HANDLER_TYPE = (name, value) -> {
+      if (value == null ||
+         !value.equals(ScheduledDeliveryHandlerType.DEFAULT.toString()) &&
+         !value.equals(ScheduledDeliveryHandlerType.TIMING_WHEEL.toString())) {
+         throw ActiveMQMessageBundle.BUNDLE.invalidScheduledDeliveryHandlerType(value);
+      }
+      return value;
+   };
+
    public static final Validator<String> SLOW_CONSUMER_THRESHOLD_MEASUREMENT_UNIT = (name, value) -> {
       if (value == null ||
          !value.equals(SlowConsumerThresholdMeasurementUnit.MESSAGES_PER_SECOND.toString()) &&
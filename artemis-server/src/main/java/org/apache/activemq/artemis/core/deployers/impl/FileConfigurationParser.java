@@ -110,6 +110,7 @@ import org.apache.activemq.artemis.core.settings.impl.DeletionPolicy;
 import org.apache.activemq.artemis.core.settings.impl.DiskFullMessagePolicy;
 import org.apache.activemq.artemis.core.settings.impl.PageFullMessagePolicy;
 import org.apache.activemq.artemis.core.settings.impl.ResourceLimitSettings;
+import org.apache.activemq.artemis.core.settings.impl.ScheduledDeliveryHandlerType;
 import org.apache.activemq.artemis.core.settings.impl.SlowConsumerPolicy;
 import org.apache.activemq.artemis.core.settings.impl.SlowConsumerThresholdMeasurementUnit;
 import org.apache.activemq.artemis.selector.impl.SelectorParser;
@@ -152,6 +153,7 @@ import static org.apache.activemq.artemis.core.config.impl.Validators.PERCENTAGE
 import static org.apache.activemq.artemis.core.config.impl.Validators.POSITIVE_INT;
 import static org.apache.activemq.artemis.core.config.impl.Validators.POSITIVE_POWER_OF_TWO;
 import static org.apache.activemq.artemis.core.config.impl.Validators.ROUTING_TYPE;
+import static org.apache.activemq.artemis.core.config.impl.Validators.SCHEDULED_DELIVERY_HANDLER_TYPE;
 import static org.apache.activemq.artemis.core.config.impl.Validators.SLOW_CONSUMER_POLICY_TYPE;
 import static org.apache.activemq.artemis.core.config.impl.Validators.SLOW_CONSUMER_THRESHOLD_MEASUREMENT_UNIT;
 import static org.apache.activemq.artemis.core.security.Role.BROWSE_PERMISSION;
@@ -364,6 +366,8 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
 
    private static final String GLOBAL_MAX_MESSAGES = "global-max-messages";
 
+   private static final String GLOBAL_PAGE_CACHE_MAX_SIZE = "global-page-cache-max-size";
+
    public static final String MAX_DISK_USAGE = "max-disk-usage";
 
    public static final String MIN_DISK_FREE = "min-disk-free";
@@ -397,6 +401,18 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
 
    private static final String INITIAL_QUEUE_BUFFER_SIZE = "initial-queue-buffer-size";
 
+   private static final String SCHEDULED_DELIVERY_HANDLER = "scheduled-delivery-handler";
+
+   private static final String DELIVERY_SHARDS = "delivery-shards";
+
+   private static final String ACK_BATCH_SIZE = "ack-batch-size";
+
+   private static final String PAGE_PRIORITY = "page-priority";
+
+   private static final String PAGE_READ_AHEAD = "page-read-ahead";
+
+   private static final String PAGE_FAN_OUT_WINDOW = "page-fan-out-window";
+
    private static final String MQTT_SUBSCRIPTION_PERSISTENCE_ENABLED = "mqtt-subscription-persistence-enabled";
 
    private boolean validateAIO = false;
@@ -490,6 +506,8 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
 
       config.setPersistIDCache(getBoolean(e, "persist-id-cache", config.isPersistIDCache()));
 
+      config.setIDCacheOffHeap(getBoolean(e, "id-cache-off-heap", config.isIDCacheOffHeap()));
+
       config.setManagementAddress(SimpleString.of(getString(e, "management-address", config.getManagementAddress().toString(), NOT_NULL_OR_EMPTY)));
 
       config.setManagementNotificationAddress(SimpleString.of(getString(e, "management-notification-address", config.getManagementNotificationAddress().toString(), NOT_NULL_OR_EMPTY)));
@@ -510,8 +528,12 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
 
       config.setUuidNamespace(getString(e, "uuid-namespace", config.getUuidNamespace(), NOT_NULL_OR_EMPTY));
 
+      config.setMqttRetainedMessagesMaxSize(getTextBytesAsLongBytes(e, "mqtt-retained-messages-max-size", config.getMqttRetainedMessagesMaxSize(), MINUS_ONE_OR_GE_ZERO));
+
       config.setMqttSessionScanInterval(getLong(e, "mqtt-session-scan-interval", config.getMqttSessionScanInterval(), GT_ZERO));
 
+      config.setMqttSessionStateEvictionDelay(getLong(e, "mqtt-session-state-eviction-delay", config.getMqttSessionStateEvictionDelay(), MINUS_ONE_OR_GE_ZERO));
+
       config.setMqttSessionStatePersistenceTimeout(getLong(e, "mqtt-session-state-persistence-timeout", config.getMqttSessionStatePersistenceTimeout(), GT_ZERO, MQTT_SUBSCRIPTION_PERSISTENCE_ENABLED));
 
       config.setMqttSubscriptionPersistenceEnabled(getBoolean(e, MQTT_SUBSCRIPTION_PERSISTENCE_ENABLED, config.isMqttSubscriptionPersistenceEnabled()));
@@ -530,6 +552,8 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
 
       config.setGlobalMaxMessages(globalMaxMessages);
 
+      config.setGlobalPageCacheMaxSize(getTextBytesAsLongBytes(e, GLOBAL_PAGE_CACHE_MAX_SIZE, config.getGlobalPageCacheMaxSize(), MINUS_ONE_OR_GE_ZERO));
+
       config.setMinDiskFree(getTextBytesAsLongBytes(e, MIN_DISK_FREE, config.getMinDiskFree(), MINUS_ONE_OR_GT_ZERO));
 
       config.setMaxDiskUsage(getInteger(e, MAX_DISK_USAGE, config.getMaxDiskUsage(), PERCENTAGE_OR_MINUS_ONE));
@@ -789,6 +813,10 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
 
       config.setReadWholePage(getBoolean(e, "read-whole-page", config.isReadWholePage()));
 
+      config.setPageMemoryMapped(getBoolean(e, "page-memory-mapped", config.isPageMemoryMapped()));
+
+      config.setPageMaxConcurrentDepage(getInteger(e, "page-max-concurrent-depage", config.getPageMaxConcurrentDepage(), MINUS_ONE_OR_GT_ZERO));
+
       config.setPagingDirectory(getString(e, "paging-directory", config.getPagingDirectory(), NOT_NULL_OR_EMPTY));
 
       config.setPurgePageFolders(getBoolean(e, "purge-page-folders", config.isPurgePageFolders()));
@@ -840,14 +868,24 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
          config.setJournalMaxIO_NIO(journalMaxIO);
       }
 
+      config.setJournalBufferMaxLatency(getInteger(e, "journal-buffer-max-latency", config.getJournalBufferMaxLatency(), MINUS_ONE_OR_GT_ZERO));
+
       config.setJournalFileOpenTimeout(getInteger(e, "journal-file-open-timeout", ActiveMQDefaultConfiguration.getDefaultJournalFileOpenTimeout(), GT_ZERO));
 
+      config.setJournalLoadThreads(getInteger(e, "journal-load-threads", config.getJournalLoadThreads(), GT_ZERO));
+
+      config.setJournalLoadReadAheadSize(getTextBytesAsLongBytes(e, "journal-load-read-ahead-size", config.getJournalLoadReadAheadSize(), GT_ZERO));
+
+      config.setJournalOffHeapRecordIndex(getBoolean(e, "journal-off-heap-record-index", config.isJournalOffHeapRecordIndex()));
+
       config.setJournalMinFiles(getInteger(e, "journal-min-files", config.getJournalMinFiles(), GT_ZERO));
 
       config.setJournalPoolFiles(getInteger(e, "journal-pool-files", config.getJournalPoolFiles(), MINUS_ONE_OR_GT_ZERO));
 
       config.setJournalCompactMinFiles(getInteger(e, "journal-compact-min-files", config.getJournalCompactMinFiles(), GE_ZERO));
 
+      config.setJournalCompactMaxFiles(getInteger(e, "journal-compact-max-files", config.getJournalCompactMaxFiles(), MINUS_ONE_OR_GT_ZERO));
+
       config.setJournalCompactPercentage(getInteger(e, "journal-compact-percentage", config.getJournalCompactPercentage(), PERCENTAGE));
 
       config.setLogJournalWriteRate(getBoolean(e, "log-journal-write-rate", ActiveMQDefaultConfiguration.isDefaultJournalLogWriteRate()));
@@ -1535,6 +1573,18 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
             addressSettings.setIDCacheSize(GE_ZERO.validate(ID_CACHE_SIZE, XMLUtil.parseInt(child)).intValue());
          } else if (INITIAL_QUEUE_BUFFER_SIZE.equalsIgnoreCase(name)) {
             addressSettings.setInitialQueueBufferSize(POSITIVE_POWER_OF_TWO.validate(INITIAL_QUEUE_BUFFER_SIZE, XMLUtil.parseInt(child)).intValue());
+         } else if (SCHEDULED_DELIVERY_HANDLER.equalsIgnoreCase(name)) {
+            addressSettings.setScheduledDeliveryHandler(Enum.valueOf(ScheduledDeliveryHandlerType.class, SCHEDULED_DELIVERY_HANDLER_TYPE.validate(SCHEDULED_DELIVERY_HANDLER, getTrimmedTextContent(child))));
+         } else if (DELIVERY_SHARDS.equalsIgnoreCase(name)) {
+            addressSettings.setDeliveryShards(GT_ZERO.validate(DELIVERY_SHARDS, XMLUtil.parseInt(child)).intValue());
+         } else if (ACK_BATCH_SIZE.equalsIgnoreCase(name)) {
+            addressSettings.setAckBatchSize(GT_ZERO.validate(ACK_BATCH_SIZE, XMLUtil.parseInt(child)).intValue());
+         } else if (PAGE_PRIORITY.equalsIgnoreCase(name)) {
+            addressSettings.setPagePriority(GT_ZERO.validate(PAGE_PRIORITY, XMLUtil.parseInt(child)).intValue());
+         } else if (PAGE_READ_AHEAD.equalsIgnoreCase(name)) {
+            addressSettings.setPageReadAhead(GE_ZERO.validate(PAGE_READ_AHEAD, XMLUtil.parseInt(child)).intValue());
+         } else if (PAGE_FAN_OUT_WINDOW.equalsIgnoreCase(name)) {
+            addressSettings.setPageFanOutWindow(GE_ZERO.validate(PAGE_FAN_OUT_WINDOW, XMLUtil.parseInt(child)).intValue());
          }
       }
       return setting;
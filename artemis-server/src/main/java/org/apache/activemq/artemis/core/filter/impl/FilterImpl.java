@@ -27,6 +27,7 @@ import org.apache.activemq.artemis.core.server.ActiveMQMessageBundle;
 import org.apache.activemq.artemis.core.server.ActiveMQServerLogger;
 import org.apache.activemq.artemis.core.server.federation.address.FederatedAddress;
 import org.apache.activemq.artemis.selector.filter.BooleanExpression;
+import org.apache.activemq.artemis.selector.filter.CompiledExpression;
 import org.apache.activemq.artemis.selector.filter.FilterException;
 import org.apache.activemq.artemis.selector.filter.Filterable;
 import org.apache.activemq.artemis.selector.impl.SelectorParser;
@@ -61,7 +62,7 @@ public class FilterImpl implements Filter {
 
    private final SimpleString sfilterString;
 
-   private final BooleanExpression booleanExpression;
+   private final CompiledExpression booleanExpression;
 
    /**
     * {@return null if {@code filterStr} is null or an empty String and a valid filter else}
@@ -80,9 +81,9 @@ public class FilterImpl implements Filter {
          return null;
       }
 
-      BooleanExpression booleanExpression;
+      CompiledExpression booleanExpression;
       try {
-         booleanExpression = SelectorParser.parse(filterStr.toString());
+         booleanExpression = SelectorParser.compile(filterStr.toString());
       } catch (Throwable e) {
          ActiveMQServerLogger.LOGGER.invalidFilter(filterStr);
          logger.debug("Invalid filter", e);
@@ -91,7 +92,7 @@ public class FilterImpl implements Filter {
       return new FilterImpl(filterStr, booleanExpression);
    }
 
-   private FilterImpl(final SimpleString str, final BooleanExpression expression) {
+   private FilterImpl(final SimpleString str, final CompiledExpression expression) {
       sfilterString = str;
       this.booleanExpression = expression;
    }
@@ -103,6 +104,17 @@ public class FilterImpl implements Filter {
       return sfilterString;
    }
 
+   BooleanExpression getBooleanExpression() {
+      return booleanExpression.getSource();
+   }
+
+   /**
+    * {@return the view of {@code message} filters are evaluated against}
+    */
+   static Filterable filterable(final Message message) {
+      return new FilterableServerMessage(message);
+   }
+
    @Override
    public boolean match(final Message message) {
       return match(new FilterableServerMessage(message));
@@ -115,7 +127,16 @@ public class FilterImpl implements Filter {
 
 
    @Override
-   public synchronized boolean match(final Filterable filterable) {
+   public boolean match(final Filterable filterable) {
+      if (booleanExpression.isThreadSafe()) {
+         return doMatch(filterable);
+      }
+      synchronized (this) {
+         return doMatch(filterable);
+      }
+   }
+
+   private boolean doMatch(final Filterable filterable) {
       try {
          return booleanExpression.matches(filterable);
       } catch (Exception e) {
@@ -0,0 +1,333 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.filter.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import org.apache.activemq.artemis.api.core.Message;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.filter.Filter;
+import org.apache.activemq.artemis.selector.filter.Filterable;
+import org.apache.activemq.artemis.selector.filter.PropertyCondition;
+import org.apache.activemq.artemis.selector.filter.SelectorCompiler;
+
+/**
+ * Matches a message against the filters of many items (e.g. the bindings of an address) without evaluating every one
+ * of them.
+ * <p>
+ * Each filter is decomposed by {@link SelectorCompiler#condition} into a condition on a single message property, and
+ * the conditions are indexed by property: sets of values in a hash table and integral ranges in a table of the
+ * segments they cover. For each message the value of every indexed property is read once and looked up, which gives
+ * the candidate items. The filter of a candidate is only evaluated when its condition can't decide alone: when the
+ * filter has other terms, or when the property has a type the condition wasn't built for. Items that aren't candidates
+ * don't match.
+ * <p>
+ * An index is immutable, it has to be built again when the items or their filters change. Items it doesn't know about
+ * are matched by evaluating their filter.
+ */
+public final class FilterIndex<T> {
+
+   static final byte NO_MATCH = 0;
+
+   static final byte MATCH = 1;
+
+   static final byte EVALUATE = 2;
+
+   private final Map<T, Entry> entries;
+
+   private final PropertyIndex[] properties;
+
+   private FilterIndex(final Map<T, Entry> entries, final PropertyIndex[] properties) {
+      this.entries = entries;
+      this.properties = properties;
+   }
+
+   /**
+    * {@return the index of the filters of {@code items}, or {@code null} if less than two of them can be indexed}
+    */
+   public static <T> FilterIndex<T> build(final Collection<T> items, final Function<T, Filter> filterOf) {
+      final Map<T, Entry> entries = new IdentityHashMap<>();
+      final Map<SimpleString, PropertyIndexBuilder> builders = new LinkedHashMap<>();
+      for (T item : items) {
+         final Filter filter = filterOf.apply(item);
+         if (filter instanceof FilterImpl filterImpl && !entries.containsKey(item)) {
+            final PropertyCondition condition = SelectorCompiler.condition(filterImpl.getBooleanExpression());
+            if (condition != null) {
+               final int slot = entries.size();
+               entries.put(item, new Entry(filter, slot));
+               builders.computeIfAbsent(condition.getProperty(), PropertyIndexBuilder::new).add(slot, condition);
+            }
+         }
+      }
+      if (entries.size() < 2) {
+         return null;
+      }
+      final PropertyIndex[] properties = new PropertyIndex[builders.size()];
+      int i = 0;
+      for (PropertyIndexBuilder builder : builders.values()) {
+         properties[i++] = builder.build();
+      }
+      return new FilterIndex<>(entries, properties);
+   }
+
+   /**
+    * {@return the number of filters indexed}
+    */
+   public int size() {
+      return entries.size();
+   }
+
+   /**
+    * {@return a matcher of {@code message}, to be used by a single thread}
+    */
+   public Matcher matcher(final Message message) {
+      return new Matcher(message);
+   }
+
+   public final class Matcher {
+
+      private final Message message;
+
+      private final byte[] results;
+
+      private Matcher(final Message message) {
+         this.message = message;
+         this.results = new byte[entries.size()];
+         final Filterable filterable = FilterImpl.filterable(message);
+         for (PropertyIndex property : properties) {
+            property.lookup(filterable.getProperty(property.name), results);
+         }
+      }
+
+      /**
+       * {@return the same as {@code filter.match(message)}, {@code filter} being the current filter of {@code item}}
+       */
+      public boolean match(final T item, final Filter filter) {
+         final Entry entry = entries.get(item);
+         if (entry == null || entry.filter != filter) {
+            return filter.match(message);
+         }
+         return switch (results[entry.slot]) {
+            case NO_MATCH -> false;
+            case MATCH -> true;
+            default -> filter.match(message);
+         };
+      }
+
+      // for tests
+      byte result(final T item) {
+         return results[entries.get(item).slot];
+      }
+   }
+
+   private static final class Entry {
+
+      private final Filter filter;
+
+      private final int slot;
+
+      private Entry(final Filter filter, final int slot) {
+         this.filter = filter;
+         this.slot = slot;
+      }
+   }
+
+   /**
+    * The conditions on one property. A candidate is the slot of an item shifted left by one, the low bit telling
+    * whether the condition is exact.
+    */
+   private static final class PropertyIndex {
+
+      private static final int[] NONE = new int[0];
+
+      private final SimpleString name;
+
+      private final Map<Object, int[]> values;
+
+      // the lower bound of each segment, the last one going up to Long.MAX_VALUE
+      private final long[] segmentStarts;
+
+      private final int[][] segments;
+
+      // conditions to evaluate when the property holds an integral value
+      private final int[] onStrings;
+
+      // conditions to evaluate when the property holds a string
+      private final int[] onIntegrals;
+
+      // conditions to evaluate when the property holds a Short or a Byte
+      private final int[] narrowing;
+
+      private final int[] all;
+
+      private PropertyIndex(final SimpleString name,
+                            final Map<Object, int[]> values,
+                            final long[] segmentStarts,
+                            final int[][] segments,
+                            final int[] onStrings,
+                            final int[] onIntegrals,
+                            final int[] narrowing,
+                            final int[] all) {
+         this.name = name;
+         this.values = values;
+         this.segmentStarts = segmentStarts;
+         this.segments = segments;
+         this.onStrings = onStrings;
+         this.onIntegrals = onIntegrals;
+         this.narrowing = narrowing;
+         this.all = all;
+      }
+
+      private void lookup(final Object value, final byte[] results) {
+         if (value == null) {
+            // no condition holds without the property
+            return;
+         }
+         final Object key = PropertyCondition.key(value);
+         if (key == null) {
+            // the filters may convert the value before comparing it
+            evaluate(all, results);
+         } else if (key instanceof String) {
+            hits(values.getOrDefault(key, NONE), results);
+            evaluate(onIntegrals, results);
+         } else {
+            hits(values.getOrDefault(key, NONE), results);
+            if (segmentStarts.length > 0) {
+               hits(segment((Long) key), results);
+            }
+            evaluate(onStrings, results);
+            if (value instanceof Short || value instanceof Byte) {
+               evaluate(narrowing, results);
+            }
+         }
+      }
+
+      private int[] segment(final long key) {
+         final int index = Arrays.binarySearch(segmentStarts, key);
+         return segments[index >= 0 ? index : -index - 2];
+      }
+
+      private static void hits(final int[] candidates, final byte[] results) {
+         for (int candidate : candidates) {
+            results[candidate >>> 1] = (candidate & 1) != 0 ? MATCH : EVALUATE;
+         }
+      }
+
+      private static void evaluate(final int[] candidates, final byte[] results) {
+         for (int candidate : candidates) {
+            results[candidate >>> 1] = EVALUATE;
+         }
+      }
+   }
+
+   private static final class PropertyIndexBuilder {
+
+      private final SimpleString name;
+
+      private final Map<Object, List<Integer>> values = new HashMap<>();
+
+      private final List<PropertyCondition> ranges = new ArrayList<>();
+
+      private final List<Integer> rangeCandidates = new ArrayList<>();
+
+      private final List<Integer> onStrings = new ArrayList<>();
+
+      private final List<Integer> onIntegrals = new ArrayList<>();
+
+      private final List<Integer> narrowing = new ArrayList<>();
+
+      private final List<Integer> all = new ArrayList<>();
+
+      private PropertyIndexBuilder(final SimpleString name) {
+         this.name = name;
+      }
+
+      private void add(final int slot, final PropertyCondition condition) {
+         final int candidate = slot << 1 | (condition.isExact() ? 1 : 0);
+         all.add(candidate);
+         if (condition.isIntegral()) {
+            onIntegrals.add(candidate);
+            if (!condition.widensShorts()) {
+               narrowing.add(candidate);
+            }
+         } else {
+            onStrings.add(candidate);
+         }
+         if (condition.isRange()) {
+            if (condition.getMin() <= condition.getMax()) {
+               ranges.add(condition);
+               rangeCandidates.add(candidate);
+            }
+         } else {
+            for (Object value : condition.getValues()) {
+               values.computeIfAbsent(value, v -> new ArrayList<>()).add(candidate);
+            }
+         }
+      }
+
+      private PropertyIndex build() {
+         final Map<Object, int[]> values = new HashMap<>();
+         this.values.forEach((value, candidates) -> values.put(value, toArray(candidates)));
+
+         // the bounds of the ranges split the values into segments, each one matched by the same ranges
+         final TreeSet<Long> bounds = new TreeSet<>();
+         if (!ranges.isEmpty()) {
+            bounds.add(Long.MIN_VALUE);
+         }
+         for (PropertyCondition range : ranges) {
+            bounds.add(range.getMin());
+            if (range.getMax() != Long.MAX_VALUE) {
+               bounds.add(range.getMax() + 1);
+            }
+         }
+         final long[] segmentStarts = new long[bounds.size()];
+         int i = 0;
+         for (long bound : bounds) {
+            segmentStarts[i++] = bound;
+         }
+         final List<List<Integer>> segments = new ArrayList<>(segmentStarts.length);
+         for (i = 0; i < segmentStarts.length; i++) {
+            segments.add(new ArrayList<>());
+         }
+         for (i = 0; i < ranges.size(); i++) {
+            final PropertyCondition range = ranges.get(i);
+            for (int segment = Arrays.binarySearch(segmentStarts, range.getMin()); segment < segmentStarts.length && segmentStarts[segment] <= range.getMax(); segment++) {
+               segments.get(segment).add(rangeCandidates.get(i));
+            }
+         }
+         final int[][] segmentCandidates = new int[segmentStarts.length][];
+         for (i = 0; i < segmentStarts.length; i++) {
+            segmentCandidates[i] = toArray(segments.get(i));
+         }
+
+         return new PropertyIndex(name, values, segmentStarts, segmentCandidates, toArray(onStrings), toArray(onIntegrals), toArray(narrowing), toArray(all));
+      }
+
+      private static int[] toArray(final List<Integer> candidates) {
+         return candidates.stream().mapToInt(Integer::intValue).toArray();
+      }
+   }
+}
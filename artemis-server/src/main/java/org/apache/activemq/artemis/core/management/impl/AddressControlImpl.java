@@ -441,6 +441,26 @@ public class AddressControlImpl extends AbstractControl implements AddressContro
       }
    }
 
+   @Override
+   public long getDepageLag() {
+      if (AuditLogger.isBaseLoggingEnabled()) {
+         AuditLogger.getDepageLag(this.addressInfo);
+      }
+      clearIO();
+      try {
+         final PagingStore pagingStore = getPagingStore();
+         if (pagingStore == null) {
+            return 0;
+         }
+         return pagingStore.getDepageLag();
+      } catch (Exception e) {
+         logger.debug("Failed to get depage lag", e);
+         return -1;
+      } finally {
+         blockOnIO();
+      }
+   }
+
    @Override
    public boolean block() {
       if (AuditLogger.isBaseLoggingEnabled()) {
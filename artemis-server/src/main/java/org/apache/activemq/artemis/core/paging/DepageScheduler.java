@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.paging;
+
+import java.util.concurrent.Executor;
+import java.util.function.IntSupplier;
+
+/**
+ * Broker wide limit on the number of paging stores depaging at the same time, giving each waiting store its turn in
+ * proportion to its weight.
+ */
+public interface DepageScheduler {
+
+   int getMaxConcurrency();
+
+   /**
+    * {@return the number of stores currently running a depage}
+    */
+   int getRunning();
+
+   /**
+    * {@return a lane running its depages on {@code executor}, with the weight supplied by {@code weight} read each time
+    * it is picked}
+    */
+   Lane newLane(Executor executor, IntSupplier weight);
+
+   /**
+    * The depages of a single paging store.
+    */
+   interface Lane {
+
+      /**
+       * Runs {@code depage} on the executor of the lane once the lane gets its turn.
+       */
+      void schedule(Runnable depage);
+
+      int getPending();
+   }
+}
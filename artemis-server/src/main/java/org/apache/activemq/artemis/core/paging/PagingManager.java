@@ -160,6 +160,43 @@ public interface PagingManager extends ActiveMQComponent, HierarchicalRepository
       return 0;
    }
 
+   /**
+    * {@return the cache accounting for the pages loaded by every store, or {@code null} if pages are not accounted}
+    */
+   default SharedPageCache getSharedPageCache() {
+      return null;
+   }
+
+   /**
+    * {@return the scheduler limiting the number of stores depaging at the same time, or {@code null} if every store
+    * depages as soon as it needs to}
+    */
+   default DepageScheduler getDepageScheduler() {
+      return null;
+   }
+
+   /**
+    * To be called when a cursor moves to a page of a store reading pages ahead.
+    *
+    * @param hit whether the page was already loaded
+    */
+   default void pageReadAhead(boolean hit) {
+   }
+
+   /**
+    * {@return the number of times a cursor moved to a page of a store reading pages ahead while it was already loaded}
+    */
+   default long getPageReadAheadHits() {
+      return 0;
+   }
+
+   /**
+    * {@return the number of times a cursor moved to a page of a store reading pages ahead while it wasn't loaded yet}
+    */
+   default long getPageReadAheadMisses() {
+      return 0;
+   }
+
    /**
     * Rebuilds all page counters for destinations that are paging in the background.
     */
@@ -105,6 +105,14 @@ public interface PagingStore extends ActiveMQComponent, RefCountMessageListener
 
    int getPrefetchPageMessages();
 
+   /**
+    * {@return the number of decoded messages the subscriptions of the address share while reading a page, {@code 0}
+    * if each subscription decodes the messages it reads}
+    */
+   default int getPageFanOutWindow() {
+      return 0;
+   }
+
    void applySetting(AddressSettings addressSettings);
 
    /**
@@ -146,6 +154,14 @@ public interface PagingStore extends ActiveMQComponent, RefCountMessageListener
    Page usePage(long page, boolean create);
    Page usePage(long page, boolean createEntry, boolean createFile);
 
+   /**
+    * Uses the page a cursor is moving to, like {@link #usePage(long)}, and reads the pages following it ahead of the
+    * cursor if the store is configured to.
+    */
+   default Page usePageReadingAhead(long page) {
+      return usePage(page);
+   }
+
    Page newPageObject(long page) throws Exception;
 
    boolean checkPageFileExists(long page) throws Exception;
@@ -250,6 +266,22 @@ public interface PagingStore extends ActiveMQComponent, RefCountMessageListener
 
    void execute(Runnable runnable);
 
+   /**
+    * Runs a depage of one of the queues of this store on its executor, once the {@link PagingManager#getDepageScheduler()
+    * depage scheduler} gives this store its turn when there is one.
+    */
+   default void executeDepage(Runnable depage) {
+      execute(depage);
+   }
+
+   /**
+    * {@return how long, in milliseconds, the oldest depage scheduled on this store has been waiting to run, {@code 0}
+    * if none is waiting}
+    */
+   default long getDepageLag() {
+      return 0;
+   }
+
    ArtemisExecutor getExecutor();
 
    /**
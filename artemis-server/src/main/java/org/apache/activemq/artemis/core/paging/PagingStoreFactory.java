@@ -61,6 +61,14 @@ public interface PagingStoreFactory {
       return null;
    }
 
+   /**
+    * {@return {@code true} if the page files are allocated with a fixed capacity when they are created, rather than
+    * growing as they are written}
+    */
+   default boolean isPageFilePreallocated() {
+      return false;
+   }
+
 
 
 }
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.paging;
+
+/**
+ * Broker wide budget for the pages loaded by every paging store, unloading the least recently used pages when they
+ * use more than {@link #getMaxSize()} bytes. Memory mapped pages use the bytes mapped from their file, off the heap,
+ * and pages read as a whole use the memory estimate of their decoded messages, on the heap.
+ */
+public interface SharedPageCache {
+
+   /**
+    * {@return the number of bytes loaded pages can use before being unloaded, {@code -1} meaning unbounded}
+    */
+   long getMaxSize();
+
+   /**
+    * {@return the number of bytes used by the pages currently loaded}
+    */
+   long getSize();
+
+   /**
+    * {@return the memory estimate of the messages of the pages read as a whole, part of {@link #getSize()}}
+    */
+   long getHeapSize();
+
+   /**
+    * {@return the number of bytes mapped by the memory mapped pages, part of {@link #getSize()}}
+    */
+   long getMappedSize();
+
+   int getPageCount();
+
+   /**
+    * {@return the number of times a page was read while already loaded}
+    */
+   long getHits();
+
+   /**
+    * {@return the number of times a page was loaded from its file}
+    */
+   long getMisses();
+
+   /**
+    * {@return the number of pages unloaded to stay under the maximum size}
+    */
+   long getEvictions();
+}
@@ -17,7 +17,7 @@
 
 package org.apache.activemq.artemis.core.paging.cursor;
 
-import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
 
 // this is to expose PageSubscriptionImpl::PageCursorInfo
 public interface ConsumedPage {
@@ -28,6 +28,9 @@ public interface ConsumedPage {
 
    boolean isAck(int messageNumber);
 
-   void forEachAck(BiConsumer<Integer, PagePosition> ackConsumer);
+   /**
+    * Passes the number of every message acked on the page to {@code ackConsumer}.
+    */
+   void forEachAck(IntConsumer ackConsumer);
 
 }
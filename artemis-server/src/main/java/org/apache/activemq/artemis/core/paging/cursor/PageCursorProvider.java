@@ -18,9 +18,12 @@ package org.apache.activemq.artemis.core.paging.cursor;
 
 import java.util.concurrent.Future;
 import java.util.function.Consumer;
+import java.util.function.IntPredicate;
 
 import org.apache.activemq.artemis.core.filter.Filter;
 import org.apache.activemq.artemis.core.paging.PagedMessage;
+import org.apache.activemq.artemis.core.paging.impl.Page;
+import org.apache.activemq.artemis.utils.collections.LinkedListIterator;
 
 /**
  * The provider of Cursor for a given Address
@@ -29,6 +32,15 @@ public interface PageCursorProvider {
 
    PagedReference newReference(PagedMessage msg, PageSubscription sub);
 
+   /**
+    * {@return an iterator for a subscription reading {@code page}}
+    *
+    * @param skip message numbers the iterator may skip without decoding them, it may be {@code null}
+    */
+   default LinkedListIterator<PagedMessage> iterator(Page page, IntPredicate skip) throws Exception {
+      return page.iterator(skip);
+   }
+
    /**
     * @param queueId The cursorID should be the same as the queueId associated for persistence
     */
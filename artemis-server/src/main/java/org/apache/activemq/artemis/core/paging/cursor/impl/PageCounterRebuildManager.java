@@ -17,21 +17,19 @@
 
 package org.apache.activemq.artemis.core.paging.cursor.impl;
 
-import io.netty.util.collection.IntObjectHashMap;
 import io.netty.util.collection.LongObjectHashMap;
 import org.apache.activemq.artemis.core.paging.PageTransactionInfo;
 import org.apache.activemq.artemis.core.paging.PagedMessage;
 import org.apache.activemq.artemis.core.paging.PagingManager;
 import org.apache.activemq.artemis.core.paging.PagingStore;
 import org.apache.activemq.artemis.core.paging.cursor.ConsumedPage;
-import org.apache.activemq.artemis.core.paging.cursor.PagePosition;
 import org.apache.activemq.artemis.core.paging.cursor.PageSubscription;
 import org.apache.activemq.artemis.core.paging.cursor.PageSubscriptionCounter;
 import org.apache.activemq.artemis.core.paging.impl.Page;
 import org.apache.activemq.artemis.core.persistence.StorageManager;
 import org.apache.activemq.artemis.core.transaction.Transaction;
 import org.apache.activemq.artemis.core.transaction.TransactionOperationAbstract;
-import org.apache.activemq.artemis.utils.collections.LinkedList;
+import org.apache.activemq.artemis.utils.collections.IntBitmap;
 import org.apache.activemq.artemis.utils.collections.LinkedListIterator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,7 +38,7 @@ import java.lang.invoke.MethodHandles;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
 
 /**
  * this class will copy current data from the Subscriptions, count messages while the server is already active
@@ -126,14 +124,14 @@ public class PageCounterRebuildManager implements Runnable {
                } else {
                   // We only copy the acks if the page is not done
                   // as if the page is done, we just move over
-                  consumedPage.forEachAck((messageNR, pagePosition) -> {
+                  consumedPage.forEachAck(messageNR -> {
                      if (logger.isTraceEnabled()) {
                         logger.trace("Marking messageNR {} as acked on pageID={} copy", messageNR, consumedPage.getPageId());
                      }
                      if (copiedConsumedPage.acks == null) {
-                        copiedConsumedPage.acks = new IntObjectHashMap<>();
+                        copiedConsumedPage.acks = new IntBitmap();
                      }
-                     copiedConsumedPage.acks.put(messageNR, Boolean.TRUE);
+                     copiedConsumedPage.acks.add(messageNR);
                   });
                }
             });
@@ -217,11 +215,9 @@ public class PageCounterRebuildManager implements Runnable {
             }
             continue;
          }
-         page.open(false);
-         LinkedList<PagedMessage> msgs = page.read(sm);
-         page.close(false, false);
+         page.load();
 
-         try (LinkedListIterator<PagedMessage> iter = msgs.iterator()) {
+         try (LinkedListIterator<PagedMessage> iter = page.iterator()) {
             while (iter.hasNext()) {
                PagedMessage msg = iter.next();
                if (storedLargeMessages != null && msg.getMessage().isLargeMessage()) {
@@ -309,6 +305,9 @@ public class PageCounterRebuildManager implements Runnable {
                   }
                }
             }
+         } finally {
+            // the page is not kept by the store, its messages are released from the shared page cache right away
+            page.unload();
          }
       }
 
@@ -345,7 +344,7 @@ public class PageCounterRebuildManager implements Runnable {
 
    private static class CopiedConsumedPage implements ConsumedPage {
       boolean done;
-      IntObjectHashMap<Boolean> acks;
+      IntBitmap acks;
 
       @Override
       public long getPageId() {
@@ -353,7 +352,7 @@ public class PageCounterRebuildManager implements Runnable {
       }
 
       @Override
-      public void forEachAck(BiConsumer<Integer, PagePosition> ackConsumer) {
+      public void forEachAck(IntConsumer ackConsumer) {
          throw new RuntimeException("method not implemented");
       }
 
@@ -368,7 +367,7 @@ public class PageCounterRebuildManager implements Runnable {
             return true;
          }
          if (acks != null) {
-            return acks.get(messageNumber) != null;
+            return acks.contains(messageNumber);
          }
          return false;
       }
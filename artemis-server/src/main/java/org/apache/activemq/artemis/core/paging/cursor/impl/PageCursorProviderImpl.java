@@ -24,6 +24,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.function.IntPredicate;
 
 import io.netty.util.collection.LongObjectHashMap;
 import org.apache.activemq.artemis.core.filter.Filter;
@@ -43,6 +44,7 @@ import org.apache.activemq.artemis.utils.ArtemisCloseable;
 import org.apache.activemq.artemis.utils.SimpleFutureImpl;
 import org.apache.activemq.artemis.utils.collections.ConcurrentLongHashMap;
 import org.apache.activemq.artemis.utils.collections.LinkedList;
+import org.apache.activemq.artemis.utils.collections.LinkedListIterator;
 import org.apache.activemq.artemis.utils.collections.LongHashSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -111,6 +113,17 @@ public class PageCursorProviderImpl implements PageCursorProvider {
       return new PagedReferenceImpl(msg, subscription);
    }
 
+   /**
+    * When the address has a {@code page-fan-out-window} and more than one subscription, the subscriptions reading the
+    * same page share the messages decoded from it: the first one to reach a message decodes it for all of them, as long
+    * as the others reach it within the window.
+    */
+   @Override
+   public LinkedListIterator<PagedMessage> iterator(final Page page, final IntPredicate skip) throws Exception {
+      final int fanOutWindow = pagingStore.getPageFanOutWindow();
+      return page.iterator(skip, fanOutWindow > 0 && activeCursors.size() > 1 ? fanOutWindow : 0);
+   }
+
    @Override
    public void processReload() throws Exception {
       Collection<PageSubscription> cursorList = this.activeCursors.values();
@@ -19,6 +19,7 @@ package org.apache.activemq.artemis.core.paging.cursor.impl;
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -28,10 +29,9 @@ import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
-import io.netty.util.collection.IntObjectHashMap;
 import org.apache.activemq.artemis.api.core.ActiveMQException;
 import org.apache.activemq.artemis.api.core.Message;
 import org.apache.activemq.artemis.core.filter.Filter;
@@ -56,6 +56,7 @@ import org.apache.activemq.artemis.core.transaction.Transaction;
 import org.apache.activemq.artemis.core.transaction.TransactionOperationAbstract;
 import org.apache.activemq.artemis.core.transaction.TransactionPropertyIndexes;
 import org.apache.activemq.artemis.core.transaction.impl.TransactionImpl;
+import org.apache.activemq.artemis.utils.collections.IntBitmap;
 import org.apache.activemq.artemis.utils.collections.LinkedListIterator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -66,8 +67,6 @@ public final class PageSubscriptionImpl implements PageSubscription {
 
    private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
-   private static final Object DUMMY = new Object();
-
    private static final PagedReference RETRY_MARK = new PagedReferenceImpl(null, null);
 
    private boolean empty = true;
@@ -347,14 +346,12 @@ public final class PageSubscriptionImpl implements PageSubscription {
 
             if (infoPG.acks != null) {
                // it will delete the page ack records
-               for (PagePosition pos : infoPG.acks.values()) {
-                  if (pos.getRecordID() >= 0) {
-                     store.deleteCursorAcknowledgeTransactional(tx.getID(), pos.getRecordID());
-                     if (!persist) {
-                        // only need to set it once
-                        tx.setContainsPersistent();
-                        persist = true;
-                     }
+               for (long ackRecordID : infoPG.getAckRecordIDs()) {
+                  store.deleteCursorAcknowledgeTransactional(tx.getID(), ackRecordID);
+                  if (!persist) {
+                     // only need to set it once
+                     tx.setContainsPersistent();
+                     persist = true;
                   }
                }
                infoPG.clear();
@@ -553,14 +550,7 @@ public final class PageSubscriptionImpl implements PageSubscription {
          }
 
          try {
-            org.apache.activemq.artemis.utils.collections.LinkedList<PagedMessage> messages = page.getMessages();
-            PagedMessage retMessage;
-            if (pos.getMessageNr() < messages.size()) {
-               retMessage = messages.get(pos.getMessageNr());
-            } else {
-               retMessage = null;
-            }
-            return retMessage;
+            return page.getMessage(pos.getMessageNr());
          } finally {
             page.usageDown();
          }
@@ -651,13 +641,9 @@ public final class PageSubscriptionImpl implements PageSubscription {
 
          synchronized (consumedPages) {
             for (PageCursorInfo cursor : consumedPages.values()) {
-               if (cursor.acks != null) {
-                  for (PagePosition info : cursor.acks.values()) {
-                     if (info.getRecordID() >= 0) {
-                        isPersistent = true;
-                        store.deleteCursorAcknowledgeTransactional(tx, info.getRecordID());
-                     }
-                  }
+               for (long ackRecordID : cursor.getAckRecordIDs()) {
+                  isPersistent = true;
+                  store.deleteCursorAcknowledgeTransactional(tx, ackRecordID);
                }
                PagePosition completeInfo = cursor.getCompleteInfo();
                if (completeInfo != null && completeInfo.getRecordID() >= 0) {
@@ -751,15 +737,11 @@ public final class PageSubscriptionImpl implements PageSubscription {
          }
          info.setCompleteInfo(null);
       }
-      if (info.acks != null) {
-         for (PagePosition deleteInfo : info.acks.values()) {
-            if (deleteInfo.getRecordID() >= 0) {
-               try {
-                  store.deleteCursorAcknowledge(deleteInfo.getRecordID());
-               } catch (Exception e) {
-                  ActiveMQServerLogger.LOGGER.errorDeletingPageCompleteRecord(e);
-               }
-            }
+      for (long ackRecordID : info.getAckRecordIDs()) {
+         try {
+            store.deleteCursorAcknowledge(ackRecordID);
+         } catch (Exception e) {
+            ActiveMQServerLogger.LOGGER.errorDeletingPageCompleteRecord(e);
          }
       }
    }
@@ -904,10 +886,15 @@ public final class PageSubscriptionImpl implements PageSubscription {
 
       private final long pageId;
 
-      private IntObjectHashMap<PagePosition> acks = new IntObjectHashMap<>();
+      // the message numbers acked, a bit per message for pages acked mostly in order
+      private IntBitmap acks = new IntBitmap();
+
+      // the ids of the records persisting the acks, to delete them once the page is complete
+      private long[] ackRecordIDs;
+
+      private int ackRecordCount;
 
-      // This will take DUMMY elements. This is used like a HashSet of Int
-      private IntObjectHashMap<Object> removedReferences = new IntObjectHashMap<>();
+      private IntBitmap removedReferences = new IntBitmap();
 
       // There's a pending TX to add elements on this page
       // also can be used to prevent the page from being deleted too soon.
@@ -930,24 +917,31 @@ public final class PageSubscriptionImpl implements PageSubscription {
 
       @Override
       public synchronized boolean isAck(int messageNumber) {
-         return completePage != null || acks != null && acks.get(messageNumber) != null;
+         return completePage != null || acks != null && acks.contains(messageNumber);
       }
 
       @Override
-      public void forEachAck(BiConsumer<Integer, PagePosition> ackConsumer) {
+      public synchronized void forEachAck(IntConsumer ackConsumer) {
          if (acks != null) {
             acks.forEach(ackConsumer);
          }
       }
 
-      public IntObjectHashMap getAcks() {
+      public IntBitmap getAcks() {
          return acks;
       }
 
-      public IntObjectHashMap getRemovedReferences() {
+      public IntBitmap getRemovedReferences() {
          return removedReferences;
       }
 
+      /**
+       * {@return the ids of the records persisting the acks of the page}
+       */
+      public synchronized long[] getAckRecordIDs() {
+         return ackRecordIDs == null ? new long[0] : Arrays.copyOf(ackRecordIDs, ackRecordCount);
+      }
+
       public PagePosition getCompletePageInformation() {
          return completePage;
       }
@@ -987,9 +981,11 @@ public final class PageSubscriptionImpl implements PageSubscription {
          this.numberOfMessages = -1;
       }
 
-      public void clear() {
+      public synchronized void clear() {
          this.removedReferences = null;
          this.acks = null;
+         this.ackRecordIDs = null;
+         this.ackRecordCount = 0;
       }
 
       public void setCompleteInfo(final PagePosition completePage) {
@@ -1044,7 +1040,7 @@ public final class PageSubscriptionImpl implements PageSubscription {
 
       public synchronized boolean isRemoved(final int messageNr) {
          // removed references = null means everything is acked and done, so we just return true here
-         return completePage != null || removedReferences == null || removedReferences.get(messageNr) != null;
+         return completePage != null || removedReferences == null || removedReferences.contains(messageNr);
       }
 
       public synchronized void remove(final int messageNr) {
@@ -1052,7 +1048,7 @@ public final class PageSubscriptionImpl implements PageSubscription {
             logger.trace("PageCursor Removing messageNr {} on page {}", messageNr, pageId);
          }
          if (removedReferences != null) {
-            removedReferences.put(messageNr, DUMMY);
+            removedReferences.add(messageNr);
          }
       }
 
@@ -1088,13 +1084,20 @@ public final class PageSubscriptionImpl implements PageSubscription {
             logger.debug("internalAddACK on queue {} (id={}), position {}", queue.getName(), queue.getID(), position);
          }
          if (removedReferences != null) {
-            removedReferences.put(position.getMessageNr(), DUMMY);
+            removedReferences.add(position.getMessageNr());
          }
-         if (acks == null) {
+         if (acks == null || !acks.add(position.getMessageNr())) {
             return false;
-         } else {
-            return acks.put(position.getMessageNr(), position) == null;
          }
+         if (position.getRecordID() >= 0) {
+            if (ackRecordIDs == null) {
+               ackRecordIDs = new long[8];
+            } else if (ackRecordCount == ackRecordIDs.length) {
+               ackRecordIDs = Arrays.copyOf(ackRecordIDs, ackRecordCount * 2);
+            }
+            ackRecordIDs[ackRecordCount++] = position.getRecordID();
+         }
+         return true;
       }
 
       protected void checkDone() {
@@ -1205,17 +1208,26 @@ public final class PageSubscriptionImpl implements PageSubscription {
                }
                currentPageIterator.close();
             }
-            currentPage = pageStore.usePage(page);
+            currentPage = pageStore.usePageReadingAhead(page);
             if (logger.isTraceEnabled()) {
                logger.trace("CursorIterator: getting page {} which will contain {}", page, currentPage.getNumberOfMessages());
             }
-            currentPageIterator = currentPage.iterator();
+            currentPageIterator = cursorProvider.iterator(currentPage, messageNumber -> isConsumed(page, messageNumber));
          } catch (Exception e) {
             store.criticalError(e);
             throw new IllegalStateException(e.getMessage(), e);
          }
       }
 
+      /**
+       * Messages for which this returns {@code true} would be ignored by {@link #moveNext()} anyway, so the page
+       * doesn't need to decode them.
+       */
+      private boolean isConsumed(long page, int messageNumber) {
+         PageCursorInfo info = locatePageInfo(page);
+         return info != null && (info.isAck(messageNumber) || !browsing && info.isRemoved(messageNumber));
+      }
+
       private PagedReference currentDelivery = null;
 
       private volatile PagedReference lastDelivery = null;
@@ -1490,6 +1502,11 @@ public final class PageSubscriptionImpl implements PageSubscription {
             toClose.usageDown();
          }
          currentPage = null;
+         if (currentPageIterator != null) {
+            // releases the mapping of the page file
+            currentPageIterator.close();
+            currentPageIterator = null;
+         }
       }
    }
 
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.paging.impl;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+import java.util.function.IntSupplier;
+
+import org.apache.activemq.artemis.core.paging.DepageScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Broker wide limit on the number of paging stores depaging at the same time.
+ * <p>
+ * Each store schedules its depages on a {@link Lane}, which runs them one at a time on the executor of the store so
+ * they keep running alongside every other task of the store as they did before. At most {@code maxConcurrency} lanes
+ * have a depage running, and a lane waiting for its turn is picked with stride scheduling: every depage a lane runs
+ * moves its pass forward by the inverse of its weight and the waiting lane with the lowest pass goes next. A lane
+ * with twice the weight of another gets twice its turns while both are waiting, and a lane becoming ready again
+ * starts from the pass of the last lane picked so it can't claim the turns it did not use while it was idle.
+ */
+public final class DepageSchedulerImpl implements DepageScheduler {
+
+   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+   private static final long STRIDE = 1L << 20;
+
+   private final int maxConcurrency;
+
+   private final PriorityQueue<LaneImpl> ready = new PriorityQueue<>((a, b) -> {
+      final int pass = Long.compare(a.pass, b.pass);
+      return pass != 0 ? pass : Long.compare(a.readySequence, b.readySequence);
+   });
+
+   private int running;
+
+   private long virtualTime;
+
+   private long readySequence;
+
+   /**
+    * @param maxConcurrency the number of stores allowed to depage at the same time
+    */
+   public DepageSchedulerImpl(int maxConcurrency) {
+      if (maxConcurrency <= 0) {
+         throw new IllegalArgumentException("maxConcurrency must be > 0");
+      }
+      this.maxConcurrency = maxConcurrency;
+   }
+
+   @Override
+   public int getMaxConcurrency() {
+      return maxConcurrency;
+   }
+
+   @Override
+   public Lane newLane(Executor executor, IntSupplier weight) {
+      return new LaneImpl(executor, weight);
+   }
+
+   @Override
+   public synchronized int getRunning() {
+      return running;
+   }
+
+   private void dispatch() {
+      final List<LaneImpl> toRun;
+      synchronized (this) {
+         if (running >= maxConcurrency || ready.isEmpty()) {
+            return;
+         }
+         toRun = new ArrayList<>(Math.min(maxConcurrency - running, ready.size()));
+         while (running < maxConcurrency && !ready.isEmpty()) {
+            final LaneImpl lane = ready.poll();
+            virtualTime = lane.pass;
+            lane.pass += STRIDE / Math.max(1, lane.weight.getAsInt());
+            lane.running = true;
+            running++;
+            toRun.add(lane);
+         }
+      }
+      for (LaneImpl lane : toRun) {
+         lane.runNext();
+      }
+   }
+
+   private void finished(LaneImpl lane) {
+      synchronized (this) {
+         running--;
+         lane.running = false;
+         if (!lane.tasks.isEmpty()) {
+            makeReady(lane);
+         }
+      }
+      dispatch();
+   }
+
+   // called holding the lock on the scheduler
+   private void makeReady(LaneImpl lane) {
+      lane.pass = Math.max(lane.pass, virtualTime);
+      lane.readySequence = readySequence++;
+      ready.add(lane);
+   }
+
+   @Override
+   public synchronized String toString() {
+      return "DepageScheduler[maxConcurrency=" + maxConcurrency + ", running=" + running + ", ready=" + ready.size() + "]";
+   }
+
+   private final class LaneImpl implements Lane {
+
+      private final Executor executor;
+
+      private final IntSupplier weight;
+
+      private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+      private boolean running;
+
+      private long pass;
+
+      private long readySequence;
+
+      private LaneImpl(Executor executor, IntSupplier weight) {
+         this.executor = executor;
+         this.weight = weight;
+      }
+
+      @Override
+      public void schedule(Runnable depage) {
+         synchronized (DepageSchedulerImpl.this) {
+            tasks.add(depage);
+            if (!running && tasks.size() == 1) {
+               makeReady(this);
+            }
+         }
+         dispatch();
+      }
+
+      @Override
+      public int getPending() {
+         synchronized (DepageSchedulerImpl.this) {
+            return tasks.size();
+         }
+      }
+
+      private void runNext() {
+         final Runnable task;
+         synchronized (DepageSchedulerImpl.this) {
+            task = tasks.poll();
+         }
+         try {
+            executor.execute(() -> {
+               try {
+                  task.run();
+               } finally {
+                  finished(this);
+               }
+            });
+         } catch (Throwable e) {
+            // the executor of the store is not accepting tasks anymore
+            logger.debug("Unable to run a depage", e);
+            finished(this);
+         }
+      }
+   }
+}
@@ -22,6 +22,7 @@ import java.nio.channels.ClosedChannelException;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.IntPredicate;
 
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.io.IOCallback;
@@ -82,6 +83,8 @@ public final class Page {
 
    private volatile LinkedList<PagedMessage> messages;
 
+   private volatile PageReader reader;
+
    private volatile long size;
 
    private final StorageManager storageManager;
@@ -90,6 +93,8 @@ public final class Page {
 
    private ByteBuffer readFileBuffer;
 
+   private volatile SharedPageCacheImpl sharedCache;
+
    public Page(final SimpleString storeName,
                final StorageManager storageManager,
                final SequentialFileFactory factory,
@@ -107,8 +112,181 @@ public final class Page {
    }
 
    public LinkedListIterator<PagedMessage> iterator() throws Exception {
-      LinkedList<PagedMessage> messages = getMessages();
-      return messages.iterator();
+      return iterator(null);
+   }
+
+   /**
+    * Iterates the messages of the page, decoding them lazily if the page was loaded through a {@link PageReader}.
+    *
+    * @param skip message numbers the iterator may skip without decoding them, it may be {@code null}
+    */
+   public LinkedListIterator<PagedMessage> iterator(IntPredicate skip) throws Exception {
+      return iterator(skip, 0);
+   }
+
+   /**
+    * Iterates the messages of the page like {@link #iterator(IntPredicate)}, sharing the messages it decodes with the
+    * other iterators of the page created with a shared window (see {@link PageReader#iterator(IntPredicate, int)}).
+    * Messages read into memory as a whole are always shared.
+    *
+    * @param sharedWindow the number of decoded messages kept for the other iterators, {@code 0} not to share them
+    */
+   public LinkedListIterator<PagedMessage> iterator(IntPredicate skip, int sharedWindow) throws Exception {
+      while (true) {
+         PageReader reader = this.reader;
+         // the reader may be unmapped by the shared cache concurrently, in which case it is loaded again
+         if (reader != null && reader.retain()) {
+            try {
+               accessed();
+               return reader.iterator(skip, sharedWindow);
+            } finally {
+               reader.release();
+            }
+         }
+         LinkedList<PagedMessage> messages = this.messages;
+         if (messages != null) {
+            accessed();
+            return messages.iterator();
+         }
+         // the page may be unloaded by the shared cache right after being loaded, in which case it is loaded again
+         if (!load()) {
+            return EmptyList.<PagedMessage>getEmptyList().iterator();
+         }
+      }
+   }
+
+   /**
+    * {@return the message at {@code messageNumber}, or {@code null} if the page doesn't have it}
+    */
+   public PagedMessage getMessage(int messageNumber) throws Exception {
+      while (true) {
+         PageReader reader = this.reader;
+         if (reader != null && reader.retain()) {
+            try {
+               accessed();
+               return reader.getMessage(messageNumber);
+            } finally {
+               reader.release();
+            }
+         }
+         LinkedList<PagedMessage> messages = this.messages;
+         if (messages != null) {
+            accessed();
+            return messageNumber < messages.size() ? messages.get(messageNumber) : null;
+         }
+         if (!load()) {
+            return null;
+         }
+      }
+   }
+
+   /**
+    * Prepares a page that is no longer being written to be read. When its file can be memory mapped the page is only
+    * indexed and its messages decoded as they are read, otherwise all of them are read into memory.
+    * <p>
+    * Pages loaded this way are accounted on the {@link SharedPageCacheImpl} of the broker, which may unload them later.
+    *
+    * @return {@code false} if the page file doesn't exist
+    */
+   public boolean load() throws Exception {
+      final long loadedSize;
+      final boolean mapped;
+      synchronized (this) {
+         if (messages != null || reader != null) {
+            return true;
+         }
+         if (file.isOpen()) {
+            // the page is still being written, it can only be read as a whole and it is never accounted
+            messages = read(storageManager);
+            return true;
+         }
+         if (!file.exists()) {
+            return false;
+         }
+         file.open();
+         try {
+            PageReader reader = PageReader.index(storeName, storageManager, file, pageId, this::markFileAsSuspect);
+            if (reader != null) {
+               numberOfMessages = reader.getNumberOfMessages();
+               size = reader.getValidSize();
+               this.reader = reader;
+               loadedSize = size;
+            } else {
+               messages = read(storageManager);
+               loadedSize = getMemoryEstimate(messages);
+            }
+            mapped = reader != null;
+         } finally {
+            file.close();
+         }
+      }
+      // never holding the page lock while calling the cache, as it may unload other pages
+      SharedPageCacheImpl sharedCache = this.sharedCache;
+      if (sharedCache != null) {
+         sharedCache.pageLoaded(this, loadedSize, mapped);
+      }
+      return true;
+   }
+
+   private static long getMemoryEstimate(LinkedList<PagedMessage> messages) {
+      long memoryEstimate = 0;
+      try (LinkedListIterator<PagedMessage> iterator = messages.iterator()) {
+         while (iterator.hasNext()) {
+            memoryEstimate += iterator.next().getMessage().getMemoryEstimate();
+         }
+      }
+      return memoryEstimate;
+   }
+
+   /**
+    * Releases the messages loaded by {@link #load()}, they will be read again from the file if the page is accessed
+    * afterwards.
+    */
+   public void unload() {
+      unloadEvicted();
+      SharedPageCacheImpl sharedCache = this.sharedCache;
+      if (sharedCache != null) {
+         sharedCache.pageReleased(this);
+      }
+   }
+
+   /**
+    * Used by the {@link SharedPageCacheImpl} to release the messages of a page it has already stopped accounting for.
+    */
+   synchronized void unloadEvicted() {
+      if (file.isOpen()) {
+         // the page is being written, its messages are only kept in memory
+         return;
+      }
+      messages = null;
+      releaseReader();
+   }
+
+   // unmapping the file once the open iterators are closed, it must be before the file is deleted
+   private synchronized void releaseReader() {
+      PageReader reader = this.reader;
+      if (reader != null) {
+         this.reader = null;
+         reader.release();
+      }
+   }
+
+   /**
+    * {@return whether the messages of the page can be read without reading its file}
+    */
+   public boolean isLoaded() {
+      return messages != null || reader != null;
+   }
+
+   public void setSharedCache(SharedPageCacheImpl sharedCache) {
+      this.sharedCache = sharedCache;
+   }
+
+   private void accessed() {
+      SharedPageCacheImpl sharedCache = this.sharedCache;
+      if (sharedCache != null) {
+         sharedCache.pageAccessed(this);
+      }
    }
 
    public synchronized LinkedList<PagedMessage> getMessages() throws Exception {
@@ -283,6 +461,8 @@ public final class Page {
          @Override
          public void done() {
             try {
+               // the mapped file is released before being deleted
+               unload();
                if (suspiciousRecords) {
                   ActiveMQServerLogger.LOGGER.pageInvalid(file.getFileName(), file.getFileName());
                   file.renameTo(file.getFileName() + ".invalidPage");
@@ -342,10 +522,22 @@ public final class Page {
       return size;
    }
 
+   /**
+    * {@return {@code true} if reading the page stopped on an invalid or incomplete message rather than on the end of
+    * the file or its zeroed tail}
+    */
+   public boolean isSuspect() {
+      return suspiciousRecords;
+   }
+
    private void setSize(long size) {
       this.size = size;
    }
 
+   int getSeqCreation() {
+      return seqInt;
+   }
+
    @Override
    public String toString() {
       return "Page::seqCreation=" + seqInt + ", pageNr=" + this.pageId + ", file=" + this.file;
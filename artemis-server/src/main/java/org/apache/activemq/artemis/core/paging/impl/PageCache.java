@@ -66,9 +66,11 @@ public class PageCache {
             logger.debug("--- Releasing page {} on UsedPages for destination {}", page.getPageId(), owner.getAddress());
          }
       }
+      page.unload();
    }
 
    public synchronized void clear() {
+      usedPages.values().forEach(Page::unload);
       usedPages.clear();
    }
 
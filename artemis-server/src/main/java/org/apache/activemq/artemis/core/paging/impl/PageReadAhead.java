@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.paging.impl;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.LongFunction;
+
+import io.netty.util.collection.LongObjectHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads the pages of a paging store ahead of the cursors reading them.
+ * <p>
+ * Each page read ahead is used (see {@link Page#usageUp()}) until a cursor moves to it or it is removed, so it stays
+ * among the used pages of the store where every subscription finds it. The pages are loaded one at a time on the
+ * executor given to the constructor, never on the thread of the cursor, and no page is read ahead while the pages
+ * already read ahead hold more than the maximum number of bytes.
+ */
+final class PageReadAhead {
+
+   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+   private final Executor executor;
+
+   // returns the page used for reading ahead, or null if it can't be read ahead
+   private final LongFunction<Page> usePage;
+
+   // the pages read ahead, mapped to null while they are being loaded
+   private final LongObjectHashMap<Page> pages = new LongObjectHashMap<>();
+
+   private long size;
+
+   PageReadAhead(Executor executor, LongFunction<Page> usePage) {
+      this.executor = executor;
+      this.usePage = usePage;
+   }
+
+   /**
+    * Reads the pages from {@code firstPage} to {@code lastPage} ahead, unless they already are.
+    *
+    * @param maxSize the number of bytes the pages read ahead can hold before no more is read ahead, {@code -1} meaning
+    *                unbounded
+    */
+   void readAhead(long firstPage, long lastPage, long maxSize) {
+      for (long pageId = firstPage; pageId <= lastPage; pageId++) {
+         synchronized (this) {
+            if (maxSize >= 0 && size >= maxSize) {
+               return;
+            }
+            if (pages.containsKey(pageId)) {
+               continue;
+            }
+            pages.put(pageId, null);
+         }
+         final long toLoad = pageId;
+         executor.execute(() -> load(toLoad));
+      }
+   }
+
+   private void load(long pageId) {
+      Page page = null;
+      try {
+         page = usePage.apply(pageId);
+         if (page != null) {
+            page.load();
+         }
+      } catch (Throwable e) {
+         logger.debug("Unable to read page {} ahead", pageId, e);
+      }
+      final boolean keep;
+      synchronized (this) {
+         // it may have been released while it was loaded
+         keep = page != null && pages.containsKey(pageId);
+         if (keep) {
+            pages.put(pageId, page);
+            size += page.getSize();
+         } else {
+            pages.remove(pageId);
+         }
+      }
+      if (!keep && page != null) {
+         page.usageDown();
+      }
+   }
+
+   /**
+    * Stops reading {@code pageId} ahead, to be called once a cursor uses it or when it is removed.
+    */
+   void release(long pageId) {
+      final Page page;
+      synchronized (this) {
+         if (!pages.containsKey(pageId)) {
+            return;
+         }
+         page = pages.remove(pageId);
+         if (page != null) {
+            size -= page.getSize();
+         }
+      }
+      if (page != null) {
+         page.usageDown();
+      }
+   }
+
+   void clear() {
+      final List<Page> released;
+      synchronized (this) {
+         released = new ArrayList<>(pages.size());
+         for (Page page : pages.values()) {
+            if (page != null) {
+               released.add(page);
+            }
+         }
+         pages.clear();
+         size = 0;
+      }
+      released.forEach(Page::usageDown);
+   }
+
+   synchronized long getSize() {
+      return size;
+   }
+
+   synchronized int getPages() {
+      return pages.size();
+   }
+}
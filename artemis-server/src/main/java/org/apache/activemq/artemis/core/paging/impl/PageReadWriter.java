@@ -26,6 +26,8 @@ import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.buffers.impl.ChannelBufferWrapper;
 import org.apache.activemq.artemis.core.io.SequentialFile;
 import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.io.mapped.MappedSequentialFileFactory;
+import org.apache.activemq.artemis.core.journal.EncodingSupport;
 import org.apache.activemq.artemis.core.paging.PagedMessage;
 import org.apache.activemq.artemis.core.persistence.OperationContext;
 import org.apache.activemq.artemis.core.persistence.StorageManager;
@@ -44,12 +46,12 @@ public class PageReadWriter {
 
    public static final int SIZE_RECORD = DataConstants.SIZE_BYTE + DataConstants.SIZE_INT + DataConstants.SIZE_BYTE;
 
-   private static final byte START_BYTE = (byte) '{';
+   static final byte START_BYTE = (byte) '{';
 
-   private static final byte END_BYTE = (byte) '}';
+   static final byte END_BYTE = (byte) '}';
 
    //sizeOf(START_BYTE) + sizeOf(MESSAGE LENGTH) + sizeOf(END_BYTE)
-   private static final int HEADER_AND_TRAILER_SIZE = DataConstants.SIZE_INT + 2;
+   static final int HEADER_AND_TRAILER_SIZE = DataConstants.SIZE_INT + 2;
    private static final int MINIMUM_MSG_PERSISTENT_SIZE = HEADER_AND_TRAILER_SIZE;
    private static final int MIN_CHUNK_SIZE = Env.osPageSize();
 
@@ -74,6 +76,11 @@ public class PageReadWriter {
    public static int writeMessage(PagedMessage message, SequentialFileFactory fileFactory, SequentialFile file) throws Exception {
       final int messageEncodedSize = message.getEncodeSize();
       final int bufferSize = messageEncodedSize + SIZE_RECORD;
+      if (fileFactory instanceof MappedSequentialFileFactory) {
+         // the record is encoded straight into the mapping of the file
+         file.write(new PageRecord(message, messageEncodedSize), false);
+         return bufferSize;
+      }
       final ByteBuffer buffer = fileFactory.newBuffer(bufferSize);
       ChannelBufferWrapper activeMQBuffer = new ChannelBufferWrapper(Unpooled.wrappedBuffer(buffer));
       activeMQBuffer.clear();
@@ -98,6 +105,64 @@ public class PageReadWriter {
 
 
 
+   private record PageRecord(PagedMessage message, int messageEncodedSize) implements EncodingSupport {
+
+      @Override
+      public int getEncodeSize() {
+         return messageEncodedSize + SIZE_RECORD;
+      }
+
+      @Override
+      public void encode(ActiveMQBuffer buffer) {
+         buffer.writeByte(START_BYTE);
+         buffer.writeInt(messageEncodedSize);
+         message.encode(buffer);
+         buffer.writeByte(END_BYTE);
+      }
+
+      @Override
+      public void decode(ActiveMQBuffer buffer) {
+         throw new UnsupportedOperationException();
+      }
+   }
+
+   /**
+    * {@return {@code true} if the bytes of {@code buffer} from {@code position} to {@code limit} are all zeros}, as
+    * when they are the unwritten tail of a page file allocated ahead of its writes, e.g. by memory mapping it
+    */
+   static boolean isPadding(ByteBuffer buffer, int position, int limit) {
+      for (int i = position; i < limit; i++) {
+         if (buffer.get(i) != 0) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * Same as {@link #isPadding(ByteBuffer, int, int)} for the remaining bytes of {@code fileBuffer} followed by the
+    * ones of {@code file} up to {@code remainingBytes} bytes, reading them with {@code fileBuffer}.
+    */
+   private static boolean isPadding(SequentialFile file, ByteBuffer fileBuffer, int remainingBytes) throws Exception {
+      while (remainingBytes > 0) {
+         if (!fileBuffer.hasRemaining()) {
+            fileBuffer.clear();
+            file.read(fileBuffer);
+            fileBuffer.position(0);
+            if (!fileBuffer.hasRemaining()) {
+               return false;
+            }
+         }
+         final int checked = Math.min(remainingBytes, fileBuffer.remaining());
+         if (!isPadding(fileBuffer, fileBuffer.position(), fileBuffer.position() + checked)) {
+            return false;
+         }
+         fileBuffer.position(fileBuffer.position() + checked);
+         remainingBytes -= checked;
+      }
+      return true;
+   }
+
    private static ChannelBufferWrapper wrapWhole(ByteBuffer fileBuffer) {
       final int position = fileBuffer.position();
       final int limit = fileBuffer.limit();
@@ -223,7 +288,7 @@ public class PageReadWriter {
                   }
                } else {
 
-                  if (suspectFileCallback != null) {
+                  if (suspectFileCallback != null && (startByte != 0 || !isPadding(file, fileBuffer, remainingBytes - 1))) {
                      suspectFileCallback.onSuspect(file.getFileName(), processedBytes, totalMessageCount + 1);
                   }
 
@@ -0,0 +1,363 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.paging.impl;
+
+import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntPredicate;
+
+import io.netty.buffer.Unpooled;
+import io.netty.util.internal.PlatformDependent;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.buffers.impl.ChannelBufferWrapper;
+import org.apache.activemq.artemis.core.io.SequentialFile;
+import org.apache.activemq.artemis.core.paging.PagedMessage;
+import org.apache.activemq.artemis.core.persistence.StorageManager;
+import org.apache.activemq.artemis.utils.DataConstants;
+import org.apache.activemq.artemis.utils.collections.LinkedListIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the messages of a page file lazily, from a read-only memory mapping of the file.
+ * <p>
+ * The file is scanned once when the reader is created, without decoding any message, keeping the position of one
+ * record out of every {@link #INDEX_INTERVAL}. Messages are decoded only as they are iterated or queried, so the heap
+ * used by a page being depaged depends on the messages in flight rather than on the size of the page file.
+ * <p>
+ * Only page files that are no longer written can be read this way, which is also what makes it safe to share a reader
+ * between any number of iterators. Iterators created with a shared window also share the messages they decode, so the
+ * subscriptions of an address reading a page close to each other decode each of its messages once.
+ * <p>
+ * The mapping is unmapped once the reader is released by its page and by each of its iterators, rather than when it is
+ * garbage collected, so that the page file can be deleted right away.
+ */
+public final class PageReader {
+
+   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+   public static final int INDEX_INTERVAL = 32;
+
+   private static final int HEADER_SIZE = DataConstants.SIZE_BYTE + DataConstants.SIZE_INT;
+
+   private final SimpleString storeName;
+
+   private final StorageManager storageManager;
+
+   private final long pageId;
+
+   private final ByteBuffer mappedFile;
+
+   private final int[] index;
+
+   private final int numberOfMessages;
+
+   private final int validSize;
+
+   // one for the page holding the reader and one for each open iterator
+   private final AtomicInteger references = new AtomicInteger(1);
+
+   // the messages decoded by the iterators sharing them, each at its message number modulo the length of the window
+   private volatile AtomicReferenceArray<PagedMessage> sharedWindow;
+
+   private PageReader(final SimpleString storeName,
+                      final StorageManager storageManager,
+                      final long pageId,
+                      final ByteBuffer mappedFile,
+                      final int[] index,
+                      final int numberOfMessages,
+                      final int validSize) {
+      this.storeName = storeName;
+      this.storageManager = storageManager;
+      this.pageId = pageId;
+      this.mappedFile = mappedFile;
+      this.index = index;
+      this.numberOfMessages = numberOfMessages;
+      this.validSize = validSize;
+   }
+
+   /**
+    * Maps and indexes an open page file.
+    *
+    * @return the reader for the file, or {@code null} if the file cannot be memory mapped
+    */
+   public static PageReader index(final SimpleString storeName,
+                                  final StorageManager storageManager,
+                                  final SequentialFile file,
+                                  final long pageId,
+                                  final PageReadWriter.SuspectFileCallback suspectFileCallback) throws Exception {
+      final long fileSize = file.size();
+      if (fileSize > Integer.MAX_VALUE) {
+         return null;
+      }
+      final ByteBuffer mappedFile = file.map(0, fileSize);
+      if (mappedFile == null) {
+         return null;
+      }
+
+      int[] index = new int[16];
+      int numberOfMessages = 0;
+      int position = 0;
+
+      while (fileSize - position >= PageReadWriter.HEADER_AND_TRAILER_SIZE) {
+         final long nextPosition = mappedFile.get(position) == PageReadWriter.START_BYTE ? position + PageReadWriter.HEADER_AND_TRAILER_SIZE + (long) mappedFile.getInt(position + DataConstants.SIZE_BYTE) : -1;
+
+         if (nextPosition <= position || nextPosition > fileSize || mappedFile.get((int) nextPosition - 1) != PageReadWriter.END_BYTE) {
+            if (suspectFileCallback != null && !PageReadWriter.isPadding(mappedFile, position, (int) fileSize)) {
+               suspectFileCallback.onSuspect(file.getFileName(), position, numberOfMessages + 1);
+            }
+            break;
+         }
+
+         if (numberOfMessages % INDEX_INTERVAL == 0) {
+            final int slot = numberOfMessages / INDEX_INTERVAL;
+            if (slot == index.length) {
+               index = Arrays.copyOf(index, slot * 2);
+            }
+            index[slot] = position;
+         }
+         numberOfMessages++;
+         position = (int) nextPosition;
+      }
+
+      if (logger.isTraceEnabled()) {
+         logger.trace("indexed {} messages on pageId={} for address={}, ignoring {} bytes at position {}", numberOfMessages, pageId, storeName, fileSize - position, position);
+      }
+
+      return new PageReader(storeName, storageManager, pageId, mappedFile, Arrays.copyOf(index, (numberOfMessages + INDEX_INTERVAL - 1) / INDEX_INTERVAL), numberOfMessages, position);
+   }
+
+   /**
+    * Takes a reference on the mapping, to be released by {@link #release()}.
+    *
+    * @return {@code false} if the mapping was already unmapped
+    */
+   public boolean retain() {
+      while (true) {
+         final int count = references.get();
+         if (count <= 0) {
+            return false;
+         }
+         if (references.compareAndSet(count, count + 1)) {
+            return true;
+         }
+      }
+   }
+
+   /**
+    * Releases a reference on the mapping, unmapping it when it was the last one.
+    */
+   public void release() {
+      if (references.decrementAndGet() == 0) {
+         logger.trace("unmapping pageId={} for address={}", pageId, storeName);
+         PlatformDependent.freeDirectBuffer(mappedFile);
+      }
+   }
+
+   public int getNumberOfMessages() {
+      return numberOfMessages;
+   }
+
+   /**
+    * {@return the number of bytes of the file holding complete records}
+    */
+   public int getValidSize() {
+      return validSize;
+   }
+
+   /**
+    * {@return the decoded message at {@code messageNumber}, or {@code null} if the page doesn't have it}; the caller
+    * must hold a reference on the reader
+    */
+   public PagedMessage getMessage(final int messageNumber) {
+      if (messageNumber < 0 || messageNumber >= numberOfMessages) {
+         return null;
+      }
+      int position = index[messageNumber / INDEX_INTERVAL];
+      for (int i = messageNumber % INDEX_INTERVAL; i > 0; i--) {
+         position = nextRecord(position);
+      }
+      return decode(newWrapper(), position, messageNumber);
+   }
+
+   /**
+    * Iterates the messages of the page in order. The iterator holds a reference on the reader until it is closed, the
+    * caller must hold one while creating it.
+    *
+    * @param skip message numbers for which it returns {@code true} are skipped without being decoded, it may be
+    *             {@code null}
+    */
+   public LinkedListIterator<PagedMessage> iterator(final IntPredicate skip) {
+      return new PageReaderIterator(skip, null);
+   }
+
+   /**
+    * Iterates the messages of the page in order, sharing the messages decoded with the other iterators of the page
+    * created with a shared window: a message decoded by an iterator is handed to the others reading it while it is one
+    * of the last {@code sharedWindow} messages decoded.
+    *
+    * @param skip         message numbers for which it returns {@code true} are skipped without being decoded, it may be
+    *                     {@code null}
+    * @param sharedWindow the number of decoded messages kept for the other iterators, {@code 0} not to share them
+    */
+   public LinkedListIterator<PagedMessage> iterator(final IntPredicate skip, final int sharedWindow) {
+      return new PageReaderIterator(skip, sharedWindow > 0 ? getSharedWindow(sharedWindow) : null);
+   }
+
+   private AtomicReferenceArray<PagedMessage> getSharedWindow(final int length) {
+      final int windowLength = Math.max(1, Math.min(length, numberOfMessages));
+      AtomicReferenceArray<PagedMessage> window = this.sharedWindow;
+      if (window == null || window.length() < windowLength) {
+         synchronized (this) {
+            window = this.sharedWindow;
+            if (window == null || window.length() < windowLength) {
+               // iterators already created keep sharing the previous window among themselves
+               window = new AtomicReferenceArray<>(windowLength);
+               this.sharedWindow = window;
+            }
+         }
+      }
+      return window;
+   }
+
+   private int nextRecord(final int position) {
+      return position + PageReadWriter.HEADER_AND_TRAILER_SIZE + mappedFile.getInt(position + DataConstants.SIZE_BYTE);
+   }
+
+   private ChannelBufferWrapper newWrapper() {
+      // the mapped buffer is only read with absolute indexes, so its position is always 0
+      return new ChannelBufferWrapper(Unpooled.wrappedBuffer(mappedFile.duplicate()));
+   }
+
+   private PagedMessage decode(final ChannelBufferWrapper wrapper, final int position, final int messageNumber) {
+      final int encodedSize = mappedFile.getInt(position + DataConstants.SIZE_BYTE);
+      final int start = position + HEADER_SIZE;
+      wrapper.setIndex(start, start + encodedSize);
+
+      // the message copies its data out of the mapping, as it may be used long after the mapping is released
+      final PagedMessageImpl msg = new PagedMessageImpl(encodedSize, storageManager);
+      msg.decode(wrapper);
+      msg.initMessage(storageManager);
+      msg.setPageNumber(pageId).setMessageNumber(messageNumber);
+
+      if (logger.isTraceEnabled()) {
+         logger.trace("Reading message {} on pageId={} for address={}", msg, pageId, storeName);
+      }
+      return msg;
+   }
+
+   @Override
+   public String toString() {
+      return "PageReader[pageId=" + pageId + ", numberOfMessages=" + numberOfMessages + ", validSize=" + validSize + "]";
+   }
+
+   private final class PageReaderIterator implements LinkedListIterator<PagedMessage> {
+
+      private final IntPredicate skip;
+
+      private final AtomicReferenceArray<PagedMessage> sharedWindow;
+
+      private final ChannelBufferWrapper wrapper = newWrapper();
+
+      private int messageNumber;
+
+      private int position;
+
+      private PagedMessage last;
+
+      private boolean repeat;
+
+      private boolean closed;
+
+      private PageReaderIterator(final IntPredicate skip, final AtomicReferenceArray<PagedMessage> sharedWindow) {
+         if (!retain()) {
+            throw new IllegalStateException("Page " + pageId + " of " + storeName + " is no longer mapped");
+         }
+         this.skip = skip;
+         this.sharedWindow = sharedWindow;
+      }
+
+      @Override
+      public boolean hasNext() {
+         if (repeat) {
+            return true;
+         }
+         if (skip != null) {
+            while (messageNumber < numberOfMessages && skip.test(messageNumber)) {
+               position = nextRecord(position);
+               messageNumber++;
+            }
+         }
+         return messageNumber < numberOfMessages;
+      }
+
+      @Override
+      public PagedMessage next() {
+         if (repeat) {
+            repeat = false;
+            return last;
+         }
+         if (!hasNext()) {
+            throw new NoSuchElementException();
+         }
+         last = sharedWindow == null ? decode(wrapper, position, messageNumber) : decodeShared();
+         position = nextRecord(position);
+         messageNumber++;
+         return last;
+      }
+
+      private PagedMessage decodeShared() {
+         final int slot = messageNumber % sharedWindow.length();
+         PagedMessage msg = sharedWindow.get(slot);
+         if (msg == null || msg.getMessageNumber() != messageNumber) {
+            // two iterators racing on the same message may both decode it, only one of the copies is kept
+            msg = decode(wrapper, position, messageNumber);
+            sharedWindow.set(slot, msg);
+         }
+         return msg;
+      }
+
+      @Override
+      public void repeat() {
+         if (last != null) {
+            repeat = true;
+         }
+      }
+
+      @Override
+      public PagedMessage removeLastElement() {
+         throw new UnsupportedOperationException("page files are read only");
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException("page files are read only");
+      }
+
+      @Override
+      public void close() {
+         if (!closed) {
+            closed = true;
+            release();
+         }
+      }
+   }
+}
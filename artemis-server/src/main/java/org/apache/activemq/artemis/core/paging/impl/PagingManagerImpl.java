@@ -37,6 +37,7 @@ import java.util.function.BiConsumer;
 
 import io.netty.util.collection.LongObjectHashMap;
 import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.paging.DepageScheduler;
 import org.apache.activemq.artemis.core.paging.PageTransactionInfo;
 import org.apache.activemq.artemis.core.paging.PagingManager;
 import org.apache.activemq.artemis.core.paging.PagingStore;
@@ -101,6 +102,14 @@ public final class PagingManagerImpl implements PagingManager {
 
    private long maxMessages;
 
+   private final SharedPageCacheImpl sharedPageCache;
+
+   private final DepageScheduler depageScheduler;
+
+   private final AtomicLong pageReadAheadHits = new AtomicLong();
+
+   private final AtomicLong pageReadAheadMisses = new AtomicLong();
+
    private volatile boolean cleanupEnabled = true;
 
    private volatile boolean diskFull = false;
@@ -135,6 +144,30 @@ public final class PagingManagerImpl implements PagingManager {
                             final long maxMessages,
                             final SimpleString managementAddress,
                             final ActiveMQServer server) {
+      this(pagingSPI, addressSettingsRepository, maxSize, maxMessages, -1, managementAddress, server);
+   }
+
+   public PagingManagerImpl(final PagingStoreFactory pagingSPI,
+                            final HierarchicalRepository<AddressSettings> addressSettingsRepository,
+                            final long maxSize,
+                            final long maxMessages,
+                            final long pageCacheMaxSize,
+                            final SimpleString managementAddress,
+                            final ActiveMQServer server) {
+      this(pagingSPI, addressSettingsRepository, maxSize, maxMessages, pageCacheMaxSize, -1, managementAddress, server);
+   }
+
+   /**
+    * @param maxConcurrentDepage the number of stores allowed to depage at the same time, {@code -1} meaning unbounded
+    */
+   public PagingManagerImpl(final PagingStoreFactory pagingSPI,
+                            final HierarchicalRepository<AddressSettings> addressSettingsRepository,
+                            final long maxSize,
+                            final long maxMessages,
+                            final long pageCacheMaxSize,
+                            final int maxConcurrentDepage,
+                            final SimpleString managementAddress,
+                            final ActiveMQServer server) {
       pagingStoreFactory = pagingSPI;
       this.addressSettingsRepository = addressSettingsRepository;
       addressSettingsRepository.registerListener(this);
@@ -143,6 +176,8 @@ public final class PagingManagerImpl implements PagingManager {
       this.globalSizeMetric = new SizeAwareMetric(maxSize, maxSize, maxMessages, maxMessages);
       globalSizeMetric.setOverCallback(() -> setGlobalFull(true));
       globalSizeMetric.setUnderCallback(() -> setGlobalFull(false));
+      this.sharedPageCache = new SharedPageCacheImpl(pageCacheMaxSize);
+      this.depageScheduler = maxConcurrentDepage > 0 ? new DepageSchedulerImpl(maxConcurrentDepage) : null;
       this.managerExecutor = pagingSPI.newExecutor();
       this.managementAddress = managementAddress;
       this.server = server;
@@ -171,6 +206,35 @@ public final class PagingManagerImpl implements PagingManager {
       return maxMessages;
    }
 
+   @Override
+   public SharedPageCacheImpl getSharedPageCache() {
+      return sharedPageCache;
+   }
+
+   @Override
+   public DepageScheduler getDepageScheduler() {
+      return depageScheduler;
+   }
+
+   @Override
+   public void pageReadAhead(boolean hit) {
+      if (hit) {
+         pageReadAheadHits.incrementAndGet();
+      } else {
+         pageReadAheadMisses.incrementAndGet();
+      }
+   }
+
+   @Override
+   public long getPageReadAheadHits() {
+      return pageReadAheadHits.get();
+   }
+
+   @Override
+   public long getPageReadAheadMisses() {
+      return pageReadAheadMisses.get();
+   }
+
    public PagingManagerImpl(final PagingStoreFactory pagingSPI,
                             final HierarchicalRepository<AddressSettings> addressSettingsRepository) {
       this(pagingSPI, addressSettingsRepository, -1, -1, null, null);
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.paging.impl;
+
+import java.io.File;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+
+import org.apache.activemq.artemis.core.io.IOCriticalErrorListener;
+import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.io.mapped.MappedSequentialFileFactory;
+import org.apache.activemq.artemis.core.persistence.StorageManager;
+import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
+import org.apache.activemq.artemis.utils.ExecutorFactory;
+
+/**
+ * Integration point between Paging and memory mapped files.
+ * <p>
+ * Each page file is mapped with the page size of its address as capacity when it is created: messages are encoded
+ * straight into the mapping, which is forced to disk when the page is synced, and pages are read from a mapping of
+ * their file. The unwritten tail of a page file is left zeroed and is ignored when the page is read.
+ */
+public class PagingStoreFactoryMapped extends PagingStoreFactoryNIO {
+
+   public PagingStoreFactoryMapped(final StorageManager storageManager,
+                                   final File directory,
+                                   final long syncTimeout,
+                                   final ScheduledExecutorService scheduledExecutor,
+                                   final ExecutorFactory executorFactory,
+                                   final boolean syncNonTransactional,
+                                   final IOCriticalErrorListener critialErrorListener,
+                                   final Supplier<Boolean> purgePageFolders) {
+      super(storageManager, directory, syncTimeout, scheduledExecutor, executorFactory, syncNonTransactional, critialErrorListener, purgePageFolders);
+   }
+
+   @Override
+   public boolean isPageFilePreallocated() {
+      return true;
+   }
+
+   @Override
+   protected SequentialFileFactory newFileFactory(final String directoryName) {
+      return new MappedSequentialFileFactory(new File(getDirectory(), directoryName), AddressSettings.DEFAULT_PAGE_SIZE, false, 0, 0, getCritialErrorListener());
+   }
+}
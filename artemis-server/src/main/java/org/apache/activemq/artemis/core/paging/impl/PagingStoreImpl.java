@@ -27,6 +27,7 @@ import java.util.Objects;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -37,6 +38,7 @@ import org.apache.activemq.artemis.api.core.Message;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.io.SequentialFile;
 import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.paging.DepageScheduler;
 import org.apache.activemq.artemis.core.paging.PageTransactionInfo;
 import org.apache.activemq.artemis.core.paging.PagedMessage;
 import org.apache.activemq.artemis.core.paging.PagingManager;
@@ -91,6 +93,9 @@ public class PagingStoreImpl implements PagingStore {
    // This is updated and read by the Page's executor thread
    private long currentPageSize = 0;
 
+   // The bytes the current page file can hold, only bounded when the page files are preallocated
+   private long currentPageCapacity = Long.MAX_VALUE;
+
    private final SimpleString storeName;
 
    // The FileFactory is created lazily as soon as the first write is attempted
@@ -109,6 +114,13 @@ public class PagingStoreImpl implements PagingStore {
 
    private int prefetchPageBytes = -1;
 
+   private volatile int pageReadAhead;
+
+   private volatile int pageFanOutWindow;
+
+   // created the first time pages are read ahead
+   private volatile PageReadAhead readAhead;
+
    private int prefetchPageMessages = -1;
 
    private long maxMessages;
@@ -178,6 +190,14 @@ public class PagingStoreImpl implements PagingStore {
 
    private final ScheduledExecutorService scheduledExecutorService;
 
+   private volatile int pagePriority;
+
+   // null when there is no depage scheduler
+   private final DepageScheduler.Lane depageLane;
+
+   // the time each depage waiting to run was scheduled
+   private final Queue<Long> pendingDepages = new ConcurrentLinkedQueue<>();
+
    public PagingStoreImpl(final SimpleString address,
                           final ScheduledExecutorService scheduledExecutor,
                           final long syncTimeout,
@@ -242,6 +262,9 @@ public class PagingStoreImpl implements PagingStore {
       this.usingGlobalMaxSize = pagingManager.isUsingGlobalSize();
 
       this.scheduledExecutorService = scheduledExecutor;
+
+      final DepageScheduler depageScheduler = pagingManager.getDepageScheduler();
+      this.depageLane = depageScheduler == null ? null : depageScheduler.newLane(executor, () -> pagePriority);
    }
 
    // This is an extension point for unit tests to replace the creation of the PagedTimeWriter
@@ -289,8 +312,14 @@ public class PagingStoreImpl implements PagingStore {
 
       prefetchPageBytes = addressSettings.getPrefetchPageBytes();
 
+      pageReadAhead = addressSettings.getPageReadAhead();
+
+      pageFanOutWindow = addressSettings.getPageFanOutWindow();
+
       maxMessages = addressSettings.getMaxSizeMessages();
 
+      pagePriority = addressSettings.getPagePriority();
+
       configureSizeMetric();
 
       // JDBC has a maximum page size of 100K by default.
@@ -560,6 +589,11 @@ public class PagingStoreImpl implements PagingStore {
       return prefetchPageBytes;
    }
 
+   @Override
+   public int getPageFanOutWindow() {
+      return pageFanOutWindow;
+   }
+
    @Override
    public int getMaxPageReadMessages() {
       return maxPageReadMessages;
@@ -683,6 +717,8 @@ public class PagingStoreImpl implements PagingStore {
          }
       }
 
+      clearReadAhead();
+
       final List<Runnable> pendingTasks = new ArrayList<>();
 
       final Page page = currentPage;
@@ -702,6 +738,27 @@ public class PagingStoreImpl implements PagingStore {
       executor.execute(run);
    }
 
+   @Override
+   public void executeDepage(Runnable depage) {
+      final Long scheduled = System.nanoTime();
+      pendingDepages.add(scheduled);
+      final Runnable task = () -> {
+         pendingDepages.remove(scheduled);
+         depage.run();
+      };
+      if (depageLane != null) {
+         depageLane.schedule(task);
+      } else {
+         executor.execute(task);
+      }
+   }
+
+   @Override
+   public long getDepageLag() {
+      final Long oldest = pendingDepages.peek();
+      return oldest == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest);
+   }
+
    @Override
    public void flushExecutors() {
       FutureLatch future = new FutureLatch();
@@ -797,18 +854,29 @@ public class PagingStoreImpl implements PagingStore {
       Page page = newPageObject(pageId);
       page.open(true);
 
-      currentPageSize = page.getSize();
+      final long fileSize = page.getFile().size();
+
+      if (storeFactory.isPageFilePreallocated()) {
+         // a preallocated page file that isn't empty has no room left past its end
+         currentPageCapacity = fileSize == 0 ? pageSize : fileSize;
+      } else {
+         currentPageCapacity = Long.MAX_VALUE;
+      }
 
       page.getMessages();
 
+      // the size of the page is now the end of its last valid message
+      currentPageSize = page.getSize();
+
       resetCurrentPage(page);
 
       /*
        * The page file might be incomplete in the cases: 1) last message incomplete 2) disk damaged. In case 1 we can
        * keep writing the file. But in case 2 we'd better not bcs old data might be overwritten. Here we open a new page
-       * so the incomplete page would be reserved for recovery if needed.
+       * so the incomplete page would be reserved for recovery if needed. The zeroed tail of a preallocated page file
+       * follows its last valid message without making it incomplete.
        */
-      if (page.getSize() != page.getFile().size()) {
+      if (storeFactory.isPageFilePreallocated() ? page.isSuspect() : page.getSize() != fileSize) {
          openNewPage();
       }
    }
@@ -864,6 +932,7 @@ public class PagingStoreImpl implements PagingStore {
                ActiveMQServerLogger.LOGGER.purgingPageFolder(fileFactory.getDirectoryName(), storeName);
                // closing used pages...
                // all files need to be closed before we can remove a folder
+               clearReadAhead();
                usedPages.forEachUsedPage(this::closePage);
                usedPages.clear();
                closePage(currentPage);
@@ -975,14 +1044,26 @@ public class PagingStoreImpl implements PagingStore {
 
    @Override
    public Page newPageObject(final long pageNumber) throws Exception {
+      return newPageObject(pageNumber, pageSize);
+   }
+
+   /**
+    * @param capacity the bytes the file of the page is allocated with if page files are preallocated and it doesn't
+    *                 exist yet
+    */
+   private Page newPageObject(final long pageNumber, final int capacity) throws Exception {
       String fileName = createFileName(pageNumber);
 
       SequentialFileFactory factory = checkFileFactory();
 
-      SequentialFile file = factory.createSequentialFile(fileName);
+      SequentialFile file = factory.createSequentialFile(fileName, capacity);
 
       Page page = new Page(storeName, storageManager, factory, file, pageNumber);
 
+      if (pagingManager.getSharedPageCache() instanceof SharedPageCacheImpl sharedPageCache) {
+         page.setSharedCache(sharedPageCache);
+      }
+
       return page;
    }
 
@@ -1007,7 +1088,7 @@ public class PagingStoreImpl implements PagingStore {
             if (createEntry && page == null) {
                page = newPageObject(pageId);
                if (page.getFile().exists()) {
-                  page.getMessages();
+                  page.load();
                   injectPage(page);
                } else {
                   if (!createFile) {
@@ -1032,6 +1113,79 @@ public class PagingStoreImpl implements PagingStore {
       }
    }
 
+   @Override
+   public Page usePageReadingAhead(final long pageId) {
+      final int pagesAhead = this.pageReadAhead;
+      if (pagesAhead <= 0 || fileFactory == null) {
+         return usePage(pageId);
+      }
+      final Page existing = usedPages.get(pageId);
+      final boolean hit = existing != null && existing.isLoaded();
+      final Page page = usePage(pageId);
+      final PageReadAhead readAhead = getReadAhead();
+      if (readAhead != null) {
+         // the cursor holds the page from now on
+         readAhead.release(pageId);
+         // the page being written is never read ahead
+         final long lastPage = Math.min(pageId + pagesAhead, currentPageId - 1);
+         readAhead.readAhead(pageId + 1, lastPage, maxPageReadBytes);
+      }
+      pagingManager.pageReadAhead(hit);
+      return page;
+   }
+
+   private PageReadAhead getReadAhead() {
+      PageReadAhead readAhead = this.readAhead;
+      if (readAhead == null) {
+         synchronized (usedPages) {
+            readAhead = this.readAhead;
+            if (readAhead == null) {
+               final Executor readAheadExecutor = storeFactory.newExecutor();
+               if (readAheadExecutor == null) {
+                  return null;
+               }
+               readAhead = new PageReadAhead(readAheadExecutor, this::useReadAheadPage);
+               this.readAhead = readAhead;
+            }
+         }
+      }
+      return readAhead;
+   }
+
+   /**
+    * {@return the page used and left to be loaded by the read ahead, or {@code null} if it doesn't exist or is being
+    * written}
+    */
+   private Page useReadAheadPage(final long pageId) {
+      if (!running || pageId >= currentPageId) {
+         return null;
+      }
+      synchronized (usedPages) {
+         try {
+            Page page = usedPages.get(pageId);
+            if (page == null) {
+               page = newPageObject(pageId);
+               if (!page.getFile().exists()) {
+                  return null;
+               }
+               injectPage(page);
+            }
+            page.usageUp();
+            return page;
+         } catch (Exception e) {
+            logger.debug("Unable to use page {} for reading it ahead", pageId, e);
+            return null;
+         }
+      }
+   }
+
+   private void clearReadAhead() {
+      final PageReadAhead readAhead = this.readAhead;
+      if (readAhead != null) {
+         readAhead.clear();
+      }
+   }
+
    protected SequentialFileFactory getFileFactory() throws Exception {
       checkFileFactory();
       return fileFactory;
@@ -1142,6 +1296,11 @@ public class PagingStoreImpl implements PagingStore {
             return null;
          }
 
+         final PageReadAhead readAhead = this.readAhead;
+         if (readAhead != null) {
+            readAhead.release(pageId);
+         }
+
          Page page = usePage(pageId, false);
 
          if (page == null) {
@@ -1577,9 +1736,9 @@ public class PagingStoreImpl implements PagingStore {
       int bytesToWrite = pagedMessage.getEncodeSize() + PageReadWriter.SIZE_RECORD;
 
       currentPageSize += bytesToWrite;
-      if (currentPage == null || currentPageSize > pageSize && currentPage.getNumberOfMessages() > 0) {
+      if (currentPage == null || currentPageSize > pageSize && currentPage.getNumberOfMessages() > 0 || currentPageSize > currentPageCapacity) {
          // Make sure nothing is currently validating or using currentPage
-         openNewPage();
+         openNewPage(bytesToWrite);
          currentPageSize += bytesToWrite;
       }
 
@@ -1816,6 +1975,14 @@ public class PagingStoreImpl implements PagingStore {
    }
 
    private void openNewPage() throws Exception {
+      openNewPage(0);
+   }
+
+   /**
+    * @param recordSize the size of the record the new page is opened for, a preallocated page file is made big enough to
+    *                   hold it even if it is bigger than the page size
+    */
+   private void openNewPage(final int recordSize) throws Exception {
       numberOfPages++;
 
       checkNumberOfPages();
@@ -1833,12 +2000,16 @@ public class PagingStoreImpl implements PagingStore {
          currentPage = null;
       }
 
-      final Page newPage = newPageObject(newPageId);
+      final int capacity = Math.max(pageSize, recordSize);
+
+      final Page newPage = newPageObject(newPageId, capacity);
 
       resetCurrentPage(newPage);
 
       currentPageSize = 0;
 
+      currentPageCapacity = storeFactory.isPageFilePreallocated() ? capacity : Long.MAX_VALUE;
+
       newPage.open(true);
 
       currentPageId = newPageId;
@@ -1950,6 +2121,11 @@ public class PagingStoreImpl implements PagingStore {
       usedPages.forEachUsedPage(consumerPage);
    }
 
+   protected int getReadAheadPages() {
+      final PageReadAhead readAhead = this.readAhead;
+      return readAhead == null ? 0 : readAhead.getPages();
+   }
+
    @Override
    public StorageManager getStorageManager() {
       return storageManager;
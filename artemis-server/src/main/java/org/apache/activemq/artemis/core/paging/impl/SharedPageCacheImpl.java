@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.paging.impl;
+
+import java.lang.invoke.MethodHandles;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.activemq.artemis.core.paging.SharedPageCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Broker wide budget for the pages loaded by every paging store.
+ * <p>
+ * Each page loaded through {@link Page#load()} is accounted with the memory it takes, which depends on how it was loaded:
+ * a memory mapped page with the bytes mapped from its file, which live off the heap and decode messages as they are
+ * read, and a page read as a whole with the {@link org.apache.activemq.artemis.api.core.Message#getMemoryEstimate()
+ * memory estimate} of its decoded messages, which live on the heap. The two are tracked separately, and the maximum
+ * size bounds their total. When the total goes over the maximum size, the least recently used pages are unloaded using a second chance (clock) policy: a page
+ * accessed since the last time the clock went over it is skipped once. Unloaded pages are read again from their file
+ * on the next access. The page currently being written is never accounted nor unloaded.
+ * <p>
+ * Iterators already open on an unloaded page keep reading from it, so the memory of an unloaded page is only reclaimed
+ * once they move on: the maximum size is a target rather than a hard limit.
+ */
+public final class SharedPageCacheImpl implements SharedPageCache {
+
+   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+   private static final class Entry {
+
+      private final Page page;
+
+      private final long size;
+
+      private final boolean mapped;
+
+      private boolean referenced;
+
+      private Entry(Page page, long size, boolean mapped) {
+         this.page = page;
+         this.size = size;
+         this.mapped = mapped;
+      }
+   }
+
+   private final long maxSize;
+
+   // keyed by Page#getSeqCreation as pages from different stores are equal when they share the same id,
+   // insertion ordered: the head is the next page the clock hand will look at
+   private final Map<Integer, Entry> pages = new LinkedHashMap<>();
+
+   private long size;
+
+   private long mappedSize;
+
+   private long hits;
+
+   private long misses;
+
+   private long evictions;
+
+   /**
+    * @param maxSize the number of bytes loaded pages can use before being unloaded, {@code -1} meaning unbounded
+    */
+   public SharedPageCacheImpl(long maxSize) {
+      this.maxSize = maxSize;
+   }
+
+   @Override
+   public long getMaxSize() {
+      return maxSize;
+   }
+
+   /**
+    * To be called when a page has been read from its file.
+    *
+    * @param pageSize the number of bytes mapped from the file if {@code mapped}, the memory estimate of the messages
+    *                 read otherwise
+    */
+   public void pageLoaded(Page page, long pageSize, boolean mapped) {
+      final Map<Page, Long> toUnload;
+      synchronized (this) {
+         misses++;
+         final Entry previous = pages.put(page.getSeqCreation(), new Entry(page, pageSize, mapped));
+         if (previous != null) {
+            removed(previous);
+         }
+         size += pageSize;
+         if (mapped) {
+            mappedSize += pageSize;
+         }
+         toUnload = evict(page);
+      }
+      if (toUnload != null) {
+         unload(toUnload);
+      }
+   }
+
+   /**
+    * To be called when a page already loaded is read.
+    */
+   public synchronized void pageAccessed(Page page) {
+      final Entry entry = pages.get(page.getSeqCreation());
+      if (entry != null) {
+         hits++;
+         entry.referenced = true;
+      }
+   }
+
+   /**
+    * To be called when a page isn't loaded anymore.
+    */
+   public synchronized void pageReleased(Page page) {
+      final Entry entry = pages.remove(page.getSeqCreation());
+      if (entry != null) {
+         removed(entry);
+      }
+   }
+
+   // the caller must hold the lock on this
+   private void removed(Entry entry) {
+      size -= entry.size;
+      if (entry.mapped) {
+         mappedSize -= entry.size;
+      }
+   }
+
+   // the caller must hold the lock on this
+   private Map<Page, Long> evict(Page loaded) {
+      if (maxSize < 0 || size <= maxSize) {
+         return null;
+      }
+      Map<Page, Long> toUnload = null;
+      // every page is skipped at most once, so two rounds are enough to release as much as possible
+      int toVisit = pages.size() * 2;
+      while (size > maxSize && pages.size() > 1 && toVisit-- > 0) {
+         final Iterator<Entry> hand = pages.values().iterator();
+         final Entry entry = hand.next();
+         final Page page = entry.page;
+         hand.remove();
+         if (page == loaded || entry.referenced) {
+            // second chance: the page goes back to the tail
+            entry.referenced = false;
+            pages.put(page.getSeqCreation(), entry);
+         } else {
+            removed(entry);
+            evictions++;
+            if (toUnload == null) {
+               toUnload = new IdentityHashMap<>();
+            }
+            toUnload.put(page, entry.size);
+         }
+      }
+      return toUnload;
+   }
+
+   private static void unload(Map<Page, Long> toUnload) {
+      toUnload.forEach((page, pageSize) -> {
+         if (logger.isDebugEnabled()) {
+            logger.debug("Unloading {} to release {} bytes from the page cache", page, pageSize);
+         }
+         page.unloadEvicted();
+      });
+   }
+
+   @Override
+   public synchronized long getSize() {
+      return size;
+   }
+
+   @Override
+   public synchronized long getHeapSize() {
+      return size - mappedSize;
+   }
+
+   @Override
+   public synchronized long getMappedSize() {
+      return mappedSize;
+   }
+
+   @Override
+   public synchronized int getPageCount() {
+      return pages.size();
+   }
+
+   @Override
+   public synchronized long getHits() {
+      return hits;
+   }
+
+   @Override
+   public synchronized long getMisses() {
+      return misses;
+   }
+
+   @Override
+   public synchronized long getEvictions() {
+      return evictions;
+   }
+
+   @Override
+   public synchronized String toString() {
+      return "SharedPageCache[size=" + size + ", mappedSize=" + mappedSize + ", maxSize=" + maxSize + ", pages=" + pages.size() + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "]";
+   }
+}
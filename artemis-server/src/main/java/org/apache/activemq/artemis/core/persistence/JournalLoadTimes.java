@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.persistence;
+
+/**
+ * The time, in milliseconds, spent in each phase of the last load of the message journal.
+ */
+public final class JournalLoadTimes {
+
+   private volatile long readTime;
+
+   private volatile long recordsTime;
+
+   private volatile long queuesTime;
+
+   private volatile long transactionsTime;
+
+   private volatile long postLoadTime;
+
+   /**
+    * {@return the time spent reading the journal files and resolving their transactions}
+    */
+   public long getReadTime() {
+      return readTime;
+   }
+
+   public void setReadTime(long readTime) {
+      this.readTime = readTime;
+   }
+
+   /**
+    * {@return the time spent decoding the records read from the journal}
+    */
+   public long getRecordsTime() {
+      return recordsTime;
+   }
+
+   public void setRecordsTime(long recordsTime) {
+      this.recordsTime = recordsTime;
+   }
+
+   /**
+    * {@return the time spent adding the messages read from the journal to their queues}
+    */
+   public long getQueuesTime() {
+      return queuesTime;
+   }
+
+   public void setQueuesTime(long queuesTime) {
+      this.queuesTime = queuesTime;
+   }
+
+   /**
+    * {@return the time spent reloading prepared transactions}
+    */
+   public long getTransactionsTime() {
+      return transactionsTime;
+   }
+
+   public void setTransactionsTime(long transactionsTime) {
+      this.transactionsTime = transactionsTime;
+   }
+
+   /**
+    * {@return the time spent recovering paging and duplicate ID caches once the messages are loaded}
+    */
+   public long getPostLoadTime() {
+      return postLoadTime;
+   }
+
+   public void setPostLoadTime(long postLoadTime) {
+      this.postLoadTime = postLoadTime;
+   }
+
+   public long getTotalTime() {
+      return readTime + recordsTime + queuesTime + transactionsTime + postLoadTime;
+   }
+
+   @Override
+   public String toString() {
+      return "JournalLoadTimes[read=" + readTime + ", records=" + recordsTime + ", queues=" + queuesTime + ", transactions=" + transactionsTime + ", postLoad=" + postLoadTime + "]";
+   }
+}
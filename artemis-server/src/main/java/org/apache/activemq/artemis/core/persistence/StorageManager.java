@@ -228,6 +228,21 @@ public interface StorageManager extends MapStorageManager, IDGenerator, ActiveMQ
 
    void deleteDuplicateIDTransactional(long txID, long recordID) throws Exception;
 
+   /**
+    * Stores a segment record the duplicate IDs of the address are added to, deleted by {@link #deleteDuplicateID(long)}.
+    */
+   default void storeDuplicateIDSegment(SimpleString address, long recordID) throws Exception {
+   }
+
+   default void addDuplicateIDToSegment(long recordID, byte[] duplID) throws Exception {
+   }
+
+   default void addDuplicateIDToSegmentTransactional(long txID, long recordID, byte[] duplID) throws Exception {
+   }
+
+   default void removeDuplicateIDFromSegment(long recordID, byte[] duplID) throws Exception {
+   }
+
    LargeServerMessage createCoreLargeMessage();
 
    /**
@@ -298,6 +313,13 @@ public interface StorageManager extends MapStorageManager, IDGenerator, ActiveMQ
 
    void deletePageTransactional(long recordID) throws Exception;
 
+   /**
+    * {@return the time spent in each phase of the last {@code loadMessageJournal}, or {@code null} if not tracked}
+    */
+   default JournalLoadTimes getJournalLoadTimes() {
+      return null;
+   }
+
    default JournalLoadInformation loadMessageJournal(PostOffice postOffice,
                                              PagingManager pagingManager,
                                              ResourceManager resourceManager,
@@ -20,6 +20,7 @@ import javax.transaction.xa.Xid;
 import java.lang.invoke.MethodHandles;
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -67,6 +68,7 @@ import org.apache.activemq.artemis.core.persistence.AddressBindingInfo;
 import org.apache.activemq.artemis.core.persistence.AddressQueueStatus;
 import org.apache.activemq.artemis.core.persistence.CoreMessageObjectPools;
 import org.apache.activemq.artemis.core.persistence.GroupingInfo;
+import org.apache.activemq.artemis.core.persistence.JournalLoadTimes;
 import org.apache.activemq.artemis.core.persistence.OperationContext;
 import org.apache.activemq.artemis.core.persistence.Persister;
 import org.apache.activemq.artemis.core.persistence.QueueBindingInfo;
@@ -87,6 +89,7 @@ import org.apache.activemq.artemis.core.persistence.impl.journal.codec.AddressSt
 import org.apache.activemq.artemis.core.persistence.impl.journal.codec.CursorAckRecordEncoding;
 import org.apache.activemq.artemis.core.persistence.impl.journal.codec.DeliveryCountUpdateEncoding;
 import org.apache.activemq.artemis.core.persistence.impl.journal.codec.DuplicateIDEncoding;
+import org.apache.activemq.artemis.core.persistence.impl.journal.codec.DuplicateIDSegmentEncoding;
 import org.apache.activemq.artemis.core.persistence.impl.journal.codec.FinishPageMessageOperation;
 import org.apache.activemq.artemis.core.persistence.impl.journal.codec.GroupingEncoding;
 import org.apache.activemq.artemis.core.persistence.impl.journal.codec.HeuristicCompletionEncoding;
@@ -136,6 +139,7 @@ import static org.apache.activemq.artemis.api.core.SimpleString.ByteBufSimpleStr
 import static org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds.ACKNOWLEDGE_CURSOR;
 import static org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds.ADD_LARGE_MESSAGE_PENDING;
 import static org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds.DUPLICATE_ID;
+import static org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds.DUPLICATE_ID_SEGMENT;
 import static org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds.PAGE_CURSOR_COUNTER_INC;
 import static org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds.SET_SCHEDULED_DELIVERY_TIME;
 
@@ -220,6 +224,11 @@ public abstract class AbstractJournalStorageManager extends CriticalComponentImp
 
    protected boolean journalLoaded = false;
 
+   private final JournalLoadTimes journalLoadTimes = new JournalLoadTimes();
+
+   // the address of each duplicate ID segment, only while loading
+   private final Map<Long, SimpleString> duplicateIDSegments = new HashMap<>();
+
    protected final IOCriticalErrorListener ioCriticalErrorListener;
 
    protected final Configuration config;
@@ -409,6 +418,17 @@ public abstract class AbstractJournalStorageManager extends CriticalComponentImp
       }
    }
 
+   @Override
+   public void storeMapRecordTx(long txid,
+                                long id,
+                                byte recordType,
+                                Persister persister,
+                                Object record) throws Exception {
+      try (ArtemisCloseable lock = closeableReadLock()) {
+         messageJournal.appendAddRecordTransactional(txid, id, recordType, persister, record);
+      }
+   }
+
    @Override
    public void deleteMapRecord(long id, boolean sync) throws Exception {
       try (ArtemisCloseable lock = closeableReadLock()) {
@@ -576,6 +596,27 @@ public abstract class AbstractJournalStorageManager extends CriticalComponentImp
       }
    }
 
+   @Override
+   public void storeDuplicateIDSegment(final SimpleString address, final long recordID) throws Exception {
+      try (ArtemisCloseable lock = closeableReadLock()) {
+         messageJournal.appendAddRecord(recordID, JournalRecordIds.DUPLICATE_ID_SEGMENT, DuplicateIDSegmentEncoding.header(address), syncNonTransactional, getContext(syncNonTransactional));
+      }
+   }
+
+   @Override
+   public void addDuplicateIDToSegment(final long recordID, final byte[] duplID) throws Exception {
+      try (ArtemisCloseable lock = closeableReadLock()) {
+         messageJournal.appendUpdateRecord(recordID, JournalRecordIds.DUPLICATE_ID_SEGMENT, DuplicateIDSegmentEncoding.add(duplID), syncNonTransactional, getContext(syncNonTransactional));
+      }
+   }
+
+   @Override
+   public void removeDuplicateIDFromSegment(final long recordID, final byte[] duplID) throws Exception {
+      try (ArtemisCloseable lock = closeableReadLock()) {
+         messageJournal.tryAppendUpdateRecord(recordID, JournalRecordIds.DUPLICATE_ID_SEGMENT, DuplicateIDSegmentEncoding.remove(duplID), this::recordNotFoundCallback, false, false);
+      }
+   }
+
    // Transactional operations
 
    @Override
@@ -774,6 +815,13 @@ public abstract class AbstractJournalStorageManager extends CriticalComponentImp
       }
    }
 
+   @Override
+   public void addDuplicateIDToSegmentTransactional(final long txID, final long recordID, final byte[] duplID) throws Exception {
+      try (ArtemisCloseable lock = closeableReadLock()) {
+         messageJournal.appendUpdateRecordTransactional(txID, recordID, JournalRecordIds.DUPLICATE_ID_SEGMENT, DuplicateIDSegmentEncoding.add(duplID));
+      }
+   }
+
    @Override
    public void deleteDuplicateIDTransactional(final long txID, final long recordID) throws Exception {
       try (ArtemisCloseable lock = closeableReadLock()) {
@@ -1018,7 +1066,10 @@ public abstract class AbstractJournalStorageManager extends CriticalComponentImp
       Map<Long, Message> messages = new HashMap<>();
       try (ArtemisCloseable lock = closeableReadLock()) {
          messageJournal.setRemoveExtraFilesOnLoad(true);
+         long phaseStart = System.nanoTime();
          JournalLoadInformation info = messageJournal.load(records, preparedTransactions, new LargeMessageTXFailureCallback(this));
+         journalLoadTimes.setReadTime(elapsedMillis(phaseStart));
+         phaseStart = System.nanoTime();
 
          List<LargeServerMessage> largeMessages = new ArrayList<>();
 
@@ -1251,6 +1302,30 @@ public abstract class AbstractJournalStorageManager extends CriticalComponentImp
 
                      break;
                   }
+                  case JournalRecordIds.DUPLICATE_ID_SEGMENT: {
+                     DuplicateIDSegmentEncoding encoding = new DuplicateIDSegmentEncoding();
+
+                     encoding.decode(buff);
+
+                     if (encoding.type == DuplicateIDSegmentEncoding.HEADER) {
+                        duplicateIDSegments.put(record.id, encoding.address);
+                        // the segment is loaded with a null ID, so the cache can delete it when none of its IDs is left
+                        duplicateIDMap.computeIfAbsent(encoding.address, address -> new ArrayList<>()).add(new Pair<>(null, record.id));
+                        break;
+                     }
+
+                     List<Pair<byte[], Long>> ids = duplicateIDMap.get(duplicateIDSegments.get(record.id));
+
+                     if (ids == null) {
+                        logger.debug("Duplicate ID segment {} not found", record.id);
+                     } else if (encoding.type == DuplicateIDSegmentEncoding.ADD) {
+                        ids.add(new Pair<>(encoding.duplID, record.id));
+                     } else {
+                        ids.removeIf(id -> id.getB() == record.id && Arrays.equals(id.getA(), encoding.duplID));
+                     }
+
+                     break;
+                  }
                   case JournalRecordIds.HEURISTIC_COMPLETION: {
                      HeuristicCompletionEncoding encoding = new HeuristicCompletionEncoding();
                      encoding.decode(buff);
@@ -1373,10 +1448,17 @@ public abstract class AbstractJournalStorageManager extends CriticalComponentImp
 
          // Release the memory as soon as not needed any longer
          records = null;
+         journalLoadTimes.setRecordsTime(elapsedMillis(phaseStart));
+         phaseStart = System.nanoTime();
 
          journalLoader.handleAddMessage(queueMap);
+         journalLoadTimes.setQueuesTime(elapsedMillis(phaseStart));
+         phaseStart = System.nanoTime();
 
          loadPreparedTransactions(postOffice, pagingManager, resourceManager, queueInfos, preparedTransactions, this::failedToPrepareException, pageSubscriptions, pendingLargeMessages, storedLargeMessages, journalLoader);
+         duplicateIDSegments.clear();
+         journalLoadTimes.setTransactionsTime(elapsedMillis(phaseStart));
+         phaseStart = System.nanoTime();
 
          for (PageSubscription sub : pageSubscriptions.values()) {
             sub.getCounter().processReload();
@@ -1406,12 +1488,24 @@ public abstract class AbstractJournalStorageManager extends CriticalComponentImp
          journalLoader.postLoad(messageJournal, resourceManager, duplicateIDMap);
 
          checkInvalidPageTransactions(pagingManager, invalidPageTransactions);
+         journalLoadTimes.setPostLoadTime(elapsedMillis(phaseStart));
+
+         ActiveMQServerLogger.LOGGER.messageJournalLoaded(journalLoadTimes.getTotalTime(), journalLoadTimes.getReadTime(), journalLoadTimes.getRecordsTime(), journalLoadTimes.getQueuesTime(), journalLoadTimes.getTransactionsTime(), journalLoadTimes.getPostLoadTime());
 
          journalLoaded = true;
          return info;
       }
    }
 
+   private static long elapsedMillis(long startNanos) {
+      return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+   }
+
+   @Override
+   public JournalLoadTimes getJournalLoadTimes() {
+      return journalLoadTimes;
+   }
+
    private void failedToPrepareException(PreparedTransactionInfo txInfo, Throwable e) {
       XidEncoding encodingXid = null;
       try {
@@ -1999,7 +2093,20 @@ public abstract class AbstractJournalStorageManager extends CriticalComponentImp
 
                DuplicateIDCache cache = postOffice.getDuplicateIDCache(encoding.address);
 
-               cache.load(tx, encoding.duplID);
+               cache.load(tx, encoding.duplID, record.id);
+
+               break;
+            }
+            case DUPLICATE_ID_SEGMENT: {
+               DuplicateIDSegmentEncoding encoding = new DuplicateIDSegmentEncoding();
+
+               encoding.decode(buff);
+
+               SimpleString address = duplicateIDSegments.get(record.id);
+
+               if (encoding.type == DuplicateIDSegmentEncoding.ADD && address != null) {
+                  postOffice.getDuplicateIDCache(address).load(tx, encoding.duplID, record.id);
+               }
 
                break;
             }
@@ -107,4 +107,8 @@ public final class JournalRecordIds {
    public static final byte ACK_RETRY = 53;
 
    public static final byte MQTT_PACKET_ID_CORRELATION = 54;
+
+   public static final byte DUPLICATE_ID_SEGMENT = 55;
+
+   public static final byte MQTT_RETAINED_MESSAGE = 56;
 }
@@ -182,6 +182,7 @@ public class JournalStorageManager extends AbstractJournalStorageManager {
       }
 
       journalFF.setDatasync(config.isJournalDatasync());
+      journalFF.setBufferMaxLatency(config.getJournalBufferMaxLatency());
 
 
       int fileSize = fixJournalFileSize(config.getJournalFileSize(), journalFF.getAlignment());
@@ -225,7 +226,12 @@ public class JournalStorageManager extends AbstractJournalStorageManager {
    protected Journal createMessageJournal(Configuration config,
                                         IOCriticalErrorListener criticalErrorListener,
                                         int fileSize) {
-      return new JournalImpl(ioExecutorFactory, fileSize, config.getJournalMinFiles(), config.getJournalPoolFiles(), config.getJournalCompactMinFiles(), config.getJournalCompactPercentage(), config.getJournalFileOpenTimeout(), journalFF, ACTIVEMQ_DATA, "amq", journalFF.getMaxIO(), 0, criticalErrorListener, config.getJournalMaxAtticFiles());
+      JournalImpl journal = new JournalImpl(ioExecutorFactory, fileSize, config.getJournalMinFiles(), config.getJournalPoolFiles(), config.getJournalCompactMinFiles(), config.getJournalCompactPercentage(), config.getJournalFileOpenTimeout(), journalFF, ACTIVEMQ_DATA, "amq", journalFF.getMaxIO(), 0, criticalErrorListener, config.getJournalMaxAtticFiles());
+      journal.setLoadThreads(config.getJournalLoadThreads());
+      journal.setLoadReadAheadSize(config.getJournalLoadReadAheadSize());
+      journal.setOffHeapRecordIndex(config.isJournalOffHeapRecordIndex());
+      journal.setCompactMaxFiles(config.getJournalCompactMaxFiles());
+      return journal;
    }
 
    // Life Cycle Handlers
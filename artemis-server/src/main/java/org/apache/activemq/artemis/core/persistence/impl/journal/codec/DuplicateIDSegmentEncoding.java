@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.persistence.impl.journal.codec;
+
+import java.util.Objects;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.journal.EncodingSupport;
+import org.apache.activemq.artemis.utils.ByteUtil;
+import org.apache.activemq.artemis.utils.DataConstants;
+
+/**
+ * A record of a segment of duplicate IDs: the record itself holds the address, each of its updates adding or removing
+ * an ID.
+ */
+public class DuplicateIDSegmentEncoding implements EncodingSupport {
+
+   public static final byte HEADER = 0;
+
+   public static final byte ADD = 1;
+
+   public static final byte REMOVE = 2;
+
+   public byte type;
+
+   public SimpleString address;
+
+   public byte[] duplID;
+
+   public static DuplicateIDSegmentEncoding header(final SimpleString address) {
+      final DuplicateIDSegmentEncoding encoding = new DuplicateIDSegmentEncoding();
+      encoding.type = HEADER;
+      encoding.address = Objects.requireNonNull(address);
+      return encoding;
+   }
+
+   public static DuplicateIDSegmentEncoding add(final byte[] duplID) {
+      return entry(ADD, duplID);
+   }
+
+   public static DuplicateIDSegmentEncoding remove(final byte[] duplID) {
+      return entry(REMOVE, duplID);
+   }
+
+   private static DuplicateIDSegmentEncoding entry(final byte type, final byte[] duplID) {
+      final DuplicateIDSegmentEncoding encoding = new DuplicateIDSegmentEncoding();
+      encoding.type = type;
+      encoding.duplID = Objects.requireNonNull(duplID);
+      return encoding;
+   }
+
+   @Override
+   public void decode(final ActiveMQBuffer buffer) {
+      type = buffer.readByte();
+
+      if (type == HEADER) {
+         address = buffer.readSimpleString();
+      } else {
+         duplID = new byte[buffer.readInt()];
+
+         buffer.readBytes(duplID);
+      }
+   }
+
+   @Override
+   public void encode(final ActiveMQBuffer buffer) {
+      buffer.writeByte(type);
+
+      if (type == HEADER) {
+         buffer.writeSimpleString(address);
+      } else {
+         buffer.writeInt(duplID.length);
+
+         buffer.writeBytes(duplID);
+      }
+   }
+
+   @Override
+   public int getEncodeSize() {
+      return DataConstants.SIZE_BYTE + (type == HEADER ? SimpleString.sizeofString(address) : DataConstants.SIZE_INT + duplID.length);
+   }
+
+   @Override
+   public String toString() {
+      return switch (type) {
+         case HEADER -> "DuplicateIDSegmentEncoding [address=" + address + "]";
+         case ADD -> "DuplicateIDSegmentEncoding [add duplID=" + ByteUtil.bytesToHex(duplID, 2) + "]";
+         default -> "DuplicateIDSegmentEncoding [remove duplID=" + ByteUtil.bytesToHex(duplID, 2) + "]";
+      };
+   }
+}
@@ -766,6 +766,15 @@ public class NullStorageManager implements StorageManager {
 
    }
 
+   @Override
+   public void storeMapRecordTx(long txid,
+                                long id,
+                                byte recordType,
+                                Persister persister,
+                                Object record) throws Exception {
+
+   }
+
    @Override
    public void deleteMapRecord(long id, boolean sync) throws Exception {
 
@@ -41,10 +41,21 @@ public interface DuplicateIDCache {
 
    boolean deleteFromCache(byte[] duplicateID) throws Exception;
 
+   /**
+    * Loads the committed duplicate IDs, once the IDs of the prepared transactions have been loaded through
+    * {@link #load(Transaction, byte[], long)}.
+    */
    void load(List<Pair<byte[], Long>> ids) throws Exception;
 
    void load(Transaction tx, byte[] duplID);
 
+   /**
+    * Loads a duplicate ID of a prepared transaction stored on the record.
+    */
+   default void load(Transaction tx, byte[] duplID, long recordID) {
+      load(tx, duplID);
+   }
+
    void clear() throws Exception;
 
    List<Pair<byte[], Long>> getMap();
@@ -34,6 +34,7 @@ import org.apache.activemq.artemis.api.core.Pair;
 import org.apache.activemq.artemis.api.core.RoutingType;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.filter.Filter;
+import org.apache.activemq.artemis.core.filter.impl.FilterIndex;
 import org.apache.activemq.artemis.core.persistence.StorageManager;
 import org.apache.activemq.artemis.core.postoffice.Binding;
 import org.apache.activemq.artemis.core.postoffice.Bindings;
@@ -95,6 +96,9 @@ public final class BindingsImpl implements Bindings {
 
    private volatile boolean hasLocal;
 
+   // built lazily on the first routing after the bindings changed
+   private volatile IndexedFilters indexedFilters;
+
    public BindingsImpl(final SimpleString name, final GroupingHandler groupingHandler, StorageManager storageManager) {
       this.groupingHandler = groupingHandler;
       this.storageManager = storageManager;
@@ -402,8 +406,10 @@ public final class BindingsImpl implements Bindings {
          logger.trace("Routing message {} on binding={} current context::{}", message, this, context);
       }
 
+      final FilterIndex<Binding>.Matcher filterMatcher = filterMatcher(message, currentVersion);
+
       routingNameBindingMap.forEachBindings((bindings, nextPosition) -> {
-         final Binding nextBinding = getNextBinding(message, bindings, nextPosition, getMessageLoadBalancingType(context));
+         final Binding nextBinding = getNextBinding(message, bindings, nextPosition, getMessageLoadBalancingType(context), filterMatcher);
          if (nextBinding != null && nextBinding.getFilter() == null && nextBinding.isLocal() && bindings.length == 1) {
             context.setReusable(true, currentVersion);
          } else {
@@ -419,6 +425,31 @@ public final class BindingsImpl implements Bindings {
       });
    }
 
+   /**
+    * {@return a matcher of the filters of the bindings indexed by property, or {@code null} if there are not enough
+    * filters to index}
+    */
+   private FilterIndex<Binding>.Matcher filterMatcher(final Message message, final int currentVersion) {
+      IndexedFilters indexed = this.indexedFilters;
+      if (indexed == null || indexed.version != currentVersion) {
+         indexed = new IndexedFilters(currentVersion, FilterIndex.build(bindingsIdMap.values(), Binding::getFilter));
+         this.indexedFilters = indexed;
+      }
+      return indexed.index == null ? null : indexed.index.matcher(message);
+   }
+
+   private static final class IndexedFilters {
+
+      private final int version;
+
+      private final FilterIndex<Binding> index;
+
+      private IndexedFilters(final int version, final FilterIndex<Binding> index) {
+         this.version = version;
+         this.index = index;
+      }
+   }
+
    @Override
    public String toString() {
       return "BindingsImpl [name=" + name + "]";
@@ -434,7 +465,8 @@ public final class BindingsImpl implements Bindings {
    private Binding getNextBinding(final Message message,
                                   final Binding[] bindings,
                                   final CopyOnWriteBindings.BindingIndex bindingIndex,
-                                  final MessageLoadBalancingType loadBalancingType) {
+                                  final MessageLoadBalancingType loadBalancingType,
+                                  final FilterIndex<Binding>.Matcher filterMatcher) {
       int nextPosition = bindingIndex.getIndex();
 
       final int bindingsCount = bindings.length;
@@ -448,7 +480,7 @@ public final class BindingsImpl implements Bindings {
 
       for (int i = 0; i < bindingsCount; i++) {
          final Binding binding = bindings[nextPosition];
-         if (matchBinding(message, binding, loadBalancingType)) {
+         if (matchBinding(message, binding, loadBalancingType, filterMatcher)) {
             // bindings.length == 1 ==> only a local queue so we don't check for matching consumers (it's an
             // unnecessary overhead)
             if (bindingsCount == 1 || (binding.isConnected() && (loadBalancingType.equals(MessageLoadBalancingType.STRICT) || binding.isHighAcceptPriority(message)))) {
@@ -478,7 +510,8 @@ public final class BindingsImpl implements Bindings {
 
    private static boolean matchBinding(final Message message,
                                        final Binding binding,
-                                       final MessageLoadBalancingType loadBalancingType) {
+                                       final MessageLoadBalancingType loadBalancingType,
+                                       final FilterIndex<Binding>.Matcher filterMatcher) {
       if (loadBalancingType.equals(MessageLoadBalancingType.OFF) || loadBalancingType.equals(MessageLoadBalancingType.OFF_WITH_REDISTRIBUTION)) {
          if (!Objects.equals(message.getRoutingType(), RoutingType.MULTICAST) && binding instanceof RemoteQueueBinding) {
             return false;
@@ -494,10 +527,10 @@ public final class BindingsImpl implements Bindings {
       }
 
       final Filter filter = binding.getFilter();
-      if (filter == null || filter.match(message)) {
+      if (filter == null) {
          return true;
       }
-      return false;
+      return filterMatcher == null ? filter.match(message) : filterMatcher.match(binding, filter);
    }
 
    private void routeUsingStrictOrdering(final Message message,
@@ -516,7 +549,7 @@ public final class BindingsImpl implements Bindings {
 
          if (resp == null) {
             // ok let's find the next binding to propose
-            Binding theBinding = getNextBinding(message, bindings, nextPosition, getMessageLoadBalancingType(context));
+            Binding theBinding = getNextBinding(message, bindings, nextPosition, getMessageLoadBalancingType(context), null);
             if (theBinding == null) {
                return;
             }
@@ -43,4 +43,22 @@ public final class DuplicateIDCaches {
          return new InMemoryDuplicateIDCache(address, size);
       }
    }
+
+   public static DuplicateIDCache persistentOffHeap(final SimpleString address,
+                                                    final int size,
+                                                    final StorageManager storageManager) {
+      if (size == 0) {
+         return new NoOpDuplicateIDCache();
+      } else {
+         return new OffHeapDuplicateIDCache(address, size, storageManager);
+      }
+   }
+
+   public static DuplicateIDCache inMemoryOffHeap(final SimpleString address, final int size) {
+      if (size == 0) {
+         return new NoOpDuplicateIDCache();
+      } else {
+         return new OffHeapDuplicateIDCache(address, size, null);
+      }
+   }
 }
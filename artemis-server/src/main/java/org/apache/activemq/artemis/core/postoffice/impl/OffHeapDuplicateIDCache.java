@@ -0,0 +1,689 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.postoffice.impl;
+
+import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.netty.util.internal.PlatformDependent;
+import org.apache.activemq.artemis.api.core.ActiveMQDuplicateIdException;
+import org.apache.activemq.artemis.api.core.Pair;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.persistence.StorageManager;
+import org.apache.activemq.artemis.core.postoffice.DuplicateIDCache;
+import org.apache.activemq.artemis.core.server.ActiveMQServerLogger;
+import org.apache.activemq.artemis.core.server.MessageReference;
+import org.apache.activemq.artemis.core.transaction.Transaction;
+import org.apache.activemq.artemis.core.transaction.TransactionOperationAbstract;
+import org.apache.activemq.artemis.utils.ByteUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link DuplicateIDCache} keeping the IDs in direct memory, so that millions of IDs do not take any object on the
+ * heap.
+ * <p>
+ * The IDs are kept in insertion order on a ring of {@code size} entries, evicting the oldest one as the other caches
+ * do, with their bytes on a circular arena growing as needed. They are found through an open addressing hash table with
+ * linear probing whose slots pack the position of an ID on the ring with a 32 bits hash of its bytes: looking up an ID
+ * which isn't a duplicate, the common case, only reads the table, the bytes of an ID being compared only if its hash
+ * matches.
+ * <p>
+ * When persistent, the IDs are stored as journal updates of segment records holding up to {@link #SEGMENT_SIZE} IDs,
+ * instead of a journal record for each ID which has to be deleted when the ID is evicted: a segment record is deleted
+ * once none of its IDs is left in the cache.
+ */
+final class OffHeapDuplicateIDCache implements DuplicateIDCache {
+
+   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+   static final int SEGMENT_SIZE = 1024;
+
+   private static final long NO_RECORD = -1;
+
+   // the entries of the ring pack the segment record, the offset, length and hash of the bytes of an ID
+   private static final int ENTRY_SIZE = 20;
+   private static final int RECORD_ID_OFFSET = 0;
+   private static final int BYTES_OFFSET = 8;
+   private static final int LENGTH_OFFSET = 12;
+   private static final int HASH_OFFSET = 16;
+
+   private static final int INITIAL_ENTRIES = 64;
+   private static final int INITIAL_ARENA_BYTES = 4096;
+   private static final int MAX_ARENA_BYTES = Integer.MAX_VALUE - 8;
+
+   private final SimpleString address;
+
+   private final int cacheSize;
+
+   // null if the IDs aren't persisted
+   private final StorageManager storageManager;
+
+   private final int segmentSize;
+
+   private ByteBuffer entries;
+
+   // the number of entries of the ring which have been used, up to cacheSize
+   private int filled;
+
+   private int pos;
+
+   private ByteBuffer arena;
+
+   private int arenaTail;
+
+   // the bytes of the entries on the ring, including the deleted ones
+   private int arenaUsed;
+
+   // the slots pack the hash of an ID in the high 32 bits with its position on the ring plus one, 0 being empty
+   private ByteBuffer table;
+
+   private int tableMask;
+
+   // the number of IDs of each segment record which are in the cache or in a pending transaction
+   private final Map<Long, Integer> segments = new HashMap<>();
+
+   private long openSegment = NO_RECORD;
+
+   private int openSegmentIDs;
+
+   OffHeapDuplicateIDCache(final SimpleString address, final int size, final StorageManager storageManager) {
+      if (size <= 0 || size > (1 << 26)) {
+         throw new IllegalArgumentException("size must be > 0 and <= " + (1 << 26));
+      }
+      this.address = address;
+      this.cacheSize = size;
+      this.storageManager = storageManager;
+      // the records of the IDs evicted from a segment which still has some are kept, so segments are smaller than the cache
+      this.segmentSize = Math.max(1, Math.min(SEGMENT_SIZE, size / 4));
+      allocate();
+   }
+
+   private void allocate() {
+      entries = allocateDirect(Math.min(cacheSize, INITIAL_ENTRIES) * ENTRY_SIZE);
+      arena = allocateDirect(INITIAL_ARENA_BYTES);
+      table = allocateDirect(tableCapacity(Math.min(cacheSize, INITIAL_ENTRIES)) * Long.BYTES);
+      tableMask = table.capacity() / Long.BYTES - 1;
+      filled = 0;
+      pos = 0;
+      arenaTail = 0;
+      arenaUsed = 0;
+   }
+
+   private static ByteBuffer allocateDirect(int bytes) {
+      return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+   }
+
+   private static int tableCapacity(int ids) {
+      // at most half full
+      return Integer.highestOneBit(Math.max(ids, 1) * 4 - 1);
+   }
+
+   @Override
+   public synchronized void load(final List<Pair<byte[], Long>> ids) throws Exception {
+      if (storageManager == null) {
+         logger.debug("address = {} ignore loading ids: in memory cache won't load previously stored ids", address);
+         return;
+      }
+      if (filled > 0) {
+         throw new IllegalStateException("load is valid only on empty cache");
+      }
+      // only the newest ids fitting the cache are loaded, the segment records left without any being deleted
+
+      int toNotBeAdded = -cacheSize;
+      for (Pair<byte[], Long> id : ids) {
+         if (id.getA() != null && id.getB() != null) {
+            toNotBeAdded++;
+         }
+      }
+
+      for (Pair<byte[], Long> id : ids) {
+         if (id.getB() == null) {
+            if (logger.isTraceEnabled()) {
+               logger.trace("ignoring id = {} because without record ID", describeID(id.getA()));
+            }
+            continue;
+         }
+         final long recordID = id.getB();
+         segments.putIfAbsent(recordID, 0);
+         // the header of a segment record comes without any id
+         if (id.getA() == null) {
+            continue;
+         }
+         if (toNotBeAdded > 0) {
+            toNotBeAdded--;
+            continue;
+         }
+         segments.merge(recordID, 1, Integer::sum);
+         addToCacheInMemory(id.getA(), recordID);
+         if (logger.isTraceEnabled()) {
+            logger.trace("loading id = {}", describeID(id.getA(), recordID));
+         }
+      }
+
+      deleteEmptySegments();
+   }
+
+   /**
+    * Deletes the segment records left without any ID once the committed IDs are loaded.
+    * <p>
+    * The IDs added by the prepared transactions are counted beforehand through {@link #load(Transaction, byte[], long)},
+    * the prepared transactions being loaded from the journal before the committed IDs are handed over to
+    * {@link #load(List)}, so that the segments still holding an ID of a prepared transaction are kept.
+    */
+   private void deleteEmptySegments() throws Exception {
+      long txID = -1;
+      for (Map.Entry<Long, Integer> segment : new ArrayList<>(segments.entrySet())) {
+         if (segment.getValue() == 0) {
+            if (txID == -1) {
+               txID = storageManager.generateID();
+            }
+            storageManager.deleteDuplicateIDTransactional(txID, segment.getKey());
+            segments.remove(segment.getKey());
+         }
+      }
+      if (txID != -1) {
+         storageManager.commit(txID);
+      }
+   }
+
+   @Override
+   public synchronized boolean deleteFromCache(byte[] duplicateID) throws Exception {
+      if (logger.isTraceEnabled()) {
+         logger.trace("deleting id = {}", describeID(duplicateID));
+      }
+      final int hash = hash(duplicateID);
+      final int index = find(duplicateID, hash);
+      if (index < 0) {
+         return false;
+      }
+      final int offset = index * ENTRY_SIZE;
+      removeFromTable(hash, index);
+      entries.putInt(offset + LENGTH_OFFSET, ~duplicateID.length);
+      final long recordID = entries.getLong(offset + RECORD_ID_OFFSET);
+      if (logger.isTraceEnabled()) {
+         logger.trace("address = {} deleting id = {}", address, describeID(duplicateID, recordID));
+      }
+      if (!release(recordID) && recordID != NO_RECORD) {
+         storageManager.removeDuplicateIDFromSegment(recordID, duplicateID);
+      }
+      return true;
+   }
+
+   private static String describeID(byte[] duplicateID) {
+      return ByteUtil.bytesToHex(duplicateID, 4) + ", simpleString=" + ByteUtil.toSimpleString(duplicateID);
+   }
+
+   private static String describeID(byte[] duplicateID, long id) {
+      return ByteUtil.bytesToHex(duplicateID, 4) + ", simpleString=" + ByteUtil.toSimpleString(duplicateID) + ", id=" + id;
+   }
+
+   @Override
+   public synchronized boolean contains(final byte[] duplID) {
+      final boolean contains = find(duplID, hash(duplID)) >= 0;
+      if (contains) {
+         if (logger.isTraceEnabled()) {
+            logger.trace("address = {} found a duplicate {}", address, describeID(duplID));
+         }
+      }
+      return contains;
+   }
+
+   @Override
+   public void addToCache(final byte[] duplID) throws Exception {
+      addToCache(duplID, null, false);
+   }
+
+   @Override
+   public void addToCache(final byte[] duplID, final Transaction tx) throws Exception {
+      addToCache(duplID, tx, false);
+   }
+
+   @Override
+   public synchronized boolean atomicVerify(final byte[] duplID, final Transaction tx) throws Exception {
+      if (contains(duplID)) {
+         if (tx != null) {
+            tx.markAsRollbackOnly(new ActiveMQDuplicateIdException());
+         }
+         return false;
+      }
+      addToCache(duplID, tx, true);
+      return true;
+   }
+
+   @Override
+   public synchronized void addToCache(final byte[] duplID, final Transaction tx, boolean instantAdd) throws Exception {
+      final long recordID = store(duplID, tx);
+      if (tx == null) {
+         addToCacheInMemory(duplID, recordID);
+      } else {
+         if (logger.isTraceEnabled()) {
+            logger.trace("address = {} adding duplicateID TX operation for {}, tx = {}", address, describeID(duplID, recordID), tx);
+         }
+
+         if (instantAdd) {
+            addToCacheInMemory(duplID, recordID);
+            tx.addOperation(new AddDuplicateIDOperation(duplID, recordID, false));
+         } else {
+            // For a tx, it's important that the entry is not added to the cache until commit
+            // since if the client fails then resends them tx we don't want it to get rejected
+            tx.afterStore(new AddDuplicateIDOperation(duplID, recordID, true));
+         }
+      }
+   }
+
+   /**
+    * Appends the ID to the open segment record, opening a new one if needed.
+    *
+    * @return the segment record or {@link #NO_RECORD} if the IDs aren't persisted
+    */
+   private long store(final byte[] duplID, final Transaction tx) throws Exception {
+      if (storageManager == null) {
+         return NO_RECORD;
+      }
+      if (openSegment == NO_RECORD) {
+         openSegment = storageManager.generateID();
+         openSegmentIDs = 0;
+         storageManager.storeDuplicateIDSegment(address, openSegment);
+         segments.put(openSegment, 0);
+      }
+      final long recordID = openSegment;
+      if (tx == null) {
+         storageManager.addDuplicateIDToSegment(recordID, duplID);
+      } else {
+         storageManager.addDuplicateIDToSegmentTransactional(tx.getID(), recordID, duplID);
+         tx.setContainsPersistent();
+      }
+      segments.merge(recordID, 1, Integer::sum);
+      if (++openSegmentIDs == segmentSize) {
+         openSegment = NO_RECORD;
+      }
+      return recordID;
+   }
+
+   /**
+    * Releases an ID of the segment record, deleting the record once none of its IDs is left. The open segment is
+    * closed as well, rather than kept without any ID until a restart.
+    *
+    * @return {@code true} if the segment record has been deleted
+    */
+   private boolean release(final long recordID) {
+      if (recordID == NO_RECORD) {
+         return false;
+      }
+      final Integer ids = segments.get(recordID);
+      if (ids == null) {
+         return false;
+      }
+      if (ids > 1) {
+         segments.put(recordID, ids - 1);
+         return false;
+      }
+      if (recordID == openSegment) {
+         openSegment = NO_RECORD;
+      }
+      segments.remove(recordID);
+      try {
+         storageManager.deleteDuplicateID(recordID);
+      } catch (Exception e) {
+         ActiveMQServerLogger.LOGGER.errorDeletingDuplicateCache(e);
+      }
+      return true;
+   }
+
+   @Override
+   public void load(final Transaction tx, final byte[] duplID) {
+      load(tx, duplID, NO_RECORD);
+   }
+
+   @Override
+   public synchronized void load(final Transaction tx, final byte[] duplID, final long recordID) {
+      if (storageManager != null && recordID != NO_RECORD) {
+         segments.merge(recordID, 1, Integer::sum);
+      }
+      tx.addOperation(new AddDuplicateIDOperation(duplID, recordID, true));
+   }
+
+   private synchronized void addToCacheInMemory(final byte[] duplID, final long recordID) {
+      if (logger.isTraceEnabled()) {
+         logger.trace("address = {} adding {}", address, describeID(duplID, recordID));
+      }
+
+      if (pos < filled) {
+         evict(pos);
+      } else {
+         ensureEntries(pos + 1);
+         ensureTable(pos + 1);
+      }
+
+      final int hash = hash(duplID);
+      final int bytesOffset = allocateBytes(duplID.length);
+      for (int i = 0; i < duplID.length; i++) {
+         arena.put(bytesOffset + i, duplID[i]);
+      }
+      final int offset = pos * ENTRY_SIZE;
+      entries.putLong(offset + RECORD_ID_OFFSET, recordID);
+      entries.putInt(offset + BYTES_OFFSET, bytesOffset);
+      entries.putInt(offset + LENGTH_OFFSET, duplID.length);
+      entries.putInt(offset + HASH_OFFSET, hash);
+      insertIntoTable(hash, pos);
+
+      if (pos == filled) {
+         filled++;
+      }
+      if (pos++ == cacheSize - 1) {
+         pos = 0;
+      }
+   }
+
+   private void evict(final int index) {
+      final int offset = index * ENTRY_SIZE;
+      final int length = entries.getInt(offset + LENGTH_OFFSET);
+      if (length >= 0) {
+         if (logger.isTraceEnabled()) {
+            logger.trace("address = {} removing excess duplicateDetection {}", address, describeID(bytesAt(index), entries.getLong(offset + RECORD_ID_OFFSET)));
+         }
+         removeFromTable(entries.getInt(offset + HASH_OFFSET), index);
+         release(entries.getLong(offset + RECORD_ID_OFFSET));
+         arenaUsed -= length;
+      } else {
+         arenaUsed -= ~length;
+      }
+   }
+
+   private int length(final int index) {
+      final int length = entries.getInt(index * ENTRY_SIZE + LENGTH_OFFSET);
+      return length >= 0 ? length : ~length;
+   }
+
+   private byte[] bytesAt(final int index) {
+      final int offset = index * ENTRY_SIZE;
+      final int bytesOffset = entries.getInt(offset + BYTES_OFFSET);
+      final byte[] bytes = new byte[entries.getInt(offset + LENGTH_OFFSET)];
+      for (int i = 0; i < bytes.length; i++) {
+         bytes[i] = arena.get(bytesOffset + i);
+      }
+      return bytes;
+   }
+
+   private boolean equalsAt(final int index, final byte[] duplID) {
+      final int offset = index * ENTRY_SIZE;
+      if (entries.getInt(offset + LENGTH_OFFSET) != duplID.length) {
+         return false;
+      }
+      final int bytesOffset = entries.getInt(offset + BYTES_OFFSET);
+      for (int i = 0; i < duplID.length; i++) {
+         if (arena.get(bytesOffset + i) != duplID[i]) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * {@return the position on the ring of the entries other than the one at {@link #pos}, which is being replaced, from
+    * the oldest to the newest}
+    */
+   private int[] ringOrder() {
+      final int count = filled < cacheSize ? pos : cacheSize - 1;
+      final int first = filled < cacheSize ? 0 : pos + 1;
+      final int[] order = new int[count];
+      for (int i = 0; i < count; i++) {
+         order[i] = (first + i) % cacheSize;
+      }
+      return order;
+   }
+
+   /**
+    * {@return the offset on the arena where the bytes of the entry at {@link #pos} go}
+    * <p>
+    * The bytes of the entries are stored on the arena in the order of the ring, so they are between the bytes of the
+    * oldest entry and {@link #arenaTail}, wrapping around the end of the arena.
+    */
+   private int allocateBytes(final int length) {
+      int offset = freeBytes(length);
+      if (offset < 0) {
+         growArena(length);
+         offset = freeBytes(length);
+      }
+      arenaTail = offset + length;
+      arenaUsed += length;
+      return offset;
+   }
+
+   private int freeBytes(final int length) {
+      final int capacity = arena.capacity();
+      if (arenaUsed == 0) {
+         return length <= capacity ? 0 : -1;
+      }
+      final int oldest = filled < cacheSize ? 0 : (pos + 1) % cacheSize;
+      final int head = entries.getInt(oldest * ENTRY_SIZE + BYTES_OFFSET);
+      if (arenaTail > head) {
+         if (capacity - arenaTail >= length) {
+            return arenaTail;
+         }
+         return length <= head ? 0 : -1;
+      }
+      return arenaTail < head && head - arenaTail >= length ? arenaTail : -1;
+   }
+
+   private void growArena(final int length) {
+      final long required = (long) arenaUsed + length;
+      final long capacity = Math.min(MAX_ARENA_BYTES, Math.max((long) arena.capacity() * 2, required));
+      if (capacity < required) {
+         throw new IllegalStateException("The duplicate IDs of " + address + " don't fit in " + MAX_ARENA_BYTES + " bytes");
+      }
+      final ByteBuffer grown = allocateDirect((int) capacity);
+      int tail = 0;
+      for (int index : ringOrder()) {
+         final int offset = index * ENTRY_SIZE;
+         final int bytesOffset = entries.getInt(offset + BYTES_OFFSET);
+         final int bytes = length(index);
+         for (int i = 0; i < bytes; i++) {
+            grown.put(tail + i, arena.get(bytesOffset + i));
+         }
+         entries.putInt(offset + BYTES_OFFSET, tail);
+         tail += bytes;
+      }
+      PlatformDependent.freeDirectBuffer(arena);
+      arena = grown;
+      arenaTail = tail;
+   }
+
+   private void ensureEntries(final int count) {
+      if (entries.capacity() < count * ENTRY_SIZE) {
+         final int capacity = (int) Math.min(cacheSize, Math.max((long) entries.capacity() / ENTRY_SIZE * 2, count));
+         final ByteBuffer grown = allocateDirect(capacity * ENTRY_SIZE);
+         for (int i = 0; i < filled * ENTRY_SIZE; i += Integer.BYTES) {
+            grown.putInt(i, entries.getInt(i));
+         }
+         PlatformDependent.freeDirectBuffer(entries);
+         entries = grown;
+      }
+   }
+
+   private void ensureTable(final int count) {
+      final int capacity = tableCapacity(count);
+      if (table.capacity() < capacity * Long.BYTES) {
+         PlatformDependent.freeDirectBuffer(table);
+         table = allocateDirect(capacity * Long.BYTES);
+         tableMask = capacity - 1;
+         for (int index = 0; index < filled; index++) {
+            final int offset = index * ENTRY_SIZE;
+            if (entries.getInt(offset + LENGTH_OFFSET) >= 0) {
+               insertIntoTable(entries.getInt(offset + HASH_OFFSET), index);
+            }
+         }
+      }
+   }
+
+   private static int hash(final byte[] duplID) {
+      final int hash = ByteUtil.hashCode(duplID) * 0x9E3779B9;
+      return hash ^ (hash >>> 16);
+   }
+
+   private static long slot(final int hash, final int index) {
+      return ((long) hash << 32) | (index + 1L);
+   }
+
+   /**
+    * {@return the position on the ring of the ID or {@code -1} if it is not in the cache}
+    */
+   private int find(final byte[] duplID, final int hash) {
+      for (int slot = hash & tableMask; ; slot = (slot + 1) & tableMask) {
+         final long value = table.getLong(slot * Long.BYTES);
+         if (value == 0) {
+            return -1;
+         }
+         if ((int) (value >>> 32) == hash) {
+            final int index = (int) value - 1;
+            if (equalsAt(index, duplID)) {
+               return index;
+            }
+         }
+      }
+   }
+
+   private void insertIntoTable(final int hash, final int index) {
+      int slot = hash & tableMask;
+      while (table.getLong(slot * Long.BYTES) != 0) {
+         slot = (slot + 1) & tableMask;
+      }
+      table.putLong(slot * Long.BYTES, slot(hash, index));
+   }
+
+   /**
+    * Removes the slot of the entry, moving back the following slots of the cluster whose probe sequence went through
+    * it, so that lookups need no tombstones.
+    */
+   private void removeFromTable(final int hash, final int index) {
+      final long removed = slot(hash, index);
+      int hole = hash & tableMask;
+      while (table.getLong(hole * Long.BYTES) != removed) {
+         hole = (hole + 1) & tableMask;
+      }
+      for (int next = (hole + 1) & tableMask; ; next = (next + 1) & tableMask) {
+         final long value = table.getLong(next * Long.BYTES);
+         if (value == 0) {
+            break;
+         }
+         final int home = (int) (value >>> 32) & tableMask;
+         // the slot can't be moved if its home is cyclically within (hole, next]
+         final boolean stays = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+         if (!stays) {
+            table.putLong(hole * Long.BYTES, value);
+            hole = next;
+         }
+      }
+      table.putLong(hole * Long.BYTES, 0);
+   }
+
+   @Override
+   public synchronized void clear() throws Exception {
+      logger.debug("address = {} removing duplicate ID data", address);
+      if (storageManager != null && !segments.isEmpty()) {
+         final long tx = storageManager.generateID();
+         for (Long recordID : segments.keySet()) {
+            storageManager.deleteDuplicateIDTransactional(tx, recordID);
+         }
+         storageManager.commit(tx);
+      }
+      segments.clear();
+      openSegment = NO_RECORD;
+      PlatformDependent.freeDirectBuffer(entries);
+      PlatformDependent.freeDirectBuffer(arena);
+      PlatformDependent.freeDirectBuffer(table);
+      allocate();
+   }
+
+   @Override
+   public synchronized List<Pair<byte[], Long>> getMap() {
+      final List<Pair<byte[], Long>> copy = new ArrayList<>(filled);
+      for (int index = 0; index < filled; index++) {
+         final int offset = index * ENTRY_SIZE;
+         // in case the id has been removed
+         if (entries.getInt(offset + LENGTH_OFFSET) >= 0) {
+            final long recordID = entries.getLong(offset + RECORD_ID_OFFSET);
+            copy.add(new Pair<>(bytesAt(index), recordID == NO_RECORD ? null : recordID));
+         }
+      }
+      return copy;
+   }
+
+   private final class AddDuplicateIDOperation extends TransactionOperationAbstract {
+
+      final byte[] duplID;
+
+      final long recordID;
+
+      volatile boolean done;
+
+      private final boolean afterCommit;
+
+      AddDuplicateIDOperation(final byte[] duplID, final long recordID, boolean afterCommit) {
+         this.duplID = duplID;
+         this.recordID = recordID;
+         this.afterCommit = afterCommit;
+      }
+
+      private void process() {
+         if (!done) {
+            addToCacheInMemory(duplID, recordID);
+
+            done = true;
+         }
+      }
+
+      @Override
+      public void afterCommit(final Transaction tx) {
+         if (afterCommit) {
+            process();
+         }
+      }
+
+      @Override
+      public void beforeRollback(Transaction tx) throws Exception {
+         if (!afterCommit) {
+            deleteFromCache(duplID);
+         }
+      }
+
+      @Override
+      public void afterRollback(Transaction tx) {
+         if (afterCommit) {
+            synchronized (OffHeapDuplicateIDCache.this) {
+               release(recordID);
+            }
+         }
+      }
+
+      @Override
+      public List<MessageReference> getRelatedMessageReferences() {
+         return null;
+      }
+   }
+
+   @Override
+   public int getSize() {
+      return cacheSize;
+   }
+}
@@ -17,6 +17,7 @@
 package org.apache.activemq.artemis.core.postoffice.impl;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -67,6 +68,10 @@ final class PersistentDuplicateIDCache implements DuplicateIDCache {
 
    private final StorageManager storageManager;
 
+   // the number of IDs in the cache or in a prepared transaction of each segment record stored by an off-heap cache,
+   // which holds many IDs and is only deleted with the last of them
+   private final Map<Long, Integer> segments = new HashMap<>();
+
    PersistentDuplicateIDCache(final SimpleString address, final int size, final StorageManager storageManager) {
       this.address = address;
 
@@ -91,12 +96,29 @@ final class PersistentDuplicateIDCache implements DuplicateIDCache {
 
       long txID = -1;
 
-      int toNotBeAdded = ids.size() - cacheSize;
+      // the records loaded by the prepared transactions which aren't segments have a record for each ID
+      final Map<Long, Integer> prepared = new HashMap<>(segments);
+      segments.clear();
+      int headers = 0;
+      for (Pair<byte[], Long> id : ids) {
+         if (id.getA() == null) {
+            headers++;
+            if (id.getB() != null) {
+               segments.put(id.getB(), prepared.getOrDefault(id.getB(), 0));
+            }
+         }
+      }
+
+      int toNotBeAdded = ids.size() - headers - cacheSize;
       if (toNotBeAdded < 0) {
          toNotBeAdded = 0;
       }
 
       for (Pair<byte[], Long> id : ids) {
+         if (id.getA() == null) {
+            // the header of a segment stored by an off-heap cache
+            continue;
+         }
          if (id.getB() == null) {
             if (logger.isTraceEnabled()) {
                logger.trace("ignoring id = {} because without record ID", describeID(id.getA()));
@@ -107,7 +129,10 @@ final class PersistentDuplicateIDCache implements DuplicateIDCache {
             continue;
          }
          assert id.getB() != null && id.getB().longValue() != NIL;
-         if (toNotBeAdded > 0) {
+         if (toNotBeAdded > 0 && segments.containsKey(id.getB())) {
+            // the segment record is deleted below if none of its IDs is loaded
+            toNotBeAdded--;
+         } else if (toNotBeAdded > 0) {
             if (txID == -1) {
                txID = storageManager.generateID();
             }
@@ -125,6 +150,7 @@ final class PersistentDuplicateIDCache implements DuplicateIDCache {
             cache.put(bah, cachedBoxedInts.apply(this.ids.size()));
 
             this.ids.add(pair);
+            segments.computeIfPresent(id.getB(), (recordID, count) -> count + 1);
             if (logger.isTraceEnabled()) {
                logger.trace("loading id = {}", describeID(id.getA(), id.getB()));
             }
@@ -132,6 +158,16 @@ final class PersistentDuplicateIDCache implements DuplicateIDCache {
 
       }
 
+      for (Map.Entry<Long, Integer> segment : new ArrayList<>(segments.entrySet())) {
+         if (segment.getValue() == 0) {
+            if (txID == -1) {
+               txID = storageManager.generateID();
+            }
+            storageManager.deleteDuplicateIDTransactional(txID, segment.getKey());
+            segments.remove(segment.getKey());
+         }
+      }
+
       if (txID != -1) {
          storageManager.commit(txID);
       }
@@ -167,7 +203,9 @@ final class PersistentDuplicateIDCache implements DuplicateIDCache {
                if (logger.isTraceEnabled()) {
                   logger.trace("address = {} deleting id = {}", address, describeID(duplicateID.bytes, id.getB()));
                }
-               storageManager.deleteDuplicateID(recordID);
+               if (!release(recordID)) {
+                  storageManager.removeDuplicateIDFromSegment(recordID, duplicateID.bytes);
+               }
             }
          }
          return true;
@@ -176,6 +214,24 @@ final class PersistentDuplicateIDCache implements DuplicateIDCache {
       return false;
    }
 
+   /**
+    * Deletes the record of an ID leaving the cache, unless it is a segment record still holding other IDs.
+    *
+    * @return {@code true} if the record has been deleted
+    */
+   private boolean release(final long recordID) throws Exception {
+      final Integer count = segments.get(recordID);
+      if (count != null) {
+         if (count > 1) {
+            segments.put(recordID, count - 1);
+            return false;
+         }
+         segments.remove(recordID);
+      }
+      storageManager.deleteDuplicateID(recordID);
+      return true;
+   }
+
    private static String describeID(byte[] duplicateID) {
       return ByteUtil.bytesToHex(duplicateID, 4) + ", simpleString=" + ByteUtil.toSimpleString(duplicateID);
    }
@@ -262,6 +318,13 @@ final class PersistentDuplicateIDCache implements DuplicateIDCache {
       tx.addOperation(new AddDuplicateIDOperation(new ByteArray(duplID), tx.getID(), true));
    }
 
+   @Override
+   public synchronized void load(final Transaction tx, final byte[] duplID, final long recordID) {
+      // counted in case the record is a segment, which is only known once the committed IDs are loaded
+      segments.merge(recordID, 1, Integer::sum);
+      tx.addOperation(new AddDuplicateIDOperation(new ByteArray(duplID), recordID, true));
+   }
+
    private synchronized void addToCacheInMemory(final ByteArray holder, final long recordID) {
       Objects.requireNonNull(holder, "holder must be not null");
       if (recordID < 0) {
@@ -289,7 +352,7 @@ final class PersistentDuplicateIDCache implements DuplicateIDCache {
 
             assert id.getB() != NIL;
             try {
-               storageManager.deleteDuplicateID(id.getB());
+               release(id.getB());
             } catch (Exception e) {
                ActiveMQServerLogger.LOGGER.errorDeletingDuplicateCache(e);
             }
@@ -328,12 +391,17 @@ final class PersistentDuplicateIDCache implements DuplicateIDCache {
          long tx = storageManager.generateID();
          for (int i = 0; i < idsSize; i++) {
             final ObjLongPair<ByteArray> id = ids.get(i);
-            if (id.getA() != null) {
+            if (id.getA() != null && !segments.containsKey(id.getB())) {
                assert id.getB() != NIL;
                storageManager.deleteDuplicateIDTransactional(tx, id.getB());
                deleted = true;
             }
          }
+         // a segment record is deleted once, whatever the number of its IDs
+         for (Long recordID : segments.keySet()) {
+            storageManager.deleteDuplicateIDTransactional(tx, recordID);
+            deleted = true;
+         }
          if (deleted) {
             storageManager.commit(tx);
          }
@@ -341,6 +409,7 @@ final class PersistentDuplicateIDCache implements DuplicateIDCache {
 
       ids.clear();
       cache.clear();
+      segments.clear();
       pos = 0;
    }
 
@@ -397,6 +466,22 @@ final class PersistentDuplicateIDCache implements DuplicateIDCache {
          }
       }
 
+      @Override
+      public void afterRollback(Transaction tx) {
+         if (afterCommit) {
+            synchronized (PersistentDuplicateIDCache.this) {
+               // the ID of a prepared transaction rolled back no longer holds its segment record
+               if (segments.containsKey(recordID)) {
+                  try {
+                     release(recordID);
+                  } catch (Exception e) {
+                     ActiveMQServerLogger.LOGGER.errorDeletingDuplicateCache(e);
+                  }
+               }
+            }
+         }
+      }
+
       @Override
       public List<MessageReference> getRelatedMessageReferences() {
          return null;
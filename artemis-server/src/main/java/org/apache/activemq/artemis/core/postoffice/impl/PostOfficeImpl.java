@@ -151,6 +151,8 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
 
    private final boolean persistIDCache;
 
+   private final boolean idCacheOffHeap;
+
    private final Map<SimpleString, QueueInfo> queueInfos = new HashMap<>();
 
    private final Object notificationLock = new Object();
@@ -171,6 +173,7 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
                          final WildcardConfiguration wildcardConfiguration,
                          final int idCacheSize,
                          final boolean persistIDCache,
+                         final boolean idCacheOffHeap,
                          final HierarchicalRepository<AddressSettings> addressSettingsRepository) {
       this.storageManager = storageManager;
 
@@ -194,6 +197,8 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
 
       this.persistIDCache = persistIDCache;
 
+      this.idCacheOffHeap = idCacheOffHeap;
+
       this.addressSettingsRepository = addressSettingsRepository;
 
       this.server = server;
@@ -1501,9 +1506,9 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
             if (allowRegistration) {
                registerCacheSize(address, cacheSizeToUse);
             }
-            cache = DuplicateIDCaches.persistent(address, cacheSizeToUse, storageManager);
+            cache = idCacheOffHeap ? DuplicateIDCaches.persistentOffHeap(address, cacheSizeToUse, storageManager) : DuplicateIDCaches.persistent(address, cacheSizeToUse, storageManager);
          } else {
-            cache = DuplicateIDCaches.inMemory(address, cacheSizeToUse);
+            cache = idCacheOffHeap ? DuplicateIDCaches.inMemoryOffHeap(address, cacheSizeToUse) : DuplicateIDCaches.inMemory(address, cacheSizeToUse);
          }
 
          DuplicateIDCache oldCache = duplicateIDCaches.putIfAbsent(address, cache);
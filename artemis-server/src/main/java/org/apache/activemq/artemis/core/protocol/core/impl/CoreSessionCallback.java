@@ -16,7 +16,13 @@
  */
 package org.apache.activemq.artemis.core.protocol.core.impl;
 
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+
+import org.apache.activemq.artemis.api.core.ActiveMQException;
 import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.message.LargeBodyReader;
 import org.apache.activemq.artemis.core.persistence.CoreMessageObjectPools;
 import org.apache.activemq.artemis.core.protocol.core.Channel;
 import org.apache.activemq.artemis.core.protocol.core.Packet;
@@ -34,10 +40,15 @@ import org.apache.activemq.artemis.core.server.ServerConsumer;
 import org.apache.activemq.artemis.spi.core.protocol.ProtocolManager;
 import org.apache.activemq.artemis.spi.core.protocol.RemotingConnection;
 import org.apache.activemq.artemis.spi.core.protocol.SessionCallback;
+import org.apache.activemq.artemis.spi.core.remoting.FileRegionWriter;
 import org.apache.activemq.artemis.spi.core.remoting.ReadyListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public final class CoreSessionCallback implements SessionCallback {
 
+   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
    private final Channel channel;
 
    private ProtocolManager protocolManager;
@@ -111,14 +122,43 @@ public final class CoreSessionCallback implements SessionCallback {
       return packet.getPacketSize();
    }
 
+   @Override
+   public FileRegionWriter openLargeMessageFileRegion(LargeBodyReader reader) {
+      final File file = reader.getFile();
+      if (file == null) {
+         return null;
+      }
+      try {
+         return channel.openFileRegionWriter(file);
+      } catch (IOException e) {
+         logger.debug("Couldn't open {}, reading it instead", file, e);
+         return null;
+      }
+   }
+
+   @Override
+   public int sendLargeMessageContinuation(ServerConsumer consumer,
+                                           FileRegionWriter writer,
+                                           LargeBodyReader reader,
+                                           int length,
+                                           boolean continues) throws ActiveMQException {
+      final long position = reader.position();
+      final SessionReceiveContinuationMessage packet = new SessionReceiveContinuationMessage(consumer.getID(), null, continues, false);
+      if (!channel.sendFileRegion(packet, writer, position, length)) {
+         return -1;
+      }
+      reader.position(position + length);
+      return packet.getPacketSize();
+   }
+
    @Override
    public int sendMessage(MessageReference ref, ServerConsumer consumer, int deliveryCount) {
 
       Packet packet;
       if (channel.getConnection().isVersionBeforeAddressChange()) {
-         packet = new SessionReceiveMessage_1X(consumer.getID(), ref.getMessage().toCore(coreMessageObjectPools), deliveryCount);
+         packet = new SessionReceiveMessage_1X(consumer.getID(), ref.getMessage().toCoreForDelivery(coreMessageObjectPools), deliveryCount);
       } else {
-         packet = new SessionReceiveMessage(consumer.getID(), ref.getMessage().toCore(coreMessageObjectPools), deliveryCount);
+         packet = new SessionReceiveMessage(consumer.getID(), ref.getMessage().toCoreForDelivery(coreMessageObjectPools), deliveryCount);
       }
 
       int size = 0;
@@ -0,0 +1,475 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.remoting.impl.netty;
+
+import java.lang.invoke.MethodHandles;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.NetUtil;
+import io.netty.util.ReferenceCountUtil;
+import org.apache.activemq.artemis.core.server.ActiveMQServerLogger;
+import org.apache.activemq.artemis.utils.ConfigurationHelper;
+import org.apache.activemq.artemis.utils.ProxyProtocolUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Admits the connections of an acceptor at a bounded rate so that a burst of connections, e.g. every client
+ * reconnecting after a load balancer failed over, doesn't overwhelm the broker with authentications and session
+ * creations.
+ * <p>
+ * A connection is admitted when its first bytes are received, before any TLS handshake or protocol detection, if a
+ * token is available both in the bucket of the acceptor and in the bucket of its source network, and no connection of
+ * its source network is deferred. Otherwise it is deferred: its channel stops reading and waits, in order of arrival,
+ * for the tokens to refill. A connection is rejected, i.e. closed before anything is read from it, if
+ * {@code pendingConnectionsAllowed} connections are already deferred, or {@code pendingConnectionsAllowedPerSource}
+ * connections of its source network, or if it stays deferred longer than {@code pendingConnectionTimeout}. Clients
+ * handle that like any other failure to connect and retry with their own back-off.
+ */
+public class ConnectionAdmissionController {
+
+   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+   // the buckets of the sources are pruned of the idle ones once there are that many
+   private static final int MIN_PRUNE_THRESHOLD = 1024;
+
+   private final String acceptorName;
+
+   private final TokenBucket acceptorBucket;
+
+   private final int sourceRate;
+
+   private final int ipv4Prefix;
+
+   private final int ipv6Prefix;
+
+   private final int pendingConnectionsAllowed;
+
+   private final int pendingConnectionsAllowedPerSource;
+
+   private final long pendingConnectionTimeoutNanos;
+
+   private final long drainIntervalNanos;
+
+   private final ScheduledExecutorService scheduledExecutor;
+
+   private final LongSupplier nanoClock;
+
+   private final Map<String, TokenBucket> sourceBuckets = new HashMap<>();
+
+   private final ArrayDeque<AdmissionHandler> pendingConnections = new ArrayDeque<>();
+
+   // the number of deferred connections of each source network
+   private final Map<String, Integer> pendingSources = new HashMap<>();
+
+   private final AtomicLong acceptedCount = new AtomicLong();
+
+   private final AtomicLong deferredCount = new AtomicLong();
+
+   private final AtomicLong rejectedCount = new AtomicLong();
+
+   private ScheduledFuture<?> drainFuture;
+
+   private int pruneThreshold = MIN_PRUNE_THRESHOLD;
+
+   private boolean throttling;
+
+   /**
+    * {@return the admission controller configured by the parameters of an acceptor, or {@code null} if the acceptor
+    * admits connections without limit}
+    */
+   public static ConnectionAdmissionController create(String acceptorName,
+                                                      Map<String, Object> configuration,
+                                                      ScheduledExecutorService scheduledExecutor) {
+      final int rate = ConfigurationHelper.getIntProperty(TransportConstants.CONNECTION_RATE, TransportConstants.DEFAULT_CONNECTION_RATE, configuration);
+      final int sourceRate = ConfigurationHelper.getIntProperty(TransportConstants.CONNECTION_RATE_PER_SOURCE, TransportConstants.DEFAULT_CONNECTION_RATE_PER_SOURCE, configuration);
+      if (rate <= 0 && sourceRate <= 0) {
+         return null;
+      }
+      final int ipv4Prefix = ConfigurationHelper.getIntProperty(TransportConstants.CONNECTION_RATE_SOURCE_IPV4_PREFIX, TransportConstants.DEFAULT_CONNECTION_RATE_SOURCE_IPV4_PREFIX, configuration);
+      final int ipv6Prefix = ConfigurationHelper.getIntProperty(TransportConstants.CONNECTION_RATE_SOURCE_IPV6_PREFIX, TransportConstants.DEFAULT_CONNECTION_RATE_SOURCE_IPV6_PREFIX, configuration);
+      if (ipv4Prefix < 0 || ipv4Prefix > 32 || ipv6Prefix < 0 || ipv6Prefix > 128) {
+         throw new IllegalArgumentException("\"" + TransportConstants.CONNECTION_RATE_SOURCE_IPV4_PREFIX + "\" must be between 0 and 32 and \"" + TransportConstants.CONNECTION_RATE_SOURCE_IPV6_PREFIX + "\" between 0 and 128");
+      }
+      final int pendingConnectionsAllowed = ConfigurationHelper.getIntProperty(TransportConstants.PENDING_CONNECTIONS_ALLOWED, TransportConstants.DEFAULT_PENDING_CONNECTIONS_ALLOWED, configuration);
+      final int pendingConnectionsAllowedPerSource = ConfigurationHelper.getIntProperty(TransportConstants.PENDING_CONNECTIONS_ALLOWED_PER_SOURCE, TransportConstants.DEFAULT_PENDING_CONNECTIONS_ALLOWED_PER_SOURCE, configuration);
+      final long pendingConnectionTimeout = ConfigurationHelper.getLongProperty(TransportConstants.PENDING_CONNECTION_TIMEOUT, TransportConstants.DEFAULT_PENDING_CONNECTION_TIMEOUT, configuration);
+      return new ConnectionAdmissionController(acceptorName, rate, sourceRate, ipv4Prefix, ipv6Prefix, pendingConnectionsAllowed, pendingConnectionsAllowedPerSource, pendingConnectionTimeout, scheduledExecutor, System::nanoTime);
+   }
+
+   ConnectionAdmissionController(String acceptorName,
+                                 int rate,
+                                 int sourceRate,
+                                 int ipv4Prefix,
+                                 int ipv6Prefix,
+                                 int pendingConnectionsAllowed,
+                                 int pendingConnectionsAllowedPerSource,
+                                 long pendingConnectionTimeout,
+                                 ScheduledExecutorService scheduledExecutor,
+                                 LongSupplier nanoClock) {
+      this.acceptorName = acceptorName;
+      this.acceptorBucket = rate > 0 ? new TokenBucket(rate, nanoClock.getAsLong()) : null;
+      this.sourceRate = sourceRate;
+      this.ipv4Prefix = ipv4Prefix;
+      this.ipv6Prefix = ipv6Prefix;
+      this.pendingConnectionsAllowed = Math.max(0, pendingConnectionsAllowed);
+      // -1 leaves them bounded by pendingConnectionsAllowed only
+      this.pendingConnectionsAllowedPerSource = pendingConnectionsAllowedPerSource < 0 ? this.pendingConnectionsAllowed : pendingConnectionsAllowedPerSource;
+      this.pendingConnectionTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(pendingConnectionTimeout);
+      // the deferred connections are checked about as often as a token refills
+      this.drainIntervalNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(1), TimeUnit.SECONDS.toNanos(1) / Math.max(rate, sourceRate));
+      this.scheduledExecutor = scheduledExecutor;
+      this.nanoClock = nanoClock;
+   }
+
+   /**
+    * {@return a new handler admitting the connection of the channel it is added to}
+    */
+   public ChannelInboundHandlerAdapter newHandler() {
+      return new AdmissionHandler();
+   }
+
+   /**
+    * {@return the number of connections admitted, immediately or after being deferred}
+    */
+   public long getAcceptedCount() {
+      return acceptedCount.get();
+   }
+
+   /**
+    * {@return the number of connections deferred, whether they were admitted or rejected afterwards}
+    */
+   public long getDeferredCount() {
+      return deferredCount.get();
+   }
+
+   /**
+    * {@return the number of connections rejected}
+    */
+   public long getRejectedCount() {
+      return rejectedCount.get();
+   }
+
+   public synchronized int getPendingCount() {
+      return pendingConnections.size();
+   }
+
+   /**
+    * Rejects the connections still deferred, e.g. when the acceptor stops.
+    */
+   public void stop() {
+      final List<AdmissionHandler> rejected;
+      synchronized (this) {
+         if (drainFuture != null) {
+            drainFuture.cancel(false);
+            drainFuture = null;
+         }
+         rejected = new ArrayList<>(pendingConnections);
+         pendingConnections.clear();
+         pendingSources.clear();
+      }
+      rejected.forEach(AdmissionHandler::reject);
+   }
+
+   private void onConnection(AdmissionHandler handler) {
+      final long now = nanoClock.getAsLong();
+      final boolean admitted;
+      synchronized (this) {
+         final int sourcePending = pendingSources.getOrDefault(handler.source, 0);
+         // the connections of other sources waiting for their own source tokens don't hold this one back
+         if (sourcePending == 0 && tryAcquire(handler.source, now)) {
+            if (pendingConnections.isEmpty()) {
+               throttling = false;
+            }
+            admitted = true;
+         } else {
+            if (!throttling) {
+               throttling = true;
+               ActiveMQServerLogger.LOGGER.connectionAdmissionThrottling(acceptorName);
+            }
+            if (pendingConnections.size() < pendingConnectionsAllowed && sourcePending < pendingConnectionsAllowedPerSource) {
+               handler.deferredAt = now;
+               pendingConnections.add(handler);
+               pendingSources.put(handler.source, sourcePending + 1);
+               deferredCount.incrementAndGet();
+               scheduleDrain();
+               handler.defer();
+               return;
+            }
+            admitted = false;
+         }
+      }
+      if (admitted) {
+         acceptedCount.incrementAndGet();
+         handler.admit();
+      } else {
+         rejectedCount.incrementAndGet();
+         handler.reject();
+      }
+   }
+
+   private synchronized void onClosed(AdmissionHandler handler) {
+      if (pendingConnections.remove(handler)) {
+         removed(handler);
+      }
+   }
+
+   // callers must be synchronized
+   private void removed(AdmissionHandler handler) {
+      pendingSources.computeIfPresent(handler.source, (source, pending) -> pending == 1 ? null : pending - 1);
+   }
+
+   // callers must be synchronized
+   private void scheduleDrain() {
+      if (drainFuture == null) {
+         drainFuture = scheduledExecutor.schedule(this::drain, drainIntervalNanos, TimeUnit.NANOSECONDS);
+      }
+   }
+
+   void drain() {
+      final long now = nanoClock.getAsLong();
+      final List<AdmissionHandler> admitted = new ArrayList<>();
+      final List<AdmissionHandler> rejected = new ArrayList<>();
+      synchronized (this) {
+         drainFuture = null;
+         final Iterator<AdmissionHandler> iterator = pendingConnections.iterator();
+         while (iterator.hasNext()) {
+            final AdmissionHandler handler = iterator.next();
+            if (now - handler.deferredAt >= pendingConnectionTimeoutNanos) {
+               iterator.remove();
+               removed(handler);
+               rejected.add(handler);
+            } else if (tryAcquire(handler.source, now)) {
+               iterator.remove();
+               removed(handler);
+               admitted.add(handler);
+            } else if (acceptorBucket != null && !acceptorBucket.isAvailable(now)) {
+               // the connections after this one were deferred later, none of them can be admitted nor has expired
+               break;
+            }
+         }
+         if (!pendingConnections.isEmpty()) {
+            scheduleDrain();
+         }
+      }
+      acceptedCount.addAndGet(admitted.size());
+      rejectedCount.addAndGet(rejected.size());
+      admitted.forEach(AdmissionHandler::admit);
+      rejected.forEach(AdmissionHandler::reject);
+   }
+
+   // callers must be synchronized
+   private boolean tryAcquire(String source, long now) {
+      TokenBucket sourceBucket = null;
+      if (sourceRate > 0) {
+         sourceBucket = sourceBuckets.get(source);
+         if (sourceBucket == null) {
+            if (sourceBuckets.size() >= pruneThreshold) {
+               sourceBuckets.values().removeIf(bucket -> bucket.isFull(now));
+               pruneThreshold = Math.max(MIN_PRUNE_THRESHOLD, sourceBuckets.size() * 2);
+            }
+            sourceBucket = new TokenBucket(sourceRate, now);
+            sourceBuckets.put(source, sourceBucket);
+         }
+      }
+      if (acceptorBucket != null && !acceptorBucket.isAvailable(now) || sourceBucket != null && !sourceBucket.isAvailable(now)) {
+         return false;
+      }
+      if (acceptorBucket != null) {
+         acceptorBucket.take();
+      }
+      if (sourceBucket != null) {
+         sourceBucket.take();
+      }
+      return true;
+   }
+
+   /**
+    * {@return the network of the remote address of the channel, taking into account the PROXY protocol, with the
+    * configured prefix length}
+    */
+   String getSource(Channel channel) {
+      final String proxySourceAddress = channel.attr(ProxyProtocolUtil.PROXY_PROTOCOL_SOURCE_ADDRESS).get();
+      byte[] address = null;
+      if (proxySourceAddress != null) {
+         final int portSeparator = proxySourceAddress.lastIndexOf(':');
+         address = NetUtil.createByteArrayFromIpAddressString(portSeparator < 0 ? proxySourceAddress : proxySourceAddress.substring(0, portSeparator));
+      } else {
+         final SocketAddress remoteAddress = channel.remoteAddress();
+         if (remoteAddress instanceof InetSocketAddress inetSocketAddress && inetSocketAddress.getAddress() != null) {
+            address = inetSocketAddress.getAddress().getAddress();
+         }
+      }
+      if (address == null) {
+         return ProxyProtocolUtil.getRemoteAddress(channel);
+      }
+      final int prefix = address.length == 4 ? ipv4Prefix : ipv6Prefix;
+      for (int i = 0; i < address.length; i++) {
+         final int bits = Math.min(8, Math.max(0, prefix - i * 8));
+         address[i] &= (byte) (0xFF << (8 - bits));
+      }
+      try {
+         return InetAddress.getByAddress(address).getHostAddress() + "/" + prefix;
+      } catch (UnknownHostException e) {
+         // not reachable, the address has a valid length
+         return ProxyProtocolUtil.getRemoteAddress(channel);
+      }
+   }
+
+   /**
+    * Holds the first bytes of a connection until it is admitted, then removes itself from the pipeline.
+    */
+   private final class AdmissionHandler extends ChannelInboundHandlerAdapter {
+
+      private final List<Object> received = new ArrayList<>(1);
+
+      private ChannelHandlerContext ctx;
+
+      private String source;
+
+      private long deferredAt;
+
+      private boolean pending;
+
+      @Override
+      public void handlerAdded(ChannelHandlerContext ctx) {
+         this.ctx = ctx;
+      }
+
+      @Override
+      public void channelRead(ChannelHandlerContext ctx, Object msg) {
+         received.add(msg);
+         if (received.size() == 1 && !pending) {
+            source = getSource(ctx.channel());
+            onConnection(this);
+         }
+      }
+
+      @Override
+      public void channelReadComplete(ChannelHandlerContext ctx) {
+         // the bytes held here are passed on with their own read complete once the connection is admitted
+      }
+
+      @Override
+      public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+         if (pending) {
+            pending = false;
+            onClosed(this);
+         }
+         release();
+         super.channelInactive(ctx);
+      }
+
+      private void defer() {
+         pending = true;
+         ctx.channel().config().setAutoRead(false);
+         logger.debug("Deferring connection from {} on acceptor {}", source, acceptorName);
+      }
+
+      private void admit() {
+         if (!ctx.executor().inEventLoop()) {
+            ctx.executor().execute(this::admit);
+            return;
+         }
+         pending = false;
+         if (ctx.isRemoved() || !ctx.channel().isActive()) {
+            release();
+            return;
+         }
+         ctx.pipeline().remove(this);
+         for (Object msg : received) {
+            ctx.fireChannelRead(msg);
+         }
+         received.clear();
+         ctx.fireChannelReadComplete();
+         ctx.channel().config().setAutoRead(true);
+      }
+
+      private void reject() {
+         if (!ctx.executor().inEventLoop()) {
+            ctx.executor().execute(this::reject);
+            return;
+         }
+         pending = false;
+         logger.debug("Rejecting connection from {} on acceptor {}", source, acceptorName);
+         release();
+         ctx.close();
+      }
+
+      private void release() {
+         received.forEach(ReferenceCountUtil::release);
+         received.clear();
+      }
+   }
+
+   /**
+    * Refills continuously at {@code rate} tokens per second, up to {@code rate} tokens.
+    */
+   private static final class TokenBucket {
+
+      private final int rate;
+
+      private double tokens;
+
+      private long refilledAt;
+
+      TokenBucket(int rate, long now) {
+         this.rate = rate;
+         this.tokens = rate;
+         this.refilledAt = now;
+      }
+
+      boolean isAvailable(long now) {
+         refill(now);
+         return tokens >= 1;
+      }
+
+      boolean isFull(long now) {
+         refill(now);
+         return tokens >= rate;
+      }
+
+      void take() {
+         tokens--;
+      }
+
+      private void refill(long now) {
+         final long elapsed = now - refilledAt;
+         if (elapsed > 0) {
+            tokens = Math.min(rate, tokens + (double) elapsed * rate / TimeUnit.SECONDS.toNanos(1));
+            refilledAt = now;
+         }
+      }
+   }
+}
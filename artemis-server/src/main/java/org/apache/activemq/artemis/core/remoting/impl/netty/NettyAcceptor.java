@@ -39,6 +39,7 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import io.micrometer.core.instrument.Tag;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.Channel;
@@ -88,6 +89,7 @@ import org.apache.activemq.artemis.core.server.cluster.ClusterConnection;
 import org.apache.activemq.artemis.core.server.lock.LockCoordinator;
 import org.apache.activemq.artemis.core.server.management.Notification;
 import org.apache.activemq.artemis.core.server.management.NotificationService;
+import org.apache.activemq.artemis.core.server.metrics.BrokerMetricNames;
 import org.apache.activemq.artemis.core.server.metrics.MetricsManager;
 import org.apache.activemq.artemis.spi.core.protocol.ProtocolManager;
 import org.apache.activemq.artemis.spi.core.remoting.BufferHandler;
@@ -257,6 +259,8 @@ public class NettyAcceptor extends AbstractAcceptor {
 
    private final long connectionsAllowed;
 
+   private final ConnectionAdmissionController admissionController;
+
    private final boolean autoStart;
 
    private final String router;
@@ -431,6 +435,8 @@ public class NettyAcceptor extends AbstractAcceptor {
 
       connectionsAllowed = ConfigurationHelper.getLongProperty(TransportConstants.CONNECTIONS_ALLOWED, TransportConstants.DEFAULT_CONNECTIONS_ALLOWED, configuration);
 
+      admissionController = ConnectionAdmissionController.create(name, configuration, scheduledThreadPool);
+
       autoStart = ConfigurationHelper.getBooleanProperty(TransportConstants.AUTO_START, TransportConstants.DEFAULT_AUTO_START, configuration);
 
       router = ConfigurationHelper.getStringProperty(TransportConstants.ROUTER, TransportConstants.DEFAULT_ROUTER, configuration);
@@ -521,6 +527,14 @@ public class NettyAcceptor extends AbstractAcceptor {
 
       if (metricsManager != null) {
          metricsManager.registerNettyEventLoopGroup(name, eventLoopGroup);
+         if (admissionController != null) {
+            metricsManager.registerBrokerGauge(getAdmissionMetricsComponent(), builder -> {
+               builder.build(BrokerMetricNames.ACCEPTOR_CONNECTION_ADMISSION_COUNT, admissionController, metrics -> (double) admissionController.getAcceptedCount(), "number of connections admitted by the acceptor", Arrays.asList(Tag.of("acceptor", name), Tag.of("result", "accepted")));
+               builder.build(BrokerMetricNames.ACCEPTOR_CONNECTION_ADMISSION_COUNT, admissionController, metrics -> (double) admissionController.getDeferredCount(), "number of connections deferred by the acceptor over its connection rate", Arrays.asList(Tag.of("acceptor", name), Tag.of("result", "deferred")));
+               builder.build(BrokerMetricNames.ACCEPTOR_CONNECTION_ADMISSION_COUNT, admissionController, metrics -> (double) admissionController.getRejectedCount(), "number of connections rejected by the acceptor over its connection rate", Arrays.asList(Tag.of("acceptor", name), Tag.of("result", "rejected")));
+               builder.build(BrokerMetricNames.ACCEPTOR_PENDING_CONNECTION_COUNT, admissionController, metrics -> (double) admissionController.getPendingCount(), "number of connections currently deferred by the acceptor", Arrays.asList(Tag.of("acceptor", name)));
+            });
+         }
       }
 
       bootstrap = new ServerBootstrap();
@@ -534,6 +548,10 @@ public class NettyAcceptor extends AbstractAcceptor {
             if (proxyProtocolEnabled) {
                pipeline.addLast(new HAProxyMessageEnforcer(getName()), new HAProxyMessageDecoder(), new HAProxyMessageHandler());
             }
+            if (admissionController != null) {
+               // before the TLS handshake and the protocol detection, they are part of the cost of a new connection
+               pipeline.addLast(admissionController.newHandler());
+            }
             if (sslEnabled) {
                final Pair<String, Integer> peerInfo = getPeerInfo(channel);
                try {
@@ -825,6 +843,9 @@ public class NettyAcceptor extends AbstractAcceptor {
       latch.await();
       if (metricsManager != null) {
          metricsManager.remove(ResourceNames.ACCEPTOR + this.name);
+         if (admissionController != null) {
+            metricsManager.removeBrokerGauges(getAdmissionMetricsComponent());
+         }
       }
    }
 
@@ -840,6 +861,10 @@ public class NettyAcceptor extends AbstractAcceptor {
             protocolHandler.close();
          }
 
+         if (admissionController != null) {
+            admissionController.stop();
+         }
+
          if (batchFlusherFuture != null) {
             batchFlusherFuture.cancel(false);
 
@@ -966,6 +991,17 @@ public class NettyAcceptor extends AbstractAcceptor {
       return new ActiveMQServerChannelHandler(channelGroup, handler, new Listener(), failureExecutor);
    }
 
+   /**
+    * {@return the admission controller of the connections, or {@code null} if they are admitted without limit}
+    */
+   public ConnectionAdmissionController getAdmissionController() {
+      return admissionController;
+   }
+
+   private String getAdmissionMetricsComponent() {
+      return "acceptor." + name;
+   }
+
    public int getQuietPeriod() {
       return quietPeriod;
    }
@@ -85,6 +85,7 @@ import org.apache.activemq.artemis.spi.core.protocol.RemotingConnection;
 import org.apache.activemq.artemis.spi.core.protocol.SessionCallback;
 import org.apache.activemq.artemis.spi.core.security.ActiveMQSecurityManager;
 import org.apache.activemq.artemis.utils.ExecutorFactory;
+import org.apache.activemq.artemis.utils.PowerOf2Histogram;
 import org.apache.activemq.artemis.utils.critical.CriticalAnalyzer;
 
 /**
@@ -443,6 +444,11 @@ public interface ActiveMQServer extends ServiceComponent {
 
    long getTotalMessagesAcknowledged();
 
+   /**
+    * {@return the histogram of the number of acknowledgements committed together by the queues batching them}
+    */
+   PowerOf2Histogram getAckBatchSizes();
+
    long getTotalConsumerCount();
 
    PostOffice getPostOffice();
@@ -326,6 +326,9 @@ public interface ActiveMQServerLogger {
    @LogMessage(id = 221087, value = "Configuration reload completed", level = LogMessage.Level.INFO)
    void configurationReloadCompleted();
 
+   @LogMessage(id = 221088, value = "Message journal loaded in {} ms: reading files {} ms, loading records {} ms, reloading queues {} ms, prepared transactions {} ms, paging and post load {} ms", level = LogMessage.Level.INFO)
+   void messageJournalLoaded(long total, long read, long records, long queues, long transactions, long postLoad);
+
    @LogMessage(id = 222000, value = "ActiveMQServer is being finalized and has not been stopped. Please remember to stop the server before letting it go out of scope", level = LogMessage.Level.WARN)
    void serverFinalisedWIthoutBeingSTopped();
 
@@ -1094,6 +1097,9 @@ public interface ActiveMQServerLogger {
    @LogMessage(id = 222310, value = "Trying to add a producer with ID {} that already exists to session {} on Connection {}.", level = LogMessage.Level.WARN)
    void producerAlreadyExists(int id, String session, String remoteAddress);
 
+   @LogMessage(id = 222311, value = "Acceptor {} is receiving connections faster than it admits them. Deferring and rejecting connections until the rate drops.", level = LogMessage.Level.WARN)
+   void connectionAdmissionThrottling(String acceptorName);
+
    @LogMessage(id = 224000, value = "Failure in initialisation", level = LogMessage.Level.ERROR)
    void initializationError(Throwable e);
 
@@ -68,6 +68,14 @@ public interface MessageReference {
     */
    int getMessageMemoryEstimate();
 
+   /**
+    * {@return the memory taken by the state a reference allocates once it is delivered; it is added to the paging
+    * store of the queue when allocated and must be released when the reference goes down}
+    */
+   default int getDeliveryStateMemoryEstimate() {
+      return 0;
+   }
+
    /**
     * To be used on holding protocol specific data during the delivery. This will be only valid while the message is on
     * the delivering queue at the consumer
@@ -232,6 +232,17 @@ public interface Queue extends Bindable, CriticalComponent {
 
    void acknowledge(Transaction tx, MessageReference ref, AckReason reason, ServerConsumer consumer, boolean delivering) throws Exception;
 
+   /**
+    * Acknowledges the reference in a transaction shared with other acknowledgements of this queue, completing the
+    * current operation context once it is committed.
+    *
+    * @return {@code false} if the queue doesn't batch acknowledgements and the caller has to acknowledge the reference
+    * itself
+    */
+   default boolean acknowledgeBatched(MessageReference ref, ServerConsumer consumer) {
+      return false;
+   }
+
    void reacknowledge(Transaction tx, MessageReference ref) throws Exception;
 
    void cancel(Transaction tx, MessageReference ref);
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.server.impl;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.activemq.artemis.api.core.ActiveMQExceptionType;
+import org.apache.activemq.artemis.core.io.IOCallback;
+import org.apache.activemq.artemis.core.persistence.OperationContext;
+import org.apache.activemq.artemis.core.persistence.StorageManager;
+import org.apache.activemq.artemis.core.server.ActiveMQServerLogger;
+import org.apache.activemq.artemis.core.server.MessageReference;
+import org.apache.activemq.artemis.core.server.ServerConsumer;
+import org.apache.activemq.artemis.core.transaction.Transaction;
+import org.apache.activemq.artemis.core.transaction.impl.TransactionImpl;
+import org.apache.activemq.artemis.utils.PowerOf2Histogram;
+import org.apache.activemq.artemis.utils.actors.ArtemisExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coalesces the acknowledgements of a queue that would each commit a transaction of their own into a transaction per
+ * batch of up to {@code batchSize} acknowledgements.
+ * <p>
+ * A batch holds the acknowledgements that arrived while the previous one was committed, so an idle queue commits each
+ * acknowledgement as soon as it arrives and no acknowledgement waits for a timer. The operation context of each
+ * acknowledgement only completes once the batch holding it is stored, so the protocols confirm the acknowledgements
+ * as they would have if they were committed one by one.
+ */
+final class AckBatcher {
+
+   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+   private final int batchSize;
+
+   private final StorageManager storageManager;
+
+   private final ArtemisExecutor executor;
+
+   private final PowerOf2Histogram batchSizes;
+
+   private final Queue<PendingAck> pending = new ConcurrentLinkedQueue<>();
+
+   private final AtomicBoolean scheduled = new AtomicBoolean();
+
+   AckBatcher(final int batchSize,
+              final StorageManager storageManager,
+              final ArtemisExecutor executor,
+              final PowerOf2Histogram batchSizes) {
+      this.batchSize = batchSize;
+      this.storageManager = storageManager;
+      this.executor = executor;
+      this.batchSizes = batchSizes;
+   }
+
+   int getBatchSize() {
+      return batchSize;
+   }
+
+   void acknowledge(final MessageReference ref, final ServerConsumer consumer) {
+      final OperationContext context = storageManager.getContext();
+      context.storeLineUp();
+      pending.add(new PendingAck(ref, consumer, context));
+      schedule();
+   }
+
+   private void schedule() {
+      if (scheduled.compareAndSet(false, true)) {
+         executor.execute(this::flush);
+      }
+   }
+
+   private void flush() {
+      final List<PendingAck> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+      PendingAck ack;
+      while (batch.size() < batchSize && (ack = pending.poll()) != null) {
+         batch.add(ack);
+      }
+      try {
+         if (!batch.isEmpty()) {
+            commit(batch);
+         }
+      } finally {
+         scheduled.set(false);
+         // acknowledgements added while the batch was committed, or left over by a full batch
+         if (!pending.isEmpty()) {
+            schedule();
+         }
+      }
+   }
+
+   private void commit(final List<PendingAck> batch) {
+      final Transaction tx = new TransactionImpl(storageManager);
+      try {
+         for (PendingAck ack : batch) {
+            ack.consumer.metricsAcknowledge(ack.ref, tx);
+            ack.ref.acknowledge(tx, ack.consumer);
+         }
+         tx.commit();
+      } catch (Throwable e) {
+         ActiveMQServerLogger.LOGGER.errorAckingMessage(e instanceof Exception ex ? ex : new Exception(e));
+         try {
+            tx.rollback();
+         } catch (Throwable rollbackError) {
+            logger.debug("Error rolling back a batch of {} acknowledgements", batch.size(), rollbackError);
+         }
+         // the rollback cancelled the references back to the queue, the acknowledgements failed
+         for (PendingAck ack : batch) {
+            ack.context.onError(ActiveMQExceptionType.INTERNAL_ERROR.getCode(), "Error acknowledging a batch of " + batch.size() + " messages: " + e.getMessage());
+         }
+         return;
+      }
+      batchSizes.record(batch.size());
+      logger.trace("Committed a batch of {} acknowledgements on tx={}", batch.size(), tx);
+      storageManager.afterCompleteOperations(new IOCallback() {
+         @Override
+         public void done() {
+            for (PendingAck ack : batch) {
+               ack.context.done();
+            }
+         }
+
+         @Override
+         public void onError(int errorCode, String errorMessage) {
+            for (PendingAck ack : batch) {
+               ack.context.onError(errorCode, errorMessage);
+            }
+         }
+      });
+   }
+
+   private record PendingAck(MessageReference ref, ServerConsumer consumer, OperationContext context) {
+   }
+}
@@ -91,6 +91,7 @@ import org.apache.activemq.artemis.core.paging.PagingManager;
 import org.apache.activemq.artemis.core.paging.PagingStoreFactory;
 import org.apache.activemq.artemis.core.paging.impl.PagingManagerImpl;
 import org.apache.activemq.artemis.core.paging.impl.PagingStoreFactoryDatabase;
+import org.apache.activemq.artemis.core.paging.impl.PagingStoreFactoryMapped;
 import org.apache.activemq.artemis.core.paging.impl.PagingStoreFactoryNIO;
 import org.apache.activemq.artemis.core.persistence.AddressBindingInfo;
 import org.apache.activemq.artemis.core.persistence.GroupingInfo;
@@ -210,6 +211,7 @@ import org.apache.activemq.artemis.utils.ActiveMQThreadPoolExecutor;
 import org.apache.activemq.artemis.utils.CompositeAddress;
 import org.apache.activemq.artemis.utils.ExecutorFactory;
 import org.apache.activemq.artemis.utils.OpenWireUUIDUtil;
+import org.apache.activemq.artemis.utils.PowerOf2Histogram;
 import org.apache.activemq.artemis.utils.ReusableLatch;
 import org.apache.activemq.artemis.utils.SecurityFormatter;
 import org.apache.activemq.artemis.utils.ThreadDumpUtil;
@@ -356,6 +358,9 @@ public class ActiveMQServerImpl implements ActiveMQServer {
 
    private AtomicLong totalSessionCount = new AtomicLong(0);
 
+   // sizes of the acknowledgement batches in buckets bounded by the powers of two up to 512
+   private final PowerOf2Histogram ackBatchSizes = new PowerOf2Histogram(0, 10);
+
    private final Semaphore activationLock = new Semaphore(1);
    /**
     * This class here has the same principle of CountDownLatch but you can reuse the counters.
@@ -2146,6 +2151,11 @@ public class ActiveMQServerImpl implements ActiveMQServer {
       return total;
    }
 
+   @Override
+   public PowerOf2Histogram getAckBatchSizes() {
+      return ackBatchSizes;
+   }
+
    @Override
    public long getTotalConsumerCount() {
       long total = 0;
@@ -3233,13 +3243,15 @@ public class ActiveMQServerImpl implements ActiveMQServer {
 
    @Override
    public PagingManager createPagingManager() throws Exception {
-      return new PagingManagerImpl(getPagingStoreFactory(), addressSettingsRepository, configuration.getGlobalMaxSize(), configuration.getGlobalMaxMessages(), configuration.getManagementAddress(), this);
+      return new PagingManagerImpl(getPagingStoreFactory(), addressSettingsRepository, configuration.getGlobalMaxSize(), configuration.getGlobalMaxMessages(), configuration.getGlobalPageCacheMaxSize(), configuration.getPageMaxConcurrentDepage(), configuration.getManagementAddress(), this);
    }
 
    protected PagingStoreFactory getPagingStoreFactory() throws Exception {
       if (configuration.isUsingDatabasePersistence()) {
          DatabaseStorageConfiguration dbConf = (DatabaseStorageConfiguration) configuration.getStoreConfiguration();
          return new PagingStoreFactoryDatabase(dbConf, storageManager, configuration.getPageSyncTimeout(), scheduledPool, pageExecutorFactory, false, ioCriticalErrorListener);
+      } else if (configuration.isPageMemoryMapped()) {
+         return new PagingStoreFactoryMapped(storageManager, configuration.getPagingLocation(), configuration.getPageSyncTimeout(), scheduledPool, pageExecutorFactory, configuration.isJournalSyncNonTransactional(), ioCriticalErrorListener, configuration::isPurgePageFolders);
       } else {
          return new PagingStoreFactoryNIO(storageManager, configuration.getPagingLocation(), configuration.getPageSyncTimeout(), scheduledPool, pageExecutorFactory, configuration.isJournalSyncNonTransactional(), ioCriticalErrorListener, configuration::isPurgePageFolders);
       }
@@ -3448,7 +3460,7 @@ public class ActiveMQServerImpl implements ActiveMQServer {
          metricsManager.registerExecutorService(BrokerMetricNames.SCHEDULED_EXECUTOR_SERVICE, scheduledPool);
       }
 
-      postOffice = new PostOfficeImpl(this, storageManager, pagingManager, queueFactory, managementService, configuration.getMessageExpiryScanPeriod(), configuration.getAddressQueueScanPeriod(), configuration.getWildcardConfiguration(), configuration.getIDCacheSize(), configuration.isPersistIDCache(), addressSettingsRepository);
+      postOffice = new PostOfficeImpl(this, storageManager, pagingManager, queueFactory, managementService, configuration.getMessageExpiryScanPeriod(), configuration.getAddressQueueScanPeriod(), configuration.getWildcardConfiguration(), configuration.getIDCacheSize(), configuration.isPersistIDCache(), configuration.isIDCacheOffHeap(), addressSettingsRepository);
 
       // This can't be created until node id is set
       clusterManager = new ClusterManager(executorFactory, this, postOffice, scheduledPool, managementService, configuration, nodeManager, haPolicy.useQuorumManager());
@@ -3982,6 +3994,7 @@ public class ActiveMQServerImpl implements ActiveMQServer {
 
       journalInfo[1] = storageManager.loadMessageJournal(postOffice, pagingManager, resourceManager, queueBindingInfosMap, duplicateIDMap, pendingLargeMessages, storedLargeMessages, pendingNonTXPageCounter, journalLoader, extraRecordsLoader);
 
+      // after the prepared transactions have been loaded, so that the records holding their duplicate IDs are kept
       journalLoader.handleDuplicateIds(duplicateIDMap);
 
       // this deals with legacy pending large message records that might be left in a journal after an upgrade
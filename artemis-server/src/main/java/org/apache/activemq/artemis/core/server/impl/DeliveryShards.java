@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.server.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import org.apache.activemq.artemis.core.server.Consumer;
+import org.apache.activemq.artemis.core.server.MessageReference;
+import org.apache.activemq.artemis.utils.ExecutorFactory;
+import org.apache.activemq.artemis.utils.actors.ArtemisExecutor;
+
+/**
+ * Sends the messages handled by the consumers of a queue on {@code shards} ordered executors, so that the deliveries
+ * to many consumers of the same queue run on as many threads while the queue only has to pick the consumer of each
+ * message.
+ * <p>
+ * Each consumer is assigned to the shard with the fewest consumers when it is added to the queue and all its
+ * deliveries run on the executor of its shard, in the order they were handled: as the messages of a group are all
+ * handled by the same consumer they keep their order too. The executors share the thread pool of the server, so any
+ * idle thread of the pool picks up the backlog of a shard.
+ * <p>
+ * A shard with {@link #MAX_PENDING_DELIVERIES} deliveries queued makes its consumers busy, bounding how far the
+ * deliveries can get ahead of the flow control of the consumers, until it drains and asks the queue to deliver again.
+ */
+final class DeliveryShards {
+
+   static final int MAX_PENDING_DELIVERIES = 64;
+
+   private final Shard[] shards;
+
+   private final Map<Consumer, Shard> assignments = new ConcurrentHashMap<>();
+
+   private final Runnable resume;
+
+   DeliveryShards(final int count, final ExecutorFactory executorFactory, final Runnable resume) {
+      this.shards = new Shard[count];
+      for (int i = 0; i < count; i++) {
+         shards[i] = new Shard(executorFactory.getExecutor());
+      }
+      this.resume = resume;
+   }
+
+   int getShards() {
+      return shards.length;
+   }
+
+   synchronized void assign(final Consumer consumer) {
+      Shard least = shards[0];
+      for (Shard shard : shards) {
+         if (shard.consumers < least.consumers) {
+            least = shard;
+         }
+      }
+      if (assignments.putIfAbsent(consumer, least) == null) {
+         least.consumers++;
+      }
+   }
+
+   synchronized void release(final Consumer consumer) {
+      final Shard shard = assignments.remove(consumer);
+      if (shard != null) {
+         shard.consumers--;
+      }
+   }
+
+   /**
+    * {@return {@code true} if the shard of the consumer has too many deliveries queued to take another one}
+    */
+   boolean isBusy(final Consumer consumer) {
+      final Shard shard = assignments.get(consumer);
+      if (shard == null || shard.pending.get() < MAX_PENDING_DELIVERIES) {
+         return false;
+      }
+      shard.blocked = true;
+      // checked again after setting blocked, as the last delivery of the shard may have completed in the meantime
+      return shard.pending.get() >= MAX_PENDING_DELIVERIES;
+   }
+
+   /**
+    * Queues the delivery on the shard of the consumer.
+    *
+    * @return {@code false} if the consumer isn't assigned to any shard, e.g. a redistributor, and the caller has to
+    * deliver the message itself
+    */
+   boolean deliver(final Consumer consumer,
+                   final MessageReference reference,
+                   final BiConsumer<Consumer, MessageReference> delivery) {
+      final Shard shard = assignments.get(consumer);
+      if (shard == null) {
+         return false;
+      }
+      shard.pending.incrementAndGet();
+      shard.executor.execute(() -> {
+         try {
+            delivery.accept(consumer, reference);
+         } finally {
+            if (shard.pending.decrementAndGet() < MAX_PENDING_DELIVERIES && shard.blocked) {
+               shard.blocked = false;
+               resume.run();
+            }
+         }
+      });
+      return true;
+   }
+
+   private static final class Shard {
+
+      final ArtemisExecutor executor;
+
+      final AtomicInteger pending = new AtomicInteger();
+
+      // set when a consumer was found busy because of this shard, so the queue is resumed once it drains
+      volatile boolean blocked;
+
+      // guarded by DeliveryShards.this
+      int consumers;
+
+      Shard(final ArtemisExecutor executor) {
+         this.executor = executor;
+      }
+   }
+}
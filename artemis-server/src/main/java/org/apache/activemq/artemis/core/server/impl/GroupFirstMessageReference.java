@@ -85,6 +85,11 @@ public class GroupFirstMessageReference implements MessageReference {
       return messageReference.getMessageMemoryEstimate();
    }
 
+   @Override
+   public int getDeliveryStateMemoryEstimate() {
+      return messageReference.getDeliveryStateMemoryEstimate();
+   }
+
    @Override
    public <T> T getProtocolData(Class<T> typeClass) {
       return messageReference.getProtocolData(typeClass);
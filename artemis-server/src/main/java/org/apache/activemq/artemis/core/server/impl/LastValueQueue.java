@@ -212,6 +212,13 @@ public class LastValueQueue extends QueueImpl {
       return Collections.unmodifiableSet(map.keySet());
    }
 
+   /**
+    * {@return the reference holding the last value of the key, or {@code null} if there is none}
+    */
+   public MessageReference getLastValue(SimpleString key) {
+      return map.get(key);
+   }
+
    @Override
    public int hashCode() {
       return super.hashCode() + Objects.hashCode(map);
@@ -19,11 +19,13 @@ package org.apache.activemq.artemis.core.server.impl;
 import java.util.Comparator;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.function.Consumer;
 
 import org.apache.activemq.artemis.api.core.ActiveMQException;
 import org.apache.activemq.artemis.api.core.Message;
 import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.paging.PagingStore;
 import org.apache.activemq.artemis.core.server.MessageReference;
 import org.apache.activemq.artemis.core.server.Queue;
 import org.apache.activemq.artemis.core.server.ServerConsumer;
@@ -63,31 +65,31 @@ public class MessageReferenceImpl extends AbstractProtocolReference implements M
    private static final AtomicIntegerFieldUpdater<MessageReferenceImpl> DELIVERY_COUNT_UPDATER = AtomicIntegerFieldUpdater
       .newUpdater(MessageReferenceImpl.class, "deliveryCount");
 
+   private static final AtomicReferenceFieldUpdater<MessageReferenceImpl, DeliveryState> DELIVERY_STATE_UPDATER = AtomicReferenceFieldUpdater
+      .newUpdater(MessageReferenceImpl.class, DeliveryState.class, "deliveryState");
+
    @SuppressWarnings("unused")
    private volatile int deliveryCount = 0;
 
-   private volatile int persistedCount;
-
    private volatile long scheduledDeliveryTime;
 
    private final Message message;
 
    private final Queue queue;
 
-   private long consumerID;
-
-   private boolean hasConsumerID = false;
-
    private boolean alreadyAcked;
 
-   private boolean deliveredDirectly;
+   // null until the reference is delivered, so the references waiting in a queue don't pay for it
+   private volatile DeliveryState deliveryState;
 
-   private Consumer<? super MessageReference> onDelivery;
 
+   // The sizes of the field layouts on HotSpot 64-bit VM COOPS, 8-byte alignment: every reference is accounted with
+   // REFERENCE_SIZE, while the DeliveryState is only added to the paging store of the queue once it gets allocated
+   static final int REFERENCE_SIZE = 64;
 
-   // This value has been computed by using https://github.com/openjdk/jol
-   // on HotSpot 64-bit VM COOPS, 8-byte alignment
-   private static final int memoryOffset = 72;
+   static final int DELIVERY_STATE_SIZE = 32;
+
+   private static final int memoryOffset = REFERENCE_SIZE;
 
 
    public MessageReferenceImpl() {
@@ -117,13 +119,35 @@ public class MessageReferenceImpl extends AbstractProtocolReference implements M
 
    // MessageReference implementation -------------------------------
 
+   private DeliveryState deliveryState() {
+      final DeliveryState deliveryState = this.deliveryState;
+      if (deliveryState != null) {
+         return deliveryState;
+      }
+      if (DELIVERY_STATE_UPDATER.compareAndSet(this, null, new DeliveryState()) && queue != null) {
+         final PagingStore pagingStore = queue.getPagingStore();
+         if (pagingStore != null) {
+            // released by the queue along with the reference, see getDeliveryStateMemoryEstimate
+            pagingStore.addSize(DELIVERY_STATE_SIZE, true);
+         }
+      }
+      return this.deliveryState;
+   }
+
+   @Override
+   public int getDeliveryStateMemoryEstimate() {
+      return deliveryState == null ? 0 : DELIVERY_STATE_SIZE;
+   }
+
    @Override
    public void onDelivery(Consumer<? super MessageReference> onDelivery) {
       // I am keeping this commented out as a documentation feature:
       // a Message reference may eventually be taken back before the connection.run was finished.
       // as a result it may be possible to have this.onDelivery != null here due to cancellations.
       // assert this.onDelivery == null;
-      this.onDelivery = onDelivery;
+      if (onDelivery != null || deliveryState != null) {
+         deliveryState().onDelivery = onDelivery;
+      }
    }
 
    /**
@@ -132,24 +156,28 @@ public class MessageReferenceImpl extends AbstractProtocolReference implements M
     */
    @Override
    public void run() {
-      final Consumer<? super MessageReference> onDelivery = this.onDelivery;
+      final DeliveryState deliveryState = this.deliveryState;
+      final Consumer<? super MessageReference> onDelivery = deliveryState == null ? null : deliveryState.onDelivery;
       if (onDelivery != null) {
          try {
             onDelivery.accept(this);
          } finally {
-            this.onDelivery = null;
+            deliveryState.onDelivery = null;
          }
       }
    }
 
    @Override
    public int getPersistedCount() {
-      return persistedCount;
+      final DeliveryState deliveryState = this.deliveryState;
+      return deliveryState == null ? 0 : deliveryState.persistedCount;
    }
 
    @Override
    public void setPersistedCount(int persistedCount) {
-      this.persistedCount = persistedCount;
+      if (persistedCount != 0 || deliveryState != null) {
+         deliveryState().persistedCount = persistedCount;
+      }
    }
 
    @Override
@@ -170,7 +198,7 @@ public class MessageReferenceImpl extends AbstractProtocolReference implements M
    @Override
    public void setDeliveryCount(final int deliveryCount) {
       DELIVERY_COUNT_UPDATER.set(this, deliveryCount);
-      this.persistedCount = deliveryCount;
+      setPersistedCount(deliveryCount);
    }
 
    @Override
@@ -220,12 +248,15 @@ public class MessageReferenceImpl extends AbstractProtocolReference implements M
 
    @Override
    public void setInDelivery(boolean inDelivery) {
-      this.deliveredDirectly = inDelivery;
+      if (inDelivery || deliveryState != null) {
+         deliveryState().inDelivery = inDelivery;
+      }
    }
 
    @Override
    public boolean isInDelivery() {
-      return deliveredDirectly;
+      final DeliveryState deliveryState = this.deliveryState;
+      return deliveryState != null && deliveryState.inDelivery;
    }
 
    @Override
@@ -274,26 +305,31 @@ public class MessageReferenceImpl extends AbstractProtocolReference implements M
 
    @Override
    public void emptyConsumerID() {
-      this.hasConsumerID = false;
+      final DeliveryState deliveryState = this.deliveryState;
+      if (deliveryState != null) {
+         deliveryState.hasConsumerID = false;
+      }
    }
 
    @Override
    public void setConsumerId(long consumerID) {
-      this.hasConsumerID = true;
-      this.consumerID = consumerID;
+      final DeliveryState deliveryState = deliveryState();
+      deliveryState.hasConsumerID = true;
+      deliveryState.consumerID = consumerID;
    }
 
    @Override
    public boolean hasConsumerId() {
-      return hasConsumerID;
+      final DeliveryState deliveryState = this.deliveryState;
+      return deliveryState != null && deliveryState.hasConsumerID;
    }
 
    @Override
    public long getConsumerId() {
-      if (!this.hasConsumerID) {
+      if (!hasConsumerId()) {
          throw new IllegalStateException("consumerID isn't specified: please check hasConsumerId first");
       }
-      return this.consumerID;
+      return deliveryState.consumerID;
    }
 
    @Override
@@ -346,4 +382,21 @@ public class MessageReferenceImpl extends AbstractProtocolReference implements M
       return this.getMessage().getPersistentSize();
    }
 
+   /**
+    * The state only needed once a reference has been delivered, kept apart to make the references waiting in a queue
+    * smaller.
+    */
+   private static final class DeliveryState {
+
+      volatile int persistedCount;
+
+      long consumerID;
+
+      boolean hasConsumerID;
+
+      boolean inDelivery;
+
+      Consumer<? super MessageReference> onDelivery;
+   }
+
 }
@@ -18,11 +18,18 @@ package org.apache.activemq.artemis.core.server.impl;
 
 import javax.transaction.xa.Xid;
 import java.lang.invoke.MethodHandles;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -63,7 +70,9 @@ import org.apache.activemq.artemis.core.server.management.ManagementService;
 import org.apache.activemq.artemis.core.transaction.ResourceManager;
 import org.apache.activemq.artemis.core.transaction.Transaction;
 import org.apache.activemq.artemis.core.transaction.impl.TransactionImpl;
+import org.apache.activemq.artemis.utils.ActiveMQThreadFactory;
 import org.apache.activemq.artemis.utils.collections.LinkedListIterator;
+import org.apache.activemq.artemis.utils.sm.SecurityManagerShim;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -180,52 +189,89 @@ public class PostOfficeJournalLoader implements JournalLoader {
 
    @Override
    public void handleAddMessage(Map<Long, Map<Long, AddMessageRecord>> queueMap) throws Exception {
-      for (Map.Entry<Long, Map<Long, AddMessageRecord>> entry : queueMap.entrySet()) {
-         long queueID = entry.getKey();
-
-         Map<Long, AddMessageRecord> queueRecords = entry.getValue();
-
-         Queue queue = this.queues.get(queueID);
+      final int threads = configuration == null ? 1 : Math.min(configuration.getJournalLoadThreads(), queueMap.size());
+      if (threads <= 1) {
+         for (Map.Entry<Long, Map<Long, AddMessageRecord>> entry : queueMap.entrySet()) {
+            reloadQueue(entry.getKey(), entry.getValue(), false);
+         }
+         return;
+      }
 
-         if (queue == null) {
-            if (queueRecords.values().size() != 0) {
-               ActiveMQServerLogger.LOGGER.journalCannotFindQueueForMessage(queueID);
+      // the queues are reloaded in parallel, each of them by a single thread
+      final ThreadFactory threadFactory = SecurityManagerShim.doPrivileged((PrivilegedAction<ThreadFactory>) () -> new ActiveMQThreadFactory("journal-load", true, PostOfficeJournalLoader.class.getClassLoader()));
+      final ExecutorService executor = Executors.newFixedThreadPool(threads, threadFactory);
+      try {
+         final List<Future<?>> reloads = new ArrayList<>(queueMap.size());
+         for (Map.Entry<Long, Map<Long, AddMessageRecord>> entry : queueMap.entrySet()) {
+            reloads.add(executor.submit(() -> reloadQueue(entry.getKey(), entry.getValue(), true)));
+         }
+         for (Future<?> reload : reloads) {
+            try {
+               reload.get();
+            } catch (ExecutionException e) {
+               if (e.getCause() instanceof Exception cause) {
+                  throw cause;
+               }
+               throw e;
             }
+         }
+      } finally {
+         executor.shutdownNow();
+      }
+   }
 
-            continue;
+   private void reloadQueue(long queueID, Map<Long, AddMessageRecord> queueRecords, boolean concurrent) {
+      Queue queue = this.queues.get(queueID);
+
+      if (queue == null) {
+         if (queueRecords.values().size() != 0) {
+            ActiveMQServerLogger.LOGGER.journalCannotFindQueueForMessage(queueID);
          }
 
-         // Redistribution could install a Redistributor while we are still loading records, what will be an issue with
-         // prepared ACKs
-         // We make sure te Queue is paused before we reroute values.
-         queue.pause();
+         return;
+      }
 
-         Collection<AddMessageRecord> valueRecords = queueRecords.values();
+      // Redistribution could install a Redistributor while we are still loading records, what will be an issue with
+      // prepared ACKs
+      // We make sure te Queue is paused before we reroute values.
+      queue.pause();
 
-         long currentTime = System.currentTimeMillis();
+      Collection<AddMessageRecord> valueRecords = queueRecords.values();
 
-         for (AddMessageRecord record : valueRecords) {
-            try {
-               long scheduledDeliveryTime = record.getScheduledDeliveryTime();
+      long currentTime = System.currentTimeMillis();
 
-               if (scheduledDeliveryTime != 0) {
-                  if (scheduledDeliveryTime <= currentTime) {
-                     // scheduled delivery time already passed while the broker wasn't running
-                     record.getMessage().setScheduledDeliveryTime(0L);
-                  } else {
-                     record.getMessage().setScheduledDeliveryTime(scheduledDeliveryTime);
-                  }
+      for (AddMessageRecord record : valueRecords) {
+         try {
+            if (concurrent) {
+               // a message routed to several queues is shared by their records
+               synchronized (record.getMessage()) {
+                  reloadMessage(queue, record, currentTime);
                }
+            } else {
+               reloadMessage(queue, record, currentTime);
+            }
+         } catch (Throwable t) {
+            ActiveMQServerLogger.LOGGER.unableToLoadMessageFromJournal(t);
+            continue;
+         }
+      }
+   }
 
-               MessageReference ref = postOffice.reload(record.getMessage(), queue, null);
+   private void reloadMessage(Queue queue, AddMessageRecord record, long currentTime) throws Exception {
+      long scheduledDeliveryTime = record.getScheduledDeliveryTime();
 
-               ref.setDeliveryCount(record.getDeliveryCount());
-            } catch (Throwable t) {
-               ActiveMQServerLogger.LOGGER.unableToLoadMessageFromJournal(t);
-               continue;
-            }
+      if (scheduledDeliveryTime != 0) {
+         if (scheduledDeliveryTime <= currentTime) {
+            // scheduled delivery time already passed while the broker wasn't running
+            record.getMessage().setScheduledDeliveryTime(0L);
+         } else {
+            record.getMessage().setScheduledDeliveryTime(scheduledDeliveryTime);
          }
       }
+
+      MessageReference ref = postOffice.reload(record.getMessage(), queue, null);
+
+      ref.setDeliveryCount(record.getDeliveryCount());
    }
 
    @Override
@@ -265,9 +311,10 @@ public class PostOfficeJournalLoader implements JournalLoader {
    }
 
    private void removeOldDuplicates(List<Pair<byte[], Long>> ids) throws Exception {
-      ids.forEach((pair) -> {
+      // the IDs of a segment share its record
+      ids.stream().map(Pair::getB).distinct().forEach((recordID) -> {
          try {
-            storageManager.deleteDuplicateID(pair.getB());
+            storageManager.deleteDuplicateID(recordID);
          } catch (Exception e) {
             logger.warn(e.getMessage(), e);
          }
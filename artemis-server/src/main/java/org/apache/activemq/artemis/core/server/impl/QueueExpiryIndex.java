@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.server.impl;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ObjIntConsumer;
+
+import org.apache.activemq.artemis.core.server.ActiveMQServerLogger;
+import org.apache.activemq.artemis.core.server.MessageReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Indexes the references held by a queue that carry an expiration, so the expiry scanner only touches the references
+ * that are due instead of iterating the whole queue.
+ * <p>
+ * References are kept in buckets of {@link #BUCKET_MILLIS} keyed by their expiration. The index must see every
+ * addition and removal of the queue's list, together with the priority level the reference was added on, which is
+ * what {@link #poll(long, int, ObjIntConsumer)} hands back so the reference can be removed from the list in constant
+ * time.
+ * <p>
+ * This class is not thread safe, the caller is expected to hold the queue lock.
+ */
+public final class QueueExpiryIndex {
+
+   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+   public static final long NO_EXPIRATION = Long.MAX_VALUE;
+
+   public static final long BUCKET_MILLIS = 1000;
+
+   private final TreeMap<Long, Map<MessageReference, Integer>> buckets = new TreeMap<>();
+
+   private int size;
+
+   /**
+    * To be called whenever a reference is added to the queue's list.
+    *
+    * @param level the priority level the reference was added on
+    */
+   public void add(MessageReference ref, int level) {
+      final long expiration = getExpiration(ref);
+      if (expiration == 0) {
+         return;
+      }
+      if (buckets.computeIfAbsent(bucket(expiration), b -> new IdentityHashMap<>(4)).put(ref, level) == null) {
+         size++;
+      }
+   }
+
+   /**
+    * To be called whenever a reference leaves the queue's list.
+    */
+   public void remove(MessageReference ref) {
+      if (size == 0) {
+         return;
+      }
+      final long expiration = getExpiration(ref);
+      if (expiration == 0) {
+         return;
+      }
+      final Long bucket = bucket(expiration);
+      final Map<MessageReference, Integer> refs = buckets.get(bucket);
+      if (refs != null && refs.remove(ref) != null) {
+         size--;
+         if (refs.isEmpty()) {
+            buckets.remove(bucket);
+         }
+      }
+   }
+
+   public void clear() {
+      buckets.clear();
+      size = 0;
+   }
+
+   /**
+    * {@return {@code true} if any reference on the queue may have expired at {@code currentTimeMillis}}
+    */
+   public boolean isExpirationDue(long currentTimeMillis) {
+      return size > 0 && buckets.firstKey() <= bucket(currentTimeMillis);
+   }
+
+   /**
+    * {@return the start of the earliest bucket holding a reference, or {@link #NO_EXPIRATION}}
+    */
+   public long getNextExpiration() {
+      return size == 0 ? NO_EXPIRATION : buckets.firstKey() * BUCKET_MILLIS;
+   }
+
+   public int size() {
+      return size;
+   }
+
+   /**
+    * Takes up to {@code max} expired references out of the index, visiting only the buckets that are due at
+    * {@code currentTimeMillis}.
+    *
+    * @param consumer receives every expired reference along with the priority level it was added on; it is called
+    *                 after the reference left the index, so it may remove it from the queue's list right away
+    * @return the number of references handed to {@code consumer}
+    */
+   public int poll(long currentTimeMillis, int max, ObjIntConsumer<MessageReference> consumer) {
+      final long lastDueBucket = bucket(currentTimeMillis);
+      final List<MessageReference> expired = new ArrayList<>();
+      final List<Integer> levels = new ArrayList<>();
+      Iterator<Map.Entry<Long, Map<MessageReference, Integer>>> bucketIterator = buckets.headMap(lastDueBucket, true).entrySet().iterator();
+      while (expired.size() < max && bucketIterator.hasNext()) {
+         final Map<MessageReference, Integer> refs = bucketIterator.next().getValue();
+         final Iterator<Map.Entry<MessageReference, Integer>> refIterator = refs.entrySet().iterator();
+         while (expired.size() < max && refIterator.hasNext()) {
+            final Map.Entry<MessageReference, Integer> entry = refIterator.next();
+            // only the last due bucket may hold references that are not expired yet
+            if (isExpired(entry.getKey())) {
+               expired.add(entry.getKey());
+               levels.add(entry.getValue());
+               refIterator.remove();
+               size--;
+            }
+         }
+         if (refs.isEmpty()) {
+            bucketIterator.remove();
+         }
+      }
+      for (int i = 0; i < expired.size(); i++) {
+         consumer.accept(expired.get(i), levels.get(i));
+      }
+      return expired.size();
+   }
+
+   private static long bucket(long expiration) {
+      return expiration / BUCKET_MILLIS;
+   }
+
+   private static long getExpiration(MessageReference ref) {
+      try {
+         return ref.getMessage().getExpiration();
+      } catch (Throwable e) {
+         // such a reference couldn't be expired by the scanner either
+         ActiveMQServerLogger.LOGGER.unableToCheckIfMessageExpired(e);
+         return 0;
+      }
+   }
+
+   private static boolean isExpired(MessageReference ref) {
+      try {
+         return ref.getMessage().isExpired();
+      } catch (Throwable e) {
+         logger.debug("Unable to check if {} expired", ref, e);
+         return false;
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "QueueExpiryIndex[size=" + size + ", nextExpiration=" + getNextExpiration() + "]";
+   }
+}
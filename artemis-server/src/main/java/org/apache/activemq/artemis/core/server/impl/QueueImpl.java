@@ -100,6 +100,7 @@ import org.apache.activemq.artemis.core.settings.HierarchicalRepository;
 import org.apache.activemq.artemis.core.settings.HierarchicalRepositoryChangeListener;
 import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
 import org.apache.activemq.artemis.core.settings.impl.NamedHierarchicalRepositoryChangeListener;
+import org.apache.activemq.artemis.core.settings.impl.ScheduledDeliveryHandlerType;
 import org.apache.activemq.artemis.core.settings.impl.SlowConsumerPolicy;
 import org.apache.activemq.artemis.core.settings.impl.SlowConsumerThresholdMeasurementUnit;
 import org.apache.activemq.artemis.core.transaction.Transaction;
@@ -204,8 +205,11 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
    // avoid locking the queue on the producer
    private final MpscUnboundedArrayQueue<MessageReference> intermediateMessageReferences;
 
+   // The references on messageReferences that carry an expiration, guarded by synchronized(this)
+   private final QueueExpiryIndex expiryIndex = new QueueExpiryIndex();
+
    // This is where messages are stored
-   protected final PriorityLinkedList<MessageReference> messageReferences = new PriorityLinkedListImpl<>(QueueImpl.NUM_PRIORITIES, MessageReferenceImpl.getSequenceComparator());
+   protected final PriorityLinkedList<MessageReference> messageReferences = new ExpiryIndexedReferences();
 
    private NodeStoreFactory<MessageReference> nodeStoreFactory;
 
@@ -291,6 +295,12 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
 
    private volatile boolean supportsDirectDeliver = false;
 
+   // null if the consumers are delivered on the thread handling the references
+   private final DeliveryShards deliveryShards;
+
+   // null if each acknowledgement outside of a transaction commits on its own
+   private final AckBatcher ackBatcher;
+
    private HierarchicalRepository<AddressSettings> addressSettingsRepository;
 
    private HierarchicalRepositoryChangeListener addressSettingsRepositoryListener;
@@ -421,8 +431,6 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
 
       this.server = server;
 
-      scheduledDeliveryHandler = new ScheduledDeliveryHandlerImpl(scheduledExecutor, this);
-
       if (addressSettingsRepository != null) {
          this.addressSettingsRepository = addressSettingsRepository;
          addressSettingsRepositoryListener = new NamedHierarchicalRepositoryChangeListener(queueConfiguration.getName()) {
@@ -439,6 +447,20 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
          this.cachedAddressSettings = new AddressSettings();
       }
 
+      // like the initial buffer size, the handler type is only taken into account when the queue is created
+      if (this.cachedAddressSettings.getScheduledDeliveryHandler() == ScheduledDeliveryHandlerType.TIMING_WHEEL) {
+         scheduledDeliveryHandler = new TimingWheelScheduledDeliveryHandler(scheduledExecutor, this);
+      } else {
+         scheduledDeliveryHandler = new ScheduledDeliveryHandlerImpl(scheduledExecutor, this);
+      }
+
+      // the consumers of a queue stay on the same shard, so the number of shards can't change afterwards either
+      final int shards = this.cachedAddressSettings.getDeliveryShards();
+      this.deliveryShards = shards > 1 ? new DeliveryShards(shards, server.getExecutorFactory(), this::deliverAsync) : null;
+
+      final int ackBatchSize = this.cachedAddressSettings.getAckBatchSize();
+      this.ackBatcher = ackBatchSize > 1 ? new AckBatcher(ackBatchSize, storageManager, server.getExecutorFactory().getExecutor(), server.getAckBatchSizes()) : null;
+
       if (pageSubscription != null) {
          pageSubscription.setQueue(this);
          this.pageIterator = pageSubscription.iterator();
@@ -797,6 +819,10 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
             pagingStore.addSize(-messageReference.getMessage().getOriginalEstimate(), false, false);
          }
          pagingStore.refDown(messageReference.getMessage(), count);
+         final int deliveryStateEstimate = messageReference.getDeliveryStateMemoryEstimate();
+         if (deliveryStateEstimate != 0) {
+            pagingStore.addSize(-deliveryStateEstimate, true);
+         }
       }
    }
 
@@ -1225,6 +1251,9 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
 
             ConsumerHolder<Consumer> newConsumerHolder = new ConsumerHolder<>(consumer, this);
             if (consumers.add(newConsumerHolder)) {
+               if (deliveryShards != null) {
+                  deliveryShards.assign(consumer);
+               }
                if (queueConfiguration.getDelayBeforeDispatch() >= 0) {
                   dispatchStartTimeUpdater.compareAndSet(this, -1, queueConfiguration.getDelayBeforeDispatch() + System.currentTimeMillis());
                }
@@ -1267,6 +1296,9 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
             this.supportsDirectDeliver = checkConsumerDirectDeliver();
 
             if (consumerRemoved) {
+               if (deliveryShards != null) {
+                  deliveryShards.release(consumer);
+               }
                consumerRemovedTimestampUpdater.set(this, System.currentTimeMillis());
                if (refCountForConsumers.decrement() == 0) {
                   stopDispatch();
@@ -1675,6 +1707,15 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
       acknowledge(tx, ref, AckReason.NORMAL, null, true);
    }
 
+   @Override
+   public boolean acknowledgeBatched(final MessageReference ref, final ServerConsumer consumer) {
+      if (ackBatcher == null) {
+         return false;
+      }
+      ackBatcher.acknowledge(ref, consumer);
+      return true;
+   }
+
    /**
     * The parameter delivering can be sent as false in situation where the ack is coming outside of the context of
     * delivering. Example: Mirror replication will call the ack here without any consumer involved. On that case no
@@ -2376,6 +2417,46 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
       return false;
    }
 
+   /**
+    * Keeps {@link #expiryIndex} in sync with every addition and removal on {@link #messageReferences}.
+    */
+   private final class ExpiryIndexedReferences extends PriorityLinkedListImpl<MessageReference> {
+
+      private ExpiryIndexedReferences() {
+         super(QueueImpl.NUM_PRIORITIES, MessageReferenceImpl.getSequenceComparator());
+      }
+
+      @Override
+      public void addHead(MessageReference ref, int priority) {
+         super.addHead(ref, priority);
+         expiryIndex.add(ref, priority);
+      }
+
+      @Override
+      public void addTail(MessageReference ref, int priority) {
+         super.addTail(ref, priority);
+         expiryIndex.add(ref, priority);
+      }
+
+      @Override
+      public void addSorted(MessageReference ref, int priority) {
+         super.addSorted(ref, priority);
+         expiryIndex.add(ref, priority);
+      }
+
+      @Override
+      protected void removed(int level, MessageReference ref) {
+         super.removed(level, ref);
+         expiryIndex.remove(ref);
+      }
+
+      @Override
+      public void clear() {
+         super.clear();
+         expiryIndex.clear();
+      }
+   }
+
    class ExpiryScanner implements Runnable {
 
       private final Runnable doneCallback;
@@ -2384,70 +2465,99 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
          this.doneCallback = doneCallback;
       }
 
-      LinkedListIterator<MessageReference> iter = null;
+      // set while a scan is rescheduled in between batches of MAX_DELIVERIES_IN_LOOP references
+      boolean scanning = false;
+
+      /**
+       * {@return {@code true} if the scan was skipped because no reference on the queue could have expired yet}
+       */
+      private boolean skipScan() {
+         final boolean hasElements;
+         synchronized (QueueImpl.this) {
+            if (expiryIndex.isExpirationDue(System.currentTimeMillis())) {
+               return false;
+            }
+            hasElements = !messageReferences.isEmpty();
+            logger.debug("Skipping expiry scan on {} as no reference expires before {}", queueConfiguration.getName(), expiryIndex.getNextExpiration());
+            // a skipped scan is an empty one for the plugins
+            callExpiryScanPlugins(true);
+            callExpiryScanPlugins(false);
+         }
+
+         if (doneCallback != null) {
+            doneCallback.run();
+         }
+
+         // If empty we need to schedule depaging to make sure we would depage expired messages as well
+         if (!hasElements && pageIterator != null && pageIterator.tryNext() != PageIterator.NextResult.noElements) {
+            scheduleDepage(true);
+         }
+         return true;
+      }
+
+      private void callExpiryScanPlugins(boolean before) {
+         if (server.hasBrokerQueuePlugins()) {
+            try {
+               server.callBrokerQueuePlugins(p -> {
+                  if (before) {
+                     p.beforeExpiryScan(QueueImpl.this);
+                  } else {
+                     p.afterExpiryScan(QueueImpl.this);
+                  }
+               });
+            } catch (Exception e) {
+               logger.warn(e.getMessage(), e);
+            }
+         }
+      }
 
       @Override
       public void run() {
-         boolean expired = false;
-         boolean hasElements = false;
-         int elementsIterated = 0;
-         int elementsExpired = 0;
+         if (!scanning && skipScan()) {
+            return;
+         }
 
+         boolean hasElements;
          boolean rescheduled = false;
 
          LinkedList<MessageReference> expiredMessages = new LinkedList<>();
          synchronized (QueueImpl.this) {
             logger.debug("Scanning for expires on {}", queueConfiguration.getName());
 
-            if (iter == null) {
-               if (server.hasBrokerQueuePlugins()) {
-                  try {
-                     server.callBrokerQueuePlugins((p) -> p.beforeExpiryScan(QueueImpl.this));
-                  } catch (Exception e) {
-                     logger.warn(e.getMessage(), e);
-                  }
-               }
-               iter = iterator();
+            if (!scanning) {
+               callExpiryScanPlugins(true);
+               scanning = true;
             }
 
             try {
-               while (!queueDestroyed && postOffice.isStarted() && iter.hasNext()) {
-                  hasElements = true;
-                  MessageReference ref = iter.next();
-                  if (ref.getMessage().isExpired()) {
-                     elementsExpired++;
-                     incDelivering(ref);
-                     expired = true;
-                     expiredMessages.add(ref);
-                     iter.remove();
-                  }
-                  if (++elementsIterated >= MAX_DELIVERIES_IN_LOOP) {
-                     logger.debug("Expiry Scanner on {} ran for {} iteration, scheduling a new one", QueueImpl.this.getName(), elementsIterated);
+               if (!queueDestroyed && postOffice.isStarted()) {
+                  // only the references due for expiration are visited, the rest of the queue is left alone
+                  int polled = expiryIndex.poll(System.currentTimeMillis(), MAX_DELIVERIES_IN_LOOP, (ref, level) -> {
+                     if (messageReferences.remove(ref, level)) {
+                        incDelivering(ref);
+                        expiredMessages.add(ref);
+                     }
+                  });
+                  if (polled >= MAX_DELIVERIES_IN_LOOP && expiryIndex.isExpirationDue(System.currentTimeMillis())) {
+                     logger.debug("Expiry Scanner on {} expired {} references, scheduling a new one", QueueImpl.this.getName(), polled);
                      rescheduled = true;
                      getExecutor().execute(this);
-                     break;
                   }
                }
             } finally {
                if (!rescheduled) {
                   logger.debug("Scanning for expires on {} done", queueConfiguration.getName());
 
-                  if (server.hasBrokerQueuePlugins()) {
-                     try {
-                        server.callBrokerQueuePlugins((p) -> p.afterExpiryScan(QueueImpl.this));
-                     } catch (Exception e) {
-                        logger.warn(e.getMessage(), e);
-                     }
-                  }
+                  scanning = false;
 
-                  iter.close();
-                  iter = null;
+                  callExpiryScanPlugins(false);
 
                   if (doneCallback != null) {
                      doneCallback.run();
                   }
                }
             }
+            hasElements = !messageReferences.isEmpty();
          }
 
          if (!expiredMessages.isEmpty()) {
@@ -2468,12 +2578,12 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
             }
 
             if (logger.isDebugEnabled()) {
-               logger.debug("Expired {} references", elementsExpired);
+               logger.debug("Expired {} references", expiredMessages.size());
             }
          }
 
          // If empty we need to schedule depaging to make sure we would depage expired messages as well
-         if ((!hasElements || expired) && pageIterator != null && pageIterator.tryNext() != PageIterator.NextResult.noElements) {
+         if ((!hasElements || !expiredMessages.isEmpty()) && pageIterator != null && pageIterator.tryNext() != PageIterator.NextResult.noElements) {
             scheduleDepage(true);
          }
       }
@@ -3124,7 +3234,7 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
          }
 
          if (handledconsumer != null) {
-            proceedDeliver(handledconsumer, ref);
+            dispatch(handledconsumer, ref);
          }
       }
 
@@ -3274,7 +3384,7 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
          logger.trace("Scheduling depage for queue {}", queueConfiguration.getName());
 
          depagePending = true;
-         pageSubscription.getPagingStore().execute(() -> depage(scheduleExpiry));
+         pageSubscription.getPagingStore().executeDepage(() -> depage(scheduleExpiry));
       }
    }
 
@@ -3820,9 +3930,10 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
 
                deliveriesInTransit.countUp();
                reference.setInDelivery(true);
-               proceedDeliver(consumer, reference);
-               consumers.reset();
+               // set before the delivery, which may complete on the shard of the consumer before returning
                reference.setSequence(queueSequence.incrementAndGet());
+               dispatch(consumer, reference);
+               consumers.reset();
                return true;
             }
 
@@ -3876,6 +3987,12 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
       return ref;
    }
 
+   private void dispatch(Consumer consumer, MessageReference reference) {
+      if (deliveryShards == null || !deliveryShards.deliver(consumer, reference, this::proceedDeliver)) {
+         proceedDeliver(consumer, reference);
+      }
+   }
+
    private void proceedDeliver(Consumer consumer, MessageReference reference) {
       try {
          consumer.proceedDeliver(reference);
@@ -3924,6 +4041,9 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
    }
 
    private synchronized HandleStatus handle(final MessageReference reference, final Consumer consumer) {
+      if (deliveryShards != null && deliveryShards.isBusy(consumer)) {
+         return HandleStatus.BUSY;
+      }
       HandleStatus status;
       try {
          status = consumer.handle(reference);
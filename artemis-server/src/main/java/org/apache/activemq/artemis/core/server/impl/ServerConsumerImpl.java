@@ -73,6 +73,7 @@ import org.apache.activemq.artemis.core.transaction.TransactionPropertyIndexes;
 import org.apache.activemq.artemis.core.transaction.impl.TransactionImpl;
 import org.apache.activemq.artemis.logs.AuditLogger;
 import org.apache.activemq.artemis.spi.core.protocol.SessionCallback;
+import org.apache.activemq.artemis.spi.core.remoting.FileRegionWriter;
 import org.apache.activemq.artemis.spi.core.remoting.ReadyListener;
 import org.apache.activemq.artemis.utils.FutureLatch;
 import org.apache.activemq.artemis.utils.ReusableLatch;
@@ -1016,6 +1017,11 @@ public class ServerConsumerImpl implements ServerConsumer, ReadyListener {
             RefCountMessage.deferredDebug(ref.getMessage(), "Individually acked on tx={}", tx.getID());
          }
 
+         if (startedTransaction && messageQueue.acknowledgeBatched(ref, this)) {
+            // the queue commits the acknowledgement along with others instead of in the transaction started here
+            return;
+         }
+
          metrics.addAcknowledge(ref.getMessage().getEncodeSize(), tx);
          ref.acknowledge(tx, this);
 
@@ -1284,6 +1290,9 @@ public class ServerConsumerImpl implements ServerConsumer, ReadyListener {
 
       private LargeBodyReader context;
 
+      // the file of the message opened to send its continuations without reading them, if the transport can
+      private FileRegionWriter fileRegion;
+
       private ByteBuffer chunkBytes;
 
       private CoreLargeMessageDeliverer(final MessageReference ref) {
@@ -1340,6 +1349,8 @@ public class ServerConsumerImpl implements ServerConsumer, ReadyListener {
 
                context.open();
 
+               fileRegion = callback.openLargeMessageFileRegion(context);
+
                sentInitialPacket = true;
 
                int packetSize = callback.sendLargeMessage(ref, ServerConsumerImpl.this, context.getSize(), ref.getDeliveryCount());
@@ -1372,26 +1383,33 @@ public class ServerConsumerImpl implements ServerConsumer, ReadyListener {
 
                final int localChunkLen = (int) Math.min(sizePendingLargeMessage - positionPendingLargeMessage, minLargeMessageSize);
 
-               final ByteBuffer bodyBuffer = acquireHeapBodyBuffer(localChunkLen);
+               final boolean continues = positionPendingLargeMessage + localChunkLen < sizePendingLargeMessage;
 
-               assert bodyBuffer.remaining() == localChunkLen;
+               // the transport may be able to send the chunk straight from the file
+               int packetSize = fileRegion == null ? -1 : callback.sendLargeMessageContinuation(ServerConsumerImpl.this, fileRegion, context, localChunkLen, continues);
 
-               final int readBytes = context.readInto(bodyBuffer);
+               if (packetSize < 0) {
+                  final ByteBuffer bodyBuffer = acquireHeapBodyBuffer(localChunkLen);
 
-               assert readBytes == localChunkLen : "readBytes = " + readBytes + ", localChunkLen=" + localChunkLen + " on large message " + largeMessage.getMessageID() + ", hash = " + System.identityHashCode(largeMessage);
+                  assert bodyBuffer.remaining() == localChunkLen;
 
+                  final int readBytes = context.readInto(bodyBuffer);
 
-               final byte[] body = bodyBuffer.array();
+                  assert readBytes == localChunkLen : "readBytes = " + readBytes + ", localChunkLen=" + localChunkLen + " on large message " + largeMessage.getMessageID() + ", hash = " + System.identityHashCode(largeMessage);
 
-               assert body.length == readBytes;
 
-               //It is possible to recycle the same heap body buffer because it won't be cached by sendLargeMessageContinuation
-               //given that requiresResponse is false: ChannelImpl::send will use the resend cache only if
-               //resendCache != null && packet.isRequiresConfirmations()
+                  final byte[] body = bodyBuffer.array();
 
-               int packetSize = callback.sendLargeMessageContinuation(ServerConsumerImpl.this, body, positionPendingLargeMessage + localChunkLen < sizePendingLargeMessage, false);
+                  assert body.length == readBytes;
 
-               int chunkLen = body.length;
+                  //It is possible to recycle the same heap body buffer because it won't be cached by sendLargeMessageContinuation
+                  //given that requiresResponse is false: ChannelImpl::send will use the resend cache only if
+                  //resendCache != null && packet.isRequiresConfirmations()
+
+                  packetSize = callback.sendLargeMessageContinuation(ServerConsumerImpl.this, body, continues, false);
+               }
+
+               int chunkLen = localChunkLen;
 
                if (availableCredits != null) {
                   final int credits = availableCredits.addAndGet(-packetSize);
@@ -1434,6 +1452,10 @@ public class ServerConsumerImpl implements ServerConsumer, ReadyListener {
                // On that case we just ignore this call
                return;
             }
+            if (fileRegion != null) {
+               fileRegion.close();
+               fileRegion = null;
+            }
             if (context != null) {
                context.close();
                context = null;
@@ -0,0 +1,575 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.server.impl;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import io.netty.util.collection.LongObjectHashMap;
+import org.apache.activemq.artemis.api.core.ActiveMQException;
+import org.apache.activemq.artemis.core.server.MessageReference;
+import org.apache.activemq.artemis.core.server.Queue;
+import org.apache.activemq.artemis.core.server.ScheduledDeliveryHandler;
+import org.apache.activemq.artemis.core.transaction.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link ScheduledDeliveryHandler} backed by a two level hashed timing wheel.
+ * <p>
+ * References due within the current or the next rotation of the wheel are kept on the slot of their delivery tick,
+ * later ones are kept by rotation and cascaded into the wheel one rotation ahead of time. Scheduling and cancelling
+ * are O(1), and a single task is kept on the scheduled executor no matter how many distinct delivery times are
+ * pending: every reference due at a tick is handed off to {@link Queue#addHead(List, boolean)} in one batch.
+ * <p>
+ * A reference is never delivered before its scheduled delivery time, but it may be delivered up to one tick later.
+ */
+public class TimingWheelScheduledDeliveryHandler implements ScheduledDeliveryHandler {
+
+   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+   public static final long DEFAULT_TICK_MILLIS = 10;
+
+   public static final int DEFAULT_WHEEL_BITS = 9;
+
+   private static final long NO_WAKE_UP = Long.MAX_VALUE;
+
+   private static final Comparator<ScheduledEntry> DELIVERY_ORDER = (entry1, entry2) -> {
+      final int compare = Long.compare(entry1.deliveryTime, entry2.deliveryTime);
+      if (compare != 0) {
+         return compare;
+      }
+      if (entry1.tail != entry2.tail) {
+         return entry1.tail ? 1 : -1;
+      }
+      // same ordering as ScheduledDeliveryHandlerImpl: the last head goes first, tails keep their scheduling order
+      return entry1.tail ? Long.compare(entry1.sequence, entry2.sequence) : Long.compare(entry2.sequence, entry1.sequence);
+   };
+
+   private final ScheduledExecutorService scheduledExecutor;
+
+   private final QueueMessageMetrics metrics;
+
+   private final long tickMillis;
+
+   private final int wheelBits;
+
+   private final long wheelMask;
+
+   private final List<ScheduledEntry>[] wheel;
+
+   // entries beyond the cascaded rotations, keyed by rotation
+   private final TreeMap<Long, List<ScheduledEntry>> rotations = new TreeMap<>();
+
+   // entries scheduled for a tick that was already processed
+   private final List<ScheduledEntry> overdue = new ArrayList<>();
+
+   private final LongObjectHashMap<ScheduledEntry> entriesByMessageID = new LongObjectHashMap<>();
+
+   private int pendingEntries;
+
+   // entries left out of entriesByMessageID as their message was already scheduled
+   private int unindexedEntries;
+
+   private int wheelEntries;
+
+   private long processedTick;
+
+   // every rotation up to this one is on the wheel
+   private long cascadedRotation;
+
+   private long sequence;
+
+   private long wakeUpTick = NO_WAKE_UP;
+
+   // Oldest by timestamp, not by scheduled delivery time
+   private MessageReference oldestMessage = null;
+
+   public TimingWheelScheduledDeliveryHandler(final ScheduledExecutorService scheduledExecutor, final Queue queue) {
+      this(scheduledExecutor, queue, DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_BITS);
+   }
+
+   @SuppressWarnings("unchecked")
+   public TimingWheelScheduledDeliveryHandler(final ScheduledExecutorService scheduledExecutor,
+                                              final Queue queue,
+                                              final long tickMillis,
+                                              final int wheelBits) {
+      if (tickMillis <= 0) {
+         throw new IllegalArgumentException("tickMillis must be positive");
+      }
+      if (wheelBits <= 0 || wheelBits > 20) {
+         throw new IllegalArgumentException("wheelBits must be between 1 and 20");
+      }
+      this.scheduledExecutor = scheduledExecutor;
+      this.metrics = new QueueMessageMetrics(queue, "scheduled");
+      this.tickMillis = tickMillis;
+      this.wheelBits = wheelBits;
+      this.wheelMask = (1L << wheelBits) - 1;
+      this.wheel = new List[1 << wheelBits];
+      for (int i = 0; i < wheel.length; i++) {
+         wheel[i] = new ArrayList<>(0);
+      }
+      this.processedTick = currentTick(System.currentTimeMillis());
+      this.cascadedRotation = (processedTick >> wheelBits) + 1;
+   }
+
+   @Override
+   public boolean checkAndSchedule(final MessageReference ref, final boolean tail) {
+      final long deliveryTime = ref.getScheduledDeliveryTime();
+
+      if (deliveryTime > 0 && scheduledExecutor != null) {
+         if (logger.isTraceEnabled()) {
+            logger.trace("Scheduling delivery for {} to occur at {}", ref, deliveryTime);
+         }
+
+         synchronized (this) {
+            schedule(new ScheduledEntry(ref, deliveryTime, tail, sequence++));
+         }
+         metrics.incrementMetrics(ref);
+
+         return true;
+      }
+      return false;
+   }
+
+   private long currentTick(final long currentTimeMillis) {
+      return Math.floorDiv(currentTimeMillis, tickMillis);
+   }
+
+   private long deliveryTick(final long deliveryTime) {
+      // rounding up, so a reference is never delivered earlier than it should
+      return Math.floorDiv(deliveryTime + tickMillis - 1, tickMillis);
+   }
+
+   // the caller must hold the lock on this
+   private void schedule(final ScheduledEntry entry) {
+      if (pendingEntries == 0) {
+         // whatever is left is cancelled: move ahead to the current time instead of processing the idle ticks later
+         clear();
+         processedTick = Math.max(processedTick, currentTick(System.currentTimeMillis()));
+         cascadedRotation = Math.max(cascadedRotation, (processedTick >> wheelBits) + 1);
+      }
+
+      final long tick = deliveryTick(entry.deliveryTime);
+      entry.tick = tick;
+
+      if (tick <= processedTick) {
+         overdue.add(entry);
+         wakeUpAt(processedTick);
+      } else {
+         if ((tick >> wheelBits) <= cascadedRotation) {
+            addToWheel(entry);
+         } else {
+            rotations.computeIfAbsent(tick >> wheelBits, rotation -> new ArrayList<>()).add(entry);
+         }
+         wakeUpAt(tick);
+      }
+
+      if (entriesByMessageID.putIfAbsent(entry.ref.getMessageID(), entry) != null) {
+         logger.debug("Reference {} is scheduled more than once, it won't be indexed", entry.ref);
+         unindexedEntries++;
+      }
+      pendingEntries++;
+      oldestMessage = null;
+   }
+
+   private void clear() {
+      overdue.clear();
+      rotations.clear();
+      clearWheel();
+   }
+
+   // to be used only when wheelEntries == 0, ie there are only cancelled entries left on the wheel
+   private void clearWheel() {
+      for (List<ScheduledEntry> slot : wheel) {
+         if (!slot.isEmpty()) {
+            slot.clear();
+         }
+      }
+   }
+
+   private void addToWheel(final ScheduledEntry entry) {
+      wheel[(int) (entry.tick & wheelMask)].add(entry);
+      entry.onWheel = true;
+      wheelEntries++;
+   }
+
+   // the caller must hold the lock on this
+   private void wakeUpAt(final long tick) {
+      if (tick < wakeUpTick) {
+         wakeUpTick = tick;
+         final long delay = Math.max(0, tick * tickMillis - System.currentTimeMillis());
+         if (logger.isTraceEnabled()) {
+            logger.trace("Setting up scheduler for tick {} with a delay of {}", tick, delay);
+         }
+         scheduledExecutor.schedule(() -> onTick(tick), delay, TimeUnit.MILLISECONDS);
+      }
+   }
+
+   private void onTick(final long tick) {
+      final List<ScheduledEntry> fired = new ArrayList<>();
+
+      synchronized (this) {
+         if (wakeUpTick == tick) {
+            wakeUpTick = NO_WAKE_UP;
+         }
+
+         // the scheduled executor could run earlier than expected on some OSes: processing only the elapsed ticks
+         // will just re-schedule the wake up in that case
+         advance(currentTick(System.currentTimeMillis()), fired);
+
+         if (pendingEntries > 0) {
+            wakeUpAt(nextTick());
+         }
+      }
+
+      deliver(fired);
+   }
+
+   // the caller must hold the lock on this
+   private void advance(final long currentTick, final List<ScheduledEntry> fired) {
+      for (ScheduledEntry entry : overdue) {
+         if (!entry.isCancelled()) {
+            fire(entry, fired);
+         }
+      }
+      overdue.clear();
+
+      while (processedTick < currentTick) {
+         if (wheelEntries == 0) {
+            // the idle ticks are skipped, with any cancelled entry left on their slots
+            clearWheel();
+            if (rotations.isEmpty()) {
+               processedTick = currentTick;
+               cascadedRotation = Math.max(cascadedRotation, (processedTick >> wheelBits) + 1);
+               break;
+            }
+            // nothing to deliver until the next rotation is cascaded
+            while (!rotations.isEmpty() && rotations.firstKey() <= cascadedRotation) {
+               cascade(rotations.firstKey());
+            }
+            if (wheelEntries > 0 || rotations.isEmpty()) {
+               continue;
+            }
+            final long cascadeTick = (rotations.firstKey() - 1) << wheelBits;
+            if (cascadeTick - 1 > processedTick) {
+               processedTick = Math.min(currentTick, cascadeTick - 1);
+               // the rotations skipped over are considered cascaded, there is no entry in them, as when stepping
+               // through their ticks; the first pending rotation is still ahead of it
+               cascadedRotation = Math.max(cascadedRotation, (processedTick >> wheelBits) + 1);
+               if (processedTick == currentTick) {
+                  break;
+               }
+            }
+         }
+
+         final long tick = ++processedTick;
+
+         if ((tick & wheelMask) == 0) {
+            cascade((tick >> wheelBits) + 1);
+         }
+
+         drain(tick, fired);
+      }
+   }
+
+   private void cascade(final long rotation) {
+      cascadedRotation = Math.max(cascadedRotation, rotation);
+      final List<ScheduledEntry> entries = rotations.remove(rotation);
+      if (entries != null) {
+         for (ScheduledEntry entry : entries) {
+            if (!entry.isCancelled()) {
+               addToWheel(entry);
+            }
+         }
+      }
+   }
+
+   private void drain(final long tick, final List<ScheduledEntry> fired) {
+      final List<ScheduledEntry> slot = wheel[(int) (tick & wheelMask)];
+      if (slot.isEmpty()) {
+         return;
+      }
+      int kept = 0;
+      for (int i = 0, size = slot.size(); i < size; i++) {
+         final ScheduledEntry entry = slot.get(i);
+         if (entry.isCancelled()) {
+            continue;
+         }
+         if (entry.tick <= tick) {
+            fire(entry, fired);
+         } else {
+            // an entry of the next rotation sharing the same slot
+            slot.set(kept++, entry);
+         }
+      }
+      slot.subList(kept, slot.size()).clear();
+   }
+
+   private void fire(final ScheduledEntry entry, final List<ScheduledEntry> fired) {
+      removed(entry);
+      entry.ref.setScheduledDeliveryTime(0);
+      fired.add(entry);
+   }
+
+   private void removed(final ScheduledEntry entry) {
+      if (entry.onWheel) {
+         entry.onWheel = false;
+         wheelEntries--;
+      }
+      pendingEntries--;
+      final long messageID = entry.ref.getMessageID();
+      if (entriesByMessageID.get(messageID) == entry) {
+         entriesByMessageID.remove(messageID);
+      } else {
+         unindexedEntries--;
+      }
+      metrics.decrementMetrics(entry.ref);
+      oldestMessage = null;
+   }
+
+   // the caller must hold the lock on this
+   private long nextTick() {
+      if (!overdue.isEmpty()) {
+         return processedTick;
+      }
+      if (wheelEntries > 0) {
+         for (long tick = processedTick + 1, last = processedTick + wheel.length; tick <= last; tick++) {
+            if (!wheel[(int) (tick & wheelMask)].isEmpty()) {
+               // it could hold entries of the next rotation only, the wheel will just be checked again
+               return tick;
+            }
+         }
+      }
+      if (!rotations.isEmpty()) {
+         return rotations.firstKey() << wheelBits;
+      }
+      return NO_WAKE_UP;
+   }
+
+   private void deliver(final List<ScheduledEntry> fired) {
+      if (fired.isEmpty()) {
+         return;
+      }
+
+      fired.sort(DELIVERY_ORDER);
+
+      final Map<Queue, LinkedList<MessageReference>> refs = new HashMap<>();
+      for (ScheduledEntry entry : fired) {
+         if (logger.isTraceEnabled()) {
+            logger.trace("sending message {} to delivery, deliveryTime = {}", entry.ref, entry.deliveryTime);
+         }
+         refs.computeIfAbsent(entry.ref.getQueue(), queue -> new LinkedList<>()).addFirst(entry.ref);
+      }
+
+      for (Map.Entry<Queue, LinkedList<MessageReference>> entry : refs.entrySet()) {
+         final Queue queue = entry.getKey();
+         final LinkedList<MessageReference> list = entry.getValue();
+         if (logger.isTraceEnabled()) {
+            logger.trace("Delivering {} elements on list to queue {}", list.size(), queue);
+         }
+         queue.addHead(list, true);
+      }
+   }
+
+   // the caller must hold the lock on this
+   private void forEachEntry(final Consumer<ScheduledEntry> action) {
+      for (ScheduledEntry entry : overdue) {
+         if (!entry.isCancelled()) {
+            action.accept(entry);
+         }
+      }
+      for (List<ScheduledEntry> slot : wheel) {
+         for (ScheduledEntry entry : slot) {
+            if (!entry.isCancelled()) {
+               action.accept(entry);
+            }
+         }
+      }
+      for (List<ScheduledEntry> rotation : rotations.values()) {
+         for (ScheduledEntry entry : rotation) {
+            if (!entry.isCancelled()) {
+               action.accept(entry);
+            }
+         }
+      }
+   }
+
+   // the caller must hold the lock on this
+   private List<ScheduledEntry> sortedEntries() {
+      final List<ScheduledEntry> entries = new ArrayList<>(pendingEntries);
+      forEachEntry(entries::add);
+      entries.sort(DELIVERY_ORDER);
+      return entries;
+   }
+
+   // the caller must hold the lock on this
+   private void cancel(final ScheduledEntry entry) {
+      removed(entry);
+      // the entry is lazily removed from its slot: just release the reference
+      entry.ref = null;
+   }
+
+   @Override
+   public int getScheduledCount() {
+      return metrics.getMessageCount();
+   }
+
+   @Override
+   public int getNonPagedScheduledCount() {
+      return metrics.getNonPagedMessageCount();
+   }
+
+   @Override
+   public int getDurableScheduledCount() {
+      return metrics.getDurableMessageCount();
+   }
+
+   @Override
+   public int getNonPagedDurableScheduledCount() {
+      return metrics.getNonPagedDurableMessageCount();
+   }
+
+   @Override
+   public long getScheduledSize() {
+      return metrics.getPersistentSize();
+   }
+
+   @Override
+   public long getNonPagedScheduledSize() {
+      return metrics.getNonPagedPersistentSize();
+   }
+
+   @Override
+   public long getDurableScheduledSize() {
+      return metrics.getDurablePersistentSize();
+   }
+
+   @Override
+   public long getNonPagedDurableScheduledSize() {
+      return metrics.getNonPagedPersistentSize();
+   }
+
+   @Override
+   public synchronized MessageReference peekFirstScheduledMessage() {
+      if (pendingEntries == 0) {
+         return null;
+      }
+      if (oldestMessage == null) {
+         final MessageReference[] oldest = new MessageReference[1];
+         final long[] oldestTimestamp = {Long.MAX_VALUE};
+         forEachEntry(entry -> {
+            final long refTimestamp = entry.ref.getMessage().getTimestamp();
+            if (refTimestamp < oldestTimestamp[0]) {
+               oldestTimestamp[0] = refTimestamp;
+               oldest[0] = entry.ref;
+            }
+         });
+         oldestMessage = oldest[0];
+      }
+      return oldestMessage;
+   }
+
+   @Override
+   public List<MessageReference> getScheduledReferences() {
+      final List<MessageReference> refs = new LinkedList<>();
+
+      synchronized (this) {
+         for (ScheduledEntry entry : sortedEntries()) {
+            refs.add(entry.ref);
+         }
+      }
+      return refs;
+   }
+
+   @Override
+   public List<MessageReference> cancel(final Predicate<MessageReference> predicate) throws ActiveMQException {
+      final List<MessageReference> refs = new ArrayList<>();
+
+      synchronized (this) {
+         for (ScheduledEntry entry : sortedEntries()) {
+            final MessageReference ref = entry.ref;
+            if (predicate.test(ref)) {
+               cancel(entry);
+               refs.add(ref);
+            }
+         }
+      }
+      return refs;
+   }
+
+   @Override
+   public MessageReference removeReferenceWithID(final long id) throws Exception {
+      return removeReferenceWithID(id, null);
+   }
+
+   @Override
+   public MessageReference removeReferenceWithID(final long id, final Transaction tx) throws Exception {
+      synchronized (this) {
+         ScheduledEntry found = entriesByMessageID.get(id);
+         if (found == null && unindexedEntries > 0) {
+            // not indexed because scheduled more than once: the first one to be delivered is removed
+            final ScheduledEntry[] first = new ScheduledEntry[1];
+            forEachEntry(entry -> {
+               if (entry.ref.getMessageID() == id && (first[0] == null || DELIVERY_ORDER.compare(entry, first[0]) < 0)) {
+                  first[0] = entry;
+               }
+            });
+            found = first[0];
+         }
+         if (found == null) {
+            return null;
+         }
+         final MessageReference ref = found.ref;
+         ref.acknowledge(tx, AckReason.NORMAL, null, false);
+         cancel(found);
+         return ref;
+      }
+   }
+
+   private static final class ScheduledEntry {
+
+      // null once cancelled
+      private MessageReference ref;
+      private final long deliveryTime;
+      private final boolean tail;
+      private final long sequence;
+      private long tick;
+      private boolean onWheel;
+
+      private ScheduledEntry(final MessageReference ref, final long deliveryTime, final boolean tail, final long sequence) {
+         this.ref = ref;
+         this.deliveryTime = deliveryTime;
+         this.tail = tail;
+         this.sequence = sequence;
+      }
+
+      private boolean isCancelled() {
+         return ref == null;
+      }
+   }
+}
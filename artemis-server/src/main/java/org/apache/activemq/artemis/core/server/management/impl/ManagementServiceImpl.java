@@ -62,6 +62,9 @@ import org.apache.activemq.artemis.api.core.management.RemoteBrokerConnectionCon
 import org.apache.activemq.artemis.api.core.management.ResourceNames;
 import org.apache.activemq.artemis.core.config.ClusterConnectionConfiguration;
 import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.io.AbstractSequentialFileFactory;
+import org.apache.activemq.artemis.core.io.buffer.TimedBuffer;
+import org.apache.activemq.artemis.core.journal.impl.JournalImpl;
 import org.apache.activemq.artemis.core.management.impl.AcceptorControlImpl;
 import org.apache.activemq.artemis.core.management.impl.ActiveMQServerControlImpl;
 import org.apache.activemq.artemis.core.management.impl.AddressControlImpl;
@@ -81,6 +84,8 @@ import org.apache.activemq.artemis.core.messagecounter.MessageCounter;
 import org.apache.activemq.artemis.core.messagecounter.MessageCounterManager;
 import org.apache.activemq.artemis.core.messagecounter.impl.MessageCounterManagerImpl;
 import org.apache.activemq.artemis.core.paging.PagingManager;
+import org.apache.activemq.artemis.core.paging.SharedPageCache;
+import org.apache.activemq.artemis.core.persistence.JournalLoadTimes;
 import org.apache.activemq.artemis.core.persistence.StorageManager;
 import org.apache.activemq.artemis.core.postoffice.PostOffice;
 import org.apache.activemq.artemis.core.remoting.server.RemotingService;
@@ -254,6 +259,42 @@ public class ManagementServiceImpl implements ManagementService {
             builder.build(BrokerMetricNames.AUTHENTICATION_COUNT, securityStore, metrics -> (double) securityStore.getAuthenticationFailureCount(), ActiveMQServerControl.AUTHENTICATION_FAILURE_COUNT, Arrays.asList(Tag.of("result", "failure")));
             builder.build(BrokerMetricNames.AUTHORIZATION_COUNT, securityStore, metrics -> (double) securityStore.getAuthorizationSuccessCount(), ActiveMQServerControl.AUTHORIZATION_SUCCESS_COUNT, Arrays.asList(Tag.of("result", "success")));
             builder.build(BrokerMetricNames.AUTHORIZATION_COUNT, securityStore, metrics -> (double) securityStore.getAuthorizationFailureCount(), ActiveMQServerControl.AUTHORIZATION_FAILURE_COUNT, Arrays.asList(Tag.of("result", "failure")));
+            builder.buildHistogram(BrokerMetricNames.ACK_BATCH_SIZE, messagingServer.getAckBatchSizes(), "number of acknowledgement batches committed by the queues with up to this number of acknowledgements");
+            SharedPageCache pageCache = pagingManager == null ? null : pagingManager.getSharedPageCache();
+            if (pageCache != null) {
+               builder.build(BrokerMetricNames.PAGE_CACHE_SIZE, pageCache, metrics -> (double) pageCache.getHeapSize(), "memory estimate of the messages of the pages read into the heap by every paging store", Arrays.asList(Tag.of("memory", "heap")));
+               builder.build(BrokerMetricNames.PAGE_CACHE_SIZE, pageCache, metrics -> (double) pageCache.getMappedSize(), "number of bytes of the pages memory mapped by every paging store", Arrays.asList(Tag.of("memory", "mapped")));
+               builder.build(BrokerMetricNames.PAGE_CACHE_HIT_COUNT, pageCache, metrics -> (double) pageCache.getHits(), "number of times a page was read while already loaded", Collections.emptyList());
+               builder.build(BrokerMetricNames.PAGE_CACHE_MISS_COUNT, pageCache, metrics -> (double) pageCache.getMisses(), "number of times a page was loaded from its file", Collections.emptyList());
+               builder.build(BrokerMetricNames.PAGE_CACHE_EVICTION_COUNT, pageCache, metrics -> (double) pageCache.getEvictions(), "number of pages unloaded to stay under global-page-cache-max-size", Collections.emptyList());
+            }
+            if (pagingManager != null) {
+               builder.build(BrokerMetricNames.PAGE_READ_AHEAD_HIT_COUNT, pagingManager, metrics -> (double) pagingManager.getPageReadAheadHits(), "number of times a cursor moved to a page of an address reading pages ahead while it was already loaded", Collections.emptyList());
+               builder.build(BrokerMetricNames.PAGE_READ_AHEAD_MISS_COUNT, pagingManager, metrics -> (double) pagingManager.getPageReadAheadMisses(), "number of times a cursor moved to a page of an address reading pages ahead while it wasn't loaded yet", Collections.emptyList());
+            }
+            JournalLoadTimes loadTimes = storageManager == null ? null : storageManager.getJournalLoadTimes();
+            if (loadTimes != null) {
+               builder.build(BrokerMetricNames.JOURNAL_LOAD_TIME, loadTimes, metrics -> (double) loadTimes.getTotalTime(), "milliseconds spent loading the message journal on start", Arrays.asList(Tag.of("phase", "total")));
+               builder.build(BrokerMetricNames.JOURNAL_LOAD_TIME, loadTimes, metrics -> (double) loadTimes.getReadTime(), "milliseconds spent reading the message journal files on start", Arrays.asList(Tag.of("phase", "read")));
+               builder.build(BrokerMetricNames.JOURNAL_LOAD_TIME, loadTimes, metrics -> (double) loadTimes.getRecordsTime(), "milliseconds spent decoding the message journal records on start", Arrays.asList(Tag.of("phase", "records")));
+               builder.build(BrokerMetricNames.JOURNAL_LOAD_TIME, loadTimes, metrics -> (double) loadTimes.getQueuesTime(), "milliseconds spent reloading messages into their queues on start", Arrays.asList(Tag.of("phase", "queues")));
+               builder.build(BrokerMetricNames.JOURNAL_LOAD_TIME, loadTimes, metrics -> (double) loadTimes.getTransactionsTime(), "milliseconds spent reloading prepared transactions on start", Arrays.asList(Tag.of("phase", "transactions")));
+               builder.build(BrokerMetricNames.JOURNAL_LOAD_TIME, loadTimes, metrics -> (double) loadTimes.getPostLoadTime(), "milliseconds spent recovering paging and duplicate IDs on start", Arrays.asList(Tag.of("phase", "post-load")));
+            }
+            if (storageManager != null && storageManager.getMessageJournal() instanceof JournalImpl journal) {
+               builder.build(BrokerMetricNames.JOURNAL_COMPACT_COUNT, journal, metrics -> (double) journal.getCompactions(), "number of times the message journal was compacted", Collections.emptyList());
+               builder.build(BrokerMetricNames.JOURNAL_COMPACT_TIME, journal, metrics -> (double) journal.getCompactTime(), "milliseconds spent compacting the message journal", Collections.emptyList());
+               builder.build(BrokerMetricNames.JOURNAL_COMPACT_BYTES, journal, metrics -> (double) journal.getCompactBytes(), "number of bytes of records copied by compacting the message journal", Collections.emptyList());
+               builder.build(BrokerMetricNames.JOURNAL_COMPACT_STALL_TIME, journal, metrics -> (double) journal.getCompactStallTime(), "milliseconds compacting blocked the appends to the message journal", Collections.emptyList());
+               if (journal.getFileFactory() instanceof AbstractSequentialFileFactory fileFactory && fileFactory.getTimedBuffer() != null) {
+                  final TimedBuffer timedBuffer = fileFactory.getTimedBuffer();
+                  builder.build(BrokerMetricNames.JOURNAL_FLUSH_COUNT, timedBuffer, metrics -> (double) timedBuffer.getFlushes(), "number of flushes of the message journal buffer", Collections.emptyList());
+                  builder.build(BrokerMetricNames.JOURNAL_FLUSH_BYTES, timedBuffer, metrics -> (double) timedBuffer.getBytesFlushed(), "number of bytes flushed by the message journal buffer", Collections.emptyList());
+                  builder.build(BrokerMetricNames.JOURNAL_FLUSH_WINDOW, timedBuffer, metrics -> (double) timedBuffer.getFlushWindow(), "nanoseconds the message journal buffer waits for more records after a flush", Collections.emptyList());
+                  builder.buildHistogram(BrokerMetricNames.JOURNAL_FLUSH_SIZE, timedBuffer.getFlushSizes(), "number of flushes of the message journal buffer up to this number of bytes");
+                  builder.buildHistogram(BrokerMetricNames.JOURNAL_FLUSH_WAIT_TIME, timedBuffer.getFlushWaitTimes(), "number of flushes of the message journal buffer whose first record waited up to this number of microseconds for its completion");
+               }
+            }
          });
       }
    }
@@ -290,6 +331,7 @@ public class ManagementServiceImpl implements ManagementService {
                builder.build(AddressMetricNames.ADDRESS_SIZE, addressInfo, metrics -> (double) addressControl.getAddressSize(), AddressControl.ADDRESS_SIZE_DESCRIPTION, Collections.emptyList());
                builder.build(AddressMetricNames.PAGES_COUNT, addressInfo, metrics -> (double) addressControl.getNumberOfPages(), AddressControl.NUMBER_OF_PAGES_DESCRIPTION, Collections.emptyList());
                builder.build(AddressMetricNames.LIMIT_PERCENT, addressInfo, metrics -> (double) addressControl.getAddressLimitPercent(), AddressControl.LIMIT_PERCENT_DESCRIPTION, Collections.emptyList());
+               builder.build(AddressMetricNames.DEPAGE_LAG, addressInfo, metrics -> (double) addressControl.getDepageLag(), AddressControl.DEPAGE_LAG_DESCRIPTION, Collections.emptyList());
             });
          }
       }
@@ -23,5 +23,6 @@ public class AddressMetricNames {
    public static final String ADDRESS_SIZE = "address.size";
    public static final String PAGES_COUNT = "number.of.pages";
    public static final String LIMIT_PERCENT = "limit.percent";
+   public static final String DEPAGE_LAG = "depage.lag";
 
 }
@@ -33,4 +33,23 @@ public class BrokerMetricNames {
    public static final String IO_EXECUTOR_SERVICE = "io.executor.service";
    public static final String PAGE_EXECUTOR_SERVICE = "paging.executor.service";
    public static final String SCHEDULED_EXECUTOR_SERVICE = "scheduled.executor.service";
+   public static final String PAGE_CACHE_SIZE = "page.cache.size";
+   public static final String PAGE_CACHE_HIT_COUNT = "page.cache.hit.count";
+   public static final String PAGE_CACHE_MISS_COUNT = "page.cache.miss.count";
+   public static final String PAGE_CACHE_EVICTION_COUNT = "page.cache.eviction.count";
+   public static final String PAGE_READ_AHEAD_HIT_COUNT = "page.read.ahead.hit.count";
+   public static final String PAGE_READ_AHEAD_MISS_COUNT = "page.read.ahead.miss.count";
+   public static final String JOURNAL_LOAD_TIME = "journal.load.time";
+   public static final String JOURNAL_COMPACT_COUNT = "journal.compact.count";
+   public static final String JOURNAL_COMPACT_TIME = "journal.compact.time";
+   public static final String JOURNAL_COMPACT_BYTES = "journal.compact.bytes";
+   public static final String JOURNAL_COMPACT_STALL_TIME = "journal.compact.stall.time";
+   public static final String JOURNAL_FLUSH_COUNT = "journal.flush.count";
+   public static final String JOURNAL_FLUSH_BYTES = "journal.flush.bytes";
+   public static final String JOURNAL_FLUSH_SIZE = "journal.flush.size";
+   public static final String JOURNAL_FLUSH_WAIT_TIME = "journal.flush.wait.time";
+   public static final String JOURNAL_FLUSH_WINDOW = "journal.flush.window";
+   public static final String ACK_BATCH_SIZE = "ack.batch.size";
+   public static final String ACCEPTOR_CONNECTION_ADMISSION_COUNT = "acceptor.connection.admission.count";
+   public static final String ACCEPTOR_PENDING_CONNECTION_COUNT = "acceptor.pending.connection.count";
 }
@@ -19,6 +19,7 @@ package org.apache.activemq.artemis.core.server.metrics;
 
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -57,6 +58,7 @@ import org.apache.activemq.artemis.core.security.impl.SecurityStoreImpl;
 import org.apache.activemq.artemis.core.server.ActiveMQMessageBundle;
 import org.apache.activemq.artemis.core.settings.HierarchicalRepository;
 import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
+import org.apache.activemq.artemis.utils.PowerOf2Histogram;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -142,6 +144,18 @@ public class MetricsManager {
    public interface MetricGaugeBuilder {
 
       void build(String metricName, Object state, ToDoubleFunction<Object> f, String description, List<Tag> tags);
+
+      /**
+       * Builds a gauge per bucket of the histogram, tagged with the upper bound of the bucket as {@code le} and
+       * measuring the number of values up to that bound.
+       */
+      default void buildHistogram(String metricName, PowerOf2Histogram histogram, String description) {
+         for (int i = 0; i < histogram.getBuckets(); i++) {
+            final int bucket = i;
+            final long bound = histogram.getUpperBound(bucket);
+            build(metricName, histogram, metrics -> (double) histogram.getCumulativeCount(bucket), description, Arrays.asList(Tag.of("le", bound == Long.MAX_VALUE ? "+Inf" : String.valueOf(bound))));
+         }
+      }
    }
 
    public void registerQueueGauge(String address, String queue, Consumer<MetricGaugeBuilder> builder) {
@@ -180,6 +194,26 @@ public class MetricsManager {
    }
 
    public void registerBrokerGauge(Consumer<MetricGaugeBuilder> builder) {
+      registerBrokerGauge(builder, ResourceNames.BROKER + "." + brokerName);
+   }
+
+   /**
+    * Registers the gauges of a component of the broker which isn't managed by the broker itself, e.g. a protocol. They
+    * are tagged like the gauges of the broker and are removed by {@link #removeBrokerGauges(String)}.
+    */
+   public void registerBrokerGauge(String component, Consumer<MetricGaugeBuilder> builder) {
+      registerBrokerGauge(builder, getBrokerComponentResource(component));
+   }
+
+   public void removeBrokerGauges(String component) {
+      remove(getBrokerComponentResource(component));
+   }
+
+   private String getBrokerComponentResource(String component) {
+      return ResourceNames.BROKER + "." + brokerName + "." + component;
+   }
+
+   private void registerBrokerGauge(Consumer<MetricGaugeBuilder> builder, String resource) {
       if (this.meterRegistry == null) {
          return;
       }
@@ -192,7 +226,7 @@ public class MetricsManager {
             .description(description);
          gaugeBuilders.add(meter);
       });
-      registerMeters(gaugeBuilders, ResourceNames.BROKER + "." + brokerName);
+      registerMeters(gaugeBuilders, resource);
    }
 
    private void registerMeters(List<Builder<Object>> gaugeBuilders, String resource) {
@@ -79,7 +79,8 @@ public interface ActiveMQServerQueuePlugin extends ActiveMQServerBasePlugin {
    }
 
    /**
-    * To be called before starting expiry scan on the queue
+    * To be called before starting expiry scan on the queue. It is also called, immediately followed by
+    * {@link #afterExpiryScan(Queue)}, when the scan is skipped because no message of the queue can have expired yet.
     */
    default void beforeExpiryScan(Queue queue) {
    }
@@ -148,6 +148,18 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
 
    public static final boolean DEFAULT_ENABLE_INGRESS_TIMESTAMP = false;
 
+   public static final int DEFAULT_PAGE_FAN_OUT_WINDOW = 0;
+
+   public static final int DEFAULT_PAGE_READ_AHEAD = 0;
+
+   public static final int DEFAULT_PAGE_PRIORITY = 1;
+
+   public static final int DEFAULT_ACK_BATCH_SIZE = 1;
+
+   public static final int DEFAULT_DELIVERY_SHARDS = 1;
+
+   public static final ScheduledDeliveryHandlerType DEFAULT_SCHEDULED_DELIVERY_HANDLER = ScheduledDeliveryHandlerType.DEFAULT;
+
    static {
       metaBean.add(AddressFullMessagePolicy.class, "addressFullMessagePolicy", (t, p) -> t.addressFullMessagePolicy = p, t -> t.addressFullMessagePolicy);
    }
@@ -546,6 +558,36 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
    }
    private Integer initialQueueBufferSize = null;
 
+   static {
+      metaBean.add(ScheduledDeliveryHandlerType.class, "scheduledDeliveryHandler", (t, p) -> t.scheduledDeliveryHandler = p, t -> t.scheduledDeliveryHandler);
+   }
+   private ScheduledDeliveryHandlerType scheduledDeliveryHandler = null;
+
+   static {
+      metaBean.add(Integer.class, "deliveryShards", (t, p) -> t.deliveryShards = p, t -> t.deliveryShards);
+   }
+   private Integer deliveryShards = null;
+
+   static {
+      metaBean.add(Integer.class, "ackBatchSize", (t, p) -> t.ackBatchSize = p, t -> t.ackBatchSize);
+   }
+   private Integer ackBatchSize = null;
+
+   static {
+      metaBean.add(Integer.class, "pagePriority", (t, p) -> t.pagePriority = p, t -> t.pagePriority);
+   }
+   private Integer pagePriority = null;
+
+   static {
+      metaBean.add(Integer.class, "pageReadAhead", (t, p) -> t.pageReadAhead = p, t -> t.pageReadAhead);
+   }
+   private Integer pageReadAhead = null;
+
+   static {
+      metaBean.add(Integer.class, "pageFanOutWindow", (t, p) -> t.pageFanOutWindow = p, t -> t.pageFanOutWindow);
+   }
+   private Integer pageFanOutWindow = null;
+
    //from amq5
    //make it transient
    @Deprecated
@@ -1295,6 +1337,60 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
       return this;
    }
 
+   public ScheduledDeliveryHandlerType getScheduledDeliveryHandler() {
+      return Objects.requireNonNullElse(scheduledDeliveryHandler, AddressSettings.DEFAULT_SCHEDULED_DELIVERY_HANDLER);
+   }
+
+   public AddressSettings setScheduledDeliveryHandler(final ScheduledDeliveryHandlerType scheduledDeliveryHandler) {
+      this.scheduledDeliveryHandler = scheduledDeliveryHandler;
+      return this;
+   }
+
+   public int getDeliveryShards() {
+      return Objects.requireNonNullElse(deliveryShards, AddressSettings.DEFAULT_DELIVERY_SHARDS);
+   }
+
+   public AddressSettings setDeliveryShards(final int deliveryShards) {
+      this.deliveryShards = deliveryShards;
+      return this;
+   }
+
+   public int getAckBatchSize() {
+      return Objects.requireNonNullElse(ackBatchSize, AddressSettings.DEFAULT_ACK_BATCH_SIZE);
+   }
+
+   public AddressSettings setAckBatchSize(final int ackBatchSize) {
+      this.ackBatchSize = ackBatchSize;
+      return this;
+   }
+
+   public int getPagePriority() {
+      return Objects.requireNonNullElse(pagePriority, AddressSettings.DEFAULT_PAGE_PRIORITY);
+   }
+
+   public AddressSettings setPagePriority(final int pagePriority) {
+      this.pagePriority = pagePriority;
+      return this;
+   }
+
+   public int getPageReadAhead() {
+      return Objects.requireNonNullElse(pageReadAhead, AddressSettings.DEFAULT_PAGE_READ_AHEAD);
+   }
+
+   public AddressSettings setPageReadAhead(final int pageReadAhead) {
+      this.pageReadAhead = pageReadAhead;
+      return this;
+   }
+
+   public int getPageFanOutWindow() {
+      return Objects.requireNonNullElse(pageFanOutWindow, AddressSettings.DEFAULT_PAGE_FAN_OUT_WINDOW);
+   }
+
+   public AddressSettings setPageFanOutWindow(final int pageFanOutWindow) {
+      this.pageFanOutWindow = pageFanOutWindow;
+      return this;
+   }
+
    /**
     * Merge two AddressSettings instances in one instance
     */
@@ -1718,7 +1814,13 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
              Objects.equals(enableIngressTimestamp, other.enableIngressTimestamp) &&
              Objects.equals(idCacheSize, other.idCacheSize) &&
              Objects.equals(initialQueueBufferSize, other.initialQueueBufferSize) &&
-             Objects.equals(queuePrefetch, other.queuePrefetch);
+             Objects.equals(queuePrefetch, other.queuePrefetch) &&
+             Objects.equals(scheduledDeliveryHandler, other.scheduledDeliveryHandler) &&
+             Objects.equals(deliveryShards, other.deliveryShards) &&
+             Objects.equals(ackBatchSize, other.ackBatchSize) &&
+             Objects.equals(pagePriority, other.pagePriority) &&
+             Objects.equals(pageReadAhead, other.pageReadAhead) &&
+             Objects.equals(pageFanOutWindow, other.pageFanOutWindow);
    }
 
    @Override
@@ -1744,12 +1846,12 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
                           defaultConsumerWindowSize, autoCreateDeadLetterResources, deadLetterQueuePrefix,
                           deadLetterQueueSuffix, autoCreateExpiryResources, expiryQueuePrefix, expiryQueueSuffix,
                           enableMetrics, managementMessageAttributeSizeLimit, enableIngressTimestamp, idCacheSize,
-                          queuePrefetch, initialQueueBufferSize);
+                          queuePrefetch, initialQueueBufferSize, scheduledDeliveryHandler, deliveryShards, ackBatchSize, pagePriority, pageReadAhead, pageFanOutWindow);
    }
 
    @Override
    public String toString() {
-      return "AddressSettings{" + "addressFullMessagePolicy=" + addressFullMessagePolicy + ", maxSizeBytes=" + maxSizeBytes + ", maxReadPageBytes=" + maxReadPageBytes + ", maxReadPageMessages=" + maxReadPageMessages + ", prefetchPageBytes=" + prefetchPageBytes + ", prefetchPageMessages=" + prefetchPageMessages + ", pageLimitBytes=" + pageLimitBytes + ", pageLimitMessages=" + pageLimitMessages + ", pageFullMessagePolicy=" + pageFullMessagePolicy + ", diskFullMessagePolicy=" + diskFullMessagePolicy + ", maxSizeMessages=" + maxSizeMessages + ", pageSizeBytes=" + pageSizeBytes + ", pageMaxCache=" + pageCacheMaxSize + ", maxDeliveryAttempts=" + maxDeliveryAttempts + ", messageCounterHistoryDayLimit=" + messageCounterHistoryDayLimit + ", redeliveryDelay=" + redeliveryDelay + ", redeliveryMultiplier=" + redeliveryMultiplier + ", redeliveryCollisionAvoidanceFactor=" + redeliveryCollisionAvoidanceFactor + ", maxRedeliveryDelay=" + maxRedeliveryDelay + ", deadLetterAddress=" + deadLetterAddress + ", expiryAddress=" + expiryAddress + ", expiryDelay=" + expiryDelay + ", minExpiryDelay=" + minExpiryDelay + ", maxExpiryDelay=" + maxExpiryDelay + ", noExpiry=" + noExpiry + ", defaultLastValueQueue=" + defaultLastValueQueue + ", defaultLastValueKey=" + defaultLastValueKey + ", defaultNonDestructive=" + defaultNonDestructive + ", defaultExclusiveQueue=" + defaultExclusiveQueue + ", defaultGroupRebalance=" + defaultGroupRebalance + ", defaultGroupRebalancePauseDispatch=" + defaultGroupRebalancePauseDispatch + ", defaultGroupBuckets=" + defaultGroupBuckets + ", defaultGroupFirstKey=" + defaultGroupFirstKey + ", redistributionDelay=" + redistributionDelay + ", sendToDLAOnNoRoute=" + sendToDLAOnNoRoute + ", slowConsumerThreshold=" + slowConsumerThreshold + ", slowConsumerThresholdMeasurementUnit=" + slowConsumerThresholdMeasurementUnit + ", slowConsumerCheckPeriod=" + slowConsumerCheckPeriod + ", slowConsumerPolicy=" + slowConsumerPolicy + ", autoCreateJmsQueues=" + autoCreateJmsQueues + ", autoDeleteJmsQueues=" + autoDeleteJmsQueues + ", autoCreateJmsTopics=" + autoCreateJmsTopics + ", autoDeleteJmsTopics=" + autoDeleteJmsTopics + ", autoCreateQueues=" + autoCreateQueues + ", autoDeleteQueues=" + autoDeleteQueues + ", autoDeleteCreatedQueues=" + autoDeleteCreatedQueues + ", autoDeleteQueuesDelay=" + autoDeleteQueuesDelay + ", autoDeleteQueuesSkipUsageCheck=" + autoDeleteQueuesSkipUsageCheck + ", autoDeleteQueuesMessageCount=" + autoDeleteQueuesMessageCount + ", defaultRingSize=" + defaultRingSize + ", retroactiveMessageCount=" + retroactiveMessageCount + ", configDeleteQueues=" + configDeleteQueues + ", autoCreateAddresses=" + autoCreateAddresses + ", autoDeleteAddresses=" + autoDeleteAddresses + ", autoDeleteAddressesDelay=" + autoDeleteAddressesDelay + ", autoDeleteAddressesSkipUsageCheck=" + autoDeleteAddressesSkipUsageCheck + ", configDeleteAddresses=" + configDeleteAddresses + ", configDeleteDiverts=" + configDeleteDiverts + ", managementBrowsePageSize=" + managementBrowsePageSize + ", maxSizeBytesRejectThreshold=" + maxSizeBytesRejectThreshold + ", defaultMaxConsumers=" + defaultMaxConsumers + ", defaultPurgeOnNoConsumers=" + defaultPurgeOnNoConsumers + ", defaultConsumersBeforeDispatch=" + defaultConsumersBeforeDispatch + ", defaultDelayBeforeDispatch=" + defaultDelayBeforeDispatch + ", defaultQueueRoutingType=" + defaultQueueRoutingType + ", defaultAddressRoutingType=" + defaultAddressRoutingType + ", defaultConsumerWindowSize=" + defaultConsumerWindowSize + ", autoCreateDeadLetterResources=" + autoCreateDeadLetterResources + ", deadLetterQueuePrefix=" + deadLetterQueuePrefix + ", deadLetterQueueSuffix=" + deadLetterQueueSuffix + ", autoCreateExpiryResources=" + autoCreateExpiryResources + ", expiryQueuePrefix=" + expiryQueuePrefix + ", expiryQueueSuffix=" + expiryQueueSuffix + ", enableMetrics=" + enableMetrics + ", managementMessageAttributeSizeLimit=" + managementMessageAttributeSizeLimit + ", enableIngressTimestamp=" + enableIngressTimestamp + ", idCacheSize=" + idCacheSize + ", queuePrefetch=" + queuePrefetch + ", initialQueueBufferSize=" + initialQueueBufferSize
+      return "AddressSettings{" + "addressFullMessagePolicy=" + addressFullMessagePolicy + ", maxSizeBytes=" + maxSizeBytes + ", maxReadPageBytes=" + maxReadPageBytes + ", maxReadPageMessages=" + maxReadPageMessages + ", prefetchPageBytes=" + prefetchPageBytes + ", prefetchPageMessages=" + prefetchPageMessages + ", pageLimitBytes=" + pageLimitBytes + ", pageLimitMessages=" + pageLimitMessages + ", pageFullMessagePolicy=" + pageFullMessagePolicy + ", diskFullMessagePolicy=" + diskFullMessagePolicy + ", maxSizeMessages=" + maxSizeMessages + ", pageSizeBytes=" + pageSizeBytes + ", pageMaxCache=" + pageCacheMaxSize + ", maxDeliveryAttempts=" + maxDeliveryAttempts + ", messageCounterHistoryDayLimit=" + messageCounterHistoryDayLimit + ", redeliveryDelay=" + redeliveryDelay + ", redeliveryMultiplier=" + redeliveryMultiplier + ", redeliveryCollisionAvoidanceFactor=" + redeliveryCollisionAvoidanceFactor + ", maxRedeliveryDelay=" + maxRedeliveryDelay + ", deadLetterAddress=" + deadLetterAddress + ", expiryAddress=" + expiryAddress + ", expiryDelay=" + expiryDelay + ", minExpiryDelay=" + minExpiryDelay + ", maxExpiryDelay=" + maxExpiryDelay + ", noExpiry=" + noExpiry + ", defaultLastValueQueue=" + defaultLastValueQueue + ", defaultLastValueKey=" + defaultLastValueKey + ", defaultNonDestructive=" + defaultNonDestructive + ", defaultExclusiveQueue=" + defaultExclusiveQueue + ", defaultGroupRebalance=" + defaultGroupRebalance + ", defaultGroupRebalancePauseDispatch=" + defaultGroupRebalancePauseDispatch + ", defaultGroupBuckets=" + defaultGroupBuckets + ", defaultGroupFirstKey=" + defaultGroupFirstKey + ", redistributionDelay=" + redistributionDelay + ", sendToDLAOnNoRoute=" + sendToDLAOnNoRoute + ", slowConsumerThreshold=" + slowConsumerThreshold + ", slowConsumerThresholdMeasurementUnit=" + slowConsumerThresholdMeasurementUnit + ", slowConsumerCheckPeriod=" + slowConsumerCheckPeriod + ", slowConsumerPolicy=" + slowConsumerPolicy + ", autoCreateJmsQueues=" + autoCreateJmsQueues + ", autoDeleteJmsQueues=" + autoDeleteJmsQueues + ", autoCreateJmsTopics=" + autoCreateJmsTopics + ", autoDeleteJmsTopics=" + autoDeleteJmsTopics + ", autoCreateQueues=" + autoCreateQueues + ", autoDeleteQueues=" + autoDeleteQueues + ", autoDeleteCreatedQueues=" + autoDeleteCreatedQueues + ", autoDeleteQueuesDelay=" + autoDeleteQueuesDelay + ", autoDeleteQueuesSkipUsageCheck=" + autoDeleteQueuesSkipUsageCheck + ", autoDeleteQueuesMessageCount=" + autoDeleteQueuesMessageCount + ", defaultRingSize=" + defaultRingSize + ", retroactiveMessageCount=" + retroactiveMessageCount + ", configDeleteQueues=" + configDeleteQueues + ", autoCreateAddresses=" + autoCreateAddresses + ", autoDeleteAddresses=" + autoDeleteAddresses + ", autoDeleteAddressesDelay=" + autoDeleteAddressesDelay + ", autoDeleteAddressesSkipUsageCheck=" + autoDeleteAddressesSkipUsageCheck + ", configDeleteAddresses=" + configDeleteAddresses + ", configDeleteDiverts=" + configDeleteDiverts + ", managementBrowsePageSize=" + managementBrowsePageSize + ", maxSizeBytesRejectThreshold=" + maxSizeBytesRejectThreshold + ", defaultMaxConsumers=" + defaultMaxConsumers + ", defaultPurgeOnNoConsumers=" + defaultPurgeOnNoConsumers + ", defaultConsumersBeforeDispatch=" + defaultConsumersBeforeDispatch + ", defaultDelayBeforeDispatch=" + defaultDelayBeforeDispatch + ", defaultQueueRoutingType=" + defaultQueueRoutingType + ", defaultAddressRoutingType=" + defaultAddressRoutingType + ", defaultConsumerWindowSize=" + defaultConsumerWindowSize + ", autoCreateDeadLetterResources=" + autoCreateDeadLetterResources + ", deadLetterQueuePrefix=" + deadLetterQueuePrefix + ", deadLetterQueueSuffix=" + deadLetterQueueSuffix + ", autoCreateExpiryResources=" + autoCreateExpiryResources + ", expiryQueuePrefix=" + expiryQueuePrefix + ", expiryQueueSuffix=" + expiryQueueSuffix + ", enableMetrics=" + enableMetrics + ", managementMessageAttributeSizeLimit=" + managementMessageAttributeSizeLimit + ", enableIngressTimestamp=" + enableIngressTimestamp + ", idCacheSize=" + idCacheSize + ", queuePrefetch=" + queuePrefetch + ", initialQueueBufferSize=" + initialQueueBufferSize + ", scheduledDeliveryHandler=" + scheduledDeliveryHandler + ", deliveryShards=" + deliveryShards + ", ackBatchSize=" + ackBatchSize + ", pagePriority=" + pagePriority + ", pageReadAhead=" + pageReadAhead + ", pageFanOutWindow=" + pageFanOutWindow
              + '}';
    }
 }
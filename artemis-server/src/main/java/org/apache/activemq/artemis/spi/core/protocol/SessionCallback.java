@@ -16,10 +16,13 @@
  */
 package org.apache.activemq.artemis.spi.core.protocol;
 
+import org.apache.activemq.artemis.api.core.ActiveMQException;
 import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.message.LargeBodyReader;
 import org.apache.activemq.artemis.core.server.MessageReference;
 import org.apache.activemq.artemis.core.server.ServerConsumer;
 import org.apache.activemq.artemis.core.transaction.Transaction;
+import org.apache.activemq.artemis.spi.core.remoting.FileRegionWriter;
 import org.apache.activemq.artemis.spi.core.remoting.ReadyListener;
 
 public interface SessionCallback {
@@ -73,6 +76,33 @@ public interface SessionCallback {
                                     boolean continues,
                                     boolean requiresResponse);
 
+   /**
+    * Opens the file read by {@code reader} to send the continuations of a large message body straight from it with
+    * {@link #sendLargeMessageContinuation(ServerConsumer, FileRegionWriter, LargeBodyReader, int, boolean)}, once for
+    * the whole delivery of the message.
+    *
+    * @return {@code null} if the continuations can't be sent this way and have to be read and sent with
+    * {@link #sendLargeMessageContinuation(ServerConsumer, byte[], boolean, boolean)}
+    */
+   default FileRegionWriter openLargeMessageFileRegion(LargeBodyReader reader) {
+      return null;
+   }
+
+   /**
+    * Sends the next {@code length} bytes of a large message body straight from the file opened by {@code writer},
+    * moving the position of {@code reader} past them, without copying them through the heap.
+    *
+    * @return the size of the sent packet, or {@code -1} if the continuation can't be sent this way and has to be read
+    * and sent with {@link #sendLargeMessageContinuation(ServerConsumer, byte[], boolean, boolean)}
+    */
+   default int sendLargeMessageContinuation(ServerConsumer consumer,
+                                            FileRegionWriter writer,
+                                            LargeBodyReader reader,
+                                            int length,
+                                            boolean continues) throws ActiveMQException {
+      return -1;
+   }
+
    void closed();
 
    void disconnect(ServerConsumer consumerId, String errorMessage);
@@ -81,6 +81,7 @@ import org.apache.activemq.artemis.core.server.plugin.ActiveMQServerBasePlugin;
 import org.apache.activemq.artemis.core.server.plugin.ActiveMQServerPlugin;
 import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
 import org.apache.activemq.artemis.core.settings.impl.DiskFullMessagePolicy;
+import org.apache.activemq.artemis.core.settings.impl.ScheduledDeliveryHandlerType;
 import org.apache.activemq.artemis.core.settings.impl.SlowConsumerPolicy;
 import org.apache.activemq.artemis.core.settings.impl.SlowConsumerThresholdMeasurementUnit;
 import org.apache.activemq.artemis.tests.extensions.parameterized.ParameterizedTestExtension;
@@ -217,6 +218,7 @@ public class FileConfigurationTest extends AbstractConfigurationTestBase {
       assertEquals(25000, configInstance.getAddressQueueScanPeriod());
       assertEquals(127, configInstance.getIDCacheSize());
       assertTrue(configInstance.isPersistIDCache());
+      assertTrue(configInstance.isIDCacheOffHeap());
       assertEquals(Integer.valueOf(777), configInstance.getJournalDeviceBlockSize());
       assertTrue(configInstance.isPersistDeliveryCountBeforeDelivery());
       assertEquals("pagingdir", configInstance.getPagingDirectory());
@@ -228,6 +230,8 @@ public class FileConfigurationTest extends AbstractConfigurationTestBase {
 
       assertEquals(17, configInstance.getPageMaxConcurrentIO(), "max concurrent io");
       assertTrue(configInstance.isReadWholePage());
+      assertTrue(configInstance.isPageMemoryMapped());
+      assertEquals(3, configInstance.getPageMaxConcurrentDepage());
       assertEquals("somedir2", configInstance.getJournalDirectory());
       assertEquals("history", configInstance.getJournalRetentionDirectory());
       assertEquals(10L * 1024L * 1024L * 1024L, configInstance.getJournalRetentionMaxBytes());
@@ -238,19 +242,26 @@ public class FileConfigurationTest extends AbstractConfigurationTestBase {
       assertEquals(1000, configInstance.getJournalBufferTimeout_NIO());
       assertEquals(56546, configInstance.getJournalMaxIO_NIO());
       assertEquals(9876, configInstance.getJournalFileOpenTimeout());
+      assertEquals(4, configInstance.getJournalLoadThreads());
+      assertEquals(32 * 1024 * 1024, configInstance.getJournalLoadReadAheadSize());
+      assertTrue(configInstance.isJournalOffHeapRecordIndex());
 
       assertFalse(configInstance.isJournalSyncTransactional());
       assertTrue(configInstance.isJournalSyncNonTransactional());
       assertEquals(12345678, configInstance.getJournalFileSize());
       assertEquals(100, configInstance.getJournalMinFiles());
       assertEquals(123, configInstance.getJournalCompactMinFiles());
+      assertEquals(12, configInstance.getJournalCompactMaxFiles());
+      assertEquals(2000000, configInstance.getJournalBufferMaxLatency());
       assertEquals(33, configInstance.getJournalCompactPercentage());
       assertEquals(7654, configInstance.getJournalLockAcquisitionTimeout());
       assertTrue(configInstance.isGracefulShutdownEnabled());
       assertEquals(12345, configInstance.getGracefulShutdownTimeout());
       assertTrue(configInstance.isPopulateValidatedUser());
       assertFalse(configInstance.isRejectEmptyValidatedUser());
+      assertEquals(10 * 1024 * 1024, configInstance.getMqttRetainedMessagesMaxSize());
       assertEquals(123456, configInstance.getMqttSessionScanInterval());
+      assertEquals(654321, configInstance.getMqttSessionStateEvictionDelay());
       assertEquals(567890, configInstance.getMqttSessionStatePersistenceTimeout());
       assertFalse(configInstance.isMqttSubscriptionPersistenceEnabled());
       assertEquals(98765, configInstance.getConnectionTtlCheckInterval());
@@ -558,6 +569,12 @@ public class FileConfigurationTest extends AbstractConfigurationTestBase {
       assertTrue(configInstance.getAddressSettings().get("a1").isEnableIngressTimestamp());
       assertNull(configInstance.getAddressSettings().get("a1").getIDCacheSize());
       assertNull(configInstance.getAddressSettings().get("a1").getInitialQueueBufferSize());
+      assertEquals(ScheduledDeliveryHandlerType.DEFAULT, configInstance.getAddressSettings().get("a1").getScheduledDeliveryHandler());
+      assertEquals(AddressSettings.DEFAULT_DELIVERY_SHARDS, configInstance.getAddressSettings().get("a1").getDeliveryShards());
+      assertEquals(AddressSettings.DEFAULT_ACK_BATCH_SIZE, configInstance.getAddressSettings().get("a1").getAckBatchSize());
+      assertEquals(AddressSettings.DEFAULT_PAGE_PRIORITY, configInstance.getAddressSettings().get("a1").getPagePriority());
+      assertEquals(AddressSettings.DEFAULT_PAGE_READ_AHEAD, configInstance.getAddressSettings().get("a1").getPageReadAhead());
+      assertEquals(AddressSettings.DEFAULT_PAGE_FAN_OUT_WINDOW, configInstance.getAddressSettings().get("a1").getPageFanOutWindow());
 
       assertEquals("a2.1", configInstance.getAddressSettings().get("a2").getDeadLetterAddress().toString());
       assertTrue(configInstance.getAddressSettings().get("a2").isAutoCreateDeadLetterResources());
@@ -602,6 +619,12 @@ public class FileConfigurationTest extends AbstractConfigurationTestBase {
       assertFalse(configInstance.getAddressSettings().get("a2").isEnableIngressTimestamp());
       assertEquals(Integer.valueOf(500), configInstance.getAddressSettings().get("a2").getIDCacheSize());
       assertEquals(Integer.valueOf(128), configInstance.getAddressSettings().get("a2").getInitialQueueBufferSize());
+      assertEquals(ScheduledDeliveryHandlerType.TIMING_WHEEL, configInstance.getAddressSettings().get("a2").getScheduledDeliveryHandler());
+      assertEquals(8, configInstance.getAddressSettings().get("a2").getDeliveryShards());
+      assertEquals(32, configInstance.getAddressSettings().get("a2").getAckBatchSize());
+      assertEquals(5, configInstance.getAddressSettings().get("a2").getPagePriority());
+      assertEquals(2, configInstance.getAddressSettings().get("a2").getPageReadAhead());
+      assertEquals(64, configInstance.getAddressSettings().get("a2").getPageFanOutWindow());
 
       assertEquals(111, configInstance.getMirrorAckManagerQueueAttempts());
       assertTrue(configInstance.isMirrorAckManagerWarnUnacked());
@@ -661,6 +684,7 @@ public class FileConfigurationTest extends AbstractConfigurationTestBase {
       assertTrue(a2Role.isDeleteNonDurableQueue());
       assertFalse(a2Role.isManage());
       assertEquals(1234567, configInstance.getGlobalMaxSize());
+      assertEquals(10 * 1024 * 1024, configInstance.getGlobalPageCacheMaxSize());
       assertEquals(30, configInstance.getGlobalMaxSizePercentOfJvmMaxMemory());
       assertEquals(37, configInstance.getMaxDiskUsage());
       assertEquals(123, configInstance.getDiskScanPeriod());
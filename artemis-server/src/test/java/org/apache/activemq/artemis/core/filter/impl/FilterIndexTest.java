@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.filter.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.apache.activemq.artemis.api.core.Message;
+import org.apache.activemq.artemis.core.filter.Filter;
+import org.apache.activemq.artemis.core.message.impl.CoreMessage;
+import org.junit.jupiter.api.Test;
+
+public class FilterIndexTest {
+
+   private static final String[] FILTERS = {
+      "region = 'EU'",
+      "'US' = region",
+      "region IN ('EU', 'APAC')",
+      "region NOT IN ('EU', 'APAC')",
+      "region = 'EU' OR region = 'US'",
+      "region = 'EU' OR level = 1",
+      "region = 'EU' AND level > 2",
+      "region IN ('US', 'EU') AND level BETWEEN 1 AND 3",
+      "level = 2",
+      "level > 2",
+      "level >= 2",
+      "2 > level",
+      "2 = level",
+      "5 <= level",
+      "2 = level OR 5 = level",
+      "1 < level AND level < 6",
+      "level <= 2",
+      "level BETWEEN 2 AND 4",
+      "level > 1 AND level < 3",
+      "level > 9223372036854775807",
+      "level = 2.0",
+      "region LIKE 'E%'",
+      "region IS NULL",
+      "region <> 'EU'",
+      "NOT (region = 'EU')",
+      "AMQPriority = 4",
+      "region = 'EU' AND region = 'US'",
+   };
+
+   @Test
+   public void testSameResultAsFilters() throws Exception {
+      final List<Filter> filters = new ArrayList<>();
+      for (String filter : FILTERS) {
+         filters.add(FilterImpl.createFilter(filter));
+      }
+      final FilterIndex<Filter> index = FilterIndex.build(filters, Function.identity());
+      assertNotNull(index);
+
+      final List<Message> messages = new ArrayList<>();
+      messages.add(new CoreMessage(1, 50));
+      for (Object region : new Object[] {"EU", "US", "APAC", "LATAM", 1}) {
+         for (Object level : new Object[] {null, 1, 2, 3L, 4, (short) 2, (byte) 5, 2.0d, "2", Long.MAX_VALUE}) {
+            final CoreMessage message = new CoreMessage(1, 50);
+            if (region instanceof String) {
+               message.putStringProperty("region", (String) region);
+            } else {
+               message.putIntProperty("region", (Integer) region);
+            }
+            if (level != null) {
+               message.putObjectProperty("level", level);
+            }
+            messages.add(message);
+         }
+      }
+
+      for (Message message : messages) {
+         final FilterIndex<Filter>.Matcher matcher = index.matcher(message);
+         for (Filter filter : filters) {
+            assertEquals(filter.match(message), matcher.match(filter, filter), () -> filter + " on " + message);
+         }
+      }
+   }
+
+   @Test
+   public void testCandidatesLookedUp() throws Exception {
+      final List<Filter> regions = new ArrayList<>();
+      final List<Filter> levels = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+         regions.add(FilterImpl.createFilter("region = 'R" + i + "'"));
+         levels.add(FilterImpl.createFilter("level BETWEEN " + i * 10 + " AND " + (i * 10 + 19)));
+      }
+      final Filter conjunction = FilterImpl.createFilter("region = 'R5' AND level > 1000");
+      final List<Filter> filters = new ArrayList<>(regions);
+      filters.addAll(levels);
+      filters.add(conjunction);
+      final FilterIndex<Filter> index = FilterIndex.build(filters, Function.identity());
+      assertEquals(201, index.size());
+
+      final Message message = new CoreMessage(1, 50).putStringProperty("region", "R5").putLongProperty("level", 57L);
+      final FilterIndex<Filter>.Matcher matcher = index.matcher(message);
+      for (int i = 0; i < 100; i++) {
+         assertEquals(i == 5 ? FilterIndex.MATCH : FilterIndex.NO_MATCH, matcher.result(regions.get(i)), "R" + i);
+         assertEquals(i == 4 || i == 5 ? FilterIndex.MATCH : FilterIndex.NO_MATCH, matcher.result(levels.get(i)), "level " + i);
+      }
+      // the other term of the conjunction is left to the filter
+      assertEquals(FilterIndex.EVALUATE, matcher.result(conjunction));
+      assertFalse(matcher.match(conjunction, conjunction));
+
+      // a value of another type is left to the filters
+      final FilterIndex<Filter>.Matcher doubleMatcher = index.matcher(new CoreMessage(1, 50).putDoubleProperty("level", 57.0));
+      assertEquals(FilterIndex.EVALUATE, doubleMatcher.result(levels.get(5)));
+      assertEquals(FilterIndex.NO_MATCH, doubleMatcher.result(regions.get(5)));
+   }
+
+   @Test
+   public void testNotIndexed() throws Exception {
+      final List<Filter> filters = new ArrayList<>();
+      filters.add(FilterImpl.createFilter("region LIKE 'E%'"));
+      filters.add(FilterImpl.createFilter("region = 'EU'"));
+      assertNull(FilterIndex.build(filters, Function.identity()));
+   }
+
+   @Test
+   public void testChangedFilterIsEvaluated() throws Exception {
+      final Filter eu = FilterImpl.createFilter("region = 'EU'");
+      final Filter us = FilterImpl.createFilter("region = 'US'");
+      final List<Filter> filters = List.of(eu, us);
+      final FilterIndex<Filter> index = FilterIndex.build(filters, Function.identity());
+      assertEquals(2, index.size());
+
+      final Message message = new CoreMessage(1, 50).putStringProperty("region", "US");
+      final FilterIndex<Filter>.Matcher matcher = index.matcher(message);
+      // the item is still indexed with the filter it had when the index was built
+      assertFalse(matcher.match(eu, eu));
+      assertTrue(matcher.match(eu, us));
+   }
+}
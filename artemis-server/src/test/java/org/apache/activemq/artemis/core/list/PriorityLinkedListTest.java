@@ -36,6 +36,7 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
@@ -1003,6 +1004,56 @@ public final class PriorityLinkedListTest {
       assertEquals(0, hashMapOutput.size());
    }
 
+   @Test
+   public void testRemoveIntrusiveNode() {
+      PriorityLinkedListImpl<IntrusiveWibble> intrusiveList = new PriorityLinkedListImpl<>(10);
+
+      List<IntrusiveWibble> added = new ArrayList<>();
+      for (int i = 0; i < 30; i++) {
+         IntrusiveWibble wibble = new IntrusiveWibble(i);
+         intrusiveList.addTail(wibble, i % 3);
+         added.add(wibble);
+      }
+
+      try (LinkedListIterator<IntrusiveWibble> iter = intrusiveList.iterator()) {
+         assertTrue(iter.hasNext());
+         assertEquals(2, iter.next().id);
+
+         // remove every element on level 0 while an iterator is open
+         for (int i = 0; i < 30; i += 3) {
+            assertTrue(intrusiveList.remove(added.get(i), 0));
+            assertFalse(intrusiveList.remove(added.get(i), 0));
+         }
+
+         assertEquals(20, intrusiveList.size());
+
+         int remaining = 1;
+         while (iter.hasNext()) {
+            assertNotEquals(0, iter.next().id % 3);
+            remaining++;
+         }
+         assertEquals(20, remaining);
+      }
+
+      IntrusiveWibble polled;
+      int polledCount = 0;
+      while ((polled = intrusiveList.poll()) != null) {
+         assertNotEquals(0, polled.id % 3);
+         polledCount++;
+      }
+      assertEquals(20, polledCount);
+      assertTrue(intrusiveList.isEmpty());
+   }
+
+   static class IntrusiveWibble extends LinkedListImpl.Node<IntrusiveWibble> {
+
+      final int id;
+
+      IntrusiveWibble(int id) {
+         this.id = id;
+      }
+   }
+
    static class Wibble {
 
       String s1;
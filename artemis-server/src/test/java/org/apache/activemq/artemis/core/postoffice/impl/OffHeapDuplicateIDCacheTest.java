@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.postoffice.impl;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.activemq.artemis.api.core.Pair;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.persistence.StorageManager;
+import org.apache.activemq.artemis.core.postoffice.DuplicateIDCache;
+import org.apache.activemq.artemis.core.transaction.Transaction;
+import org.apache.activemq.artemis.utils.RandomUtil;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class OffHeapDuplicateIDCacheTest {
+
+   private static final SimpleString ADDRESS = SimpleString.of("address");
+
+   @Test
+   public void testFifoEviction() throws Exception {
+      final DuplicateIDCache cache = DuplicateIDCaches.inMemoryOffHeap(ADDRESS, 3);
+      final byte[][] ids = new byte[4][];
+      for (int i = 0; i < ids.length; i++) {
+         ids[i] = RandomUtil.randomBytes();
+         assertTrue(cache.atomicVerify(ids[i], null));
+      }
+      assertFalse(cache.contains(ids[0]));
+      for (int i = 1; i < ids.length; i++) {
+         assertTrue(cache.contains(ids[i]));
+         assertFalse(cache.atomicVerify(ids[i], null));
+      }
+   }
+
+   @Test
+   public void testDeleteFromCache() throws Exception {
+      final DuplicateIDCache cache = DuplicateIDCaches.inMemoryOffHeap(ADDRESS, 10);
+      final byte[] id = RandomUtil.randomBytes();
+      final byte[] other = RandomUtil.randomBytes();
+      cache.addToCache(id);
+      cache.addToCache(other);
+
+      assertTrue(cache.deleteFromCache(id));
+      assertFalse(cache.deleteFromCache(id));
+      assertFalse(cache.contains(id));
+      assertTrue(cache.contains(other));
+
+      final List<Pair<byte[], Long>> map = cache.getMap();
+      assertEquals(1, map.size());
+      assertArrayEquals(other, map.get(0).getA());
+      assertNull(map.get(0).getB());
+
+      cache.addToCache(id);
+      assertTrue(cache.contains(id));
+   }
+
+   @Test
+   public void testIdsOfAnyLength() throws Exception {
+      final int size = 100;
+      final DuplicateIDCache cache = DuplicateIDCaches.inMemoryOffHeap(ADDRESS, size);
+      final List<byte[]> ids = new ArrayList<>();
+      final Set<Integer> deleted = new HashSet<>();
+      for (int i = 0; i < size * 10; i++) {
+         final byte[] id = RandomUtil.randomBytes(1 + RandomUtil.randomPositiveInt() % 512);
+         ids.add(id);
+         cache.addToCache(id);
+         // leave some holes on the ring
+         if (i % 7 == 0 && cache.deleteFromCache(ids.get(i - i % 14 / 2))) {
+            deleted.add(i - i % 14 / 2);
+         }
+      }
+      for (int i = 0; i < ids.size(); i++) {
+         assertEquals(i >= ids.size() - size && !deleted.contains(i), cache.contains(ids.get(i)));
+      }
+      assertEquals(size - deleted.stream().filter(i -> i >= ids.size() - size).count(), cache.getMap().size());
+   }
+
+   @Test
+   public void testSegmentDeletedWhenEvicted() throws Exception {
+      final StorageManager storageManager = storageManager();
+      // segments of 2 IDs
+      final DuplicateIDCache cache = DuplicateIDCaches.persistentOffHeap(ADDRESS, 8, storageManager);
+      for (int i = 0; i < 8; i++) {
+         cache.addToCache(RandomUtil.randomBytes());
+      }
+      verify(storageManager, times(4)).storeDuplicateIDSegment(eq(ADDRESS), anyLong());
+      verify(storageManager, times(8)).addDuplicateIDToSegment(anyLong(), any());
+
+      final long firstSegment = cache.getMap().get(0).getB();
+      cache.addToCache(RandomUtil.randomBytes());
+      verify(storageManager, never()).deleteDuplicateID(firstSegment);
+      cache.addToCache(RandomUtil.randomBytes());
+      verify(storageManager, times(1)).deleteDuplicateID(firstSegment);
+      verify(storageManager, times(5)).storeDuplicateIDSegment(eq(ADDRESS), anyLong());
+   }
+
+   @Test
+   public void testDeleteFromSegment() throws Exception {
+      final StorageManager storageManager = storageManager();
+      final DuplicateIDCache cache = DuplicateIDCaches.persistentOffHeap(ADDRESS, 8, storageManager);
+      final byte[] id = RandomUtil.randomBytes();
+      cache.addToCache(id);
+      cache.addToCache(RandomUtil.randomBytes());
+      final long segment = cache.getMap().get(0).getB();
+
+      cache.deleteFromCache(id);
+      verify(storageManager).removeDuplicateIDFromSegment(segment, id);
+      verify(storageManager, never()).deleteDuplicateID(segment);
+   }
+
+   @Test
+   public void testLoad() throws Exception {
+      final StorageManager storageManager = storageManager();
+      final DuplicateIDCache cache = DuplicateIDCaches.persistentOffHeap(ADDRESS, 3, storageManager);
+      final byte[] a = RandomUtil.randomBytes();
+      final byte[] b = RandomUtil.randomBytes();
+      final byte[] c = RandomUtil.randomBytes();
+      final List<Pair<byte[], Long>> ids = new ArrayList<>();
+      ids.add(new Pair<>(null, 10L));
+      ids.add(new Pair<>(a, 10L));
+      ids.add(new Pair<>(b, 10L));
+      ids.add(new Pair<>(null, 11L));
+      ids.add(new Pair<>(c, 11L));
+      ids.add(new Pair<>(null, 12L));
+      // a record stored by a PersistentDuplicateIDCache
+      ids.add(new Pair<>(RandomUtil.randomBytes(), 13L));
+
+      cache.load(ids);
+
+      assertFalse(cache.contains(a));
+      assertTrue(cache.contains(b));
+      assertTrue(cache.contains(c));
+      verify(storageManager).deleteDuplicateIDTransactional(anyLong(), eq(12L));
+      verify(storageManager, never()).deleteDuplicateIDTransactional(anyLong(), eq(10L));
+      verify(storageManager, never()).deleteDuplicateIDTransactional(anyLong(), eq(11L));
+      verify(storageManager).commit(anyLong());
+   }
+
+   @Test
+   public void testOpenSegmentDeletedWhenEmpty() throws Exception {
+      final StorageManager storageManager = storageManager();
+      final DuplicateIDCache cache = DuplicateIDCaches.persistentOffHeap(ADDRESS, 8, storageManager);
+      final byte[] id = RandomUtil.randomBytes();
+      cache.addToCache(id);
+      final long segment = cache.getMap().get(0).getB();
+
+      cache.deleteFromCache(id);
+      verify(storageManager).deleteDuplicateID(segment);
+      verify(storageManager, never()).removeDuplicateIDFromSegment(segment, id);
+
+      cache.addToCache(RandomUtil.randomBytes());
+      verify(storageManager, times(2)).storeDuplicateIDSegment(eq(ADDRESS), anyLong());
+      assertNotEquals(segment, (long) cache.getMap().get(0).getB());
+   }
+
+   @Test
+   public void testLoadKeepsSegmentOfPreparedTransaction() throws Exception {
+      final StorageManager storageManager = storageManager();
+      final DuplicateIDCache cache = DuplicateIDCaches.persistentOffHeap(ADDRESS, 3, storageManager);
+      // the prepared transactions are loaded before the committed IDs
+      cache.load(mock(Transaction.class), RandomUtil.randomBytes(), 10L);
+      final List<Pair<byte[], Long>> ids = new ArrayList<>();
+      ids.add(new Pair<>(null, 10L));
+      ids.add(new Pair<>(null, 11L));
+
+      cache.load(ids);
+
+      verify(storageManager, never()).deleteDuplicateIDTransactional(anyLong(), eq(10L));
+      verify(storageManager).deleteDuplicateIDTransactional(anyLong(), eq(11L));
+   }
+
+   @Test
+   public void testHeapCacheLoadingSegments() throws Exception {
+      final StorageManager storageManager = storageManager();
+      final DuplicateIDCache cache = DuplicateIDCaches.persistent(ADDRESS, 3, storageManager);
+      final byte[] a = RandomUtil.randomBytes();
+      final byte[] b = RandomUtil.randomBytes();
+      final byte[] c = RandomUtil.randomBytes();
+      final byte[] d = RandomUtil.randomBytes();
+      final List<Pair<byte[], Long>> ids = new ArrayList<>();
+      ids.add(new Pair<>(null, 10L));
+      ids.add(new Pair<>(a, 10L));
+      ids.add(new Pair<>(b, 10L));
+      ids.add(new Pair<>(c, 10L));
+      ids.add(new Pair<>(null, 11L));
+      ids.add(new Pair<>(d, 11L));
+      ids.add(new Pair<>(null, 12L));
+
+      cache.load(ids);
+
+      // the excess ID of a segment doesn't delete the segment holding the other ones
+      assertFalse(cache.contains(a));
+      assertTrue(cache.contains(b));
+      assertTrue(cache.contains(c));
+      assertTrue(cache.contains(d));
+      verify(storageManager, never()).deleteDuplicateIDTransactional(anyLong(), eq(10L));
+      verify(storageManager, never()).deleteDuplicateIDTransactional(anyLong(), eq(11L));
+      verify(storageManager).deleteDuplicateIDTransactional(anyLong(), eq(12L));
+
+      cache.deleteFromCache(b);
+      verify(storageManager).removeDuplicateIDFromSegment(10L, b);
+      verify(storageManager, never()).deleteDuplicateID(10L);
+
+      // evicting the last ID of a segment deletes it
+      cache.addToCache(RandomUtil.randomBytes());
+      cache.addToCache(RandomUtil.randomBytes());
+      assertFalse(cache.contains(c));
+      verify(storageManager).deleteDuplicateID(10L);
+
+      cache.clear();
+      verify(storageManager).deleteDuplicateIDTransactional(anyLong(), eq(11L));
+   }
+
+   private static StorageManager storageManager() {
+      final StorageManager storageManager = mock(StorageManager.class);
+      final AtomicLong ids = new AtomicLong(100);
+      when(storageManager.generateID()).thenAnswer(invocation -> ids.incrementAndGet());
+      return storageManager;
+   }
+}
@@ -359,7 +359,7 @@ public class PostOfficeImplTest {
 
       PostOfficeImpl postOffice = new PostOfficeImpl(server, storageManager, pagingManager, queueFactory,
                                                      managementService, 100, 100,
-                                                     wildcardConfiguration, -1, false, hierarchicalRepository).setMirrorControlSource(mirrorController);
+                                                     wildcardConfiguration, -1, false, false, hierarchicalRepository).setMirrorControlSource(mirrorController);
 
       SimpleString address = RandomUtil.randomUUIDSimpleString();
 
@@ -420,7 +420,7 @@ public class PostOfficeImplTest {
 
       PostOfficeImpl postOffice = new PostOfficeImpl(server, storageManager, pagingManager, queueFactory,
                                                      managementService, 100, 100,
-                                                     wildcardConfiguration, -1, false, hierarchicalRepository);
+                                                     wildcardConfiguration, -1, false, false, hierarchicalRepository);
 
 
       postOffice.setMirrorControlSource(mirrorController);
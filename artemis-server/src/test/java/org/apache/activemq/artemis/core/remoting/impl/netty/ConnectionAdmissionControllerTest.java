@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.remoting.impl.netty;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.apache.activemq.artemis.utils.ProxyProtocolUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConnectionAdmissionControllerTest {
+
+   private final AtomicLong clock = new AtomicLong();
+
+   private ScheduledExecutorService scheduledExecutor;
+
+   @BeforeEach
+   public void setUp() {
+      scheduledExecutor = Mockito.mock(ScheduledExecutorService.class);
+      Mockito.doReturn(Mockito.mock(ScheduledFuture.class)).when(scheduledExecutor).schedule(Mockito.any(Runnable.class), Mockito.anyLong(), Mockito.any(TimeUnit.class));
+   }
+
+   @Test
+   public void testAcceptorRate() {
+      final ConnectionAdmissionController controller = new ConnectionAdmissionController("test", 2, -1, 32, 128, 1, -1, 1000, scheduledExecutor, clock::get);
+
+      assertAdmitted(connect(controller, null));
+      assertAdmitted(connect(controller, null));
+      final EmbeddedChannel deferred = connect(controller, null);
+      assertDeferred(deferred);
+      assertFalse(connect(controller, null).isOpen());
+      assertEquals(1, controller.getPendingCount());
+      Mockito.verify(scheduledExecutor).schedule(Mockito.any(Runnable.class), Mockito.anyLong(), Mockito.any(TimeUnit.class));
+
+      // no token yet
+      clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+      controller.drain();
+      assertDeferred(deferred);
+
+      clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+      controller.drain();
+      assertAdmitted(deferred);
+      assertTrue(deferred.config().isAutoRead());
+
+      assertEquals(3, controller.getAcceptedCount());
+      assertEquals(1, controller.getDeferredCount());
+      assertEquals(1, controller.getRejectedCount());
+      assertEquals(0, controller.getPendingCount());
+   }
+
+   @Test
+   public void testPendingConnectionTimeout() {
+      final ConnectionAdmissionController controller = new ConnectionAdmissionController("test", 1, -1, 32, 128, 10, -1, 1000, scheduledExecutor, clock::get);
+
+      assertAdmitted(connect(controller, null));
+      final EmbeddedChannel deferred = connect(controller, null);
+      assertDeferred(deferred);
+
+      clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+      controller.drain();
+      assertFalse(deferred.isOpen());
+      assertEquals(1, controller.getRejectedCount());
+      assertEquals(0, controller.getPendingCount());
+   }
+
+   @Test
+   public void testClosedWhileDeferred() {
+      final ConnectionAdmissionController controller = new ConnectionAdmissionController("test", 1, -1, 32, 128, 10, -1, 1000, scheduledExecutor, clock::get);
+
+      assertAdmitted(connect(controller, null));
+      final EmbeddedChannel deferred = connect(controller, null);
+      assertDeferred(deferred);
+      deferred.close();
+      assertEquals(0, controller.getPendingCount());
+   }
+
+   @Test
+   public void testSourceRate() {
+      final ConnectionAdmissionController controller = new ConnectionAdmissionController("test", -1, 1, 24, 64, 10, -1, 1000, scheduledExecutor, clock::get);
+
+      assertAdmitted(connect(controller, "10.0.0.1:5000"));
+      final EmbeddedChannel sameNetwork = connect(controller, "10.0.0.2:5000");
+      assertDeferred(sameNetwork);
+      // not held back by the deferred connection of another network
+      assertAdmitted(connect(controller, "10.0.1.1:5000"));
+
+      controller.drain();
+      assertDeferred(sameNetwork);
+
+      clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+      controller.drain();
+      assertAdmitted(sameNetwork);
+   }
+
+   @Test
+   public void testFloodingSource() {
+      final ConnectionAdmissionController controller = new ConnectionAdmissionController("test", -1, 1, 32, 128, 10, 2, 1000, scheduledExecutor, clock::get);
+
+      assertAdmitted(connect(controller, "10.0.0.1:5000"));
+      final EmbeddedChannel deferred = connect(controller, "10.0.0.1:5001");
+      assertDeferred(deferred);
+      assertDeferred(connect(controller, "10.0.0.1:5002"));
+      // the flooding source can't take the connections deferred for the others
+      for (int i = 0; i < 5; i++) {
+         assertFalse(connect(controller, "10.0.0.1:" + (5003 + i)).isOpen());
+      }
+      assertEquals(2, controller.getPendingCount());
+      assertEquals(5, controller.getRejectedCount());
+
+      // nor hold back another source
+      assertAdmitted(connect(controller, "10.0.0.2:5000"));
+      assertAdmitted(connect(controller, "10.0.0.3:5000"));
+
+      clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+      controller.drain();
+      assertAdmitted(deferred);
+      assertEquals(1, controller.getPendingCount());
+
+      // the flooding source has a connection less deferred
+      assertDeferred(connect(controller, "10.0.0.1:5010"));
+      assertFalse(connect(controller, "10.0.0.1:5011").isOpen());
+      assertEquals(2, controller.getPendingCount());
+      assertEquals(6, controller.getRejectedCount());
+      assertEquals(4, controller.getAcceptedCount());
+   }
+
+   @Test
+   public void testGetSource() {
+      final ConnectionAdmissionController controller = new ConnectionAdmissionController("test", -1, 1, 24, 64, 10, -1, 1000, scheduledExecutor, clock::get);
+
+      assertEquals("192.168.10.0/24", controller.getSource(createChannel("192.168.10.77:1234")));
+      assertEquals("2001:db8:1:2:0:0:0:0/64", controller.getSource(createChannel("2001:db8:1:2:3:4:5:6:1234")));
+   }
+
+   private static EmbeddedChannel createChannel(String proxySourceAddress) {
+      final EmbeddedChannel channel = new EmbeddedChannel();
+      if (proxySourceAddress != null) {
+         channel.attr(ProxyProtocolUtil.PROXY_PROTOCOL_SOURCE_ADDRESS).set(proxySourceAddress);
+      }
+      return channel;
+   }
+
+   private static EmbeddedChannel connect(ConnectionAdmissionController controller, String proxySourceAddress) {
+      final EmbeddedChannel channel = createChannel(proxySourceAddress);
+      channel.pipeline().addLast(controller.newHandler());
+      channel.writeInbound(Unpooled.wrappedBuffer(new byte[] {1, 2, 3}));
+      return channel;
+   }
+
+   private static void assertAdmitted(EmbeddedChannel channel) {
+      final ByteBuf received = channel.readInbound();
+      assertNotNull(received);
+      assertEquals(3, received.readableBytes());
+      received.release();
+      assertTrue(channel.pipeline().names().stream().noneMatch(name -> name.contains("AdmissionHandler")));
+   }
+
+   private static void assertDeferred(EmbeddedChannel channel) {
+      assertTrue(channel.isOpen());
+      assertFalse(channel.config().isAutoRead());
+      assertNull(channel.readInbound());
+   }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.server.impl;
+
+import org.apache.activemq.artemis.core.paging.PagingStore;
+import org.apache.activemq.artemis.core.server.Queue;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class MessageReferenceImplTest {
+
+   @Test
+   public void testMemoryEstimateExcludesDeliveryState() {
+      assertEquals(MessageReferenceImpl.REFERENCE_SIZE, MessageReferenceImpl.getMemoryEstimate());
+   }
+
+   @Test
+   public void testDeliveryStateAccountedOnceAllocated() {
+      final PagingStore pagingStore = Mockito.mock(PagingStore.class);
+      final Queue queue = Mockito.mock(Queue.class);
+      Mockito.when(queue.getPagingStore()).thenReturn(pagingStore);
+      final MessageReferenceImpl reference = new MessageReferenceImpl(null, queue);
+
+      reference.setInDelivery(false);
+      assertEquals(0, reference.getDeliveryStateMemoryEstimate());
+      Mockito.verifyNoInteractions(pagingStore);
+
+      reference.setInDelivery(true);
+      reference.setConsumerId(1);
+      reference.setPersistedCount(1);
+      assertEquals(MessageReferenceImpl.DELIVERY_STATE_SIZE, reference.getDeliveryStateMemoryEstimate());
+      Mockito.verify(pagingStore, Mockito.times(1)).addSize(MessageReferenceImpl.DELIVERY_STATE_SIZE, true);
+   }
+
+   @Test
+   public void testDeliveryStateAllocatedOnDelivery() {
+      final MessageReferenceImpl reference = new MessageReferenceImpl();
+
+      // resetting the delivery state of a reference never delivered doesn't allocate it
+      reference.setInDelivery(false);
+      reference.setPersistedCount(0);
+      reference.onDelivery(null);
+      reference.emptyConsumerID();
+      assertEquals(0, reference.getDeliveryStateMemoryEstimate());
+      assertFalse(reference.isInDelivery());
+      assertFalse(reference.hasConsumerId());
+      assertEquals(0, reference.getPersistedCount());
+
+      reference.setConsumerId(1);
+      assertEquals(MessageReferenceImpl.DELIVERY_STATE_SIZE, reference.getDeliveryStateMemoryEstimate());
+      assertEquals(1, reference.getConsumerId());
+
+      reference.emptyConsumerID();
+      assertFalse(reference.hasConsumerId());
+   }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.server.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.activemq.artemis.core.message.impl.CoreMessage;
+import org.apache.activemq.artemis.core.server.MessageReference;
+import org.apache.activemq.artemis.utils.collections.LinkedListIterator;
+import org.apache.activemq.artemis.utils.collections.PriorityLinkedListImpl;
+import org.junit.jupiter.api.Test;
+
+public class QueueExpiryIndexTest {
+
+   private static long messageID = 0;
+
+   private static MessageReference reference(long expiration) {
+      return new MessageReferenceImpl(new CoreMessage(++messageID, 50).setExpiration(expiration), null);
+   }
+
+   @Test
+   public void testNonExpiringReferencesNeverDue() {
+      QueueExpiryIndex index = new QueueExpiryIndex();
+      for (int i = 0; i < 100; i++) {
+         index.add(reference(0), 4);
+      }
+      assertEquals(0, index.size());
+      assertFalse(index.isExpirationDue(Long.MAX_VALUE - 1));
+      assertEquals(QueueExpiryIndex.NO_EXPIRATION, index.getNextExpiration());
+   }
+
+   @Test
+   public void testEarliestBucketIsTracked() {
+      QueueExpiryIndex index = new QueueExpiryIndex();
+      index.add(reference(30_500), 4);
+      index.add(reference(10_500), 4);
+      index.add(reference(20_500), 4);
+      assertEquals(10_000, index.getNextExpiration());
+      assertFalse(index.isExpirationDue(9_999));
+      assertTrue(index.isExpirationDue(10_000));
+   }
+
+   @Test
+   public void testRemovedReferencesAreNotDue() {
+      QueueExpiryIndex index = new QueueExpiryIndex();
+      MessageReference first = reference(100);
+      MessageReference second = reference(50_000);
+      index.add(first, 4);
+      index.add(second, 4);
+
+      index.remove(first);
+
+      assertEquals(1, index.size());
+      assertEquals(50_000, index.getNextExpiration());
+
+      index.remove(second);
+
+      assertEquals(0, index.size());
+      assertFalse(index.isExpirationDue(Long.MAX_VALUE - 1));
+   }
+
+   @Test
+   public void testPollOnlyReturnsExpiredReferences() {
+      final long now = System.currentTimeMillis();
+      QueueExpiryIndex index = new QueueExpiryIndex();
+      MessageReference expired = reference(now - 10_000);
+      MessageReference notExpired = reference(now + 60_000);
+      index.add(notExpired, 3);
+      index.add(expired, 7);
+
+      List<MessageReference> polled = new ArrayList<>();
+      List<Integer> levels = new ArrayList<>();
+      assertEquals(1, index.poll(now, 10, (ref, level) -> {
+         polled.add(ref);
+         levels.add(level);
+      }));
+
+      assertEquals(List.of(expired), polled);
+      assertEquals(List.of(7), levels);
+      assertEquals(1, index.size());
+      assertFalse(index.isExpirationDue(now));
+   }
+
+   @Test
+   public void testPollIsBounded() {
+      final long now = System.currentTimeMillis();
+      QueueExpiryIndex index = new QueueExpiryIndex();
+      for (int i = 0; i < 10; i++) {
+         index.add(reference(now - 10_000 + i * 1_000), 4);
+      }
+
+      assertEquals(4, index.poll(now, 4, (ref, level) -> { }));
+      assertEquals(6, index.size());
+      assertTrue(index.isExpirationDue(now));
+
+      assertEquals(6, index.poll(now, 10, (ref, level) -> { }));
+      assertEquals(0, index.size());
+   }
+
+   @Test
+   public void testPolledReferencesRemovedFromList() {
+      final long now = System.currentTimeMillis();
+      QueueExpiryIndex index = new QueueExpiryIndex();
+      PriorityLinkedListImpl<MessageReference> list = new PriorityLinkedListImpl<>(QueueImpl.NUM_PRIORITIES, MessageReferenceImpl.getSequenceComparator()) {
+         @Override
+         protected void removed(int level, MessageReference element) {
+            super.removed(level, element);
+            index.remove(element);
+         }
+      };
+
+      List<MessageReference> expected = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+         MessageReference ref = reference(i % 10 == 0 ? now - 1_000 : 0);
+         int level = i % QueueImpl.NUM_PRIORITIES;
+         list.addTail(ref, level);
+         index.add(ref, level);
+         if (i % 10 != 0) {
+            expected.add(ref);
+         }
+      }
+
+      assertEquals(10, index.poll(now, 100, (ref, level) -> assertTrue(list.remove(ref, level))));
+      assertEquals(0, index.size());
+      assertEquals(90, list.size());
+
+      List<MessageReference> remaining = new ArrayList<>();
+      try (LinkedListIterator<MessageReference> iter = list.iterator()) {
+         while (iter.hasNext()) {
+            remaining.add(iter.next());
+         }
+      }
+      assertEquals(expected.size(), remaining.size());
+      assertTrue(remaining.containsAll(expected));
+
+      MessageReference head = list.poll();
+      assertSame(remaining.get(0), head);
+   }
+}
@@ -18,6 +18,7 @@ package org.apache.activemq.artemis.core.server.impl;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -32,9 +33,11 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
 
 import io.netty.buffer.ByteBuf;
 import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
@@ -56,6 +59,7 @@ import org.apache.activemq.artemis.core.server.Consumer;
 import org.apache.activemq.artemis.core.server.MessageReference;
 import org.apache.activemq.artemis.core.server.Queue;
 import org.apache.activemq.artemis.core.server.RoutingContext;
+import org.apache.activemq.artemis.core.server.ScheduledDeliveryHandler;
 import org.apache.activemq.artemis.core.server.ServerConsumer;
 import org.apache.activemq.artemis.core.transaction.Transaction;
 import org.apache.activemq.artemis.utils.ActiveMQThreadFactory;
@@ -194,7 +198,7 @@ public class ScheduledDeliveryHandlerTest {
       try {
          for (int i = 0; i < 100; i++) {
             // it's better to run the test a few times instead of run millions of messages here
-            internalSchedule(executor, scheduler);
+            internalSchedule(executor, scheduler, ScheduledDeliveryHandlerImpl::new);
          }
       } finally {
          scheduler.shutdownNow();
@@ -202,12 +206,107 @@ public class ScheduledDeliveryHandlerTest {
       }
    }
 
-   private void internalSchedule(ExecutorService executor, ScheduledThreadPoolExecutor scheduler) throws Exception {
+   @Test
+   public void testTimingWheelScheduleNow() throws Exception {
+
+      ExecutorService executor = Executors.newFixedThreadPool(50, ActiveMQThreadFactory.defaultThreadFactory(getClass().getName()));
+      ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, ActiveMQThreadFactory.defaultThreadFactory(getClass().getName()));
+      try {
+         for (int i = 0; i < 100; i++) {
+            internalSchedule(executor, scheduler, TimingWheelScheduledDeliveryHandler::new);
+         }
+      } finally {
+         scheduler.shutdownNow();
+         executor.shutdownNow();
+      }
+   }
+
+   @Test
+   public void testTimingWheelScheduleSameTimeHeadAndTail() throws Exception {
+      ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, ActiveMQThreadFactory.defaultThreadFactory(getClass().getName()));
+      try {
+         FakeQueueForScheduleUnitTest fakeQueue = new FakeQueueForScheduleUnitTest(0);
+         TimingWheelScheduledDeliveryHandler handler = new TimingWheelScheduledDeliveryHandler(scheduler, fakeQueue);
+
+         // far enough in the future to never be delivered during the test, using both the wheel and the rotations
+         long time = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1);
+         for (int i = 10001; i < 20000; i++) {
+            checkAndSchedule(handler, i, time, true, fakeQueue);
+         }
+         checkAndSchedule(handler, 10000, time, false, fakeQueue);
+
+         time = System.currentTimeMillis() + 8000;
+         for (int i = 1; i < 10000; i++) {
+            checkAndSchedule(handler, i, time, true, fakeQueue);
+         }
+         checkAndSchedule(handler, 0, time, false, fakeQueue);
+
+         assertEquals(20000, handler.getScheduledCount());
+         validateSequence(handler);
+      } finally {
+         scheduler.shutdownNow();
+      }
+   }
+
+   @Test
+   public void testTimingWheelRemoveAndCancel() throws Exception {
+      ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, ActiveMQThreadFactory.defaultThreadFactory(getClass().getName()));
+      try {
+         FakeQueueForScheduleUnitTest fakeQueue = new FakeQueueForScheduleUnitTest(1);
+         TimingWheelScheduledDeliveryHandler handler = new TimingWheelScheduledDeliveryHandler(scheduler, fakeQueue);
+
+         long time = System.currentTimeMillis() + 500;
+         for (int i = 0; i < 100; i++) {
+            checkAndSchedule(handler, i, time, true, fakeQueue);
+         }
+
+         assertEquals(50, handler.removeReferenceWithID(50).getMessage().getMessageID());
+         assertNull(handler.removeReferenceWithID(50));
+         assertEquals(98, handler.cancel(ref -> ref.getMessage().getMessageID() != 10).size());
+         assertEquals(1, handler.getScheduledCount());
+
+         assertTrue(fakeQueue.waitCompletion(5, TimeUnit.SECONDS));
+         assertEquals(0, handler.getScheduledCount());
+         assertEquals(1, fakeQueue.messages.size());
+         assertEquals(10, fakeQueue.messages.getFirst().getMessage().getMessageID());
+      } finally {
+         scheduler.shutdownNow();
+      }
+   }
+
+   @Test
+   public void testTimingWheelRemoveScheduledTwice() throws Exception {
+      ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, ActiveMQThreadFactory.defaultThreadFactory(getClass().getName()));
+      try {
+         FakeQueueForScheduleUnitTest fakeQueue = new FakeQueueForScheduleUnitTest(0);
+         TimingWheelScheduledDeliveryHandler handler = new TimingWheelScheduledDeliveryHandler(scheduler, fakeQueue);
+
+         long time = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1);
+         for (int i = 0; i < 100; i++) {
+            checkAndSchedule(handler, i, time, true, fakeQueue);
+         }
+         // the same message again, delivered sooner
+         checkAndSchedule(handler, 50, time - 1000, true, fakeQueue);
+
+         assertEquals(101, handler.getScheduledCount());
+         assertEquals(50, handler.removeReferenceWithID(50).getMessage().getMessageID());
+         assertEquals(50, handler.removeReferenceWithID(50).getMessage().getMessageID());
+         assertNull(handler.removeReferenceWithID(50));
+         assertNull(handler.removeReferenceWithID(1000));
+         assertEquals(99, handler.getScheduledCount());
+      } finally {
+         scheduler.shutdownNow();
+      }
+   }
+
+   private void internalSchedule(ExecutorService executor,
+                                 ScheduledThreadPoolExecutor scheduler,
+                                 BiFunction<ScheduledExecutorService, Queue, ScheduledDeliveryHandler> handlerFactory) throws Exception {
       final int NUMBER_OF_MESSAGES = 200;
       int NUMBER_OF_THREADS = 20;
 
       final FakeQueueForScheduleUnitTest fakeQueue = new FakeQueueForScheduleUnitTest(NUMBER_OF_MESSAGES * NUMBER_OF_THREADS);
-      final ScheduledDeliveryHandlerImpl handler = new ScheduledDeliveryHandlerImpl(scheduler, fakeQueue);
+      final ScheduledDeliveryHandler handler = handlerFactory.apply(scheduler, fakeQueue);
 
       final long now = System.currentTimeMillis();
 
@@ -246,7 +345,7 @@ public class ScheduledDeliveryHandlerTest {
       }
    }
 
-   private void validateSequence(ScheduledDeliveryHandlerImpl handler) throws Exception {
+   private void validateSequence(ScheduledDeliveryHandler handler) throws Exception {
       long lastSequence = -1;
       for (MessageReference ref : handler.getScheduledReferences()) {
          assertEquals(lastSequence + 1, ref.getMessage().getMessageID());
@@ -263,7 +362,7 @@ public class ScheduledDeliveryHandlerTest {
       handler.addInPlace(nextScheduledTime, refImpl, tail);
    }
 
-   private void checkAndSchedule(ScheduledDeliveryHandlerImpl handler,
+   private void checkAndSchedule(ScheduledDeliveryHandler handler,
                                  long nextMessageID,
                                  long nextScheduledTime,
                                  boolean tail,
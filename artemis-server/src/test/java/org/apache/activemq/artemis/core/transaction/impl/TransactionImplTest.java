@@ -961,6 +961,14 @@ public class TransactionImplTest extends ServerTestBase {
                                  boolean sync) throws Exception {
       }
 
+      @Override
+      public void storeMapRecordTx(long txid,
+                                   long id,
+                                   byte recordType,
+                                   Persister persister,
+                                   Object record) throws Exception {
+      }
+
       @Override
       public void deleteMapRecord(long id, boolean sync) throws Exception {
       }
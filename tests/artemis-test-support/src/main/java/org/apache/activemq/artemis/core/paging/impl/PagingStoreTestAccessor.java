@@ -35,5 +35,9 @@ public class PagingStoreTestAccessor {
       impl.forEachUsedPage(consumer);
    }
 
+   public static int getReadAheadPages(PagingStore store) {
+      return ((PagingStoreImpl) store).getReadAheadPages();
+   }
+
 
 }
@@ -3048,6 +3048,134 @@ public abstract class JournalImplTestUnit extends JournalImplTestBase {
       loadAndCheck();
    }
 
+   @Test
+   public void testLoadWithThreads() throws Exception {
+      setup(2, 60 * 1024, true);
+
+      createJournal();
+      startJournal();
+      load();
+
+      for (int i = 0; i < 100; i++) {
+         add(i);
+         if (i % 10 == 0) {
+            journal.forceMoveNextFile();
+         }
+         if (i % 3 == 0) {
+            update(i);
+         }
+      }
+      // transactions spread over several files
+      addTx(1000, 1000, 1001);
+      journal.forceMoveNextFile();
+      updateTx(1000, 5, 6);
+      deleteTx(1000, 7);
+      journal.forceMoveNextFile();
+      commit(1000);
+      addTx(1001, 1002);
+      journal.forceMoveNextFile();
+      rollback(1001);
+      addTx(1002, 1003);
+      prepare(1002, new SimpleEncoding(10, (byte) 0));
+      delete(10, 20, 30);
+
+      stopJournal(false);
+      createJournal();
+      ((JournalImpl) journal).setLoadThreads(4);
+      startJournal();
+      loadAndCheck();
+   }
+
+   @Test
+   public void testLoadWithThreadsReadingOneFileAhead() throws Exception {
+      setup(2, 60 * 1024, true);
+
+      createJournal();
+      startJournal();
+      load();
+
+      for (int i = 0; i < 100; i++) {
+         add(i);
+         if (i % 10 == 0) {
+            journal.forceMoveNextFile();
+         }
+         if (i % 3 == 0) {
+            update(i);
+         }
+      }
+      addTx(1000, 1000, 1001);
+      journal.forceMoveNextFile();
+      updateTx(1000, 5, 6);
+      deleteTx(1000, 7);
+      journal.forceMoveNextFile();
+      commit(1000);
+      delete(10, 20, 30);
+
+      stopJournal(false);
+      createJournal();
+      ((JournalImpl) journal).setLoadThreads(4);
+      // smaller than a file, so every file is only read once the previous one was replayed
+      ((JournalImpl) journal).setLoadReadAheadSize(1);
+      startJournal();
+      loadAndCheck();
+   }
+
+   @Test
+   public void testOffHeapRecordIndex() throws Exception {
+      setup(2, 60 * 1024, true);
+
+      createJournal();
+      ((JournalImpl) journal).setOffHeapRecordIndex(true);
+      startJournal();
+      load();
+
+      for (int i = 0; i < 100; i++) {
+         add(i);
+         if (i % 10 == 0) {
+            journal.forceMoveNextFile();
+         }
+         if (i % 3 == 0) {
+            update(i);
+         }
+      }
+      addTx(1000, 1000, 1001);
+      journal.forceMoveNextFile();
+      updateTx(1000, 5, 6);
+      deleteTx(1000, 7);
+      commit(1000);
+      for (int i = 0; i < 100; i += 2) {
+         if (i != 6) {
+            delete(i);
+         }
+      }
+      journal.forceMoveNextFile();
+      checkAndReclaimFiles();
+      assertEquals(52, ((JournalImpl) journal).getRecords().size());
+
+      stopJournal();
+      createJournal();
+      ((JournalImpl) journal).setOffHeapRecordIndex(true);
+      startJournal();
+      loadAndCheck();
+      assertTrue(((JournalImpl) journal).isOffHeapRecordIndex());
+      assertEquals(52, ((JournalImpl) journal).getRecords().size());
+
+      for (int i = 1; i < 100; i += 2) {
+         if (i != 7) {
+            delete(i);
+         }
+      }
+      delete(6, 1000, 1001);
+      journal.forceMoveNextFile();
+      checkAndReclaimFiles();
+      assertEquals(0, ((JournalImpl) journal).getRecords().size());
+
+      stopJournal();
+      createJournal();
+      startJournal();
+      loadAndCheck();
+   }
+
    @Test
    public void testReclaimAfterUpdate() throws Exception {
       setup(2, 60 * 1024, true);
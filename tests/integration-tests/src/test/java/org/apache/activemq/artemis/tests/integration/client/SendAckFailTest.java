@@ -617,6 +617,15 @@ public class SendAckFailTest extends SpawnedTestBase {
          manager.storeMapRecord(id, recordType, persister, record, sync);
       }
 
+      @Override
+      public void storeMapRecordTx(long txid,
+                                   long id,
+                                   byte recordType,
+                                   Persister persister,
+                                   Object record) throws Exception {
+         manager.storeMapRecordTx(txid, id, recordType, persister, record);
+      }
+
       @Override
       public void deleteMapRecord(long id, boolean sync) throws Exception {
          manager.deleteMapRecord(id, sync);
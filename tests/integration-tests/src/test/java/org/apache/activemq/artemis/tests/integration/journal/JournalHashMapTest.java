@@ -76,6 +76,15 @@ public class JournalHashMapTest extends ActiveMQTestBase {
          journal.appendAddRecord(id, recordType, persister, record, sync);
       }
 
+      @Override
+      public void storeMapRecordTx(long txid,
+                                   long id,
+                                   byte recordType,
+                                   Persister persister,
+                                   Object record) throws Exception {
+         journal.appendAddRecordTransactional(txid, id, recordType, persister, record);
+      }
+
       @Override
       public void deleteMapRecord(long id, boolean sync) throws Exception {
          journal.appendDeleteRecord(id, sync);
@@ -18,7 +18,10 @@ package org.apache.activemq.artemis.tests.integration.journal;
 
 import java.io.File;
 import java.lang.invoke.MethodHandles;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -31,6 +34,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
 
 import org.apache.activemq.artemis.api.core.Pair;
 import org.apache.activemq.artemis.core.config.Configuration;
@@ -51,6 +55,7 @@ import org.apache.activemq.artemis.core.journal.impl.dataformat.ByteArrayEncodin
 import org.apache.activemq.artemis.core.message.impl.CoreMessage;
 import org.apache.activemq.artemis.core.persistence.impl.journal.JournalStorageManager;
 import org.apache.activemq.artemis.core.persistence.impl.journal.OperationContextImpl;
+import org.apache.activemq.artemis.logs.AssertionLoggerHandler;
 import org.apache.activemq.artemis.tests.unit.core.journal.impl.JournalImplTestBase;
 import org.apache.activemq.artemis.tests.unit.core.journal.impl.fakes.SimpleEncoding;
 import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
@@ -1493,6 +1498,162 @@ public class NIOJournalCompactTest extends JournalImplTestBase {
    }
 
 
+   @Test
+   public void testIncrementalCompacting() throws Exception {
+      setup(2, 60 * 1024, false);
+
+      createJournal();
+      ((JournalImpl) journal).setCompactMaxFiles(10);
+      startJournal();
+      load();
+
+      for (int i = 0; i < 300; i++) {
+         add(i);
+         if (i % 10 == 9) {
+            journal.forceMoveNextFile();
+         }
+      }
+
+      // a transaction committed on a later file than its records
+      addTx(1000, 1000, 1001);
+      journal.forceMoveNextFile();
+      updateTx(1000, 20);
+      commit(1000);
+
+      // the records of the oldest files are updated on newer files
+      for (int i = 0; i < 300; i += 5) {
+         update(i);
+      }
+
+      for (int i = 0; i < 300; i++) {
+         if (i % 5 != 0) {
+            delete(i);
+         }
+      }
+
+      journal.forceMoveNextFile();
+
+      final int dataFiles = journal.getDataFilesCount();
+      final List<String> filesBefore = describeDataFiles();
+
+      journal.testCompact();
+
+      assertEquals(1, ((JournalImpl) journal).getCompactions());
+      assertTrue(((JournalImpl) journal).getCompactBytes() > 0);
+      assertTrue(journal.getDataFilesCount() < dataFiles, () -> journal.getDataFilesCount() + " data files");
+
+      // the files left as they are keep their IDs and contents, and the compacted files come before them
+      final List<String> filesAfter = describeDataFiles();
+      final List<String> retained = new ArrayList<>(filesAfter);
+      retained.retainAll(filesBefore);
+      assertTrue(retained.size() >= filesBefore.size() - 10, () -> retained + " retained out of " + filesBefore);
+      assertEquals(filesBefore.subList(filesBefore.size() - retained.size(), filesBefore.size()), retained);
+      assertEquals(retained, filesAfter.subList(filesAfter.size() - retained.size(), filesAfter.size()));
+      final long firstRetainedFileID = Long.parseLong(retained.get(0).split(" ")[1]);
+      for (String compacted : filesAfter.subList(0, filesAfter.size() - retained.size())) {
+         assertTrue(Long.parseLong(compacted.split(" ")[1]) < firstRetainedFileID, compacted);
+      }
+
+      // the compacted records keep their updates on the files left as they were
+      for (int i = 0; i < 100; i += 10) {
+         delete(i);
+      }
+      update(5, 15, 25);
+
+      stopJournal();
+      createJournal();
+      startJournal();
+      loadAndCheck();
+
+      ((JournalImpl) journal).setCompactMaxFiles(10);
+      add(2000);
+      journal.forceMoveNextFile();
+      journal.testCompact();
+
+      stopJournal();
+      createJournal();
+      startJournal();
+      loadAndCheck();
+   }
+
+   @Test
+   public void testIncrementalCompactingCancelled() throws Exception {
+      setup(2, 60 * 1024, false);
+
+      createJournal();
+      startJournal();
+      load();
+
+      // a prepared transaction on the oldest file
+      addTx(1000, 1000, 1001);
+      prepare(1000, new SimpleEncoding(10, (byte) 0));
+
+      for (int i = 0; i < 300; i++) {
+         add(i);
+      }
+      for (int i = 0; i < 300; i += 3) {
+         delete(i);
+      }
+      journal.forceMoveNextFile();
+
+      stopJournal();
+
+      // the oldest files are bigger than the files replacing them
+      setup(2, 15 * 1024, false);
+      journal = new JournalImpl(fileSize, minFiles, poolSize, 0, 0, fileFactory, filePrefix, fileExtension, maxAIO) {
+         @Override
+         protected long getIncrementalCompactUsableFileSize() {
+            // as if any number of records fit in the replacing files
+            return getFileSize() * 100L;
+         }
+      };
+      journal.setAutoReclaim(false);
+      addActiveMQComponent(journal);
+      ((JournalImpl) journal).setCompactMaxFiles(3);
+
+      AtomicInteger criticalErrors = new AtomicInteger(0);
+      journal.setCriticalErrorListener((a, b, c) -> criticalErrors.incrementAndGet());
+
+      startJournal();
+      loadAndCheck();
+
+      try (AssertionLoggerHandler loggerHandler = new AssertionLoggerHandler()) {
+         journal.testCompact();
+
+         assertTrue(loggerHandler.findText("AMQ142034"), "Expected to find 142034");
+      }
+
+      // the cancelled pass was replaced by one compacting all the data files
+      assertEquals(0, criticalErrors.get());
+      assertTrue(journal.isStarted());
+      assertEquals(1, ((JournalImpl) journal).getCompactions());
+      assertEquals(0, getTestDirfile().list((dir, name) -> name.endsWith(".cmp")).length);
+
+      commit(1000);
+      delete(1, 2, 4);
+      update(5);
+
+      stopJournal();
+      createJournal();
+      startJournal();
+      loadAndCheck();
+   }
+
+   /**
+    * {@return the name, ID and checksum of each data file, ordered by ID}
+    */
+   private List<String> describeDataFiles() throws Exception {
+      final List<String> files = new ArrayList<>();
+      final JournalFile[] dataFiles = ((JournalImpl) journal).getDataFiles().clone();
+      Arrays.sort(dataFiles, Comparator.comparingLong(JournalFile::getFileID));
+      for (JournalFile file : dataFiles) {
+         final CRC32 checksum = new CRC32();
+         checksum.update(Files.readAllBytes(new File(getTestDir(), file.getFile().getFileName()).toPath()));
+         files.add(file.getFile().getFileName() + " " + file.getFileID() + " " + checksum.getValue());
+      }
+      return files;
+   }
+
    @Test
    public void testReconfigureJournalSize() throws Exception {
       setup(2, 30 * 4096, false);
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.integration.largemessage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.api.core.QueueConfiguration;
+import org.apache.activemq.artemis.api.core.RoutingType;
+import org.apache.activemq.artemis.api.core.TransportConfiguration;
+import org.apache.activemq.artemis.api.core.client.ActiveMQClient;
+import org.apache.activemq.artemis.api.core.client.ClientConsumer;
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
+import org.apache.activemq.artemis.api.core.client.ClientProducer;
+import org.apache.activemq.artemis.api.core.client.ClientSession;
+import org.apache.activemq.artemis.api.core.client.ClientSessionFactory;
+import org.apache.activemq.artemis.api.core.client.ServerLocator;
+import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.remoting.impl.netty.TransportConstants;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the bytes received by core consumers from acceptors sending the large message bodies straight from their
+ * files, as well as from TLS acceptors which have to read them into the heap.
+ */
+public class ZeroCopyLargeMessageTest extends ActiveMQTestBase {
+
+   private static final String QUEUE = "ZeroCopyLargeMessageTest";
+
+   private static final int CHUNK_SIZE = 10 * 1024;
+
+   private static final int TLS_PORT = 61617;
+
+   private static final String PASSWORD = "securepass";
+
+   @Override
+   @BeforeEach
+   public void setUp() throws Exception {
+      super.setUp();
+
+      final Map<String, Object> plain = new HashMap<>();
+      plain.put(TransportConstants.ZERO_COPY_LARGE_MESSAGES, true);
+
+      final Map<String, Object> tls = new HashMap<>();
+      tls.put(TransportConstants.ZERO_COPY_LARGE_MESSAGES, true);
+      tls.put(TransportConstants.PORT_PROP_NAME, TLS_PORT);
+      tls.put(TransportConstants.SSL_ENABLED_PROP_NAME, true);
+      tls.put(TransportConstants.KEYSTORE_PATH_PROP_NAME, "server-keystore.jks");
+      tls.put(TransportConstants.KEYSTORE_PASSWORD_PROP_NAME, PASSWORD);
+
+      final Configuration config = createBasicConfig()
+         .addAcceptorConfiguration(new TransportConfiguration(NETTY_ACCEPTOR_FACTORY, plain, "netty"))
+         .addAcceptorConfiguration(new TransportConfiguration(NETTY_ACCEPTOR_FACTORY, tls, "nettySSL"));
+      final ActiveMQServer server = createServer(true, config);
+      server.start();
+      server.createQueue(QueueConfiguration.of(QUEUE).setRoutingType(RoutingType.ANYCAST));
+   }
+
+   @Test
+   public void testMultipleChunks() throws Exception {
+      sendAndReceive(createNettyNonHALocator(), CHUNK_SIZE * 100 + 123);
+   }
+
+   @Test
+   public void testSingleChunk() throws Exception {
+      sendAndReceive(createNettyNonHALocator(), CHUNK_SIZE - 1);
+   }
+
+   @Test
+   public void testTLSFallback() throws Exception {
+      final Map<String, Object> params = new HashMap<>();
+      params.put(TransportConstants.PORT_PROP_NAME, TLS_PORT);
+      params.put(TransportConstants.SSL_ENABLED_PROP_NAME, true);
+      params.put(TransportConstants.TRUSTSTORE_PATH_PROP_NAME, "server-ca-truststore.jks");
+      params.put(TransportConstants.TRUSTSTORE_PASSWORD_PROP_NAME, PASSWORD);
+      sendAndReceive(addServerLocator(ActiveMQClient.createServerLocatorWithoutHA(new TransportConfiguration(NETTY_CONNECTOR_FACTORY, params))), CHUNK_SIZE * 100 + 123);
+   }
+
+   private void sendAndReceive(ServerLocator locator, int size) throws Exception {
+      locator.setMinLargeMessageSize(CHUNK_SIZE).setBlockOnDurableSend(true);
+      final ClientSessionFactory factory = createSessionFactory(locator);
+      try (ClientSession session = factory.createSession()) {
+         final ClientProducer producer = session.createProducer(QUEUE);
+         for (int i = 0; i < 2; i++) {
+            final ClientMessage message = session.createMessage(true);
+            message.setBodyInputStream(createFakeLargeStream(size));
+            producer.send(message);
+         }
+
+         session.start();
+         final ClientConsumer consumer = session.createConsumer(QUEUE);
+         for (int i = 0; i < 2; i++) {
+            final ClientMessage message = consumer.receive(5000);
+            assertNotNull(message);
+            assertEquals(size, message.getBodySize());
+            final ActiveMQBuffer body = message.getBodyBuffer();
+            for (int position = 0; position < size; position++) {
+               assertEquals(getSamplebyte(position), body.readByte(), "byte " + position);
+            }
+            message.acknowledge();
+         }
+      }
+   }
+}
@@ -121,6 +121,11 @@ public class AddressControlUsingCoreTest extends AddressControlTest {
             return (int) proxy.retrieveAttributeValue("addressLimitPercent", Integer.class);
          }
 
+         @Override
+         public long getDepageLag() {
+            return (long) proxy.retrieveAttributeValue("depageLag", Long.class);
+         }
+
          @Override
          public boolean block() throws Exception {
             return (boolean) proxy.invokeOperation("block");
@@ -60,6 +60,8 @@ import org.apache.activemq.artemis.core.config.CoreAddressConfiguration;
 import org.apache.activemq.artemis.core.management.impl.view.ProducerField;
 import org.apache.activemq.artemis.core.postoffice.Binding;
 import org.apache.activemq.artemis.core.postoffice.QueueBinding;
+import org.apache.activemq.artemis.core.protocol.mqtt.MQTTRetainedMessageStore;
+import org.apache.activemq.artemis.core.protocol.mqtt.MQTTStateManager;
 import org.apache.activemq.artemis.core.protocol.mqtt.MQTTUtil;
 import org.apache.activemq.artemis.core.server.ActiveMQServer;
 import org.apache.activemq.artemis.core.server.impl.AddressInfo;
@@ -2238,10 +2240,10 @@ public class MQTTTest extends MQTTTestSupport {
 
    @Test
    @Timeout(60)
-   public void testAutoDeleteRetainedQueue() throws Exception {
+   public void testExpiredRetainedMessageRemoved() throws Exception {
       final int MESSAGE_COUNT = 3;
       final String TOPIC = "/abc/123";
-      final String RETAINED_QUEUE = MQTTUtil.getCoreRetainAddressFromMqttTopic(TOPIC, server.getConfiguration().getWildcardConfiguration());
+      final MQTTRetainedMessageStore retainedMessageStore = MQTTStateManager.getInstance(server).getRetainedMessageStore();
       final MQTTClientProvider publisher = getMQTTClientProvider();
       final MQTTClientProvider subscriber = getMQTTClientProvider();
 
@@ -2277,10 +2279,12 @@ public class MQTTTest extends MQTTTestSupport {
       subscriber.disconnect();
       publisher.disconnect();
 
-      Wait.assertTrue(() -> server.locateQueue(RETAINED_QUEUE).getMessageCount() == 0, 2000, 50);
-      Wait.assertTrue(() -> server.locateQueue(RETAINED_QUEUE) == null, 2000, 50);
+      Wait.assertTrue(() -> {
+         retainedMessageStore.expire();
+         return retainedMessageStore.get(TOPIC) == null;
+      }, 2000, 50);
 
-      // now that we auto-deleted do it again to ensure it is recreated and auto-deleted properly
+      // now that it expired do it again to ensure it is stored and expired again
 
       initializeConnection(publisher);
       initializeConnection(subscriber);
@@ -2306,8 +2310,10 @@ public class MQTTTest extends MQTTTestSupport {
       subscriber.disconnect();
       publisher.disconnect();
 
-      Wait.assertTrue(() -> server.locateQueue(RETAINED_QUEUE).getMessageCount() == 0, 3000, 50);
-      Wait.assertTrue(() -> server.locateQueue(RETAINED_QUEUE) == null, 3000, 50);
+      Wait.assertTrue(() -> {
+         retainedMessageStore.expire();
+         return retainedMessageStore.get(TOPIC) == null;
+      }, 3000, 50);
    }
 
    /*
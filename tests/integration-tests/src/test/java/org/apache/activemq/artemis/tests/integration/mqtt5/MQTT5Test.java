@@ -217,7 +217,7 @@ public class MQTT5Test extends MQTT5TestSupport {
       server.start();
 
       Wait.assertEquals(1L, () -> server.locateQueue(MQTTUtil.MQTT_SESSION_STORE).getMessageCount(), 2000, 100);
-      Wait.assertTrue(() -> getSessionStates().get("myConsumerID") != null, 2000, 100);
+      Wait.assertTrue(() -> getProtocolManager().getStateManager().isSessionPresent("myConsumerID"), 2000, 100);
       consumer.setCallback(new DefaultMqttCallback() {
          @Override
          public void messageArrived(String topic, MqttMessage message) {
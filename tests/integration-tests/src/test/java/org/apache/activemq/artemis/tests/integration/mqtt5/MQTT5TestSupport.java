@@ -42,6 +42,7 @@ import org.apache.activemq.artemis.core.protocol.mqtt.MQTTInterceptor;
 import org.apache.activemq.artemis.core.protocol.mqtt.PacketIdCache;
 import org.apache.activemq.artemis.core.protocol.mqtt.MQTTProtocolManager;
 import org.apache.activemq.artemis.core.protocol.mqtt.MQTTSessionState;
+import org.apache.activemq.artemis.core.protocol.mqtt.MQTTStateManager;
 import org.apache.activemq.artemis.core.protocol.mqtt.MQTTUtil;
 import org.apache.activemq.artemis.core.remoting.impl.AbstractAcceptor;
 import org.apache.activemq.artemis.core.remoting.impl.netty.TransportConstants;
@@ -382,8 +383,8 @@ public class MQTT5TestSupport extends ActiveMQTestBase {
       return server.locateQueue(MQTTUtil.getCoreQueueFromMqttTopic(mqttTopicFilter, clientId, server.getConfiguration().getWildcardConfiguration()));
    }
 
-   protected Queue getRetainedMessageQueue(String mqttTopicFilter) {
-      return server.locateQueue(MQTTUtil.getCoreRetainAddressFromMqttTopic(mqttTopicFilter, server.getConfiguration().getWildcardConfiguration()));
+   protected int getRetainedMessageCount(String mqttTopic) throws Exception {
+      return MQTTStateManager.getInstance(server).getRetainedMessageStore().get(mqttTopic) == null ? 0 : 1;
    }
 
    protected void setAcceptorProperty(String property) throws Exception {
@@ -16,13 +16,17 @@
  */
 package org.apache.activemq.artemis.tests.integration.mqtt5;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import javax.jms.Connection;
 import javax.jms.ConnectionFactory;
 import javax.jms.MessageProducer;
 import javax.jms.Session;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.activemq.artemis.api.core.Message;
@@ -36,6 +40,11 @@ import org.apache.activemq.artemis.core.protocol.mqtt.MQTTStateManager;
 import org.apache.activemq.artemis.core.protocol.mqtt.MQTTUtil;
 import org.apache.activemq.artemis.tests.util.CFUtil;
 import org.apache.activemq.artemis.utils.RandomUtil;
+import org.apache.activemq.artemis.utils.Wait;
+import org.eclipse.paho.mqttv5.client.IMqttToken;
+import org.eclipse.paho.mqttv5.client.MqttClient;
+import org.eclipse.paho.mqttv5.client.MqttConnectionOptions;
+import org.eclipse.paho.mqttv5.client.MqttConnectionOptionsBuilder;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
 
@@ -91,4 +100,102 @@ public class MQTTStateManagerTest extends MQTT5TestSupport {
       assertTrue(server.waitForActivation(3, TimeUnit.SECONDS));
       assertNotNull(MQTTStateManager.getInstance(server));
    }
+
+   @Test
+   @Timeout(DEFAULT_TIMEOUT_SEC)
+   public void testSessionStateLoadedOnConnect() throws Exception {
+      final String clientId = RandomUtil.randomUUIDString();
+      final String topic = RandomUtil.randomUUIDString();
+      final MqttClient consumer = createPahoClient(clientId);
+      final MqttConnectionOptions options = new MqttConnectionOptionsBuilder().cleanStart(false).sessionExpiryInterval(999L).build();
+      consumer.connect(options);
+      consumer.subscribe(topic, 1);
+      consumer.disconnect();
+
+      server.stop();
+      server.start();
+      assertTrue(server.waitForActivation(3, TimeUnit.SECONDS));
+
+      // the state is only indexed until the client connects again
+      final MQTTStateManager stateManager = getProtocolManager().getStateManager();
+      assertNull(getSessionStates().get(clientId));
+      assertTrue(stateManager.isSessionPresent(clientId));
+      assertEquals(1, stateManager.getSessionStateStore().getStoredSessionCount());
+
+      assertSubscriptionResumed(consumer, options, topic);
+      assertNotNull(getSessionStates().get(clientId).getSubscriptionItem(topic));
+      assertEquals(0, stateManager.getSessionStateStore().getStoredSessionCount());
+      assertEquals(1, stateManager.getSessionStateStore().getLoadTimes().getCount());
+      consumer.disconnect();
+      consumer.close();
+   }
+
+   @Test
+   @Timeout(DEFAULT_TIMEOUT_SEC)
+   public void testSessionStateEvicted() throws Exception {
+      server.stop();
+      server.getConfiguration().setMqttSessionStateEvictionDelay(0);
+      server.start();
+      assertTrue(server.waitForActivation(3, TimeUnit.SECONDS));
+
+      final String clientId = RandomUtil.randomUUIDString();
+      final String topic = RandomUtil.randomUUIDString();
+      final MqttClient consumer = createPahoClient(clientId);
+      final MqttConnectionOptions options = new MqttConnectionOptionsBuilder().cleanStart(false).sessionExpiryInterval(999L).build();
+      consumer.connect(options);
+      consumer.subscribe(topic, 1);
+      assertNotNull(getSessionStates().get(clientId));
+      consumer.disconnect();
+
+      // the next scans evict the state of the disconnected client
+      Wait.assertTrue(() -> getSessionStates().get(clientId) == null, 2000, 100);
+      final MQTTStateManager stateManager = getProtocolManager().getStateManager();
+      assertTrue(stateManager.isSessionPresent(clientId));
+      assertEquals(1, stateManager.getSessionStateStore().getStoredSessionCount());
+
+      assertSubscriptionResumed(consumer, options, topic);
+      consumer.disconnect();
+      consumer.close();
+   }
+
+   @Test
+   @Timeout(DEFAULT_TIMEOUT_SEC)
+   public void testEvictedSessionStateExpires() throws Exception {
+      server.stop();
+      server.getConfiguration().setMqttSessionStateEvictionDelay(0);
+      server.start();
+      assertTrue(server.waitForActivation(3, TimeUnit.SECONDS));
+
+      final String clientId = RandomUtil.randomUUIDString();
+      final String topic = RandomUtil.randomUUIDString();
+      final MqttClient consumer = createPahoClient(clientId);
+      consumer.connect(new MqttConnectionOptionsBuilder().cleanStart(false).sessionExpiryInterval(2L).build());
+      consumer.subscribe(topic, 1);
+      Wait.assertTrue(() -> getSubscriptionQueue(topic, clientId) != null, 2000, 100);
+      consumer.disconnect();
+      consumer.close();
+
+      final MQTTStateManager stateManager = getProtocolManager().getStateManager();
+      Wait.assertTrue(() -> stateManager.getSessionStateStore().getStoredSessionCount() == 1, 2000, 100);
+
+      // the expired session is removed with its subscription queue although its state isn't in memory
+      Wait.assertFalse(() -> stateManager.isSessionPresent(clientId), 5000, 100);
+      Wait.assertTrue(() -> getSubscriptionQueue(topic, clientId) == null, 2000, 100);
+      Wait.assertEquals(0L, () -> server.locateQueue(MQTTUtil.MQTT_SESSION_STORE).getMessageCount(), 2000, 100);
+   }
+
+   private void assertSubscriptionResumed(MqttClient consumer, MqttConnectionOptions options, String topic) throws Exception {
+      final CountDownLatch latch = new CountDownLatch(1);
+      consumer.setCallback(new LatchedMqttCallback(latch));
+      final IMqttToken result = consumer.connectWithResult(options);
+      assertTrue(result.getSessionPresent());
+
+      final MqttClient producer = createPahoClient(RandomUtil.randomUUIDString());
+      producer.connect();
+      producer.publish(topic, new byte[0], 1, false);
+      producer.disconnect();
+      producer.close();
+      assertTrue(latch.await(2, TimeUnit.SECONDS));
+      assertFalse(getSessionStates().isEmpty());
+   }
 }
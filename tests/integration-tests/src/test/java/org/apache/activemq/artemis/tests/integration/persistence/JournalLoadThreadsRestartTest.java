@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.integration.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.apache.activemq.artemis.api.core.QueueConfiguration;
+import org.apache.activemq.artemis.api.core.RoutingType;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.api.core.client.ClientConsumer;
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
+import org.apache.activemq.artemis.api.core.client.ClientProducer;
+import org.apache.activemq.artemis.api.core.client.ClientSession;
+import org.apache.activemq.artemis.api.core.client.ClientSessionFactory;
+import org.apache.activemq.artemis.api.core.client.ServerLocator;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.core.server.impl.AddressInfo;
+import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
+import org.apache.activemq.artemis.tests.util.Wait;
+import org.junit.jupiter.api.Test;
+
+public class JournalLoadThreadsRestartTest extends ActiveMQTestBase {
+
+   private static final SimpleString ADDRESS = SimpleString.of("test.address");
+
+   private static final int QUEUES = 16;
+
+   private static final int MESSAGES = 200;
+
+   @Test
+   public void testReloadMessagesRoutedToManyQueues() throws Exception {
+      ActiveMQServer server = createServer(true);
+      server.getConfiguration().setJournalLoadThreads(4);
+      server.start();
+
+      server.addAddressInfo(new AddressInfo(ADDRESS, RoutingType.MULTICAST));
+      for (int q = 0; q < QUEUES; q++) {
+         server.createQueue(QueueConfiguration.of(queueName(q)).setAddress(ADDRESS).setRoutingType(RoutingType.MULTICAST));
+      }
+
+      ServerLocator locator = createInVMNonHALocator().setBlockOnDurableSend(true).setBlockOnAcknowledge(true);
+      ClientSessionFactory factory = createSessionFactory(locator);
+      try (ClientSession session = factory.createSession()) {
+         ClientProducer producer = session.createProducer(ADDRESS);
+         for (int i = 0; i < MESSAGES; i++) {
+            ClientMessage message = session.createMessage(true);
+            message.putIntProperty("i", i);
+            producer.send(message);
+         }
+         // every message is shared by all the queues, half of which have already acknowledged some of them
+         session.start();
+         for (int q = 0; q < QUEUES; q += 2) {
+            receive(session, q, 0, MESSAGES / 2, false);
+         }
+      }
+      factory.close();
+
+      server.stop();
+      server.start();
+
+      for (int q = 0; q < QUEUES; q++) {
+         Wait.assertEquals((long) (q % 2 == 0 ? MESSAGES / 2 : MESSAGES), server.locateQueue(queueName(q))::getMessageCount);
+      }
+
+      factory = createSessionFactory(locator);
+      try (ClientSession session = factory.createSession()) {
+         session.start();
+         for (int q = 0; q < QUEUES; q++) {
+            receive(session, q, q % 2 == 0 ? MESSAGES / 2 : 0, MESSAGES, true);
+         }
+      }
+      factory.close();
+
+      // the messages are only deleted once acknowledged by the last queue
+      server.stop();
+      server.start();
+
+      for (int q = 0; q < QUEUES; q++) {
+         assertEquals(0L, server.locateQueue(queueName(q)).getMessageCount());
+      }
+   }
+
+   private static String queueName(int q) {
+      return "test.queue." + q;
+   }
+
+   private static void receive(ClientSession session, int q, int from, int to, boolean drained) throws Exception {
+      try (ClientConsumer consumer = session.createConsumer(queueName(q))) {
+         for (int i = from; i < to; i++) {
+            ClientMessage message = consumer.receive(5000);
+            assertNotNull(message, queueName(q) + " message " + i);
+            // each queue keeps the order the messages were sent in
+            assertEquals(i, (int) message.getIntProperty("i"), queueName(q));
+            message.acknowledge();
+         }
+         if (drained) {
+            assertNull(consumer.receiveImmediate(), queueName(q));
+         }
+      }
+   }
+}
@@ -107,6 +107,24 @@ public class MetricsPluginTest extends ActiveMQTestBase {
          new Metric("artemis.authentication.count", 0.0, Arrays.asList(Tag.of("broker", "localhost"), Tag.of("result", "failure"))),
          new Metric("artemis.authorization.count", 0.0, Arrays.asList(Tag.of("broker", "localhost"), Tag.of("result", "success"))),
          new Metric("artemis.authorization.count", 0.0, Arrays.asList(Tag.of("broker", "localhost"), Tag.of("result", "failure"))),
+         new Metric("artemis.ack.batch.size", 0.0, Arrays.asList(Tag.of("broker", "localhost"), Tag.of("le", "1"))),
+         new Metric("artemis.ack.batch.size", 0.0, Arrays.asList(Tag.of("broker", "localhost"), Tag.of("le", "2"))),
+         new Metric("artemis.ack.batch.size", 0.0, Arrays.asList(Tag.of("broker", "localhost"), Tag.of("le", "4"))),
+         new Metric("artemis.ack.batch.size", 0.0, Arrays.asList(Tag.of("broker", "localhost"), Tag.of("le", "8"))),
+         new Metric("artemis.ack.batch.size", 0.0, Arrays.asList(Tag.of("broker", "localhost"), Tag.of("le", "16"))),
+         new Metric("artemis.ack.batch.size", 0.0, Arrays.asList(Tag.of("broker", "localhost"), Tag.of("le", "32"))),
+         new Metric("artemis.ack.batch.size", 0.0, Arrays.asList(Tag.of("broker", "localhost"), Tag.of("le", "64"))),
+         new Metric("artemis.ack.batch.size", 0.0, Arrays.asList(Tag.of("broker", "localhost"), Tag.of("le", "128"))),
+         new Metric("artemis.ack.batch.size", 0.0, Arrays.asList(Tag.of("broker", "localhost"), Tag.of("le", "256"))),
+         new Metric("artemis.ack.batch.size", 0.0, Arrays.asList(Tag.of("broker", "localhost"), Tag.of("le", "512"))),
+         new Metric("artemis.ack.batch.size", 0.0, Arrays.asList(Tag.of("broker", "localhost"), Tag.of("le", "+Inf"))),
+         new Metric("artemis.page.cache.size", 0.0, Arrays.asList(Tag.of("broker", "localhost"), Tag.of("memory", "heap"))),
+         new Metric("artemis.page.cache.size", 0.0, Arrays.asList(Tag.of("broker", "localhost"), Tag.of("memory", "mapped"))),
+         new Metric("artemis.page.cache.hit.count", 0.0, Arrays.asList(Tag.of("broker", "localhost"))),
+         new Metric("artemis.page.cache.miss.count", 0.0, Arrays.asList(Tag.of("broker", "localhost"))),
+         new Metric("artemis.page.cache.eviction.count", 0.0, Arrays.asList(Tag.of("broker", "localhost"))),
+         new Metric("artemis.page.read.ahead.hit.count", 0.0, Arrays.asList(Tag.of("broker", "localhost"))),
+         new Metric("artemis.page.read.ahead.miss.count", 0.0, Arrays.asList(Tag.of("broker", "localhost"))),
          // simpleQueue metrics
          new Metric("artemis.message.count", 0.0, Arrays.asList(Tag.of("address", "simpleAddress"), Tag.of("broker", "localhost"), Tag.of("queue", "simpleQueue"))),
          new Metric("artemis.durable.message.count", 0.0, Arrays.asList(Tag.of("address", "simpleAddress"), Tag.of("broker", "localhost"), Tag.of("queue", "simpleQueue"))),
@@ -131,12 +149,14 @@ public class MetricsPluginTest extends ActiveMQTestBase {
          new Metric("artemis.address.size", 0.0, Arrays.asList(Tag.of("address", "simpleAddress"), Tag.of("broker", "localhost"))),
          new Metric("artemis.number.of.pages", 0.0, Arrays.asList(Tag.of("address", "simpleAddress"), Tag.of("broker", "localhost"))),
          new Metric("artemis.limit.percent", 0.0, Arrays.asList(Tag.of("address", "simpleAddress"), Tag.of("broker", "localhost"))),
+         new Metric("artemis.depage.lag", 0.0, Arrays.asList(Tag.of("address", "simpleAddress"), Tag.of("broker", "localhost"))),
          // activemq.notifications metrics
          new Metric("artemis.routed.message.count", 0.0, Arrays.asList(Tag.of("address", "activemq.notifications"), Tag.of("broker", "localhost"))),
          new Metric("artemis.unrouted.message.count", 2.0, Arrays.asList(Tag.of("address", "activemq.notifications"), Tag.of("broker", "localhost"))),
          new Metric("artemis.address.size", 0.0, Arrays.asList(Tag.of("address", "activemq.notifications"), Tag.of("broker", "localhost"))),
          new Metric("artemis.number.of.pages", 0.0, Arrays.asList(Tag.of("address", "activemq.notifications"), Tag.of("broker", "localhost"))),
-         new Metric("artemis.limit.percent", 0.0, Arrays.asList(Tag.of("address", "activemq.notifications"), Tag.of("broker", "localhost")))
+         new Metric("artemis.limit.percent", 0.0, Arrays.asList(Tag.of("address", "activemq.notifications"), Tag.of("broker", "localhost"))),
+         new Metric("artemis.depage.lag", 0.0, Arrays.asList(Tag.of("address", "activemq.notifications"), Tag.of("broker", "localhost")))
       );
 
       // Making sure any async operations will have time to fill up the data structure
@@ -24,8 +24,10 @@ import org.apache.activemq.artemis.core.postoffice.DuplicateIDCache;
 import org.apache.activemq.artemis.core.postoffice.impl.DuplicateIDCaches;
 import org.apache.activemq.artemis.utils.RandomUtil;
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
@@ -43,6 +45,8 @@ public class DuplicateIDCacheBenchmark {
    private int size;
    @Param({"false", "true"})
    private boolean persist;
+   @Param({"false", "true"})
+   private boolean offHeap;
 
    private DuplicateIDCache cache;
 
@@ -54,9 +58,7 @@ public class DuplicateIDCacheBenchmark {
 
    @Setup
    public void init() throws Exception {
-      cache = persist ?
-         DuplicateIDCaches.persistent(SimpleString.of("benchmark"), size, new NullStorageManager()) :
-         DuplicateIDCaches.inMemory(SimpleString.of("benchmark"), size);
+      cache = createCache();
       final int idSize = findNextHigherPowerOf2(size);
       idsMask = idSize - 1;
       nextId = 0;
@@ -95,6 +97,17 @@ public class DuplicateIDCacheBenchmark {
       }
    }
 
+   private DuplicateIDCache createCache() {
+      if (offHeap) {
+         return persist ?
+            DuplicateIDCaches.persistentOffHeap(SimpleString.of("benchmark"), size, new NullStorageManager()) :
+            DuplicateIDCaches.inMemoryOffHeap(SimpleString.of("benchmark"), size);
+      }
+      return persist ?
+         DuplicateIDCaches.persistent(SimpleString.of("benchmark"), size, new NullStorageManager()) :
+         DuplicateIDCaches.inMemory(SimpleString.of("benchmark"), size);
+   }
+
    // it isn't checking what's the max power of 2 number nor if size > 0
    private static int findNextHigherPowerOf2(int size) {
       final int nextPow2 = findNextPowerOf2(size);
@@ -132,6 +145,20 @@ public class DuplicateIDCacheBenchmark {
       return cache.contains(nextMissingId());
    }
 
+   /**
+    * Creates a cache and fills it: run it with {@code -prof gc} to compare the heap footprint of the caches, reported
+    * as {@code gc.alloc.rate.norm}.
+    */
+   @Benchmark
+   @BenchmarkMode(Mode.SingleShotTime)
+   public DuplicateIDCache fill() throws Exception {
+      final DuplicateIDCache cache = createCache();
+      for (int i = 0; i < size; i++) {
+         cache.addToCache(ids[i], null, true);
+      }
+      return cache;
+   }
+
    @TearDown
    public void clear() throws Exception {
       cache.clear();
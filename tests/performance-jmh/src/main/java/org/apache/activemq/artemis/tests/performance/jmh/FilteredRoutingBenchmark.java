@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.jmh;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.api.core.Message;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.filter.Filter;
+import org.apache.activemq.artemis.core.filter.impl.FilterImpl;
+import org.apache.activemq.artemis.core.message.impl.CoreMessage;
+import org.apache.activemq.artemis.core.postoffice.Binding;
+import org.apache.activemq.artemis.core.postoffice.impl.BindingsImpl;
+import org.apache.activemq.artemis.core.server.RoutingContext;
+import org.apache.activemq.artemis.core.server.impl.RoutingContextImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of routing a message to an address with {@code subscribers} bindings, each filtering on the
+ * {@code region} property of the messages, against evaluating every filter as routing did before filters were indexed.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 8, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FilteredRoutingBenchmark {
+
+   private static final SimpleString ADDRESS = SimpleString.of("topic");
+
+   @Param({"100", "1000", "5000"})
+   private int subscribers;
+
+   // the number of distinct regions subscribers filter on
+   @Param({"100"})
+   private int regions;
+
+   @Param({"region = 'region-%d'", "region IN ('region-%d', 'none') AND priority > 2"})
+   private String filterFormat;
+
+   private BindingsImpl bindings;
+
+   private Filter[] filters;
+
+   private Message message;
+
+   private RoutingContext context;
+
+   private long routed;
+
+   @Setup
+   public void init() throws Exception {
+      bindings = new BindingsImpl(ADDRESS, null, null);
+      filters = new Filter[subscribers];
+      for (int i = 0; i < subscribers; i++) {
+         final Filter filter = FilterImpl.createFilter(String.format(filterFormat, i % regions));
+         filters[i] = filter;
+         bindings.addBinding(binding(i, filter));
+      }
+      message = new CoreMessage(1, 50).setAddress(ADDRESS).putStringProperty("region", "region-0").putIntProperty("priority", 3);
+      context = new RoutingContextImpl(null);
+   }
+
+   private Binding binding(final long id, final Filter filter) {
+      final SimpleString name = SimpleString.of("subscription-" + id);
+      return (Binding) Proxy.newProxyInstance(Binding.class.getClassLoader(), new Class<?>[] {Binding.class}, (proxy, method, args) -> {
+         switch (method.getName()) {
+            case "getFilter":
+               return filter;
+            case "getAddress":
+               return ADDRESS;
+            case "getUniqueName":
+            case "getRoutingName":
+            case "getClusterName":
+               return name;
+            case "getID":
+               return id;
+            case "isLocal":
+            case "isConnected":
+               return true;
+            case "route":
+               routed++;
+               return null;
+            case "hashCode":
+               return System.identityHashCode(proxy);
+            case "equals":
+               return proxy == args[0];
+            case "toString":
+               return name.toString();
+            default:
+               final Class<?> returnType = method.getReturnType();
+               return returnType.isPrimitive() && returnType != void.class ? Array.get(Array.newInstance(returnType, 1), 0) : null;
+         }
+      });
+   }
+
+   @Benchmark
+   public long route() throws Exception {
+      bindings.route(message, context);
+      return routed;
+   }
+
+   @Benchmark
+   public int evaluateAll() {
+      int matched = 0;
+      for (Filter filter : filters) {
+         if (filter.match(message)) {
+            matched++;
+         }
+      }
+      return matched;
+   }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.jmh;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.core.io.SequentialFile;
+import org.apache.activemq.artemis.core.journal.impl.JournalFile;
+import org.apache.activemq.artemis.core.journal.impl.JournalFileImpl;
+import org.apache.activemq.artemis.core.journal.impl.JournalImpl;
+import org.apache.activemq.artemis.core.journal.impl.JournalRecordIndex;
+import org.apache.activemq.artemis.core.journal.impl.OffHeapJournalRecordIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the heap and off-heap {@link JournalRecordIndex} holding {@code records} live records, a quarter of them
+ * updated on another file.
+ * <p>
+ * The memory taken by the index is printed once it is filled: the heap it retains after a full GC and, for the off-heap
+ * one, the direct memory of its table. The benchmarks measure the lookup done by every update and delete and a whole
+ * add, update and delete cycle on the filled index.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-XX:MaxDirectMemorySize=4g"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JournalRecordIndexBenchmark {
+
+   private static final int RECORDS_PER_FILE = 10_000;
+
+   private static final int RECORD_SIZE = 100;
+
+   @Param({"10000000"})
+   private int records;
+
+   @Param({"heap", "off-heap"})
+   private String index;
+
+   private JournalRecordIndex recordIndex;
+
+   private JournalFile[] files;
+
+   private long nextID;
+
+   private long lookupID;
+
+   @Setup
+   public void init() {
+      final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+      files = new JournalFile[records / RECORDS_PER_FILE + 2];
+      for (int i = 0; i < files.length; i++) {
+         files[i] = new JournalFileImpl(sequentialFile("file-" + i), i, JournalImpl.FORMAT_VERSION);
+      }
+      System.gc();
+      final long heapBefore = memory.getHeapMemoryUsage().getUsed();
+      recordIndex = JournalRecordIndex.create("off-heap".equals(index));
+      for (long id = 0; id < records; id++) {
+         final int file = (int) (id / RECORDS_PER_FILE);
+         recordIndex.add(id, files[file], RECORD_SIZE);
+         if (id % 4 == 0) {
+            recordIndex.addUpdate(id, files[file + 1], RECORD_SIZE, false);
+         }
+      }
+      System.gc();
+      final long heap = memory.getHeapMemoryUsage().getUsed() - heapBefore;
+      final long offHeap = recordIndex instanceof OffHeapJournalRecordIndex offHeapIndex ? offHeapIndex.getMemorySize() : 0;
+      System.out.printf("%n%s index of %,d records: %,d heap bytes (%.1f per record), %,d direct bytes (%.1f per record)%n",
+                        index, records, heap, (double) heap / records, offHeap, (double) offHeap / records);
+      nextID = records;
+   }
+
+   @TearDown
+   public void clear() {
+      recordIndex.clear();
+   }
+
+   private static SequentialFile sequentialFile(String name) {
+      return (SequentialFile) Proxy.newProxyInstance(SequentialFile.class.getClassLoader(), new Class<?>[] {SequentialFile.class}, (proxy, method, args) -> {
+         switch (method.getName()) {
+            case "getFileName":
+            case "toString":
+               return name;
+            case "hashCode":
+               return System.identityHashCode(proxy);
+            case "equals":
+               return proxy == args[0];
+            default:
+               throw new UnsupportedOperationException(method.getName());
+         }
+      });
+   }
+
+   @Benchmark
+   public boolean lookup() {
+      lookupID = (lookupID + 7919) % records;
+      return recordIndex.contains(lookupID);
+   }
+
+   @Benchmark
+   public boolean addUpdateDelete() {
+      final JournalFile file = files[files.length - 1];
+      final long id = nextID++;
+      recordIndex.add(id, file, RECORD_SIZE);
+      recordIndex.addUpdate(id, file, RECORD_SIZE, false);
+      return recordIndex.delete(id, file);
+   }
+}
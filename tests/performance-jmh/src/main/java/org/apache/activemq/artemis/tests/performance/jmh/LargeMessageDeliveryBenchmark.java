@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.jmh;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.api.core.QueueConfiguration;
+import org.apache.activemq.artemis.api.core.RoutingType;
+import org.apache.activemq.artemis.api.core.client.ActiveMQClient;
+import org.apache.activemq.artemis.api.core.client.ClientConsumer;
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
+import org.apache.activemq.artemis.api.core.client.ClientProducer;
+import org.apache.activemq.artemis.api.core.client.ClientSession;
+import org.apache.activemq.artemis.api.core.client.ClientSessionFactory;
+import org.apache.activemq.artemis.api.core.client.ServerLocator;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.core.server.ActiveMQServers;
+import org.apache.activemq.artemis.core.server.JournalType;
+import org.apache.activemq.artemis.utils.FileUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time a core consumer takes to receive a large message of {@code messageSize} bytes over TCP from an
+ * acceptor sending the large message bodies straight from their files ({@code zeroCopy} = true) or through the heap.
+ * <p>
+ * Each message is sent before the measured invocation; running it with {@code -prof gc} shows the heap the broker and
+ * the consumer allocate for each delivery.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LargeMessageDeliveryBenchmark {
+
+   private static final String QUEUE = "benchmark";
+
+   @Param({"false", "true"})
+   private boolean zeroCopy;
+
+   @Param({"104857600"})
+   private int messageSize;
+
+   private File dataDirectory;
+
+   private ActiveMQServer server;
+
+   private ServerLocator locator;
+
+   private ClientSessionFactory sessionFactory;
+
+   private ClientSession session;
+
+   private ClientProducer producer;
+
+   private ClientConsumer consumer;
+
+   @Setup
+   public void init() throws Exception {
+      dataDirectory = Files.createTempDirectory("large-message-delivery").toFile();
+      final ConfigurationImpl configuration = new ConfigurationImpl();
+      configuration.setSecurityEnabled(false)
+                   .setJournalType(JournalType.NIO)
+                   .setJournalDirectory(new File(dataDirectory, "journal").getPath())
+                   .setBindingsDirectory(new File(dataDirectory, "bindings").getPath())
+                   .setPagingDirectory(new File(dataDirectory, "paging").getPath())
+                   .setLargeMessagesDirectory(new File(dataDirectory, "large-messages").getPath());
+      configuration.addAcceptorConfiguration("netty", "tcp://localhost:61616?zeroCopyLargeMessages=" + zeroCopy);
+      server = ActiveMQServers.newActiveMQServer(configuration, false);
+      server.start();
+      server.createQueue(QueueConfiguration.of(QUEUE).setRoutingType(RoutingType.ANYCAST));
+
+      locator = ActiveMQClient.createServerLocator("tcp://localhost:61616");
+      sessionFactory = locator.createSessionFactory();
+      session = sessionFactory.createSession(true, true);
+      producer = session.createProducer(QUEUE);
+      consumer = session.createConsumer(QUEUE);
+      session.start();
+   }
+
+   @Setup(Level.Invocation)
+   public void send() throws Exception {
+      final ClientMessage message = session.createMessage(true);
+      message.setBodyInputStream(new ZeroInputStream(messageSize));
+      producer.send(message);
+   }
+
+   @Benchmark
+   public long receive() throws Exception {
+      final ClientMessage message = consumer.receive();
+      message.saveToOutputStream(OutputStream.nullOutputStream());
+      message.acknowledge();
+      return message.getBodySize();
+   }
+
+   @TearDown
+   public void stop() throws Exception {
+      session.close();
+      sessionFactory.close();
+      locator.close();
+      server.stop();
+      FileUtil.deleteDirectory(dataDirectory);
+   }
+
+   private static final class ZeroInputStream extends InputStream {
+
+      private int remaining;
+
+      private ZeroInputStream(final int size) {
+         this.remaining = size;
+      }
+
+      @Override
+      public int read() {
+         if (remaining == 0) {
+            return -1;
+         }
+         remaining--;
+         return 0;
+      }
+
+      @Override
+      public int read(final byte[] b, final int off, final int len) {
+         if (remaining == 0) {
+            return -1;
+         }
+         final int read = Math.min(len, remaining);
+         Arrays.fill(b, off, off + read, (byte) 0);
+         remaining -= read;
+         return read;
+      }
+   }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.mqtt.MqttDecoder;
+import io.netty.handler.codec.mqtt.MqttEncoder;
+import io.netty.handler.codec.mqtt.MqttFixedHeader;
+import io.netty.handler.codec.mqtt.MqttMessageType;
+import io.netty.handler.codec.mqtt.MqttPublishMessage;
+import io.netty.handler.codec.mqtt.MqttPublishVariableHeader;
+import io.netty.handler.codec.mqtt.MqttQoS;
+import io.netty.util.ReferenceCountUtil;
+import org.apache.activemq.artemis.api.core.ICoreMessage;
+import org.apache.activemq.artemis.api.core.Message;
+import org.apache.activemq.artemis.core.message.impl.CoreMessage;
+import org.apache.activemq.artemis.core.protocol.mqtt.MQTTPublishEncoding;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Publishes a message to {@code SUBSCRIBERS} MQTT 3.1.1 clients at QoS 1, reporting the PUBLISH packets sent per
+ * second.
+ * <p>
+ * Every client is connected in VM through an {@link EmbeddedChannel} with the pipeline of an MQTT acceptor, where
+ * {@code encoder} builds a {@link MqttPublishMessage} with a copy of the payload for each client, to be encoded by
+ * {@link MqttEncoder}, while {@code shared} writes the packet already encoded by {@link MQTTPublishEncoding}, sharing
+ * the payload encoded once. With {@code decode} the packets are decoded by the client, as a check that they are valid.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 8, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(MQTTPublishFanOutBenchmark.SUBSCRIBERS)
+public class MQTTPublishFanOutBenchmark {
+
+   static final int SUBSCRIBERS = 10_000;
+
+   private static final String TOPIC = "devices/floor-3/room-12/temperature";
+
+   @Param({"64", "1024", "16384"})
+   private int payloadSize;
+
+   @Param({"encoder", "shared"})
+   private String encoding;
+
+   @Param({"false", "true"})
+   private boolean decode;
+
+   private ICoreMessage message;
+
+   private EmbeddedChannel broker;
+
+   private EmbeddedChannel client;
+
+   @Setup
+   public void init() {
+      final CoreMessage message = new CoreMessage(1, payloadSize + 50);
+      message.setType(Message.BYTES_TYPE);
+      message.getBodyBuffer().writeBytes(new byte[payloadSize]);
+      this.message = message;
+      broker = new EmbeddedChannel(MqttEncoder.INSTANCE);
+      client = new EmbeddedChannel(new MqttDecoder());
+   }
+
+   @TearDown
+   public void close() {
+      broker.finishAndReleaseAll();
+      client.finishAndReleaseAll();
+   }
+
+   @Benchmark
+   public void publish() {
+      final boolean shared = "shared".equals(encoding);
+      // the encoding is created once per message, then kept on it by the broker
+      final MQTTPublishEncoding publishEncoding = shared ? new MQTTPublishEncoding(message, TOPIC) : null;
+      for (int packetId = 1; packetId <= SUBSCRIBERS; packetId++) {
+         if (shared) {
+            broker.writeOutbound(publishEncoding.encode(ByteBufAllocator.DEFAULT, TOPIC, packetId, false, 1, false, null));
+         } else {
+            final MqttFixedHeader header = new MqttFixedHeader(MqttMessageType.PUBLISH, false, MqttQoS.AT_LEAST_ONCE, false, 0);
+            final MqttPublishVariableHeader variableHeader = new MqttPublishVariableHeader(TOPIC, packetId, null);
+            final ByteBuf payload = ByteBufAllocator.DEFAULT.directBuffer(payloadSize);
+            payload.writeBytes(message.getDataBuffer().byteBuf());
+            broker.writeOutbound(new MqttPublishMessage(header, variableHeader, payload));
+         }
+         receive();
+      }
+   }
+
+   private void receive() {
+      final ByteBuf packet = broker.readOutbound();
+      if (!decode) {
+         packet.release();
+         return;
+      }
+      client.writeInbound(packet);
+      final Object received = client.readInbound();
+      if (!(received instanceof MqttPublishMessage publish) || publish.decoderResult().isFailure()) {
+         throw new IllegalStateException("Invalid packet " + received);
+      }
+      ReferenceCountUtil.release(received);
+   }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.core.protocol.mqtt.MQTTTopicTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Looks up the retained messages matching the topic filter of a new MQTT subscription among {@code topics} retained
+ * topics laid out as {@code site/<site>/device/<device>/temperature}, with 1000 devices per site.
+ * <p>
+ * {@code tree} walks the levels of the filter in a {@link MQTTTopicTree}, as the retained message store does, while
+ * {@code scan} tests the filter against every retained topic, as a binding query over one queue per retained topic
+ * used to. The filters match the devices of a site, a device of every site and a single device.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MQTTRetainedMessageMatchBenchmark {
+
+   private static final int DEVICES_PER_SITE = 1000;
+
+   @Param({"1000000"})
+   private int topics;
+
+   @Param({"site/42/device/+/temperature", "site/+/device/7/#", "site/42/device/7/temperature"})
+   private String topicFilter;
+
+   @Param({"scan", "tree"})
+   private String lookup;
+
+   private MQTTTopicTree<String> tree;
+
+   private String[][] topicLevels;
+
+   private String[] filterLevels;
+
+   @Setup
+   public void init() {
+      tree = new MQTTTopicTree<>();
+      topicLevels = new String[topics][];
+      for (int i = 0; i < topics; i++) {
+         final String topic = "site/" + i / DEVICES_PER_SITE + "/device/" + i % DEVICES_PER_SITE + "/temperature";
+         tree.put(topic, topic);
+         topicLevels[i] = topic.split("/", -1);
+      }
+      filterLevels = topicFilter.split("/", -1);
+   }
+
+   @Benchmark
+   public List<String> match() {
+      final List<String> matches = new ArrayList<>();
+      if ("tree".equals(lookup)) {
+         tree.match(topicFilter, matches::add);
+      } else {
+         for (String[] levels : topicLevels) {
+            if (matches(filterLevels, levels)) {
+               matches.add(String.join("/", levels));
+            }
+         }
+      }
+      return matches;
+   }
+
+   private static boolean matches(String[] filter, String[] topic) {
+      for (int i = 0; i < filter.length; i++) {
+         if ("#".equals(filter[i])) {
+            return true;
+         }
+         if (i == topic.length || !"+".equals(filter[i]) && !filter[i].equals(topic[i])) {
+            return false;
+         }
+      }
+      return filter.length == topic.length;
+   }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.jmh;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.util.collection.IntObjectHashMap;
+import org.apache.activemq.artemis.core.paging.cursor.PagePosition;
+import org.apache.activemq.artemis.core.paging.cursor.impl.PagePositionImpl;
+import org.apache.activemq.artemis.utils.collections.IntBitmap;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Acks every message of a number of pages, the way a subscription tracks them until each page is complete, and reports
+ * the heap used for each ack as the {@code bytesPerAck} counter.
+ * <p>
+ * {@code map} keeps a {@link PagePosition} per ack in an {@link IntObjectHashMap}, as the acks of a page used to be
+ * tracked, while {@code bitmap} keeps the message numbers in an {@link IntBitmap} along with the ids of the ack
+ * records, as they are now. The messages are acked in order, or shuffled as when many consumers ack out of order.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-XX:+UseParallelGC"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PageAckTrackingBenchmark {
+
+   @Param({"100"})
+   private int pages;
+
+   @Param({"10000"})
+   private int messagesPerPage;
+
+   @Param({"false", "true"})
+   private boolean shuffled;
+
+   @Param({"map", "bitmap"})
+   private String tracking;
+
+   private int[] messageNumbers;
+
+   private Object[] acks;
+
+   @AuxCounters(AuxCounters.Type.EVENTS)
+   @State(Scope.Thread)
+   public static class Footprint {
+
+      public double bytesPerAck;
+   }
+
+   @Setup
+   public void init() {
+      messageNumbers = new int[messagesPerPage];
+      for (int i = 0; i < messagesPerPage; i++) {
+         messageNumbers[i] = i;
+      }
+      if (shuffled) {
+         final SplittableRandom random = new SplittableRandom(42);
+         for (int i = messagesPerPage - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1);
+            final int swap = messageNumbers[i];
+            messageNumbers[i] = messageNumbers[j];
+            messageNumbers[j] = swap;
+         }
+      }
+   }
+
+   @Benchmark
+   public Object[] ack(Footprint footprint) {
+      final long before = usedHeap();
+      acks = new Object[pages];
+      long recordID = 0;
+      final boolean bitmap = "bitmap".equals(tracking);
+      for (int page = 0; page < pages; page++) {
+         if (bitmap) {
+            final BitmapAcks pageAcks = new BitmapAcks();
+            for (int messageNumber : messageNumbers) {
+               pageAcks.add(messageNumber, recordID++);
+            }
+            acks[page] = pageAcks;
+         } else {
+            final IntObjectHashMap<PagePosition> pageAcks = new IntObjectHashMap<>();
+            for (int messageNumber : messageNumbers) {
+               final PagePosition position = new PagePositionImpl(page, messageNumber);
+               position.setRecordID(recordID++);
+               pageAcks.put(messageNumber, position);
+            }
+            acks[page] = pageAcks;
+         }
+      }
+      footprint.bytesPerAck = (double) (usedHeap() - before) / ((long) pages * messagesPerPage);
+      return acks;
+   }
+
+   @TearDown(Level.Invocation)
+   public void clear() {
+      acks = null;
+   }
+
+   private static long usedHeap() {
+      final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+      for (int i = 0; i < 3; i++) {
+         System.gc();
+      }
+      return memory.getHeapMemoryUsage().getUsed();
+   }
+
+   // the same layout as the acks of PageSubscriptionImpl.PageCursorInfo
+   private static final class BitmapAcks {
+
+      private final IntBitmap acks = new IntBitmap();
+
+      private long[] recordIDs = new long[8];
+
+      private int recordCount;
+
+      void add(int messageNumber, long recordID) {
+         if (acks.add(messageNumber)) {
+            if (recordCount == recordIDs.length) {
+               recordIDs = Arrays.copyOf(recordIDs, recordCount * 2);
+            }
+            recordIDs[recordCount++] = recordID;
+         }
+      }
+   }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.jmh;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.activemq.artemis.api.core.QueueConfiguration;
+import org.apache.activemq.artemis.api.core.RoutingType;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.message.impl.CoreMessage;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.core.server.ActiveMQServers;
+import org.apache.activemq.artemis.core.server.Consumer;
+import org.apache.activemq.artemis.core.server.HandleStatus;
+import org.apache.activemq.artemis.core.server.MessageReference;
+import org.apache.activemq.artemis.core.server.Queue;
+import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the messages a single queue delivers per second to {@code consumers} consumers, each delivery costing
+ * {@code deliveryCost} tokens of CPU as encoding and sending a message would, with the deliveries sent on the thread of
+ * the queue ({@code shards} = 1) or by {@code shards} delivery shards.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 8, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class QueueDeliveryBenchmark {
+
+   private static final int BATCH = 1024;
+
+   private static final SimpleString ADDRESS = SimpleString.of("benchmark");
+
+   @Param({"1", "8", "64"})
+   private int consumers;
+
+   @Param({"1", "8", "64"})
+   private int shards;
+
+   @Param({"500"})
+   private int deliveryCost;
+
+   private ActiveMQServer server;
+
+   private Queue queue;
+
+   private final AtomicLong delivered = new AtomicLong();
+
+   private long sent;
+
+   @Setup
+   public void init() throws Exception {
+      server = ActiveMQServers.newActiveMQServer(new ConfigurationImpl().setPersistenceEnabled(false).setSecurityEnabled(false).setThreadPoolMaxSize(128), false);
+      server.start();
+      server.getAddressSettingsRepository().addMatch(ADDRESS.toString(), new AddressSettings().setDeliveryShards(shards));
+      queue = server.createQueue(QueueConfiguration.of(ADDRESS).setAddress(ADDRESS).setRoutingType(RoutingType.ANYCAST).setDurable(false).setAutoCreateAddress(true));
+      for (int i = 0; i < consumers; i++) {
+         queue.addConsumer(consumer(i));
+      }
+   }
+
+   private Consumer consumer(final long id) {
+      return (Consumer) Proxy.newProxyInstance(Consumer.class.getClassLoader(), new Class<?>[] {Consumer.class}, (proxy, method, args) -> {
+         switch (method.getName()) {
+            case "handle":
+               return HandleStatus.HANDLED;
+            case "proceedDeliver":
+               Blackhole.consumeCPU(deliveryCost);
+               delivered.incrementAndGet();
+               return null;
+            case "sequentialID":
+               return id;
+            case "getDeliveringMessages":
+               return Collections.emptyList();
+            case "hashCode":
+               return System.identityHashCode(proxy);
+            case "equals":
+               return proxy == args[0];
+            case "toString":
+               return "consumer-" + id;
+            default:
+               final Class<?> returnType = method.getReturnType();
+               return returnType.isPrimitive() && returnType != void.class ? Array.get(Array.newInstance(returnType, 1), 0) : null;
+         }
+      });
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(BATCH)
+   public long deliver() {
+      for (int i = 0; i < BATCH; i++) {
+         final MessageReference ref = MessageReference.Factory.createReference(new CoreMessage(++sent, 50).setAddress(ADDRESS), queue);
+         queue.addTail(ref);
+      }
+      queue.deliverAsync();
+      while (delivered.get() < sent) {
+         LockSupport.parkNanos(1000);
+      }
+      return sent;
+   }
+
+   @TearDown
+   public void stop() throws Exception {
+      server.stop();
+   }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.api.core.Message;
+import org.apache.activemq.artemis.core.message.impl.CoreMessage;
+import org.apache.activemq.artemis.core.server.MessageReference;
+import org.apache.activemq.artemis.core.server.impl.MessageReferenceImpl;
+import org.apache.activemq.artemis.core.server.impl.QueueExpiryIndex;
+import org.apache.activemq.artemis.core.server.impl.QueueImpl;
+import org.apache.activemq.artemis.utils.collections.LinkedListIterator;
+import org.apache.activemq.artemis.utils.collections.PriorityLinkedList;
+import org.apache.activemq.artemis.utils.collections.PriorityLinkedListImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the cost of a full expiry scan over a deep queue with the {@link QueueExpiryIndex} check done by the expiry
+ * scanner, which only visits the references that are due.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueueExpiryScanBenchmark {
+
+   // messages are shared by many references, only the reference count matters to the scan
+   private static final int DISTINCT_MESSAGES = 1024;
+
+   @Param({"1000000", "10000000"})
+   private int references;
+
+   // one out of every expiringEvery references expires, 0 meaning none of them
+   @Param({"0", "1000"})
+   private int expiringEvery;
+
+   private PriorityLinkedList<MessageReference> messageReferences;
+
+   private QueueExpiryIndex expiryIndex;
+
+   @Setup
+   public void init() {
+      final long expiration = System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1);
+      final Message[] nonExpiring = new Message[DISTINCT_MESSAGES];
+      final Message[] expiring = new Message[DISTINCT_MESSAGES];
+      for (int i = 0; i < DISTINCT_MESSAGES; i++) {
+         nonExpiring[i] = new CoreMessage(i, 50);
+         expiring[i] = new CoreMessage(DISTINCT_MESSAGES + i, 50).setExpiration(expiration);
+      }
+      messageReferences = new PriorityLinkedListImpl<>(QueueImpl.NUM_PRIORITIES, MessageReferenceImpl.getSequenceComparator());
+      expiryIndex = new QueueExpiryIndex();
+      for (int i = 0; i < references; i++) {
+         final boolean expires = expiringEvery > 0 && i % expiringEvery == 0;
+         final Message message = expires ? expiring[i % DISTINCT_MESSAGES] : nonExpiring[i % DISTINCT_MESSAGES];
+         final MessageReference ref = new MessageReferenceImpl(message, null);
+         ref.setSequence(i);
+         messageReferences.addTail(ref, 4);
+         expiryIndex.add(ref, 4);
+      }
+   }
+
+   @Benchmark
+   public int scan() {
+      int expired = 0;
+      try (LinkedListIterator<MessageReference> iter = messageReferences.iterator()) {
+         while (iter.hasNext()) {
+            if (iter.next().getMessage().isExpired()) {
+               expired++;
+            }
+         }
+      }
+      return expired;
+   }
+
+   @Benchmark
+   public boolean index() {
+      return expiryIndex.isExpirationDue(System.currentTimeMillis());
+   }
+
+   @TearDown
+   public void clear() {
+      messageReferences.clear();
+      expiryIndex.clear();
+   }
+
+}
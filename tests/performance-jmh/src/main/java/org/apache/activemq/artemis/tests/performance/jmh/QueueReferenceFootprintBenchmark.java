@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.jmh;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.api.core.Message;
+import org.apache.activemq.artemis.core.message.impl.CoreMessage;
+import org.apache.activemq.artemis.core.server.MessageReference;
+import org.apache.activemq.artemis.core.server.impl.MessageReferenceImpl;
+import org.apache.activemq.artemis.core.server.impl.QueueImpl;
+import org.apache.activemq.artemis.utils.collections.PriorityLinkedList;
+import org.apache.activemq.artemis.utils.collections.PriorityLinkedListImpl;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reports the heap used by each reference of a deep queue, as the {@code bytesPerReference} counter, when the
+ * references are waiting in the queue and when they have all been delivered once.
+ * <p>
+ * The messages are shared by the references so only the references and the lists holding them are accounted.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-XX:+UseParallelGC"})
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class QueueReferenceFootprintBenchmark {
+
+   private static final int DISTINCT_MESSAGES = 1024;
+
+   @Param({"10000000"})
+   private int references;
+
+   @Param({"false", "true"})
+   private boolean delivered;
+
+   private Message[] messages;
+
+   private PriorityLinkedList<MessageReference> messageReferences;
+
+   @AuxCounters(AuxCounters.Type.EVENTS)
+   @State(Scope.Thread)
+   public static class Footprint {
+
+      public double bytesPerReference;
+   }
+
+   @Setup
+   public void init() {
+      messages = new Message[DISTINCT_MESSAGES];
+      for (int i = 0; i < DISTINCT_MESSAGES; i++) {
+         messages[i] = new CoreMessage(i, 50);
+      }
+   }
+
+   @Benchmark
+   public PriorityLinkedList<MessageReference> fill(Footprint footprint) {
+      final long before = usedHeap();
+      messageReferences = new PriorityLinkedListImpl<>(QueueImpl.NUM_PRIORITIES, MessageReferenceImpl.getSequenceComparator());
+      for (int i = 0; i < references; i++) {
+         final MessageReference ref = new MessageReferenceImpl(messages[i % DISTINCT_MESSAGES], null);
+         ref.setSequence(i);
+         if (delivered) {
+            ref.setConsumerId(1);
+         }
+         messageReferences.addTail(ref, 4);
+      }
+      footprint.bytesPerReference = (double) (usedHeap() - before) / references;
+      return messageReferences;
+   }
+
+   @TearDown(Level.Invocation)
+   public void clear() {
+      messageReferences = null;
+   }
+
+   private static long usedHeap() {
+      final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+      for (int i = 0; i < 3; i++) {
+         System.gc();
+      }
+      return memory.getHeapMemoryUsage().getUsed();
+   }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.jmh;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Proxy;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.core.message.impl.CoreMessage;
+import org.apache.activemq.artemis.core.server.MessageReference;
+import org.apache.activemq.artemis.core.server.Queue;
+import org.apache.activemq.artemis.core.server.ScheduledDeliveryHandler;
+import org.apache.activemq.artemis.core.server.impl.MessageReferenceImpl;
+import org.apache.activemq.artemis.core.server.impl.ScheduledDeliveryHandlerImpl;
+import org.apache.activemq.artemis.core.server.impl.TimingWheelScheduledDeliveryHandler;
+import org.apache.activemq.artemis.core.settings.impl.ScheduledDeliveryHandlerType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of scheduling a message and removing another one by id on a handler already holding
+ * {@code scheduled} messages, spread over a one hour window that the benchmark never reaches.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 2, jvmArgsAppend = {"-Xmx4g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 8, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ScheduledDeliveryHandlerBenchmark {
+
+   @Param({"DEFAULT", "TIMING_WHEEL"})
+   private ScheduledDeliveryHandlerType type;
+
+   @Param({"10000", "100000"})
+   private int scheduled;
+
+   private ScheduledExecutorService scheduledExecutor;
+
+   private Queue queue;
+
+   private ScheduledDeliveryHandler handler;
+
+   private SplittableRandom random;
+
+   private long firstDeliveryTime;
+
+   private MessageReference[] references;
+
+   private int next;
+
+   private long nextMessageID;
+
+   @Setup
+   public void init() {
+      scheduledExecutor = Executors.newSingleThreadScheduledExecutor();
+      // nothing is ever delivered, the handler just needs a queue to account the references to
+      queue = (Queue) Proxy.newProxyInstance(Queue.class.getClassLoader(), new Class<?>[] {Queue.class}, (proxy, method, args) -> {
+         final Class<?> returnType = method.getReturnType();
+         return returnType.isPrimitive() && returnType != void.class ? Array.get(Array.newInstance(returnType, 1), 0) : null;
+      });
+      handler = type == ScheduledDeliveryHandlerType.TIMING_WHEEL ?
+         new TimingWheelScheduledDeliveryHandler(scheduledExecutor, queue) :
+         new ScheduledDeliveryHandlerImpl(scheduledExecutor, queue);
+      random = new SplittableRandom(0);
+      firstDeliveryTime = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1);
+      references = new MessageReference[scheduled];
+      next = 0;
+      nextMessageID = 0;
+      for (int i = 0; i < scheduled; i++) {
+         references[i] = schedule();
+      }
+   }
+
+   private MessageReference schedule() {
+      final MessageReference ref = new MessageReferenceImpl(new CoreMessage(nextMessageID++, 50), queue);
+      ref.setScheduledDeliveryTime(firstDeliveryTime + random.nextLong(TimeUnit.HOURS.toMillis(1)));
+      if (!handler.checkAndSchedule(ref, true)) {
+         throw new IllegalStateException("the reference should have been scheduled");
+      }
+      return ref;
+   }
+
+   @Benchmark
+   public MessageReference scheduleAndRemove() throws Exception {
+      final MessageReference removed = handler.removeReferenceWithID(references[next].getMessageID());
+      references[next] = schedule();
+      next = next + 1 == scheduled ? 0 : next + 1;
+      return removed;
+   }
+
+   @TearDown
+   public void shutdown() {
+      scheduledExecutor.shutdownNow();
+   }
+
+}
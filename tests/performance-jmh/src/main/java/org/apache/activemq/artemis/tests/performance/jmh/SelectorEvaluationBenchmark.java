@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.jmh;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.selector.filter.BooleanExpression;
+import org.apache.activemq.artemis.selector.filter.Filterable;
+import org.apache.activemq.artemis.selector.filter.SelectorCompiler;
+import org.apache.activemq.artemis.selector.impl.SelectorParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares evaluating a parsed selector against evaluating the same selector compiled by {@link SelectorCompiler}.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 8, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SelectorEvaluationBenchmark {
+
+   @Param({"region = 'EU'",
+           "region IN ('US', 'EU', 'APAC') AND priority > 2",
+           "(region = 'US' OR region = 'EU') AND priority BETWEEN 2 AND 7 AND price < 10.5 AND NOT (type = 'test')",
+           "region LIKE 'E%' AND priority > 2"})
+   private String selector;
+
+   private BooleanExpression interpreted;
+
+   private BooleanExpression compiled;
+
+   private Filterable message;
+
+   @Setup
+   public void init() throws Exception {
+      interpreted = SelectorParser.parse(selector);
+      compiled = SelectorCompiler.compile(SelectorParser.parse(selector));
+      final Map<SimpleString, Object> properties = new HashMap<>();
+      properties.put(SimpleString.of("region"), "EU");
+      properties.put(SimpleString.of("priority"), 4);
+      properties.put(SimpleString.of("price"), 9.99d);
+      properties.put(SimpleString.of("type"), "order");
+      message = new Filterable() {
+         @Override
+         public <T> T getBodyAs(Class<T> type) {
+            return null;
+         }
+
+         @Override
+         public Object getProperty(SimpleString name) {
+            return properties.get(name);
+         }
+
+         @Override
+         public Object getLocalConnectionId() {
+            return null;
+         }
+      };
+   }
+
+   @Benchmark
+   public boolean interpreted() throws Exception {
+      return interpreted.matches(message);
+   }
+
+   @Benchmark
+   public boolean compiled() throws Exception {
+      return compiled.matches(message);
+   }
+
+}
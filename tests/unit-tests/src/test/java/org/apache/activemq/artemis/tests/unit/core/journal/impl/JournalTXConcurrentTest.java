@@ -26,11 +26,10 @@ import java.util.concurrent.TimeUnit;
 
 import org.apache.activemq.artemis.core.journal.IOCompletion;
 import org.apache.activemq.artemis.core.journal.impl.JournalCompactor;
-import org.apache.activemq.artemis.core.journal.impl.JournalRecord;
+import org.apache.activemq.artemis.core.journal.impl.JournalRecordIndex;
 import org.apache.activemq.artemis.core.journal.impl.JournalRecordProvider;
 import org.apache.activemq.artemis.core.journal.impl.JournalTransaction;
 import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
-import org.apache.activemq.artemis.utils.collections.ConcurrentLongHashMap;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -94,7 +93,7 @@ public class JournalTXConcurrentTest extends ActiveMQTestBase {
          }
 
          @Override
-         public ConcurrentLongHashMap<JournalRecord> getRecords() {
+         public JournalRecordIndex getRecords() {
             return null;
          }
       };
@@ -601,4 +601,47 @@ public class TimedBufferTest extends ActiveMQTestBase {
       }
 
    }
+
+   @Test
+   public void testFlushMetrics() {
+      class TestObserver implements TimedBufferObserver {
+
+         @Override
+         public void flushBuffer(final ByteBuf byteBuf, final boolean sync, final List<IOCallback> callbacks) {
+            for (IOCallback callback : callbacks) {
+               callback.done();
+            }
+         }
+
+         @Override
+         public int getRemainingBytes() {
+            return 1024 * 1024;
+         }
+      }
+
+      TimedBuffer timedBuffer = new TimedBuffer(null, 1000, TimedBufferTest.ONE_SECOND_IN_NANOS, false);
+
+      timedBuffer.start();
+
+      try {
+         timedBuffer.setObserver(new TestObserver());
+
+         ActiveMQBuffer buff = ActiveMQBuffers.wrappedBuffer(new byte[100]);
+         for (int i = 0; i < 6; i++) {
+            timedBuffer.checkSize(100);
+            timedBuffer.addBytes(buff, false, dummyCallback);
+         }
+         timedBuffer.flush();
+
+         assertEquals(1, timedBuffer.getFlushes());
+         assertEquals(600, timedBuffer.getBytesFlushed());
+         assertEquals(0, timedBuffer.getFlushSizes().getCumulativeCount(0));
+         assertEquals(1, timedBuffer.getFlushSizes().getCumulativeCount(1));
+         assertEquals(600, timedBuffer.getFlushSizes().getSum());
+         assertEquals(1, timedBuffer.getFlushWaitTimes().getCount());
+         assertEquals(TimedBufferTest.ONE_SECOND_IN_NANOS, timedBuffer.getFlushWindow());
+      } finally {
+         timedBuffer.stop();
+      }
+   }
 }
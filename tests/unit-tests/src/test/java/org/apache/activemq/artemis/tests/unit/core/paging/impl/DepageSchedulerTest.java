@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.unit.core.paging.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.activemq.artemis.core.paging.DepageScheduler;
+import org.apache.activemq.artemis.core.paging.impl.DepageSchedulerImpl;
+import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
+import org.apache.activemq.artemis.utils.ActiveMQThreadFactory;
+import org.apache.activemq.artemis.utils.Wait;
+import org.junit.jupiter.api.Test;
+
+public class DepageSchedulerTest extends ActiveMQTestBase {
+
+   @Test
+   public void testMaxConcurrency() throws Exception {
+      final DepageScheduler scheduler = new DepageSchedulerImpl(2);
+      final ExecutorService executor = Executors.newFixedThreadPool(4, ActiveMQThreadFactory.defaultThreadFactory(getClass().getName()));
+      runAfter(executor::shutdownNow);
+
+      final CountDownLatch release = new CountDownLatch(1);
+      final CountDownLatch done = new CountDownLatch(4);
+      final AtomicInteger started = new AtomicInteger();
+      for (int i = 0; i < 4; i++) {
+         scheduler.newLane(executor, () -> 1).schedule(() -> {
+            started.incrementAndGet();
+            try {
+               release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+            } finally {
+               done.countDown();
+            }
+         });
+      }
+
+      Wait.assertEquals(2, started::get, 5000, 10);
+      // the other lanes wait for one of the running depages to finish
+      Thread.sleep(100);
+      assertEquals(2, started.get());
+      assertEquals(2, scheduler.getRunning());
+
+      release.countDown();
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+      Wait.assertEquals(0, scheduler::getRunning, 5000, 10);
+      assertEquals(4, started.get());
+   }
+
+   @Test
+   public void testWeightedTurns() {
+      final DepageScheduler scheduler = new DepageSchedulerImpl(1);
+      final Queue<Runnable> executor = new ArrayDeque<>();
+      final List<String> order = new ArrayList<>();
+
+      final DepageScheduler.Lane heavy = scheduler.newLane(executor::add, () -> 3);
+      final DepageScheduler.Lane light = scheduler.newLane(executor::add, () -> 1);
+      for (int i = 0; i < 8; i++) {
+         heavy.schedule(() -> order.add("heavy"));
+      }
+      for (int i = 0; i < 8; i++) {
+         light.schedule(() -> order.add("light"));
+      }
+
+      Runnable task;
+      while ((task = executor.poll()) != null) {
+         // a single depage is handed to the executors at a time
+         assertTrue(executor.isEmpty());
+         task.run();
+      }
+
+      assertEquals(16, order.size());
+      assertEquals(0, heavy.getPending());
+      assertEquals(0, light.getPending());
+      // while both lanes are waiting the heavy one gets three turns for each turn of the light one
+      final List<String> firstTurns = order.subList(0, 8);
+      assertEquals(6, firstTurns.stream().filter("heavy"::equals).count());
+      assertEquals(2, firstTurns.stream().filter("light"::equals).count());
+   }
+
+   @Test
+   public void testIdleLaneDoesNotBankTurns() {
+      final DepageScheduler scheduler = new DepageSchedulerImpl(1);
+      final Queue<Runnable> executor = new ArrayDeque<>();
+      final List<String> order = new ArrayList<>();
+
+      final DepageScheduler.Lane busy = scheduler.newLane(executor::add, () -> 1);
+      final DepageScheduler.Lane idle = scheduler.newLane(executor::add, () -> 1);
+      for (int i = 0; i < 10; i++) {
+         busy.schedule(() -> order.add("busy"));
+      }
+      for (int i = 0; i < 5; i++) {
+         executor.poll().run();
+      }
+
+      // the idle lane starts from the current pass rather than from where it was left
+      for (int i = 0; i < 4; i++) {
+         idle.schedule(() -> order.add("idle"));
+      }
+      Runnable task;
+      while ((task = executor.poll()) != null) {
+         task.run();
+      }
+
+      assertEquals(List.of("busy", "busy", "busy", "busy", "busy", "busy", "idle", "busy", "idle", "busy", "idle", "busy", "idle", "busy"), order);
+   }
+}
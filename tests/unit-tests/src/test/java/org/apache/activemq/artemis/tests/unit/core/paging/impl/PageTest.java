@@ -17,8 +17,13 @@
 package org.apache.activemq.artemis.tests.unit.core.paging.impl;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.File;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.concurrent.ExecutorService;
@@ -28,12 +33,14 @@ import org.apache.activemq.artemis.api.core.ICoreMessage;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.io.SequentialFile;
 import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.io.mapped.MappedSequentialFileFactory;
 import org.apache.activemq.artemis.core.io.nio.NIOSequentialFileFactory;
 import org.apache.activemq.artemis.core.message.impl.CoreMessage;
 import org.apache.activemq.artemis.core.message.impl.CoreMessagePersister;
 import org.apache.activemq.artemis.core.paging.PagedMessage;
 import org.apache.activemq.artemis.core.paging.impl.Page;
 import org.apache.activemq.artemis.core.paging.impl.PagedMessageImpl;
+import org.apache.activemq.artemis.core.paging.impl.SharedPageCacheImpl;
 import org.apache.activemq.artemis.core.persistence.StorageManager;
 import org.apache.activemq.artemis.core.persistence.impl.journal.JournalStorageManager;
 import org.apache.activemq.artemis.core.persistence.impl.journal.LargeServerMessageImpl;
@@ -102,6 +109,279 @@ public class PageTest extends ActiveMQTestBase {
       testAdd(new NIOSequentialFileFactory(getTestDirfile(), 1), 1);
    }
 
+   @Test
+   public void testLazyReadWithNIO() throws Exception {
+      recreateDirectory(getTestDir());
+      testLazyRead(new NIOSequentialFileFactory(getTestDirfile(), 1), 1000);
+   }
+
+   @Test
+   public void testPageWithMapped() throws Exception {
+      recreateDirectory(getTestDir());
+      testAdd(new MappedSequentialFileFactory(getTestDirfile(), 1024 * 1024, false, 0, 0, null), 1000);
+   }
+
+   @Test
+   public void testLazyReadWithMapped() throws Exception {
+      recreateDirectory(getTestDir());
+      testLazyRead(new MappedSequentialFileFactory(getTestDirfile(), 1024 * 1024, false, 0, 0, null), 1000);
+   }
+
+   @Test
+   public void testMappedPagePaddingIsNotSuspect() throws Exception {
+      recreateDirectory(getTestDir());
+      final MappedSequentialFileFactory factory = new MappedSequentialFileFactory(getTestDirfile(), 1024 * 1024, false, 0, 0, null);
+      SequentialFile file = factory.createSequentialFile("00010.page");
+      Page page = new Page(SimpleString.of("something"), new NullStorageManager(), factory, file, 10);
+      page.open(true);
+      addPageElements(SimpleString.of("Test"), page, 100, 1);
+      page.sync();
+      final long validSize = file.position();
+      page.close(false);
+
+      // the file keeps the capacity it was mapped with
+      assertTrue(new File(getTestDirfile(), "00010.page").length() > validSize);
+
+      page = new Page(SimpleString.of("something"), new NullStorageManager(), factory, factory.createSequentialFile("00010.page"), 10);
+      page.load();
+
+      assertEquals(100, page.getNumberOfMessages());
+      assertEquals(validSize, page.getSize());
+      assertNull(page.getMessage(100));
+
+      page.delete(null);
+      assertFalse(new File(getTestDirfile(), "00010.page.invalidPage").exists());
+      assertFalse(new File(getTestDirfile(), "00010.page").exists());
+   }
+
+   @Test
+   public void testSharedWindowWithNIO() throws Exception {
+      recreateDirectory(getTestDir());
+      final NIOSequentialFileFactory factory = new NIOSequentialFileFactory(getTestDirfile(), 1);
+      SequentialFile file = factory.createSequentialFile("00010.page");
+      Page page = new Page(SimpleString.of("something"), new NullStorageManager(), factory, file, 10);
+      page.open(true);
+      addPageElements(SimpleString.of("Test"), page, 100, 1);
+      page.sync();
+      page.close(false, false);
+
+      page = new Page(SimpleString.of("something"), new NullStorageManager(), factory, factory.createSequentialFile("00010.page"), 10);
+      page.load();
+
+      // iterators within the window of each other get the messages decoded by the first one
+      try (LinkedListIterator<PagedMessage> first = page.iterator(null, 10);
+           LinkedListIterator<PagedMessage> second = page.iterator(null, 10)) {
+         final PagedMessage[] read = new PagedMessage[100];
+         for (int i = 0; i < 100; i++) {
+            read[i] = first.next();
+            assertEquals(i, read[i].getMessageNumber());
+            if (i >= 5) {
+               assertSame(read[i - 5], second.next());
+            }
+         }
+         for (int i = 95; i < 100; i++) {
+            assertSame(read[i], second.next());
+         }
+         assertFalse(second.hasNext());
+      }
+
+      // an iterator falling behind the window decodes the messages again
+      try (LinkedListIterator<PagedMessage> first = page.iterator(null, 10);
+           LinkedListIterator<PagedMessage> second = page.iterator(null, 10)) {
+         final PagedMessage firstMessage = first.next();
+         for (int i = 1; i <= 10; i++) {
+            first.next();
+         }
+         final PagedMessage decodedAgain = second.next();
+         assertEquals(0, decodedAgain.getMessageNumber());
+         assertNotSame(firstMessage, decodedAgain);
+      }
+
+      // iterators without a window never share what they decode
+      try (LinkedListIterator<PagedMessage> first = page.iterator(null, 0);
+           LinkedListIterator<PagedMessage> second = page.iterator(null, 0)) {
+         assertNotSame(first.next(), second.next());
+      }
+
+      page.delete(null);
+   }
+
+   @Test
+   public void testLazyReadFakeWithoutMapping() throws Exception {
+      testLazyRead(new FakeSequentialFileFactory(1, false), 100);
+   }
+
+   @Test
+   public void testLazyReadDamagedDataWithNIO() throws Exception {
+      recreateDirectory(getTestDir());
+      final NIOSequentialFileFactory factory = new NIOSequentialFileFactory(getTestDirfile(), 1);
+      SequentialFile file = factory.createSequentialFile("00010.page");
+      Page page = new Page(SimpleString.of("something"), new NullStorageManager(), factory, file, 10);
+      page.open(true);
+      addPageElements(SimpleString.of("Test"), page, 100, 1);
+      page.sync();
+      final long validSize = file.position();
+
+      // an incomplete record at the end of the file
+      file.writeDirect(ByteBuffer.wrap(new byte[] {'{', 0, 0, 1, 0}), true);
+      page.close(false);
+
+      page = new Page(SimpleString.of("something"), new NullStorageManager(), factory, factory.createSequentialFile("00010.page"), 10);
+      page.load();
+
+      assertEquals(100, page.getNumberOfMessages());
+      assertEquals(validSize, page.getSize());
+      assertEquals(100, page.getMessage(99).getMessage().getMessageID());
+      assertNull(page.getMessage(100));
+   }
+
+   @Test
+   public void testLazyReadUnloadedWhileIteratingWithNIO() throws Exception {
+      recreateDirectory(getTestDir());
+      final NIOSequentialFileFactory factory = new NIOSequentialFileFactory(getTestDirfile(), 1);
+      Page page = new Page(SimpleString.of("something"), new NullStorageManager(), factory, factory.createSequentialFile("00010.page"), 10);
+      page.open(true);
+      addPageElements(SimpleString.of("Test"), page, 100, 1);
+      page.sync();
+      page.close(false, false);
+
+      page = new Page(SimpleString.of("something"), new NullStorageManager(), factory, factory.createSequentialFile("00010.page"), 10);
+      page.load();
+
+      int read = 0;
+      try (LinkedListIterator<PagedMessage> iter = page.iterator()) {
+         assertEquals(1, iter.next().getMessage().getMessageID());
+         read++;
+         // the open iterator keeps the file mapped
+         page.unload();
+         while (iter.hasNext()) {
+            assertEquals(read + 1, iter.next().getMessage().getMessageID());
+            read++;
+         }
+      }
+      assertEquals(100, read);
+
+      // mapped again on access
+      assertEquals(50, page.getMessage(49).getMessage().getMessageID());
+      page.unload();
+   }
+
+   protected void testLazyRead(final SequentialFileFactory factory, final int numberOfElements) throws Exception {
+      SequentialFile file = factory.createSequentialFile("00010.page");
+      Page page = new Page(SimpleString.of("something"), new NullStorageManager(), factory, file, 10);
+      page.open(true);
+      final SimpleString simpleDestination = SimpleString.of("Test");
+      addPageElements(simpleDestination, page, numberOfElements, 1);
+      page.sync();
+      page.close(false, false);
+
+      page = new Page(SimpleString.of("something"), new NullStorageManager(), factory, factory.createSequentialFile("00010.page"), 10);
+      page.load();
+
+      assertEquals(numberOfElements, page.getNumberOfMessages());
+
+      int read = 0;
+      try (LinkedListIterator<PagedMessage> iter = page.iterator()) {
+         while (iter.hasNext()) {
+            final PagedMessage pagedMessage = iter.next();
+            assertEquals(read, pagedMessage.getMessageNumber());
+            assertEquals(10, pagedMessage.getPageNumber());
+            assertEquals(simpleDestination, pagedMessage.getMessage().getAddressSimpleString());
+            assertEquals(read + 1, pagedMessage.getMessage().getMessageID());
+            read++;
+         }
+      }
+      assertEquals(numberOfElements, read);
+
+      // the page may or may not skip the messages it is told to, but it can't skip any other
+      int notSkipped = 0;
+      try (LinkedListIterator<PagedMessage> iter = page.iterator(messageNumber -> messageNumber % 3 != 0)) {
+         while (iter.hasNext()) {
+            final PagedMessage pagedMessage = iter.next();
+            if (pagedMessage.getMessageNumber() % 3 == 0) {
+               assertEquals(pagedMessage.getMessageNumber() + 1, pagedMessage.getMessage().getMessageID());
+               notSkipped++;
+            }
+         }
+      }
+      assertEquals((numberOfElements + 2) / 3, notSkipped);
+
+      for (int messageNumber : new int[] {0, numberOfElements / 2, numberOfElements - 1}) {
+         final PagedMessage pagedMessage = page.getMessage(messageNumber);
+         assertEquals(messageNumber, pagedMessage.getMessageNumber());
+         assertEquals(messageNumber + 1, pagedMessage.getMessage().getMessageID());
+      }
+      assertNull(page.getMessage(numberOfElements));
+
+      page.delete(null);
+   }
+
+   @Test
+   public void testSharedPageCacheEvictionWithNIO() throws Exception {
+      recreateDirectory(getTestDir());
+      testSharedPageCacheEviction(new NIOSequentialFileFactory(getTestDirfile(), 1));
+   }
+
+   @Test
+   public void testSharedPageCacheEvictionFakeWithoutMapping() throws Exception {
+      testSharedPageCacheEviction(new FakeSequentialFileFactory(1, false));
+   }
+
+   protected void testSharedPageCacheEviction(final SequentialFileFactory factory) throws Exception {
+      final int numberOfElements = 100;
+      final Page[] pages = new Page[3];
+      for (int i = 0; i < pages.length; i++) {
+         Page page = new Page(SimpleString.of("something"), new NullStorageManager(), factory, factory.createSequentialFile(i + ".page"), i);
+         page.open(true);
+         addPageElements(SimpleString.of("Test"), page, numberOfElements, 1);
+         page.sync();
+         page.close(false, false);
+      }
+
+      // the mapped bytes or the memory estimate of the messages, depending on the factory, the same for every page
+      final SharedPageCacheImpl unbounded = new SharedPageCacheImpl(-1);
+      final Page probe = new Page(SimpleString.of("something"), new NullStorageManager(), factory, factory.createSequentialFile("0.page"), 0);
+      probe.setSharedCache(unbounded);
+      probe.load();
+      final long pageSize = unbounded.getSize();
+      assertTrue(pageSize > 0);
+      assertTrue(unbounded.getMappedSize() == pageSize || unbounded.getHeapSize() == pageSize);
+      probe.unload();
+      assertEquals(0, unbounded.getSize());
+
+      // room for two pages only
+      final SharedPageCacheImpl cache = new SharedPageCacheImpl(pageSize * 2);
+      for (int i = 0; i < pages.length; i++) {
+         pages[i] = new Page(SimpleString.of("something"), new NullStorageManager(), factory, factory.createSequentialFile(i + ".page"), i);
+         pages[i].setSharedCache(cache);
+      }
+
+      pages[0].load();
+      pages[1].load();
+      assertEquals(pageSize * 2, cache.getSize());
+      assertEquals(0, cache.getEvictions());
+
+      // the recently read page gets a second chance, the other one is unloaded
+      assertEquals(1, pages[0].getMessage(0).getMessage().getMessageID());
+      assertEquals(1, cache.getHits());
+      pages[2].load();
+      assertEquals(1, cache.getEvictions());
+      assertEquals(pageSize * 2, cache.getSize());
+      assertEquals(3, cache.getMisses());
+
+      // an evicted page is read again from its file
+      assertEquals(numberOfElements, pages[1].getMessage(numberOfElements - 1).getMessage().getMessageID());
+      assertEquals(4, cache.getMisses());
+      assertEquals(2, cache.getEvictions());
+      assertEquals(2, cache.getPageCount());
+
+      for (Page page : pages) {
+         page.unload();
+      }
+      assertEquals(0, cache.getSize());
+      assertEquals(0, cache.getPageCount());
+   }
+
    /**
     * Validate if everything we add is recovered
     */
@@ -21,6 +21,7 @@ import java.lang.invoke.MethodHandles;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -34,6 +35,7 @@ import org.apache.activemq.artemis.api.core.Message;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.io.SequentialFile;
 import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.io.mapped.MappedSequentialFileFactory;
 import org.apache.activemq.artemis.core.io.nio.NIOSequentialFileFactory;
 import org.apache.activemq.artemis.core.message.impl.CoreMessage;
 import org.apache.activemq.artemis.core.message.impl.CoreMessagePersister;
@@ -261,6 +263,63 @@ public class PagingStoreImplTest extends ActiveMQTestBase {
 
    }
 
+   @Test
+   public void testPageReadAhead() throws Exception {
+      SequentialFileFactory factory = new NIOSequentialFileFactory(getTestDirfile(), 1);
+
+      PagingStoreFactory storeFactory = new FakeStoreFactory(factory) {
+         @Override
+         public Executor newExecutor() {
+            return orderedExecutorFactory.getExecutor();
+         }
+      };
+
+      AddressSettings settings = new AddressSettings().setAddressFullMessagePolicy(AddressFullMessagePolicy.PAGE).setPageReadAhead(2);
+      PagingStoreImpl storeImpl = new PagingStoreImpl(PagingStoreImplTest.destinationTestName, scheduledExecutorService, 100, createMockManager(), nullStorageManager, factory, storeFactory, PagingStoreImplTest.destinationTestName, settings, orderedExecutorFactory.getExecutor(), true);
+
+      storeImpl.start();
+      storeImpl.startPaging();
+
+      for (int i = 0; i < 50; i++) {
+         writePageMessage(storeImpl, i);
+         if (i % 10 == 9) {
+            storeImpl.forceAnotherPage(true);
+         }
+      }
+      assertEquals(6, storeImpl.getNumberOfPages());
+
+      Page page = storeImpl.usePageReadingAhead(1);
+      assertTrue(page.isLoaded());
+
+      // the two pages following the one being read are loaded in the background
+      Wait.assertEquals(2, () -> PagingStoreTestAccessor.getReadAheadPages(storeImpl), 5000, 10);
+      for (long pageId = 2; pageId <= 3; pageId++) {
+         Page readAhead = storeImpl.usePage(pageId, false);
+         assertNotNull(readAhead);
+         Wait.assertTrue(readAhead::isLoaded, 5000, 10);
+         readAhead.usageDown();
+      }
+      assertNull(storeImpl.usePage(4, false));
+
+      // moving to a page read ahead hands it over to the cursor and reads the next one ahead
+      page.usageDown();
+      page = storeImpl.usePageReadingAhead(2);
+      assertTrue(page.isLoaded());
+      Wait.assertEquals(2, () -> PagingStoreTestAccessor.getReadAheadPages(storeImpl), 5000, 10);
+      Page readAhead = storeImpl.usePage(4, false);
+      assertNotNull(readAhead);
+      readAhead.usageDown();
+
+      // the page being written is never read ahead, pages 3 and 4 are still held for the cursors
+      page.usageDown();
+      page = storeImpl.usePageReadingAhead(5);
+      assertEquals(2, PagingStoreTestAccessor.getReadAheadPages(storeImpl));
+      page.usageDown();
+
+      storeImpl.stop();
+      assertEquals(0, PagingStoreTestAccessor.getReadAheadPages(storeImpl));
+   }
+
    @Test
    public void testRemoveInTheMiddle() throws Exception {
       SequentialFileFactory factory = new NIOSequentialFileFactory(getTestDirfile(), 1);
@@ -862,6 +921,59 @@ public class PagingStoreImplTest extends ActiveMQTestBase {
       storeImpl.stop();
    }
 
+   @Test
+   public void testRestartPreallocatedPage() throws Exception {
+      clearDataRecreateServerDirs();
+      final int MAX_SIZE = 1024 * 1024;
+
+      SequentialFileFactory factory = new MappedSequentialFileFactory(new File(getPageDir()), MAX_SIZE, false, 0, 0, null);
+
+      PagingStoreFactory storeFactory = new FakeStoreFactory(factory) {
+         @Override
+         public boolean isPageFilePreallocated() {
+            return true;
+         }
+      };
+
+      AddressSettings settings = new AddressSettings().setPageSizeBytes(MAX_SIZE).setAddressFullMessagePolicy(AddressFullMessagePolicy.PAGE);
+
+      final PagingStore storeImpl = new PagingStoreImpl(PagingStoreImplTest.destinationTestName, scheduledExecutorService, 100, createMockManager(), nullStorageManager, factory, storeFactory, SimpleString.of("test"), settings, orderedExecutorFactory.getExecutor(), true);
+
+      storeImpl.start();
+      storeImpl.startPaging();
+
+      int num1 = 20;
+      for (int i = 0; i < num1; i++) {
+         writePageMessage(storeImpl, i);
+      }
+      final long pageId = storeImpl.getCurrentWritingPage();
+      storeImpl.stop();
+
+      // the zeroed tail of the page file doesn't make the page incomplete: the messages are appended to it
+      storeImpl.start();
+      assertEquals(pageId, storeImpl.getCurrentWritingPage());
+      int num2 = 10;
+      for (int i = 0; i < num2; i++) {
+         writePageMessage(storeImpl, i + num1);
+      }
+      storeImpl.stop();
+
+      storeImpl.start();
+      assertEquals(pageId, storeImpl.getCurrentWritingPage());
+      assertEquals(1, storeImpl.getNumberOfPages());
+
+      Page page = depageOnExecutor(storeImpl);
+      assertNotNull(page);
+      page.open(true);
+      LinkedList<PagedMessage> messages = page.read(nullStorageManager);
+      page.close(false);
+      assertEquals(num1 + num2, messages.size());
+      AtomicLong msgsRead = new AtomicLong(0);
+      messages.forEach(pgmsg -> assertEquals(msgsRead.getAndIncrement(), pgmsg.getMessage().getLongProperty("count").longValue()));
+
+      storeImpl.stop();
+   }
+
    @Test
    public void testLogStartPaging() throws Exception {
       SequentialFileFactory factory = new FakeSequentialFileFactory();
@@ -1212,7 +1324,7 @@ public class PagingStoreImplTest extends ActiveMQTestBase {
       super.tearDown();
    }
 
-   static final class FakeStoreFactory implements PagingStoreFactory {
+   static class FakeStoreFactory implements PagingStoreFactory {
 
       final SequentialFileFactory factory;
 
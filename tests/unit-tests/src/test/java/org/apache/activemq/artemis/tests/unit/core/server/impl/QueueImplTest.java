@@ -24,10 +24,13 @@ import static org.junit.jupiter.api.Assertions.fail;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -52,6 +55,7 @@ import org.apache.activemq.artemis.core.server.Consumer;
 import org.apache.activemq.artemis.core.server.HandleStatus;
 import org.apache.activemq.artemis.core.server.MessageReference;
 import org.apache.activemq.artemis.core.server.Queue;
+import org.apache.activemq.artemis.core.server.ServerConsumer;
 import org.apache.activemq.artemis.core.server.impl.QueueImpl;
 import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
 import org.apache.activemq.artemis.selector.filter.Filterable;
@@ -61,11 +65,13 @@ import org.apache.activemq.artemis.tests.unit.core.server.impl.fakes.FakePostOff
 import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
 import org.apache.activemq.artemis.utils.ActiveMQThreadFactory;
 import org.apache.activemq.artemis.utils.FutureLatch;
+import org.apache.activemq.artemis.utils.Wait;
 import org.apache.activemq.artemis.utils.actors.ArtemisExecutor;
 import org.apache.activemq.artemis.utils.collections.LinkedListIterator;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.lang.invoke.MethodHandles;
@@ -1467,6 +1473,73 @@ public class QueueImplTest extends ActiveMQTestBase {
       assertEquals(1, queue.getMessageCount(), "The second message should be in the queue");
    }
 
+   @Test
+   public void testDeliveryShards() throws Exception {
+      defaultServer.getAddressSettingsRepository().addMatch(address1.toString(), new AddressSettings().setDeliveryShards(4));
+      final QueueImpl queue = new QueueImpl(QueueConfiguration.of(QueueImplTest.queue1).setAddress(address1).setRoutingType(RoutingType.MULTICAST).setId(1L).setDurable(false).setTemporary(true), null, null, null, scheduledExecutor, new FakePostOffice(), null, defaultServer.getAddressSettingsRepository(), ArtemisExecutor.delegate(executor), defaultServer, null);
+
+      final int numMessages = 1000;
+      final List<FakeConsumer> consumers = new ArrayList<>();
+      final Map<FakeConsumer, List<MessageReference>> delivered = new ConcurrentHashMap<>();
+      for (int i = 0; i < 8; i++) {
+         final List<MessageReference> references = Collections.synchronizedList(new ArrayList<>());
+         final FakeConsumer consumer = new FakeConsumer() {
+            @Override
+            public void proceedDeliver(MessageReference ref) {
+               references.add(ref);
+            }
+         };
+         delivered.put(consumer, references);
+         consumers.add(consumer);
+         queue.addConsumer(consumer);
+      }
+
+      for (int i = 0; i < numMessages; i++) {
+         final MessageReference ref = generateReference(queue, i);
+         ref.getMessage().putStringProperty(Message.HDR_GROUP_ID, SimpleString.of("group-" + i % 16));
+         queue.addTail(ref);
+      }
+      queue.deliverNow();
+
+      Wait.assertEquals(numMessages, () -> delivered.values().stream().mapToInt(List::size).sum());
+      final Map<Object, FakeConsumer> groups = new HashMap<>();
+      for (FakeConsumer consumer : consumers) {
+         // every consumer got its messages in the order they were handled, and so the messages of each group in order
+         assertEquals(consumer.getReferences(), delivered.get(consumer));
+         for (MessageReference ref : delivered.get(consumer)) {
+            assertEquals(consumer, groups.computeIfAbsent(ref.getMessage().getGroupID(), group -> consumer));
+         }
+      }
+   }
+
+   @Test
+   public void testAckBatch() throws Exception {
+      defaultServer.getAddressSettingsRepository().addMatch(address1.toString(), new AddressSettings().setAckBatchSize(16));
+      final QueueImpl queue = new QueueImpl(QueueConfiguration.of(QueueImplTest.queue1).setAddress(address1).setRoutingType(RoutingType.MULTICAST).setId(1L).setDurable(false).setTemporary(true), null, null, null, scheduledExecutor, new FakePostOffice(), defaultServer.getStorageManager(), defaultServer.getAddressSettingsRepository(), ArtemisExecutor.delegate(executor), defaultServer, null);
+      final FakeConsumer consumer = new FakeConsumer();
+      queue.addConsumer(consumer);
+
+      final int numMessages = 100;
+      for (int i = 0; i < numMessages; i++) {
+         queue.addTail(generateReference(queue, i));
+      }
+      queue.deliverNow();
+      assertEquals(numMessages, consumer.getReferences().size());
+
+      final long batched = defaultServer.getAckBatchSizes().getSum();
+      final ServerConsumer serverConsumer = Mockito.mock(ServerConsumer.class);
+      for (MessageReference ref : consumer.getReferences()) {
+         assertTrue(queue.acknowledgeBatched(ref, serverConsumer));
+      }
+
+      Wait.assertEquals((long) numMessages, queue::getMessagesAcknowledged);
+      assertEquals(0, queue.getDeliveringCount());
+      assertEquals(numMessages, defaultServer.getAckBatchSizes().getSum() - batched);
+
+      // without a batch size the caller acknowledges the reference itself
+      assertFalse(getNonDurableQueue().acknowledgeBatched(generateReference(queue, numMessages), serverConsumer));
+   }
+
    private QueueImpl getNonDurableQueue() {
       return getQueue(QueueImplTest.queue1, false, false, null);
    }